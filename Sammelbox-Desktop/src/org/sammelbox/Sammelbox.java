@@ -21,8 +21,12 @@ package org.sammelbox;
 import java.io.File;
 import java.io.RandomAccessFile;
 import java.nio.channels.FileChannel;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.sammelbox.controller.filesystem.FileDeletionQueue;
 import org.sammelbox.controller.filesystem.FileSystemAccessWrapper;
 import org.sammelbox.controller.filesystem.FileSystemLocations;
 import org.sammelbox.controller.i18n.DictKeys;
@@ -32,6 +36,8 @@ import org.sammelbox.controller.managers.ConnectionManager;
 import org.sammelbox.controller.managers.SettingsManager;
 import org.sammelbox.controller.managers.WelcomePageManager;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseConstants;
+import org.sammelbox.model.database.operations.DatabaseOperations;
 import org.sammelbox.view.ApplicationUI;
 import org.sammelbox.view.various.ComponentFactory;
 import org.slf4j.Logger;
@@ -40,6 +46,10 @@ import org.slf4j.LoggerFactory;
 public final class Sammelbox {
 	public static final String ORG_SQLITE_JDBC = "org.sqlite.JDBC";
 	private static final Logger LOGGER = LoggerFactory.getLogger(Sammelbox.class);
+	/** The delay after which the first album is migrated into the lean row format, such that the user interface is shown first */
+	private static final int MIGRATION_START_DELAY_IN_MILLISECONDS = 5000;
+	/** The pause between the migration of two albums, during which the user interface handles the pending events */
+	private static final int MIGRATION_PAUSE_IN_MILLISECONDS = 1000;
 	
 	private Sammelbox() {
 		// Sammelbox is launched using the main method
@@ -67,6 +77,53 @@ public final class Sammelbox {
 		}
 	}
 	
+	/** Migrates the albums stored in the row format v1 into the lean row format once the user interface is shown. The albums are
+	 * migrated one by one on the user interface thread, such that a migration never interleaves with changes made by the user,
+	 * with a pause between two albums. Until an album is migrated, it is read and written in the row format v1.
+	 * @param display the display of the user interface, whose event loop runs the migrations */
+	private static void scheduleMigrationToLeanRowFormat(final Display display) {
+		final Set<String> failedAlbums = new HashSet<String>();
+		
+		display.timerExec(MIGRATION_START_DELAY_IN_MILLISECONDS, new Runnable() {
+			@Override
+			public void run() {
+				String albumName = getNextAlbumToMigrate(failedAlbums);
+				if (albumName == null) {
+					return;
+				}
+				
+				try {
+					if (DatabaseOperations.changeRowFormat(albumName, DatabaseConstants.ROW_FORMAT_V2)) {
+						LOGGER.info("The album " + albumName + " has been migrated into the lean row format");
+					}
+				} catch (DatabaseWrapperOperationException dwoe) {
+					LOGGER.error("The album " + albumName + " could not be migrated into the lean row format", dwoe);
+					failedAlbums.add(albumName);
+				}
+				
+				if (!display.isDisposed()) {
+					display.timerExec(MIGRATION_PAUSE_IN_MILLISECONDS, this);
+				}
+			}
+		});
+	}
+	
+	/** Returns the next album stored in the row format v1, or null if all albums except the failed ones have been migrated. 
+	 * The albums are listed anew each time, since they might have been renamed, removed or restored in the meantime */
+	private static String getNextAlbumToMigrate(Set<String> failedAlbums) {
+		try {
+			for (String albumName : DatabaseOperations.getListOfAllAlbums()) {
+				if (!failedAlbums.contains(albumName) && DatabaseOperations.getRowFormat(albumName) == DatabaseConstants.ROW_FORMAT_V1) {
+					return albumName;
+				}
+			}
+		} catch (DatabaseWrapperOperationException dwoe) {
+			LOGGER.error("The albums to be migrated into the lean row format could not be listed", dwoe);
+		}
+		
+		return null;
+	}
+	
 	/** Initializes and launches Sammelbox */
 	static void launch() {
 		// check whether Sammelbox home is installed to a non default configuration
@@ -96,6 +153,12 @@ public final class Sammelbox {
 			if (fileChannel.tryLock() != null) {
 				// Initialize the Database connection
 				setupConnectionAndFilesystem();
+				
+				// Delete the files whose deletion has been interrupted when Sammelbox stopped
+				FileDeletionQueue.resume();
+				
+				// Albums created by earlier versions are migrated into the lean row format one by one once the user interface is shown
+				scheduleMigrationToLeanRowFormat(Display.getDefault());
 
 				// create the shell and show the user interface. This blocks until the shell is closed
 				ApplicationUI.initialize();
@@ -0,0 +1,233 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+
+package org.sammelbox.controller.filesystem;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deletes files and directories on a background worker, such that removing many pictures does not block the UI thread.
+ * Every path is appended to a journal in the app data directory before it is handed to the worker, and the journal is
+ * removed as soon as all submitted paths have been deleted. Paths which have not been deleted when Sammelbox stopped
+ * are therefore deleted by {@link #resume()} at the next start. Deleting a path twice does no harm.<br>
+ * Directories are renamed before they are deleted, such that a new directory of the same name (e.g. of a recreated album)
+ * is never affected by a pending deletion.
+ */
+public final class FileDeletionQueue {
+	private static final Logger LOGGER = LoggerFactory.getLogger(FileDeletionQueue.class);
+	/** Separates the name of a directory to be deleted from the unique suffix it is renamed with */
+	static final String DELETED_DIRECTORY_INFIX = ".deleted-";
+
+	private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "FileDeletionWorker");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	/** The number of submitted paths which have not been deleted yet */
+	private static int pendingCount = 0;
+	/** The number of paths deleted by the worker */
+	private static long deletedCount = 0;
+
+	private FileDeletionQueue() {
+		// use static methods
+	}
+
+	/**
+	 * Deletes the given files (or directories) in the background.
+	 * @param paths The absolute paths of the files to be deleted.
+	 */
+	public static synchronized void deleteLater(Collection<String> paths) {
+		if (paths.isEmpty()) {
+			return;
+		}
+
+		appendToJournal(paths);
+		submit(new ArrayList<String>(paths));
+	}
+
+	/**
+	 * Deletes the given directory including its content in the background. The directory is renamed immediately,
+	 * such that a new directory can be created under the same path right away.
+	 * @param directoryPath The absolute path of the directory to be deleted. Nothing happens if it does not exist.
+	 */
+	public static synchronized void deleteDirectoryLater(String directoryPath) {
+		File directory = new File(directoryPath);
+		if (!directory.exists()) {
+			return;
+		}
+
+		// The new name is journaled first, such that a crash right after renaming does not leave the directory behind
+		File renamedDirectory = new File(directoryPath + DELETED_DIRECTORY_INFIX + UUID.randomUUID());
+		List<String> renamedDirectoryPath = Collections.singletonList(renamedDirectory.getAbsolutePath());
+		appendToJournal(renamedDirectoryPath);
+
+		if (directory.renameTo(renamedDirectory)) {
+			submit(renamedDirectoryPath);
+		} else {
+			LOGGER.warn("The directory {} could not be renamed and is therefore deleted immediately", directoryPath);
+			FileSystemAccessWrapper.deleteDirectoryRecursively(directory);
+		}
+	}
+
+	/**
+	 * Hands the paths of the journal, i.e. the paths which have not been deleted before Sammelbox stopped, to the worker.
+	 * Must be called at startup, once the active home directory is known and before any deletion is submitted.
+	 */
+	public static synchronized void resume() {
+		File journal = new File(FileSystemLocations.getFileDeletionJournal());
+		if (!journal.exists()) {
+			return;
+		}
+
+		List<String> journaledPaths = new ArrayList<String>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(journal), Charset.forName("UTF-8")))) {
+			String path;
+			while ((path = reader.readLine()) != null) {
+				if (!path.isEmpty()) {
+					journaledPaths.add(path);
+				}
+			}
+		} catch (IOException e) {
+			LOGGER.error("The journal of pending file deletions could not be read", e);
+			return;
+		}
+
+		LOGGER.info("Resuming the deletion of {} files", journaledPaths.size());
+		if (journaledPaths.isEmpty()) {
+			FileSystemAccessWrapper.deleteFile(journal);
+		} else {
+			submit(journaledPaths);
+		}
+	}
+
+	/**
+	 * Waits until all submitted paths have been deleted, e.g. before the home directory is replaced.
+	 * @param timeoutInMilliseconds The maximum time to wait.
+	 * @return True if no deletion is pending anymore, false if the timeout elapsed before.
+	 * @throws InterruptedException If the waiting thread has been interrupted.
+	 */
+	public static synchronized boolean awaitCompletion(long timeoutInMilliseconds) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutInMilliseconds;
+
+		while (pendingCount > 0) {
+			long remainingTime = deadline - System.currentTimeMillis();
+			if (remainingTime <= 0) {
+				return false;
+			}
+			FileDeletionQueue.class.wait(remainingTime);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Gets the number of submitted paths which have not been deleted yet.
+	 * @return The number of pending deletions.
+	 */
+	public static synchronized int getPendingCount() {
+		return pendingCount;
+	}
+
+	/**
+	 * Gets the number of paths deleted by the worker.
+	 * @return The number of deletions since Sammelbox has been started.
+	 */
+	public static synchronized long getDeletedCount() {
+		return deletedCount;
+	}
+
+	private static void submit(final List<String> paths) {
+		pendingCount += paths.size();
+
+		WORKER.execute(new Runnable() {
+			@Override
+			public void run() {
+				for (String path : paths) {
+					delete(new File(path));
+				}
+				completed(paths.size());
+			}
+		});
+	}
+
+	private static void delete(File file) {
+		if (!file.exists()) {
+			return;
+		}
+
+		boolean isDeleted = file.isDirectory() ? 
+				FileSystemAccessWrapper.deleteDirectoryRecursively(file) : FileSystemAccessWrapper.deleteFile(file);
+		if (!isDeleted) {
+			LOGGER.warn("The file {} could not be deleted", file);
+		}
+	}
+
+	private static synchronized void completed(int numberOfDeletedPaths) {
+		pendingCount -= numberOfDeletedPaths;
+		deletedCount += numberOfDeletedPaths;
+
+		if (pendingCount == 0) {
+			// All journaled paths have been deleted
+			File journal = new File(FileSystemLocations.getFileDeletionJournal());
+			if (journal.exists() && !FileSystemAccessWrapper.deleteFile(journal)) {
+				LOGGER.warn("The journal of pending file deletions could not be removed");
+			}
+			FileDeletionQueue.class.notifyAll();
+		}
+	}
+
+	/** Appends the paths to the journal and forces them to disk before they are deleted */
+	private static void appendToJournal(Collection<String> paths) {
+		try (FileOutputStream journalStream = new FileOutputStream(FileSystemLocations.getFileDeletionJournal(), true)) {
+			Writer writer = new OutputStreamWriter(journalStream, Charset.forName("UTF-8"));
+			for (String path : paths) {
+				writer.write(path);
+				writer.write('\n');
+			}
+			writer.flush();
+			journalStream.getFD().sync();
+		} catch (IOException e) {
+			// The files are deleted nevertheless, only resuming an interrupted deletion is not possible
+			LOGGER.error("The pending file deletions could not be journaled", e);
+		}
+	}
+}
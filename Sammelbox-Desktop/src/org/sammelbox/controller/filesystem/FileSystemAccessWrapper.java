@@ -421,7 +421,8 @@ public final class FileSystemAccessWrapper {
 
 	/**
 	 * Convenience method to erase all content from the default application home directory.
-	 * The home directory as well as the database will still exist after calling this method. 
+	 * The home directory as well as the database will still exist after calling this method. The write-ahead log
+	 * of the database is kept as well, since it might contain committed changes of the open connection.
 	 */
 	public static void clearHomeDirectory() {	
 		File[] files = new File(FileSystemLocations.getActiveHomeDir()).listFiles();
@@ -429,20 +430,35 @@ public final class FileSystemAccessWrapper {
 		for (int i=0; i<files.length; i++) {
 			if (files[i].isDirectory()) {
 				deleteDirectoryRecursively(files[i]);
-			} else if (!files[i].getName().equals(FileSystemLocations.DATABASE_NAME) && !files[i].delete()) {
-				LOGGER.error("Could not delete: " + FileSystemLocations.DATABASE_NAME);
+			} else if (!isDatabaseFile(files[i]) && !files[i].delete()) {
+				LOGGER.error("Could not delete: " + files[i].getName());
 			}
 		}
 	}
+	
+	/** Returns true if the file is the database, its write-ahead log or the index into the write-ahead log */
+	private static boolean isDatabaseFile(File file) {
+		return file.getName().equals(FileSystemLocations.DATABASE_NAME) 
+				|| file.getName().equals(FileSystemLocations.DATABASE_WAL_NAME)
+				|| file.getName().equals(FileSystemLocations.DATABASE_SHARED_MEMORY_NAME);
+	}
 
 	/**
-	 * Convenience method to remove the default application home directory. 
+	 * Convenience method to remove the default application home directory. The database connections must have been closed before.
 	 */
 	public static void removeHomeDirectory() {
 		File homeDirectory = new File(FileSystemLocations.getActiveHomeDir());
 
 		if (homeDirectory.exists()) {
 			FileSystemAccessWrapper.clearHomeDirectory();
+			
+			// Usually removed when the last connection is closed, but left behind if a connection has not been closed properly
+			for (String writeAheadLogFile : new String[] { FileSystemLocations.getDatabaseWalFile(), FileSystemLocations.getDatabaseSharedMemoryFile() }) {
+				File file = new File(writeAheadLogFile);
+				if (file.exists() && !file.delete()) {
+					LOGGER.error("Could not delete: " + file.getName());
+				}
+			}
 
 			File databaseFile = new File(FileSystemLocations.getDatabaseFile());
 
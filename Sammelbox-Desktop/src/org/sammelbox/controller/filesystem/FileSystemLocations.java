@@ -35,6 +35,10 @@ public final class FileSystemLocations {
 	
 	public static final String DATABASE_NAME = "sammelbox.db";
 	public static final String DATABASE_TO_RESTORE_NAME = "sammelbox.restore.db";
+	/** The write-ahead log of the database, which contains the recently committed changes until they are written back into the database */
+	public static final String DATABASE_WAL_NAME = DATABASE_NAME + "-wal";
+	/** The index into the write-ahead log shared by all connections to the database */
+	public static final String DATABASE_SHARED_MEMORY_NAME = DATABASE_NAME + "-shm";
 	public static final String THUMBNAILS_DIR_NAME = "thumbnails";
 	public static final String BACKUPS_DIR_NAME = "backups";
 	public static final String APP_DATA_DIR_NAME = "app-data";
@@ -65,6 +69,8 @@ public final class FileSystemLocations {
 	public static String getAlbumPicturesDir()        { return activeHomeDir + File.separatorChar + ALBUM_PICTURES_DIR_NAME; }
 	public static String getDatabaseFile()            { return activeHomeDir + File.separatorChar + DATABASE_NAME; }
 	public static String getDatabaseRestoreFile()     { return activeHomeDir + File.separatorChar + DATABASE_TO_RESTORE_NAME; }
+	public static String getDatabaseWalFile()         { return activeHomeDir + File.separatorChar + DATABASE_WAL_NAME; }
+	public static String getDatabaseSharedMemoryFile(){ return activeHomeDir + File.separatorChar + DATABASE_SHARED_MEMORY_NAME; }
 	public static String getVersionFilePath()         { return activeHomeDir + File.separatorChar + APP_DATA_DIR_NAME + File.separatorChar + "sammelbox.ver"; }
 	public static String getCssJsDir()                { return activeHomeDir + File.separatorChar + APP_DATA_DIR_NAME + File.separatorChar + CSS_JS_DIR_NAME; }
 	
@@ -88,6 +94,7 @@ public final class FileSystemLocations {
 	public static String getAlbumsXML()               { return getAppDataDir() + File.separatorChar + "albums.xml"; }
 	public static String getSettingsXML()             { return getAppDataDir() + File.separatorChar + "settings.xml"; }
 	public static String getLockFile()                { return getAppDataDir() + File.separatorChar + ".lock"; }
+	public static String getFileDeletionJournal()     { return getAppDataDir() + File.separatorChar + "file-deletion.journal"; }
 	
 	public static String getEffectsJS()               { return getAppDataDir() + File.separatorChar + CSS_JS_DIR_NAME + File.separatorChar + "effects.js"; }
 	public static String getSpreadsheetScripts()      { return getAppDataDir() + File.separatorChar + CSS_JS_DIR_NAME + File.separatorChar + "spreadsheet-scripts.js"; }
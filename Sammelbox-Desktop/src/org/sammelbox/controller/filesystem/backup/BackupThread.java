@@ -2,8 +2,6 @@ package org.sammelbox.controller.filesystem.backup;
 
 import java.io.File;
 import java.io.IOException;
-import java.sql.SQLException;
-import java.sql.Statement;
 
 import org.eclipse.swt.widgets.Display;
 import org.sammelbox.controller.events.EventObservable;
@@ -12,19 +10,21 @@ import org.sammelbox.controller.filesystem.FileSystemAccessWrapper;
 import org.sammelbox.controller.filesystem.FileSystemLocations;
 import org.sammelbox.controller.i18n.DictKeys;
 import org.sammelbox.controller.i18n.Translator;
-import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.view.browser.BrowserFacade;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class BackupThread extends Thread {
 	private static final Logger LOGGER = LoggerFactory.getLogger(BackupThread.class);
-	private static final String BACKUP_TO = "backup to ";
 	private static final String REGEX_BEGIN_OF_LINE = "^";
 	private static final String REGEX_END_OF_LINE = "$";
 	private static final String REGEX_OR = "|";
 	private static final String LOCK_FILE_REGEX = REGEX_BEGIN_OF_LINE + "\\.lock" + REGEX_END_OF_LINE;	
-	private static final String DATABASE_FILE_REGEX = REGEX_BEGIN_OF_LINE + FileSystemLocations.DATABASE_NAME + REGEX_END_OF_LINE;
+	private static final String DATABASE_FILE_REGEX = REGEX_BEGIN_OF_LINE + FileSystemLocations.DATABASE_NAME + REGEX_END_OF_LINE
+			+ REGEX_OR + REGEX_BEGIN_OF_LINE + FileSystemLocations.DATABASE_WAL_NAME + REGEX_END_OF_LINE
+			+ REGEX_OR + REGEX_BEGIN_OF_LINE + FileSystemLocations.DATABASE_SHARED_MEMORY_NAME + REGEX_END_OF_LINE;
 	
 	private final String backupLocationPath;
 	private String errorString = "";
@@ -58,13 +58,10 @@ public class BackupThread extends Thread {
 			done = true;
 		}
 
-		final String backupToSQLcommand = String.format(
-				BACKUP_TO + "%s", tempDir.getPath() + File.separatorChar + FileSystemLocations.DATABASE_TO_RESTORE_NAME);
-		
-		// backup database to file
-		try (Statement statement = ConnectionManager.getConnection().createStatement()){				
-			 statement.executeUpdate(backupToSQLcommand);
-		} catch (SQLException e) {
+		// backup database to file. The database is read from a read-only connection, which does not block the writer
+		try {
+			DatabaseIntegrityManager.copyDatabaseToFile(new File(tempDir.getPath() + File.separatorChar + FileSystemLocations.DATABASE_TO_RESTORE_NAME));
+		} catch (DatabaseWrapperOperationException e) {
 			LOGGER.error("An error occurred while creating the backup", e);
 			errorString = Translator.get(DictKeys.ERROR_BACKUP_CREATION_FAILED, e.getMessage());
 			done = true;
@@ -21,12 +21,14 @@ package org.sammelbox.controller.filesystem.exporting;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.List;
 
 import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemResultSet;
 import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.ItemField;
 import org.sammelbox.model.album.OptionType;
 import org.sammelbox.model.album.StarRating;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,63 +39,86 @@ public final class CSVExporter {
 	private CSVExporter() {
 	}
 	
-	public static void exportAlbum(List<AlbumItem> albumItems, String filepath, String separationCharacter) {
-		StringBuilder headerBuilder = new StringBuilder();
-		StringBuilder dataBuilder = new StringBuilder();
-		boolean firstLine = true;
-
-		for (AlbumItem albumItem : albumItems) {			
-			for (int i=0; i<albumItem.getFields().size(); i++) {				
-				if (albumItem.getField(i).getType().equals(FieldType.UUID)) {
-					// schema or content version UUID --> ignore 
-				}
-				else if (albumItem.getField(i).getType().equals(FieldType.ID)) {
-					// do not show ID either
-				} else {
-					if (albumItem.getField(i).getType().equals(FieldType.OPTION)) {
-						addHeaderIfFirstLine(firstLine, albumItem, headerBuilder, separationCharacter, i);
-						dataBuilder.append(OptionType.getTranslation((OptionType) albumItem.getField(i).getValue()));
-						
-						addSeparationCharacterIfRequired(albumItem, dataBuilder, separationCharacter, i);
-					} else if (albumItem.getField(i).getType().equals(FieldType.STAR_RATING)) {
-						addHeaderIfFirstLine(firstLine, albumItem, headerBuilder, separationCharacter, i);
-						dataBuilder.append(StarRating.toComboBoxArray()[((StarRating) albumItem.getField(i).getValue()).getIntegerValue()]);
-						addSeparationCharacterIfRequired(albumItem, dataBuilder, separationCharacter, i);
-					} else {
-						addHeaderIfFirstLine(firstLine, albumItem, headerBuilder, separationCharacter, i);
-						dataBuilder.append(albumItem.getField(i).getValue());
-						addSeparationCharacterIfRequired(albumItem, dataBuilder, separationCharacter, i);
-					}
-				}
-			}
+	/**
+	 * Exports the given album items. Every item is written as soon as it has been converted, thus the file content is never
+	 * kept in memory as a whole.
+	 * @param albumItems The album items to be exported, e.g. the items of the album item store.
+	 * @param filepath The file to be written.
+	 * @param separationCharacter The character separating the values of an item.
+	 */
+	public static void exportAlbum(Iterable<AlbumItem> albumItems, String filepath, String separationCharacter) {
+		try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(filepath))) {
+			boolean firstLine = true;
 			
-			if (firstLine) {
-				headerBuilder.append(System.lineSeparator());
+			for (AlbumItem albumItem : albumItems) {
+				writeAlbumItem(bufferedWriter, albumItem, firstLine, separationCharacter);
+				firstLine = false;
 			}
-			
-			dataBuilder.append(System.lineSeparator());
-			firstLine = false;
-		}
-
-		try {
-			BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(filepath));
-			bufferedWriter.write(headerBuilder.toString() + dataBuilder.toString());
-			bufferedWriter.close();
 		} catch (IOException e) {
 			LOGGER.error("An error occured while writing the export data to its destinatation (" + filepath + ")", e);
 		}
 	}
 	
-	private static void addHeaderIfFirstLine(boolean firstLine, AlbumItem albumItem, StringBuilder headerBuilder, String separationCharacter, int fieldPosition) {
-		if (firstLine) {
-			headerBuilder.append(albumItem.getField(fieldPosition).getName());
-			addSeparationCharacterIfRequired(albumItem, headerBuilder, separationCharacter, fieldPosition);
+	/**
+	 * Exports the album items of the given result set while reading them, such that albums of any size can be exported 
+	 * with constant memory. The result set is closed afterwards.
+	 * @param albumItemResultSet The album items to be exported.
+	 * @param filepath The file to be written.
+	 * @param separationCharacter The character separating the values of an item.
+	 * @throws DatabaseWrapperOperationException If the album items could not be read.
+	 */
+	public static void exportAlbum(AlbumItemResultSet albumItemResultSet, String filepath, String separationCharacter) 
+			throws DatabaseWrapperOperationException {
+		try (AlbumItemResultSet resultSet = albumItemResultSet;
+			 BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(filepath))) {
+			resultSet.setFetchSize(AlbumItemResultSet.STREAMING_FETCH_SIZE);
+			boolean firstLine = true;
+			
+			for (AlbumItemResultSet.Row row : resultSet) {
+				writeAlbumItem(bufferedWriter, row.toAlbumItem(), firstLine, separationCharacter);
+				firstLine = false;
+			}
+		} catch (IOException e) {
+			LOGGER.error("An error occured while writing the export data to its destinatation (" + filepath + ")", e);
 		}
 	}
 	
-	private static void addSeparationCharacterIfRequired(AlbumItem albumItem, StringBuilder builder, String separationCharacter, int fieldPosition) {
-		if (fieldPosition < albumItem.getFields().size() - 1) {
-			builder.append(separationCharacter);
+	/** Writes the line of the given album item, preceded by the header line if it is the first item */
+	private static void writeAlbumItem(BufferedWriter bufferedWriter, AlbumItem albumItem, boolean firstLine, String separationCharacter) 
+			throws IOException {
+		StringBuilder headerBuilder = new StringBuilder();
+		StringBuilder dataBuilder = new StringBuilder();
+		boolean firstValue = true;
+		
+		for (ItemField itemField : albumItem.getFields()) {
+			if (itemField.getType().equals(FieldType.UUID) || itemField.getType().equals(FieldType.ID)) {
+				// neither schema or content version UUIDs nor IDs are exported. Separators are only placed between exported values
+				continue;
+			}
+			
+			if (!firstValue) {
+				headerBuilder.append(separationCharacter);
+				dataBuilder.append(separationCharacter);
+			}
+			firstValue = false;
+			
+			headerBuilder.append(itemField.getName());
+			if (itemField.getType().equals(FieldType.OPTION)) {
+				dataBuilder.append(OptionType.getTranslation((OptionType) itemField.getValue()));
+			} else if (itemField.getType().equals(FieldType.STAR_RATING)) {
+				dataBuilder.append(StarRating.toComboBoxArray()[((StarRating) itemField.getValue()).getIntegerValue()]);
+			} else {
+				Object value = itemField.getValue();
+				dataBuilder.append(value);
+			}
+		}
+		
+		if (firstLine) {
+			headerBuilder.append(System.lineSeparator());
+			bufferedWriter.write(headerBuilder.toString());
 		}
+		
+		dataBuilder.append(System.lineSeparator());
+		bufferedWriter.write(dataBuilder.toString());
 	}
 }
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import org.sammelbox.model.album.AlbumItem;
 import org.sammelbox.model.album.FieldType;
 import org.sammelbox.model.album.MetaItemField;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
@@ -35,8 +36,13 @@ public final class CSVAppender {
 			String line = br.readLine();
 			pictureColumnIndex = handleFirstLine(line, albumName, separationCharacter, metaItemFields, pictureColumnName, pictureSeparationCharacter, positionToMetaItemFieldMap);
 			
+			List<AlbumItem> albumItems = new ArrayList<>();
 			while ((line = br.readLine()) != null) {
-				CSVImporter.handleData(line, albumName, separationCharacter, metaItemFields, pictureSeparationCharacter, pictureColumnIndex, isSimulation);
+				albumItems.add(CSVImporter.handleData(line, albumName, separationCharacter, metaItemFields, pictureSeparationCharacter, pictureColumnIndex, isSimulation));
+			}
+			
+			if (!isSimulation) {
+				DatabaseOperations.addAlbumItems(albumItems, true);
 			}
 		} catch (FileNotFoundException fnfe) {
 			throw new ImportException("An error occured while handling the file", fnfe);
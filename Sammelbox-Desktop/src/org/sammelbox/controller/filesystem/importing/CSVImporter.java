@@ -61,8 +61,13 @@ public final class CSVImporter {
 			String line = br.readLine();
 			pictureColumnIndex = handleFirstLine(line, albumName, separationCharacter, metaItemFields, pictureColumnName, pictureSeparationCharacter, isSimulation);
 			
+			List<AlbumItem> albumItems = new ArrayList<>();
 			while ((line = br.readLine()) != null) {
-				handleData(line, albumName, separationCharacter, metaItemFields, pictureSeparationCharacter, pictureColumnIndex, isSimulation);
+				albumItems.add(handleData(line, albumName, separationCharacter, metaItemFields, pictureSeparationCharacter, pictureColumnIndex, isSimulation));
+			}
+			
+			if (!isSimulation) {
+				DatabaseOperations.addAlbumItems(albumItems, true);
 			}
 						
 		} catch (FileNotFoundException fnfe) {
@@ -116,8 +121,9 @@ public final class CSVImporter {
 		return pictureColumnIndex;
 	}
 	
-	static void handleData(String line, String albumName, String separationCharacter, List<MetaItemField> metaItemFields, 
-			String pictureSeperationCharacter, int pictureColumnIndex, boolean isSimulation) throws DatabaseWrapperOperationException, ImportException {
+	/** Parses a data line into an album item. The item is not added to the album, such that all items can be added at once */
+	static AlbumItem handleData(String line, String albumName, String separationCharacter, List<MetaItemField> metaItemFields, 
+			String pictureSeperationCharacter, int pictureColumnIndex, boolean isSimulation) throws ImportException {
 		
 		// Credit for the regex goes to Bart Kiers (http://stackoverflow.com/a/1757107/2898363)
 		String[] fieldValues = line.split(separationCharacter + "(?=([^\"]*\"[^\"]*\")*[^\"]*$)", NO_PICTURE_INDEX);
@@ -154,9 +160,7 @@ public final class CSVImporter {
 		AlbumItem albumItem = new AlbumItem(albumName, itemFields);
 		albumItem.setPictures(pictures);
 		
-		if (!isSimulation) {
-			DatabaseOperations.addAlbumItem(albumItem, true);
-		}
+		return albumItem;
 	}
 	
 	private static void convertIntoDatabaseValueAndAddToItemFields(List<MetaItemField> metaItemFields, String[] fieldValues, int index, List<ItemField> itemFields) {
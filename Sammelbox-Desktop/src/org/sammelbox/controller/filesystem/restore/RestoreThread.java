@@ -1,12 +1,11 @@
 package org.sammelbox.controller.filesystem.restore;
 
 import java.io.File;
-import java.sql.SQLException;
-import java.sql.Statement;
 
 import org.eclipse.swt.widgets.Display;
 import org.sammelbox.controller.events.EventObservable;
 import org.sammelbox.controller.events.SammelboxEvent;
+import org.sammelbox.controller.filesystem.FileDeletionQueue;
 import org.sammelbox.controller.filesystem.FileSystemAccessWrapper;
 import org.sammelbox.controller.filesystem.FileSystemLocations;
 import org.sammelbox.controller.i18n.DictKeys;
@@ -15,6 +14,7 @@ import org.sammelbox.controller.managers.ConnectionManager;
 import org.sammelbox.controller.managers.DatabaseIntegrityManager;
 import org.sammelbox.controller.managers.SavedSearchManager;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
 import org.sammelbox.view.ApplicationUI;
 import org.sammelbox.view.browser.BrowserFacade;
 import org.slf4j.Logger;
@@ -22,7 +22,8 @@ import org.slf4j.LoggerFactory;
 
 public class RestoreThread extends Thread {
 	private static final Logger LOGGER = LoggerFactory.getLogger(RestoreThread.class);
-	private static final String RESTORE_FROM = "restore from "; 
+	/** The maximum time to wait for pending file deletions before the restore is rejected */
+	private static final long FILE_DELETION_TIMEOUT_IN_MILLISECONDS = 30000;
 	
 	private final String backupLocationPath;
 	private String errorString = "";
@@ -50,19 +51,29 @@ public class RestoreThread extends Thread {
 	}
 	
 	public void restore() {
+		// Pending deletions refer to the files of the current home directory. Once the home directory has been replaced, 
+		// they would delete restored files of the same name
+		if (!awaitPendingFileDeletions()) {
+			LOGGER.error("The restore has been rejected since {} file deletions are still pending", FileDeletionQueue.getPendingCount());
+			errorString = Translator.get(DictKeys.ERROR_RESTORE_FAILED, "Files of the current albums are still being deleted");
+			done = true;
+			return;
+		}
+		
 		FileSystemAccessWrapper.clearHomeDirectory();
 		FileSystemAccessWrapper.unzipFileToFolder(backupLocationPath, FileSystemLocations.getActiveHomeDir());
 	
-		final String restoreToSQLCommand = String.format(RESTORE_FROM + "%s", FileSystemLocations.getDatabaseRestoreFile());
-		
-		try (Statement statement = ConnectionManager.getConnection().createStatement()) {			
-			statement.executeUpdate(restoreToSQLCommand);
+		try {
+			ConnectionManager.restoreFromDatabaseFile(FileSystemLocations.getDatabaseRestoreFile());
+			DatabaseOperations.clearAlbumSchemaCatalog();
+			// The restored albums might lack the index for their sort field
+			DatabaseOperations.updateSortIndices();
 			try {
 				DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp(DatabaseIntegrityManager.extractTimeStamp(new File(backupLocationPath)));
 			} catch (DatabaseWrapperOperationException e) {
 				DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
 			}
-		} catch (SQLException e) {
+		} catch (DatabaseWrapperOperationException e) {
 			LOGGER.error("A error occurred while restoring the backup", e);
 			errorString = Translator.get(DictKeys.ERROR_RESTORE_FAILED, e.getMessage());
 			done = true;
@@ -89,6 +100,15 @@ public class RestoreThread extends Thread {
 		done = true;
 	}
 	
+	private static boolean awaitPendingFileDeletions() {
+		try {
+			return FileDeletionQueue.awaitCompletion(FILE_DELETION_TIMEOUT_IN_MILLISECONDS);
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+	
 	public String getErrorString() {
 		return errorString;
 	}	
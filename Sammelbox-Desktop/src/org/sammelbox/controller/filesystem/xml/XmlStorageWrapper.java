@@ -40,6 +40,7 @@ import org.sammelbox.model.album.Album;
 import org.sammelbox.model.database.QueryComponent;
 import org.sammelbox.model.database.QueryOperator;
 import org.sammelbox.model.settings.ApplicationSettings;
+import org.sammelbox.model.settings.StorageProfile;
 import org.sammelbox.view.SammelView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -72,6 +73,7 @@ public final class XmlStorageWrapper {
 		xmlOutput.append("\t<defaultView>" + applicationSettings.getDefaultView() + "</defaultView>\n");
 		xmlOutput.append("\t<showDebugMenu>" + applicationSettings.showDebugMenu() + "</showDebugMenu>\n");
 		xmlOutput.append("\t<isFullSynchronizationEnabled>" + applicationSettings.isFullSynchronizationEnabled() + "</isFullSynchronizationEnabled>\n");
+		xmlOutput.append("\t<storageProfile>" + applicationSettings.getStorageProfile() + "</storageProfile>\n");
 		xmlOutput.append("</settings>\n");
 		
 		FileSystemAccessWrapper.writeToFile(xmlOutput.toString(), FileSystemLocations.getSettingsXML());
@@ -182,6 +184,10 @@ public final class XmlStorageWrapper {
 					applicationSettings.setDefaultView(SammelView.valueOf(getValue("defaultView", element)));
 					applicationSettings.setShowDebugMenu(Boolean.valueOf(getValue("showDebugMenu", element)));
 					applicationSettings.setFullSynchronizationEnabled(Boolean.valueOf(getValue("isFullSynchronizationEnabled", element)));
+					// Settings stored by earlier versions do not contain a storage profile
+					if (element.getElementsByTagName("storageProfile").getLength() > 0) {
+						applicationSettings.setStorageProfile(StorageProfile.valueOf(getValue("storageProfile", element)));
+					}
 				} catch (RuntimeException exception) {
 					LOGGER.error("Could not properly load settings file. File will be recreated");
 					SettingsManager.storeToSettingsFile();
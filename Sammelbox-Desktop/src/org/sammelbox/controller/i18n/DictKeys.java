@@ -271,6 +271,7 @@ public final class DictKeys {
 	public static final String LABEL_IMG_SEPARATOR = "org.sammelbox.label.caption.IMG_SEPARATOR";
 	public static final String LABEL_SELECT_ALBUM = "org.sammelbox.label.caption.SELECT_ALBUM";
 	public static final String LABEL_FULL_SYNC = "org.sammelbox.label.caption.FULL_SYNC";
+	public static final String LABEL_STORAGE_PROFILE = "org.sammelbox.label.caption.STORAGE_PROFILE";
 	public static final String LABEL_PROCESSING_IMG_X_OF_Y = "org.sammelbox.label.caption.PROCESSING_IMG_X_OF_Y";
 	public static final String LABEL_IMAGES = "org.sammelbox.label.caption.IMAGES";
 	public static final String LABEL_SPREADSHEET_ACTION = "org.sammelbox.label.caption.SPREADSHEET_ACTION";
@@ -291,6 +292,9 @@ public final class DictKeys {
 	public static final String COMBOBOX_CONTENT_AVERAGE = "org.sammelbox.combobox.content.COMBOBOX_CONTENT_AVERAGE";
 	public static final String COMBOBOX_CONTENT_MAX = "org.sammelbox.combobox.content.COMBOBOX_CONTENT_MAX";
 	public static final String COMBOBOX_CONTENT_MIN = "org.sammelbox.combobox.content.COMBOBOX_CONTENT_MIN";
+	public static final String COMBOBOX_CONTENT_STORAGE_PROFILE_SAFE = "org.sammelbox.combobox.content.STORAGE_PROFILE_SAFE";
+	public static final String COMBOBOX_CONTENT_STORAGE_PROFILE_BALANCED = "org.sammelbox.combobox.content.STORAGE_PROFILE_BALANCED";
+	public static final String COMBOBOX_CONTENT_STORAGE_PROFILE_THROUGHPUT = "org.sammelbox.combobox.content.STORAGE_PROFILE_THROUGHPUT";
 	
 	/*   Browser   */
 	public static final String BROWSER_UPDATE = "collector.browser.text.UPDATE";
@@ -307,6 +311,7 @@ public final class DictKeys {
 	public static final String BROWSER_UNKNOWN = "collector.browser.text.UNKNOWN";
 	public static final String BROWSER_NO_ITEMS_FOUND = "collector.browser.text.NO_ITEMS_FOUND";
 	public static final String BROWSER_NO_ITEMS_FOUND_EXPLANATION = "collector.browser.text.NO_ITEMS_FOUND_EXPLANATION";
+	public static final String BROWSER_SHOW_MORE_ITEMS = "collector.browser.text.SHOW_MORE_ITEMS";
 	public static final String BROWSER_CHECKED = "collector.browser.text.CHECKED";
 	public static final String BROWSER_BACK_TO_ALBUM = "collector.browser.text.BACK_TO_ALBUM";
 	public static final String BROWSER_BEFORE = "collector.browser.text.BEFORE";
@@ -384,6 +389,7 @@ public final class DictKeys {
 	public static final String ERROR_BACKUP_CREATION_FAILED = "org.sammelbox.error.BACKUP_CREATION_FAILED";
 	public static final String ERROR_RESTORE_FAILED = "org.sammelbox.error.RESTORE_FAILED";
 	public static final String ERROR_RESTORE_CLEANUP_FAILED = "org.sammelbox.error.RESTORE_CLEANUP_FAILED";
+	public static final String ERROR_ALBUM_ITEM_CHANGED_MEANWHILE = "org.sammelbox.error.ALBUM_ITEM_CHANGED_MEANWHILE";
 	public static final String ERROR_NO_ITEM_SELECTED_HEADER = "org.sammelbox.error.ERROR_NO_ITEM_SELECTED_HEADER";
 	public static final String ERROR_NO_ITEM_SELECTED = "org.sammelbox.error.ERROR_NO_ITEM_SELECTED";
 	public static final String ERROR_NO_FIELD_OR_FUNCTION_SELECTED_HEADER = "org.sammelbox.error.ERROR_NO_FIELD_OR_FUNCTION_SELECTED_HEADER"; //No function and/or album field selected
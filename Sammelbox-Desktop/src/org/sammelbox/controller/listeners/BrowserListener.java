@@ -40,7 +40,6 @@ import org.sammelbox.controller.managers.SavedSearchManager;
 import org.sammelbox.model.album.AlbumItem;
 import org.sammelbox.model.album.FieldType;
 import org.sammelbox.model.album.ItemField;
-import org.sammelbox.model.database.QueryBuilder;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.operations.DatabaseOperations;
 import org.sammelbox.view.ApplicationUI;
@@ -126,7 +125,7 @@ public class BrowserListener implements LocationListener, ProgressListener, Menu
 					LOGGER.error("A database error occured while deleting the album item #" + id + " from the album '" + 
 										ApplicationUI.getSelectedAlbum() + "'", ex);
 				}
-				BrowserFacade.performBrowserQueryAndShow(QueryBuilder.createOrderedSelectStarQuery(ApplicationUI.getSelectedAlbum()));
+				BrowserFacade.performPagedBrowserQueryAndShow(ApplicationUI.getSelectedAlbum());
 			}
 
 			// Do not change the page
@@ -178,7 +177,7 @@ public class BrowserListener implements LocationListener, ProgressListener, Menu
 			String albumItemId = event.location.substring(UIConstants.RELOAD_AND_SHOW_ALBUM_VIEW.length());
 			
 			if (!GuiController.getGuiState().isViewSelected()) {
-				BrowserFacade.performBrowserQueryAndShow(QueryBuilder.createOrderedSelectStarQuery(GuiController.getGuiState().getSelectedAlbum()));
+				BrowserFacade.performPagedBrowserQueryAndShow(GuiController.getGuiState().getSelectedAlbum(), Long.parseLong(albumItemId));
 			} else {
 				BrowserFacade.performBrowserQueryAndShow(SavedSearchManager.getSqlQueryBySavedSearchName(
 						GuiController.getGuiState().getSelectedAlbum(), GuiController.getGuiState().getSelectedSavedSearch()));
@@ -187,6 +186,11 @@ public class BrowserListener implements LocationListener, ProgressListener, Menu
 			BrowserFacade.setFutureJumpAnchor(BrowserFacade.getAnchorForAlbumItemId(Long.parseLong(albumItemId)));
 			ApplicationUI.changeRightCompositeTo(PanelType.EMPTY, EmptySidepane.build(ApplicationUI.getThreePanelComposite()));	
 			
+			// Do not change the page
+			event.doit = false;
+		} else if (event.location.startsWith(UIConstants.SHOW_MORE_ITEMS)) {
+			BrowserFacade.showNextAlbumItemPage();
+			
 			// Do not change the page
 			event.doit = false;
 		} else if (event.location.equals(UIConstants.BROWSER_RESIZED)) {
@@ -19,19 +19,42 @@
 package org.sammelbox.controller.listeners;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.eclipse.swt.events.ModifyEvent;
 import org.eclipse.swt.events.ModifyListener;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Text;
-import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
-import org.sammelbox.model.database.operations.DatabaseOperations;
+import org.sammelbox.controller.managers.QuickSearchExecutor;
+import org.sammelbox.controller.managers.QuickSearchExecutor.QuickSearchResultConsumer;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemStore;
 import org.sammelbox.view.ApplicationUI;
 import org.sammelbox.view.browser.BrowserFacade;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 public class QuickSearchModifyListener implements ModifyListener {
-	private static final Logger LOGGER = LoggerFactory.getLogger(QuickSearchModifyListener.class);
+	/** Executes the quick searches in the background and hands the newest result to the UI thread */
+	private static final QuickSearchExecutor QUICK_SEARCH_EXECUTOR = new QuickSearchExecutor(
+			QuickSearchExecutor.DEFAULT_DEBOUNCE_DELAY_IN_MILLISECONDS, new Executor() {
+				@Override
+				public void execute(Runnable runnable) {
+					Display.getDefault().asyncExec(runnable);
+				}
+			});
+	
+	/** Shows the result of a quick search, provided that the searched album is still selected */
+	private static final QuickSearchResultConsumer SHOW_RESULT = new QuickSearchResultConsumer() {
+		@Override
+		public void consume(String albumName, List<AlbumItem> albumItems) {
+			if (!albumName.equals(ApplicationUI.getSelectedAlbum())) {
+				return;
+			}
+			
+			AlbumItemStore.replaceStoreAndUpdateStatus(albumItems);
+			BrowserFacade.showAlbum();
+		}
+	};
 	
 	@Override
 	/** This method launches a quick-search for the entered keywords if an album has been selected*/
@@ -39,15 +62,17 @@ public class QuickSearchModifyListener implements ModifyListener {
 		if (!ApplicationUI.isAlbumSelectedAndShowMessageIfNot()) {
 			return;
 		}
-		try {
-			if (((Text) e.widget).getText().equals("")) {
-				BrowserFacade.showResultSet(DatabaseOperations.executeQuickSearch(ApplicationUI.getSelectedAlbum(), null));
-			} else {
-				BrowserFacade.showResultSet(DatabaseOperations.executeQuickSearch(ApplicationUI.getSelectedAlbum(), 
-						Arrays.asList(((Text) e.widget).getText().split(" "))));
-			}
-		} catch (DatabaseWrapperOperationException ex) {
-			LOGGER.error("An error occured while performing a quick search on the following string '" + ((Text) e.widget).getText() + "'", ex);
+		
+		if (((Text) e.widget).getText().equals("")) {
+			QUICK_SEARCH_EXECUTOR.submit(ApplicationUI.getSelectedAlbum(), null, SHOW_RESULT);
+		} else {
+			QUICK_SEARCH_EXECUTOR.submit(ApplicationUI.getSelectedAlbum(), 
+					Arrays.asList(((Text) e.widget).getText().split(" ")), SHOW_RESULT);
 		}
 	}
+	
+	/** Returns the executor performing the quick searches, e.g. to access its latency metrics */
+	public static QuickSearchExecutor getQuickSearchExecutor() {
+		return QUICK_SEARCH_EXECUTOR;
+	}
 }
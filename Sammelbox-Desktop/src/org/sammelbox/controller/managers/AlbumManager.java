@@ -84,6 +84,13 @@ public final class AlbumManager {
 		mergeDatabaseAndXmlAlbums();
 		
 		XmlStorageWrapper.storeAlbums(albums);
+		
+		// The sort fields are stored apart from the database, hence the sort indices are updated once they are known
+		try {
+			DatabaseOperations.updateSortIndices();
+		} catch (DatabaseWrapperOperationException ex) {
+			LOGGER.error("The sort indices of the albums could not be updated", ex);
+		}
 	}
 	
 	public static List<Album> getAlbums() {
@@ -166,5 +173,11 @@ public final class AlbumManager {
 		}
 		
 		storeAlbums();
+		
+		try {
+			DatabaseOperations.updateSortIndex(albumName);
+		} catch (DatabaseWrapperOperationException ex) {
+			LOGGER.error("The sort index of the album " + albumName + " could not be updated", ex);
+		}
 	}
 }
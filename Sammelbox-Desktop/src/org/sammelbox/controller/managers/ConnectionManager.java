@@ -23,7 +23,16 @@ import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.jdbcdslog.ConnectionLoggingProxy;
 import org.sammelbox.controller.filesystem.FileSystemAccessWrapper;
@@ -31,13 +40,58 @@ import org.sammelbox.controller.filesystem.FileSystemLocations;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException.DBErrorState;
 import org.sammelbox.model.database.operations.DatabaseOperations;
+import org.sammelbox.model.settings.StorageProfile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Manages the connections to the database. All operations altering the database use the single writer connection.
+ * The database is kept in write-ahead log mode, such that background tasks (e.g. backups) can read from a bounded pool
+ * of read-only connections without blocking the writer, and without being blocked by it.<br>
+ * The connections are configured according to the {@link StorageProfile} selected in the settings when they are opened.
+ */
 public final class ConnectionManager {
 	private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionManager.class);
 	private static final String SQLITE_CONNECTION_STRING = "jdbc:sqlite:";
+	/** The journal mode which allows readers and the writer to proceed concurrently */
+	private static final String WRITE_AHEAD_LOG_JOURNAL_MODE = "wal";
+	/** The journal mode which allows to restore a backup with a different page size */
+	private static final String ROLLBACK_JOURNAL_MODE = "delete";
+	/** The maximum number of read-only connections which are open at the same time */
+	static final int READ_ONLY_CONNECTION_POOL_CAPACITY = 3;
+	/** The maximum time to wait for a read-only connection to be returned */
+	private static final long READ_ONLY_CONNECTION_TIMEOUT_IN_MILLISECONDS = 30000;
 	private static Connection connection = null;
+	private static boolean isWriteAheadLogEnabled = false;
+	/** The storage profile applied to the open connections */
+	private static StorageProfile storageProfile = StorageProfile.SAFE;
+	/** Counts the transaction boundaries executed on the writer connection and how long they took */
+	private static final ConnectionMetrics WRITER_METRICS = new ConnectionMetrics("writer");
+	private static final ReadOnlyConnectionPool READ_ONLY_CONNECTION_POOL = new ReadOnlyConnectionPool(READ_ONLY_CONNECTION_POOL_CAPACITY);
+	/** The maximum number of compiled statements which are kept open */
+	private static final int PREPARED_STATEMENT_CACHE_CAPACITY = 32;
+	/** Maps the SQL statement to its compiled statement. Iterates from the least to the most recently used statement */
+	private static final Map<String, PreparedStatement> PREPARED_STATEMENT_CACHE = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldestEntry) {
+			if (size() > PREPARED_STATEMENT_CACHE_CAPACITY) {
+				// A statement in use is closed once it is released
+				if (!BUSY_PREPARED_STATEMENTS.contains(eldestEntry.getValue())) {
+					closePreparedStatement(eldestEntry.getValue());
+				}
+				return true;
+			}
+			
+			return false;
+		}
+	};
+	/** The statements which have been handed out and not yet released, e.g. since their results are still being read */
+	private static final Set<PreparedStatement> BUSY_PREPARED_STATEMENTS = 
+			Collections.newSetFromMap(new IdentityHashMap<PreparedStatement, Boolean>());
+	private static long preparedStatementCacheHitCount = 0;
+	private static long preparedStatementCacheMissCount = 0;
 
 	private ConnectionManager() {
 		// not needed
@@ -51,21 +105,35 @@ public final class ConnectionManager {
 		// Catch the internal SQL exception to give a definite state on the database connection using the collector exceptions
 		// This hides all internal SQL exceptions
 		try {
-			if (ConnectionManager.connection == null || connection.isClosed()) {
+			boolean isNewConnection = ConnectionManager.connection == null || connection.isClosed();
+			if (isNewConnection) {
 				ConnectionManager.connection = DriverManager.getConnection(ConnectionManager.SQLITE_CONNECTION_STRING + 
 						FileSystemLocations.getDatabaseFile());
 				ConnectionManager.connection = ConnectionLoggingProxy.wrap(connection);
 				ConnectionManager.enableForeignKeySupportForCurrentSession();
+				ConnectionManager.applyStorageProfile(SettingsManager.getSettings().getStorageProfile());
+				
+				// The new connection might point to a different database than the cached album structures
+				DatabaseOperations.clearAlbumSchemaCatalog();
+				// Transactions of a previous connection ended together with it
+				TransactionManager.reset();
 				
 				// The AutoCommit state makes little difference here since all relevant public methods roll back on
-				// failures anyway and we have only a single connection so concurrency is not relevant either.		
+				// failures anyway and the read-only connections only ever see committed states.		
 				ConnectionManager.connection.setAutoCommit(true);
 
-				LOGGER.debug("Autocommit is on {}", connection.getAutoCommit());				
+				LOGGER.debug("Autocommit is on {}", connection.getAutoCommit());
+				
+				READ_ONLY_CONNECTION_POOL.open(FileSystemLocations.getDatabaseFile(), storageProfile);
 			}
 			
 			// Create the album master table if it does not exist 
 			DatabaseOperations.createAlbumMasterTableIfItDoesNotExist();
+			
+			if (isNewConnection) {
+				// Autosaves are skipped as long as the opened database remains unchanged
+				DatabaseIntegrityManager.rememberSavedDatabaseState();
+			}
 
 			// Run a fetch  to check if the database connection is up and running
 			if (!ConnectionManager.isConnectionReady()) {
@@ -81,6 +149,10 @@ public final class ConnectionManager {
 	 * @throws DatabaseWrapperOperationException
 	 */
 	public static synchronized void closeConnection() throws DatabaseWrapperOperationException {
+		clearPreparedStatementCache();
+		// The write-ahead log is written back into the database when the last connection is closed
+		READ_ONLY_CONNECTION_POOL.close();
+		
 		try {
 			if (ConnectionManager.connection != null && !ConnectionManager.connection.isClosed()) {
 				ConnectionManager.connection.close();
@@ -157,12 +229,281 @@ public final class ConnectionManager {
 	}
 
 	/**
-	 * Gets the connection.
+	 * Gets the writer connection.
 	 * @return A valid connection or null if not properly initialized.
 	 */
 	public static synchronized Connection getConnection() {
 		return connection;
 	}
+	
+	/**
+	 * Records that a transaction boundary (begin, commit or rollback) has been executed on the writer connection. Since the
+	 * writer connection is shared, handing it out never waits. Its waits happen while SQLite executes these statements,
+	 * e.g. for a lock held by another process, for the write-ahead log to be written or for a checkpoint.
+	 * @param durationInNanoseconds The time SQLite took to execute the statement.
+	 */
+	static void recordWriterTransactionBoundary(long durationInNanoseconds) {
+		WRITER_METRICS.recordAcquisition(durationInNanoseconds);
+	}
+	
+	/**
+	 * Borrows a read-only connection, waiting until one is returned if all read-only connections are borrowed. Reading
+	 * from a borrowed connection neither waits for the writer connection nor blocks it. Each read transaction sees the
+	 * state of the database committed when it started.
+	 * @return A read-only connection, which must be returned using {@link #releaseReadOnlyConnection(Connection)}, 
+	 * typically within a finally block. 
+	 * @throws DatabaseWrapperOperationException If no connection is open, or if no read-only connection became available
+	 * within 30 seconds.
+	 */
+	public static Connection borrowReadOnlyConnection() throws DatabaseWrapperOperationException {
+		return READ_ONLY_CONNECTION_POOL.borrow(READ_ONLY_CONNECTION_TIMEOUT_IN_MILLISECONDS);
+	}
+	
+	/**
+	 * Returns a borrowed read-only connection to the pool. Statements and result sets created from the connection must have been closed.
+	 * @param readOnlyConnection The connection retrieved by {@link #borrowReadOnlyConnection()}.
+	 */
+	public static void releaseReadOnlyConnection(Connection readOnlyConnection) {
+		READ_ONLY_CONNECTION_POOL.release(readOnlyConnection);
+	}
+	
+	/** Returns the maximum number of read-only connections which are open at the same time */
+	public static int getReadOnlyConnectionPoolCapacity() {
+		return READ_ONLY_CONNECTION_POOL.getCapacity();
+	}
+	
+	/** Returns true if the database of the writer connection is in write-ahead log mode. Otherwise readers block the writer */
+	public static synchronized boolean isWriteAheadLogEnabled() {
+		return isWriteAheadLogEnabled;
+	}
+	
+	/** Returns the storage profile which has been applied when the connection has been opened */
+	public static synchronized StorageProfile getStorageProfile() {
+		return storageProfile;
+	}
+	
+	/**
+	 * Replaces the content of the database by the content of the given database file. The database leaves the write-ahead
+	 * log mode while restoring, since SQLite cannot restore a database with a different page size in this mode.
+	 * The read-only connections are closed meanwhile, since the journal mode can only be changed without other connections.
+	 * Afterwards, the schema of the restored database is brought up to date, as when a database is opened.
+	 * @param databaseFile The path of the database file to be restored.
+	 * @throws DatabaseWrapperOperationException If the database could not be restored.
+	 */
+	public static synchronized void restoreFromDatabaseFile(String databaseFile) throws DatabaseWrapperOperationException {
+		clearPreparedStatementCache();
+		READ_ONLY_CONNECTION_POOL.close();
+		
+		try (Statement statement = connection.createStatement()) {
+			executeJournalModePragma(ROLLBACK_JOURNAL_MODE);
+			statement.executeUpdate("restore from \"" + databaseFile + "\"");
+		} catch (SQLException sqlEx) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, sqlEx);
+		} finally {
+			enableJournalMode(storageProfile.getJournalMode());
+			// The restored database might use a different page size, which affects the cache size in pages
+			applyConnectionSettings(connection, storageProfile);
+			READ_ONLY_CONNECTION_POOL.open(FileSystemLocations.getDatabaseFile(), storageProfile);
+		}
+		
+		// The restored database might have been created by an earlier version
+		DatabaseOperations.createAlbumMasterTableIfItDoesNotExist();
+	}
+	
+	/**
+	 * Gets how often each connection has been handed out and how long the callers had to wait for it. For the writer
+	 * connection, each transaction begin, commit and rollback counts as an acquisition, and its duration as the wait.
+	 * @return Snapshots of the metrics of the writer connection followed by the read-only connections.
+	 */
+	public static List<ConnectionMetrics> getConnectionMetrics() {
+		List<ConnectionMetrics> connectionMetrics = new ArrayList<ConnectionMetrics>();
+		connectionMetrics.add(WRITER_METRICS.createSnapshot());
+		connectionMetrics.addAll(READ_ONLY_CONNECTION_POOL.getMetrics());
+		
+		return connectionMetrics;
+	}
+	
+	/** Resets the metrics of all connections */
+	public static void resetConnectionMetrics() {
+		WRITER_METRICS.reset();
+		READ_ONLY_CONNECTION_POOL.resetMetrics();
+	}
+
+	/**
+	 * Gets a compiled statement for the given SQL statement. The statement is compiled only once and reused as long as it remains
+	 * among the most recently used statements. The returned statement must not be closed by the caller, but must be handed back 
+	 * using {@link #releasePreparedStatement(PreparedStatement)} once its results have been read. If the cached statement is still
+	 * in use (e.g. its result set is being iterated while the same SQL statement is requested again), a new statement is compiled
+	 * which is closed when it is released.
+	 * @param sqlStatement The SQL statement, which should contain bind parameters instead of values.
+	 * @return The compiled statement. Parameters bound by previous users might still be present.
+	 * @throws DatabaseWrapperOperationException If the statement could not be compiled.
+	 */
+	public static synchronized PreparedStatement getPreparedStatement(String sqlStatement) throws DatabaseWrapperOperationException {
+		PreparedStatement preparedStatement = PREPARED_STATEMENT_CACHE.get(sqlStatement);
+		
+		if (preparedStatement != null && !BUSY_PREPARED_STATEMENTS.contains(preparedStatement)) {
+			preparedStatementCacheHitCount++;
+			BUSY_PREPARED_STATEMENTS.add(preparedStatement);
+			return preparedStatement;
+		}
+		
+		boolean isCacheable = preparedStatement == null;
+		try {
+			preparedStatement = connection.prepareStatement(sqlStatement);
+		} catch (SQLException sqlEx) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, sqlEx);
+		}
+		
+		preparedStatementCacheMissCount++;
+		if (isCacheable) {
+			PREPARED_STATEMENT_CACHE.put(sqlStatement, preparedStatement);
+		}
+		BUSY_PREPARED_STATEMENTS.add(preparedStatement);
+		
+		return preparedStatement;
+	}
+	
+	/**
+	 * Hands back a statement retrieved by {@link #getPreparedStatement(String)}, such that it can be reused. Statements which 
+	 * are not cached (anymore) are closed. Releasing a statement which has already been released has no effect.
+	 * @param preparedStatement The statement whose results have been read completely or are no longer needed.
+	 */
+	public static synchronized void releasePreparedStatement(PreparedStatement preparedStatement) {
+		if (BUSY_PREPARED_STATEMENTS.remove(preparedStatement) && !PREPARED_STATEMENT_CACHE.containsValue(preparedStatement)) {
+			closePreparedStatement(preparedStatement);
+		}
+	}
+	
+	/** 
+	 * Closes and removes all cached statements. Must be called whenever the connection or the database structure changes. 
+	 * Statements in use are closed once they are released.
+	 */
+	public static synchronized void clearPreparedStatementCache() {
+		for (PreparedStatement preparedStatement : PREPARED_STATEMENT_CACHE.values()) {
+			if (!BUSY_PREPARED_STATEMENTS.contains(preparedStatement)) {
+				closePreparedStatement(preparedStatement);
+			}
+		}
+		
+		PREPARED_STATEMENT_CACHE.clear();
+	}
+	
+	/** Returns the number of statements which have been handed out and not yet released */
+	public static synchronized int getBusyPreparedStatementCount() {
+		return BUSY_PREPARED_STATEMENTS.size();
+	}
+	
+	/** Returns the number of currently cached statements */
+	public static synchronized int getPreparedStatementCacheSize() {
+		return PREPARED_STATEMENT_CACHE.size();
+	}
+	
+	/** Returns the number of requested statements which have been compiled before */
+	public static synchronized long getPreparedStatementCacheHitCount() {
+		return preparedStatementCacheHitCount;
+	}
+	
+	/** Returns the number of requested statements which had to be compiled */
+	public static synchronized long getPreparedStatementCacheMissCount() {
+		return preparedStatementCacheMissCount;
+	}
+	
+	/** Resets the hit and miss counters. The cached statements are not affected. */
+	public static synchronized void resetPreparedStatementCacheStatistics() {
+		preparedStatementCacheHitCount = 0;
+		preparedStatementCacheMissCount = 0;
+	}
+	
+	private static void closePreparedStatement(PreparedStatement preparedStatement) {
+		try {
+			preparedStatement.close();
+		} catch (SQLException sqlEx) {
+			LOGGER.error("Unable to close a cached prepared statement", sqlEx);
+		}
+	}
+
+	/**
+	 * Configures the writer connection according to the storage profile. Settings which cannot be applied are logged 
+	 * and skipped, such that the connection remains usable with the defaults of SQLite.
+	 */
+	private static void applyStorageProfile(StorageProfile profile) {
+		storageProfile = profile;
+		
+		try {
+			// The page size can only be changed before the first table is created
+			if (queryPragma("page_count").equals("0")) {
+				executePragma("page_size = " + profile.getPageSizeInBytes());
+			}
+		} catch (SQLException sqlEx) {
+			LOGGER.warn("The page size of the new database could not be set", sqlEx);
+		}
+		
+		enableJournalMode(profile.getJournalMode());
+		
+		try {
+			executePragma("synchronous = " + profile.getSynchronousMode());
+		} catch (SQLException sqlEx) {
+			LOGGER.warn("The synchronous mode could not be set", sqlEx);
+		}
+		
+		applyConnectionSettings(connection, profile);
+	}
+	
+	/**
+	 * Applies the settings of the storage profile which concern a single connection, i.e. the cache size, the location 
+	 * of temporary tables and memory mapped I/O. Settings which cannot be applied are logged and skipped.
+	 * @param databaseConnection The connection to be configured.
+	 * @param profile The storage profile to be applied.
+	 */
+	static void applyConnectionSettings(Connection databaseConnection, StorageProfile profile) {
+		try (Statement statement = databaseConnection.createStatement()) {
+			int pageSizeInBytes;
+			try (ResultSet resultSet = statement.executeQuery("PRAGMA page_size")) {
+				pageSizeInBytes = resultSet.next() ? resultSet.getInt(1) : profile.getPageSizeInBytes();
+			}
+			
+			// Negative cache sizes in kibibytes are not supported by all SQLite versions, hence the size is given in pages
+			statement.executeUpdate("PRAGMA cache_size = " + (profile.getCacheSizeInKibibytes() * 1024L / pageSizeInBytes));
+			statement.executeUpdate("PRAGMA temp_store = " + profile.getTempStore());
+			// Ignored by SQLite versions without memory mapped I/O
+			statement.execute("PRAGMA mmap_size = " + profile.getMemoryMappedSizeInBytes());
+		} catch (SQLException sqlEx) {
+			LOGGER.warn("The connection settings of the storage profile " + profile + " could not be applied", sqlEx);
+		}
+	}
+	
+	/** Switches the database into the given journal mode. The database remains usable in its previous mode if this is not possible */
+	private static void enableJournalMode(String journalMode) {
+		try {
+			isWriteAheadLogEnabled = WRITE_AHEAD_LOG_JOURNAL_MODE.equalsIgnoreCase(executeJournalModePragma(journalMode));
+		} catch (SQLException sqlEx) {
+			LOGGER.warn("Switching the database into the journal mode " + journalMode + " failed", sqlEx);
+			isWriteAheadLogEnabled = false;
+		}
+		
+		if (!isWriteAheadLogEnabled) {
+			LOGGER.warn("The database is not in write-ahead log mode. Reading from the read-only connections blocks the writer");
+		}
+	}
+	
+	/** Sets the journal mode and returns the journal mode which is in effect afterwards */
+	private static String executeJournalModePragma(String journalMode) throws SQLException {
+		return queryPragma("journal_mode = " + journalMode);
+	}
+	
+	private static String queryPragma(String pragma) throws SQLException {
+		try (Statement statement = connection.createStatement();
+			 ResultSet resultSet = statement.executeQuery("PRAGMA " + pragma)) {
+			return resultSet.next() ? resultSet.getString(1) : "";
+		}
+	}
+	
+	private static void executePragma(String pragma) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.executeUpdate("PRAGMA " + pragma);
+		}
+	}
 
 	static void enableForeignKeySupportForCurrentSession() throws DatabaseWrapperOperationException {
 
@@ -0,0 +1,108 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+
+package org.sammelbox.controller.managers;
+
+/**
+ * Counts how often a database connection has been handed out and how long the callers had to wait for it, because
+ * all read-only connections were borrowed or, for the writer connection, until its transaction boundaries were executed.
+ * Instances returned by {@link ConnectionManager#getConnectionMetrics()} are snapshots which do not change afterwards.
+ */
+public final class ConnectionMetrics {
+	/** Waits of at least 100 microseconds are counted as busy waits. Shorter waits are the cost of handing out the connection */
+	static final long BUSY_WAIT_THRESHOLD_IN_NANOSECONDS = 100000L;
+
+	private final String connectionName;
+	/** The number of times the connection has been handed out */
+	private long acquisitionCount = 0;
+	/** The number of times a caller had to wait for the connection */
+	private long busyWaitCount = 0;
+	/** The total time callers waited for the connection, including waits below the busy wait threshold */
+	private long totalWaitInNanoseconds = 0;
+	/** The longest time a single caller waited for the connection */
+	private long maximumWaitInNanoseconds = 0;
+
+	ConnectionMetrics(String connectionName) {
+		this.connectionName = connectionName;
+	}
+
+	/**
+	 * Records that the connection has been handed out.
+	 * @param waitInNanoseconds The time the caller waited until the connection was handed out.
+	 */
+	synchronized void recordAcquisition(long waitInNanoseconds) {
+		acquisitionCount++;
+		totalWaitInNanoseconds += waitInNanoseconds;
+		maximumWaitInNanoseconds = Math.max(maximumWaitInNanoseconds, waitInNanoseconds);
+
+		if (waitInNanoseconds >= BUSY_WAIT_THRESHOLD_IN_NANOSECONDS) {
+			busyWaitCount++;
+		}
+	}
+
+	/** Resets all counters */
+	synchronized void reset() {
+		acquisitionCount = 0;
+		busyWaitCount = 0;
+		totalWaitInNanoseconds = 0;
+		maximumWaitInNanoseconds = 0;
+	}
+
+	/** Creates a copy of the current counters */
+	synchronized ConnectionMetrics createSnapshot() {
+		ConnectionMetrics snapshot = new ConnectionMetrics(connectionName);
+		snapshot.acquisitionCount = acquisitionCount;
+		snapshot.busyWaitCount = busyWaitCount;
+		snapshot.totalWaitInNanoseconds = totalWaitInNanoseconds;
+		snapshot.maximumWaitInNanoseconds = maximumWaitInNanoseconds;
+
+		return snapshot;
+	}
+
+	/** Returns the name of the connection, e.g. "writer" or "read-only 1" */
+	public String getConnectionName() {
+		return connectionName;
+	}
+
+	/** Returns the number of times the connection has been handed out */
+	public synchronized long getAcquisitionCount() {
+		return acquisitionCount;
+	}
+
+	/** Returns the number of times a caller had to wait at least {@value #BUSY_WAIT_THRESHOLD_IN_NANOSECONDS} nanoseconds for the connection */
+	public synchronized long getBusyWaitCount() {
+		return busyWaitCount;
+	}
+
+	/** Returns the total time in nanoseconds callers waited for the connection */
+	public synchronized long getTotalWaitInNanoseconds() {
+		return totalWaitInNanoseconds;
+	}
+
+	/** Returns the longest time in nanoseconds a single caller waited for the connection */
+	public synchronized long getMaximumWaitInNanoseconds() {
+		return maximumWaitInNanoseconds;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%s: %d acquisitions, %d busy waits, %.1f ms waited in total, %.1f ms at most", connectionName, 
+				acquisitionCount, busyWaitCount, totalWaitInNanoseconds / 1000000d, maximumWaitInNanoseconds / 1000000d);
+	}
+}
@@ -20,20 +20,23 @@ package org.sammelbox.controller.managers;
 
 import java.io.File;
 import java.io.IOException;
-import java.sql.PreparedStatement;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 
 import org.sammelbox.controller.filesystem.FileSystemAccessWrapper;
 import org.sammelbox.controller.filesystem.FileSystemLocations;
 import org.sammelbox.controller.filesystem.backup.BackupThread;
 import org.sammelbox.controller.filesystem.restore.RestoreThread;
-import org.sammelbox.model.database.DatabaseStringUtilities;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException.DBErrorState;
+import org.sammelbox.model.database.operations.DatabaseOperations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,76 +52,46 @@ public final class DatabaseIntegrityManager {
 	private static final int AUTO_SAVE_LIMIT = 5;
 	/** The last change time in milliseconds */
 	private static long lastChangeTimeStampInMillis = -1;
-	private static final String SAVEPOINT = "SAVEPOINT ";
-	private static final String ROLLBACK_TO = "rollback to ";
+	/** The number of changes to the database. Unlike the time stamp, it is guaranteed to differ after each change */
+	private static long databaseChangeCount = 0;
+	/** The last change time stamp at the time the current database state has been opened or auto-saved */
+	private static long savedChangeTimeStampInMillis = -1;
+	/** The album change versions at the time the current database state has been opened or auto-saved. Null if unknown */
+	private static Map<String, Long> savedAlbumChangeVersions = null;
 
 	private DatabaseIntegrityManager() {
 		// not needed
 	}
 	
 	/**
-	 * Creates a savepoint to which the database state can be rolled back to. A new transaction is started.
-	 * @return The name of the created savepoint or null in case of failure. The create savepoint should only be 
-	 * used in public methods to avoid overhead with nested savepoints. 
+	 * Opens a transaction scope (see {@link TransactionManager}) to which the database state can be rolled back to. 
+	 * Only the outermost scope starts a new transaction, nested scopes cause no database access.
+	 * @return The token identifying the scope, which must be passed when releasing or rolling back the scope.
 	 * @throws DatabaseWrapperOperationException 
 	 */
 	public static String createSavepoint() throws DatabaseWrapperOperationException {
-		String savepointName = UUID.randomUUID().toString();
-	
-		try (PreparedStatement createSavepointStatement = ConnectionManager.getConnection().prepareStatement(
-				SAVEPOINT + DatabaseStringUtilities.encloseNameWithQuotes(savepointName));) {			
-			createSavepointStatement.execute();
-			return savepointName;
-		} catch (SQLException e) {
-			LOGGER.error("Creating the savepoint {} failed", savepointName);
-			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
-		}
+		return TransactionManager.beginScope();
 	}
 	
 	/**
-	 * Removes the savepoint from the internal stack such that it cannot be used for any future rollbacks.
-	 * If the transaction stack is empty all changes done since the creation of the saveopoint will be committed.
-	 * If the stack of transaction is not empty (i.e. inner transaction) then no changes are comitted but the savepoint
-	 * is removed nonetheless from the stack. The release should only be used in public methods to avoid ovehead
-	 * with nested savepoints. 
-	 * @param The name of the savepoint to be released. Must not be null or empty! 
+	 * Ends the scope such that it cannot be used for any future rollbacks.
+	 * If it is the outermost scope, all changes done since the creation of the scope will be committed.
+	 * If it is a nested scope, no changes are committed but the scope is ended nonetheless.
+	 * @param savepointName The token of the scope to be released. Must be the innermost open scope! 
 	 * @throws DatabaseWrapperOperationException If the errorstate within is ErrorWithDirtyState that means the release was not possible 
 	 */
 	public static void releaseSavepoint(String savepointName) throws DatabaseWrapperOperationException {
-	
-		if (savepointName == null || savepointName.isEmpty()) {
-			LOGGER.error("The savepoint could not be released since the name string is null or empty");
-			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE);
-		}
-		
-		try (PreparedStatement releaseSavepointStatement = ConnectionManager.getConnection().prepareStatement("RELEASE SAVEPOINT " + 
-				DatabaseStringUtilities.encloseNameWithQuotes(savepointName));) {			
-			releaseSavepointStatement.execute();
-		} catch (SQLException sqlEx) {
-			LOGGER.error("Releasing the savepoint {} failed", savepointName);
-			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, sqlEx);
-		}
+		TransactionManager.endScope(savepointName);
 	}
 	
 	/**
-	 * The rollback should only be used in public methods to avoid overhead with nested savepoints. 
-	 * @param savepointName
-	 * * @throws DatabaseWrapperOperationException If the error state within is ErrorWithDirtyState that means the release was not possible
+	 * Rolls back the changes of the scope. Since nested scopes are no real transaction boundaries, rolling back 
+	 * a nested scope rolls back the complete transaction when the outermost scope is released.
+	 * @param savepointName The token of the scope to be rolled back. Must be the innermost open scope!
+	 * @throws DatabaseWrapperOperationException If the error state within is ErrorWithDirtyState that means the rollback was not possible
 	 */
 	public static void rollbackToSavepoint(String savepointName) throws DatabaseWrapperOperationException {
-	
-		if (savepointName == null || savepointName.isEmpty()){
-			LOGGER.error("The savepoint could not be rolledback to since the name string is null or empty");
-			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE);
-		}	
-	
-		try (PreparedStatement rollbackToSavepointStatement = ConnectionManager.getConnection().prepareStatement(
-				ROLLBACK_TO + SAVEPOINT + DatabaseStringUtilities.encloseNameWithQuotes(savepointName))){
-			rollbackToSavepointStatement.execute();
-		} catch (SQLException sqlEx) {
-			LOGGER.error("Rolling back the savepoint {} failed", savepointName);
-			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, sqlEx);
-		}
+		TransactionManager.rollbackScope(savepointName);
 	}
 	
 	/** Retrieves a thread able to backup the database entries along the properties and pictures to the specified file.
@@ -146,6 +119,35 @@ public final class DatabaseIntegrityManager {
 		return restoreThread;
 	}
 	
+	/**
+	 * Copies the committed state of the database into a single database file, including the changes which are only
+	 * contained in the write-ahead log. The copy is read from a borrowed read-only connection, such that the writer
+	 * connection remains usable while copying. The copy uses the rollback journal, such that it can be opened by
+	 * earlier versions of Sammelbox as well.
+	 * @param targetFile The file to be created or overwritten.
+	 * @throws DatabaseWrapperOperationException If the database could not be copied.
+	 */
+	public static void copyDatabaseToFile(File targetFile) throws DatabaseWrapperOperationException {
+		Connection readOnlyConnection = ConnectionManager.borrowReadOnlyConnection();
+		
+		try (Statement statement = readOnlyConnection.createStatement()) {
+			statement.executeUpdate("backup to \"" + targetFile.getPath() + "\"");
+		} catch (SQLException sqlEx) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, sqlEx);
+		} finally {
+			ConnectionManager.releaseReadOnlyConnection(readOnlyConnection);
+		}
+		
+		try (Connection copyConnection = DriverManager.getConnection("jdbc:sqlite:" + targetFile.getPath());
+			 Statement statement = copyConnection.createStatement();
+			 ResultSet resultSet = statement.executeQuery("PRAGMA journal_mode = DELETE")) {
+			
+			LOGGER.debug("The journal mode of the copied database is {}", resultSet.next() ? resultSet.getString(1) : null);
+		} catch (SQLException sqlEx) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, sqlEx);
+		}
+	}
+	
 	/** Restores the database entries along the properties and pictures from the specified backup file
 	 * PLEASE NOTE: this method should not be used by the application itself as it will cause the UI to block. 
 	 * Instead, retrieve the corresponding thread!
@@ -163,12 +165,55 @@ public final class DatabaseIntegrityManager {
 		return DatabaseIntegrityManager.lastChangeTimeStampInMillis;
 	}
 	
-	public static void updateLastDatabaseChangeTimeStamp() {
+	public static synchronized void updateLastDatabaseChangeTimeStamp() {
 		DatabaseIntegrityManager.lastChangeTimeStampInMillis = System.currentTimeMillis();
+		DatabaseIntegrityManager.databaseChangeCount++;
 	}
 	
-	public static void updateLastDatabaseChangeTimeStamp(long lastDatabaseChangeTimeStamp) {
+	public static synchronized void updateLastDatabaseChangeTimeStamp(long lastDatabaseChangeTimeStamp) {
 		DatabaseIntegrityManager.lastChangeTimeStampInMillis = lastDatabaseChangeTimeStamp;
+		DatabaseIntegrityManager.databaseChangeCount++;
+	}
+	
+	/**
+	 * Gets the number of changes to the database since the start of the application. Can be used to detect
+	 * whether data read from the database might be outdated.
+	 * @return The number of times the last change time stamp has been updated.
+	 */
+	public static synchronized long getDatabaseChangeCount() {
+		return DatabaseIntegrityManager.databaseChangeCount;
+	}
+	
+	/**
+	 * Remembers the current database state as saved, such that the next autosave is skipped unless an album changes.
+	 * Called whenever a database has been opened and after each autosave.
+	 * @throws DatabaseWrapperOperationException If the album change versions could not be read.
+	 */
+	public static void rememberSavedDatabaseState() throws DatabaseWrapperOperationException {
+		Map<String, Long> albumChangeVersions = DatabaseOperations.getAlbumChangeVersions();
+		
+		synchronized (DatabaseIntegrityManager.class) {
+			savedChangeTimeStampInMillis = lastChangeTimeStampInMillis;
+			savedAlbumChangeVersions = albumChangeVersions;
+		}
+	}
+	
+	/**
+	 * Determines whether the database might have changed since it has been opened or auto-saved. Albums which are added,
+	 * removed or altered without updating the last change time stamp are detected by their change versions.
+	 * @return True if the database might have changed, false if it is known to be unchanged.
+	 * @throws DatabaseWrapperOperationException If the album change versions could not be read.
+	 */
+	private static boolean hasChangedSinceSaved() throws DatabaseWrapperOperationException {
+		Map<String, Long> albumChangeVersions = DatabaseOperations.getAlbumChangeVersions();
+		
+		synchronized (DatabaseIntegrityManager.class) {
+			if (savedAlbumChangeVersions == null) {
+				return lastChangeTimeStampInMillis != -1;
+			}
+			
+			return savedChangeTimeStampInMillis != lastChangeTimeStampInMillis || !savedAlbumChangeVersions.equals(albumChangeVersions);
+		}
 	}
 	
 	/**
@@ -240,15 +285,17 @@ public final class DatabaseIntegrityManager {
 			}
 			autoSaveFilePath = autoSaveFilePath + timeStamp + "." + DatabaseIntegrityManager.AUTO_SAVE_EXTENSION;
 			try {
-				FileSystemAccessWrapper.copyFile(new File(FileSystemLocations.getDatabaseFile()), new File(autoSaveFilePath));
-			} catch (IOException e) {
+				copyDatabaseToFile(new File(autoSaveFilePath));
+			} catch (DatabaseWrapperOperationException e) {
 				LOGGER.error("Autosave - backup failed");
 				throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
 			}
+			
+			rememberSavedDatabaseState();
 		// Auto-saves detected
 		} else {
 			// No need to overwrite the last auto-save when no changes were made.
-			if (getLastDatabaseChangeTimeStamp() == -1) {
+			if (!hasChangedSinceSaved()) {
 				return;
 			}
 	
@@ -263,11 +310,13 @@ public final class DatabaseIntegrityManager {
 			autoSaveFilePath = autoSaveFilePath + timeStamp + "." + DatabaseIntegrityManager.AUTO_SAVE_EXTENSION;
 	
 			try {
-				FileSystemAccessWrapper.copyFile(new File(FileSystemLocations.getDatabaseFile()), new File(autoSaveFilePath));
-			} catch (IOException e) {
+				copyDatabaseToFile(new File(autoSaveFilePath));
+			} catch (DatabaseWrapperOperationException e) {
 				LOGGER.error("Autosave - backup failed");
 				throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
 			}
+			
+			rememberSavedDatabaseState();
 		}
 	}
 }
@@ -0,0 +1,310 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.controller.managers;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemResultSet;
+import org.sammelbox.model.album.AlbumItemStore;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes quick searches on a background worker such that typing does not block the UI thread.
+ * Searches are debounced: a search is only started once no newer search has been submitted for the debounce delay.
+ * A newer search cancels the search in progress, which stops reading its result set and closes its statement.
+ * Only the result of the newest search is handed to the result executor (typically the UI thread).
+ * If a search only extends the terms of the previous search, its result is filtered in memory from the previous result.
+ */
+public final class QuickSearchExecutor {
+	private static final Logger LOGGER = LoggerFactory.getLogger(QuickSearchExecutor.class);
+	/** The default time in milliseconds without further keystrokes before a search is started */
+	public static final long DEFAULT_DEBOUNCE_DELAY_IN_MILLISECONDS = 150;
+	private static final long NANOSECONDS_PER_MILLISECOND = 1000000L;
+
+	/** Receives the items found by a quick search */
+	public interface QuickSearchResultConsumer {
+		/**
+		 * Called by the result executor with the items of the newest search.
+		 * @param albumName The name of the searched album.
+		 * @param albumItems The items found by the search.
+		 */
+		void consume(String albumName, List<AlbumItem> albumItems);
+	}
+
+	private final ScheduledExecutorService worker;
+	private final Executor resultExecutor;
+	private final long debounceDelayInMilliseconds;
+
+	/** The newest search. All older searches are outdated and must not deliver results */
+	private QuickSearch newestSearch = null;
+	private ScheduledFuture<?> scheduledSearch = null;
+	/** The result of the last completed search. Only accessed by the background worker */
+	private RefinableQuickSearchResult lastResult = null;
+
+	private long numberOfSubmittedSearches = 0;
+	private long numberOfDeliveredSearches = 0;
+	private long numberOfRefinedSearches = 0;
+	private long totalLatencyInNanoseconds = 0;
+	private long maximumLatencyInNanoseconds = 0;
+	private long lastLatencyInNanoseconds = 0;
+
+	/**
+	 * Creates a new quick search executor with its own background worker thread.
+	 * @param debounceDelayInMilliseconds The time without further submissions before a search is started.
+	 * @param resultExecutor The executor on which the results are consumed, e.g. the SWT display via asyncExec.
+	 */
+	public QuickSearchExecutor(long debounceDelayInMilliseconds, Executor resultExecutor) {
+		this.debounceDelayInMilliseconds = debounceDelayInMilliseconds;
+		this.resultExecutor = resultExecutor;
+		this.worker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "QuickSearchWorker");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Submits a new quick search. Any pending or running search is cancelled.
+	 * The time of submission is used as start for the latency measurement.
+	 * @param albumName The name of the album to be searched.
+	 * @param quickSearchTerms The terms to be searched for, or null to show all items.
+	 * @param resultConsumer Receives the result on the result executor, unless a newer search has been submitted meanwhile.
+	 */
+	public synchronized void submit(String albumName, List<String> quickSearchTerms, QuickSearchResultConsumer resultConsumer) {
+		cancelPendingSearch();
+
+		final QuickSearch quickSearch = new QuickSearch(albumName, quickSearchTerms, resultConsumer);
+		newestSearch = quickSearch;
+		numberOfSubmittedSearches++;
+
+		scheduledSearch = worker.schedule(new Runnable() {
+			@Override
+			public void run() {
+				execute(quickSearch);
+			}
+		}, debounceDelayInMilliseconds, TimeUnit.MILLISECONDS);
+	}
+
+	/** Cancels the pending or running search, if any. Its result will not be delivered. */
+	public synchronized void cancel() {
+		cancelPendingSearch();
+		newestSearch = null;
+	}
+
+	/** Stops the background worker. Searches submitted afterwards are rejected. */
+	public synchronized void shutdown() {
+		cancel();
+		worker.shutdownNow();
+	}
+
+	/** Returns the number of searches submitted since the last reset of the metrics */
+	public synchronized long getNumberOfSubmittedSearches() {
+		return numberOfSubmittedSearches;
+	}
+
+	/** Returns the number of searches whose result has been consumed since the last reset of the metrics.
+	 * The difference to the number of submitted searches has been debounced or cancelled. */
+	public synchronized long getNumberOfDeliveredSearches() {
+		return numberOfDeliveredSearches;
+	}
+
+	/** Returns the number of searches which have been answered in memory by refining the previous result */
+	public synchronized long getNumberOfRefinedSearches() {
+		return numberOfRefinedSearches;
+	}
+
+	/** Returns the time from the submission to the completed consumption of the last delivered search in milliseconds */
+	public synchronized long getLastLatencyInMilliseconds() {
+		return lastLatencyInNanoseconds / NANOSECONDS_PER_MILLISECOND;
+	}
+
+	/** Returns the highest latency of all delivered searches in milliseconds */
+	public synchronized long getMaximumLatencyInMilliseconds() {
+		return maximumLatencyInNanoseconds / NANOSECONDS_PER_MILLISECOND;
+	}
+
+	/** Returns the average latency of all delivered searches in milliseconds, or 0 if no search has been delivered */
+	public synchronized long getAverageLatencyInMilliseconds() {
+		if (numberOfDeliveredSearches == 0) {
+			return 0;
+		}
+
+		return totalLatencyInNanoseconds / numberOfDeliveredSearches / NANOSECONDS_PER_MILLISECOND;
+	}
+
+	/** Resets all latency metrics and counters */
+	public synchronized void resetMetrics() {
+		numberOfSubmittedSearches = 0;
+		numberOfDeliveredSearches = 0;
+		numberOfRefinedSearches = 0;
+		totalLatencyInNanoseconds = 0;
+		maximumLatencyInNanoseconds = 0;
+		lastLatencyInNanoseconds = 0;
+	}
+
+	private void cancelPendingSearch() {
+		if (scheduledSearch != null) {
+			scheduledSearch.cancel(false);
+			scheduledSearch = null;
+		}
+
+		if (newestSearch != null) {
+			newestSearch.cancelled.set(true);
+		}
+	}
+
+	private synchronized boolean isNewest(QuickSearch quickSearch) {
+		return quickSearch == newestSearch && !quickSearch.cancelled.get();
+	}
+
+	private synchronized void recordLatency(QuickSearch quickSearch) {
+		long latency = System.nanoTime() - quickSearch.submissionTime;
+
+		numberOfDeliveredSearches++;
+		totalLatencyInNanoseconds += latency;
+		lastLatencyInNanoseconds = latency;
+		maximumLatencyInNanoseconds = Math.max(maximumLatencyInNanoseconds, latency);
+
+		LOGGER.debug("Quick search for {} in {} delivered after {} ms", quickSearch.quickSearchTerms, quickSearch.albumName,
+				latency / NANOSECONDS_PER_MILLISECOND);
+	}
+
+	/** Runs on the background worker */
+	private void execute(final QuickSearch quickSearch) {
+		if (!isNewest(quickSearch)) {
+			return;
+		}
+
+		final List<AlbumItem> albumItems;
+		RefinableQuickSearchResult refinedResult = lastResult == null ? null : lastResult.refine(quickSearch.albumName, quickSearch.quickSearchTerms);
+		
+		if (refinedResult != null) {
+			lastResult = refinedResult;
+			albumItems = refinedResult.getAlbumItems();
+			synchronized (this) {
+				numberOfRefinedSearches++;
+			}
+		} else {
+			lastResult = null;
+			
+			try {
+				albumItems = search(quickSearch);
+			} catch (DatabaseWrapperOperationException | SQLException ex) {
+				LOGGER.error("An error occured while performing a quick search on the following terms '" + quickSearch.quickSearchTerms + "'", ex);
+				return;
+			}
+		}
+
+		if (albumItems == null || !isNewest(quickSearch)) {
+			return;
+		}
+
+		resultExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				// A newer search might have been submitted while this result was waiting for the result executor
+				if (isNewest(quickSearch)) {
+					quickSearch.resultConsumer.consume(quickSearch.albumName, albumItems);
+					recordLatency(quickSearch);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Searches the database on a read-only connection, such that the search neither waits for nor blocks the writer connection. 
+	 * The change version is read within the same read transaction as the items, hence both reflect the same committed state.
+	 * If the writer connection has altered the structure of the album but not yet committed the alteration, the search is
+	 * repeated on the writer connection, since the fields of the album are only known as seen by the writer connection.
+	 * @return The items found, or null if the search has been cancelled.
+	 */
+	private List<AlbumItem> search(QuickSearch quickSearch) throws DatabaseWrapperOperationException, SQLException {
+		long catalogVersion = DatabaseOperations.getAlbumSchemaCatalogVersion();
+		Connection readOnlyConnection = ConnectionManager.borrowReadOnlyConnection();
+		
+		try {
+			readOnlyConnection.setAutoCommit(false);
+			
+			try {
+				long albumChangeVersion = DatabaseOperations.getAlbumChangeVersion(readOnlyConnection, quickSearch.albumName);
+				AlbumItemResultSet searchResult = DatabaseOperations.executeQuickSearch(
+						readOnlyConnection, quickSearch.albumName, quickSearch.quickSearchTerms);
+				
+				if (searchResult.matchesMetaData()) {
+					return readSearchResult(quickSearch, searchResult, albumChangeVersion, catalogVersion);
+				}
+				
+				searchResult.close();
+			} finally {
+				// Ends the read transaction
+				readOnlyConnection.setAutoCommit(true);
+			}
+		} finally {
+			ConnectionManager.releaseReadOnlyConnection(readOnlyConnection);
+		}
+		
+		long albumChangeVersion = DatabaseOperations.getAlbumChangeVersion(quickSearch.albumName);
+		return readSearchResult(quickSearch, DatabaseOperations.executeQuickSearch(quickSearch.albumName, quickSearch.quickSearchTerms), 
+				albumChangeVersion, catalogVersion);
+	}
+	
+	private List<AlbumItem> readSearchResult(QuickSearch quickSearch, AlbumItemResultSet searchResult, 
+			long albumChangeVersion, long catalogVersion) throws DatabaseWrapperOperationException {
+		// Reading the items stops as soon as a newer search cancels this one
+		List<AlbumItem> albumItems = AlbumItemStore.readAlbumItems(searchResult, quickSearch.cancelled);
+		
+		if (albumItems != null) {
+			lastResult = RefinableQuickSearchResult.create(
+					quickSearch.albumName, quickSearch.quickSearchTerms, albumItems, albumChangeVersion, catalogVersion);
+		}
+		
+		return albumItems;
+	}
+
+	/** A single submitted quick search */
+	private static final class QuickSearch {
+		private final String albumName;
+		private final List<String> quickSearchTerms;
+		private final QuickSearchResultConsumer resultConsumer;
+		private final long submissionTime = System.nanoTime();
+		private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+		private QuickSearch(String albumName, List<String> quickSearchTerms, QuickSearchResultConsumer resultConsumer) {
+			this.albumName = albumName;
+			this.quickSearchTerms = quickSearchTerms;
+			this.resultConsumer = resultConsumer;
+		}
+	}
+}
@@ -0,0 +1,218 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+
+package org.sammelbox.controller.managers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jdbcdslog.ConnectionLoggingProxy;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException.DBErrorState;
+import org.sammelbox.model.settings.StorageProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteConfig;
+
+/**
+ * A bounded pool of read-only connections to the database, which background tasks borrow such that they neither wait for
+ * nor interfere with the operations on the writer connection. Since the database is in write-ahead log mode, a borrowed
+ * connection reads the state committed when its read transaction started, while the writer continues to commit.<br>
+ * Connections are opened when they are first needed and kept open until the pool is closed. Each connection slot
+ * keeps its {@link ConnectionMetrics} across reopening the pool.
+ */
+final class ReadOnlyConnectionPool {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReadOnlyConnectionPool.class);
+	private static final String SQLITE_CONNECTION_STRING = "jdbc:sqlite:";
+
+	/** The metrics of each slot. A slot holds at most one open connection */
+	private final List<ConnectionMetrics> slotMetrics = new ArrayList<ConnectionMetrics>();
+	/** The open connections which are not borrowed */
+	private final List<Connection> idleConnections = new ArrayList<Connection>();
+	/** Maps each open connection to its slot */
+	private final Map<Connection, Integer> slotsByConnection = new IdentityHashMap<Connection, Integer>();
+	/** The slots without an open connection */
+	private final List<Integer> freeSlots = new ArrayList<Integer>();
+	/** The database file to which connections are opened, or null if the pool is closed */
+	private String databaseFile = null;
+	/** The storage profile applied to new connections */
+	private StorageProfile storageProfile = StorageProfile.SAFE;
+
+	/**
+	 * Creates a closed pool.
+	 * @param capacity The maximum number of connections which are open at the same time.
+	 */
+	ReadOnlyConnectionPool(int capacity) {
+		for (int slot = 0; slot < capacity; slot++) {
+			slotMetrics.add(new ConnectionMetrics("read-only " + (slot + 1)));
+		}
+	}
+
+	/**
+	 * Opens the pool. Connections are opened when they are first borrowed.
+	 * @param databaseFile The path of the database file.
+	 * @param storageProfile The storage profile whose connection settings are applied to each connection.
+	 */
+	synchronized void open(String databaseFile, StorageProfile storageProfile) {
+		close();
+		
+		this.databaseFile = databaseFile;
+		this.storageProfile = storageProfile;
+		for (int slot = 0; slot < slotMetrics.size(); slot++) {
+			freeSlots.add(slot);
+		}
+	}
+
+	/**
+	 * Borrows a connection, waiting until one is returned if all connections are borrowed.
+	 * @param timeoutInMilliseconds The maximum time to wait for a connection.
+	 * @return A read-only connection, which must be returned using {@link #release(Connection)}.
+	 * @throws DatabaseWrapperOperationException If the pool is closed, no connection became available in time
+	 * or a new connection could not be opened.
+	 */
+	synchronized Connection borrow(long timeoutInMilliseconds) throws DatabaseWrapperOperationException {
+		long waitStart = System.nanoTime();
+		long deadline = waitStart + timeoutInMilliseconds * 1000000L;
+
+		while (databaseFile != null && idleConnections.isEmpty() && freeSlots.isEmpty()) {
+			long remainingWaitInMilliseconds = (deadline - System.nanoTime()) / 1000000L;
+			if (remainingWaitInMilliseconds <= 0) {
+				throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, 
+						"No read-only connection has been returned within " + timeoutInMilliseconds + " ms");
+			}
+
+			try {
+				wait(remainingWaitInMilliseconds);
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+				throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, ie);
+			}
+		}
+
+		if (databaseFile == null) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, "The read-only connections are closed");
+		}
+		long waitInNanoseconds = System.nanoTime() - waitStart;
+
+		Connection connection;
+		if (!idleConnections.isEmpty()) {
+			connection = idleConnections.remove(idleConnections.size() - 1);
+		} else {
+			int slot = freeSlots.remove(0);
+			try {
+				connection = openReadOnlyConnection();
+			} catch (SQLException sqlEx) {
+				freeSlots.add(slot);
+				throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, sqlEx);
+			}
+			slotsByConnection.put(connection, slot);
+		}
+
+		slotMetrics.get(slotsByConnection.get(connection)).recordAcquisition(waitInNanoseconds);
+		return connection;
+	}
+
+	/**
+	 * Returns a borrowed connection. Connections returned after the pool has been closed are closed.
+	 * @param connection The connection retrieved by {@link #borrow(long)}.
+	 */
+	synchronized void release(Connection connection) {
+		Integer slot = slotsByConnection.get(connection);
+		if (slot == null) {
+			// Borrowed before the pool has been closed or reopened
+			closeConnection(connection);
+			return;
+		}
+		
+		try {
+			if (!connection.getAutoCommit()) {
+				connection.rollback();
+				connection.setAutoCommit(true);
+			}
+			idleConnections.add(connection);
+		} catch (SQLException sqlEx) {
+			LOGGER.error("A returned read-only connection is no longer usable and is closed", sqlEx);
+			slotsByConnection.remove(connection);
+			freeSlots.add(slot);
+			closeConnection(connection);
+		}
+		
+		notifyAll();
+	}
+
+	/** Closes all idle connections. Borrowed connections are closed as soon as they are returned */
+	synchronized void close() {
+		for (Connection idleConnection : idleConnections) {
+			closeConnection(idleConnection);
+		}
+
+		idleConnections.clear();
+		slotsByConnection.clear();
+		freeSlots.clear();
+		databaseFile = null;
+		notifyAll();
+	}
+
+	/** Returns the maximum number of connections which are open at the same time */
+	int getCapacity() {
+		return slotMetrics.size();
+	}
+
+	/** Returns a snapshot of the metrics of each slot */
+	List<ConnectionMetrics> getMetrics() {
+		List<ConnectionMetrics> metrics = new ArrayList<ConnectionMetrics>();
+		for (ConnectionMetrics metricsOfSlot : slotMetrics) {
+			metrics.add(metricsOfSlot.createSnapshot());
+		}
+
+		return metrics;
+	}
+
+	/** Resets the metrics of all slots */
+	void resetMetrics() {
+		for (ConnectionMetrics metricsOfSlot : slotMetrics) {
+			metricsOfSlot.reset();
+		}
+	}
+
+	private Connection openReadOnlyConnection() throws SQLException {
+		SQLiteConfig readOnlyConfiguration = new SQLiteConfig();
+		readOnlyConfiguration.setReadOnly(true);
+
+		Connection connection = DriverManager.getConnection(SQLITE_CONNECTION_STRING + databaseFile, readOnlyConfiguration.toProperties());
+		connection = ConnectionLoggingProxy.wrap(connection);
+		connection.setAutoCommit(true);
+		ConnectionManager.applyConnectionSettings(connection, storageProfile);
+
+		return connection;
+	}
+
+	private static void closeConnection(Connection connection) {
+		try {
+			connection.close();
+		} catch (SQLException sqlEx) {
+			LOGGER.error("Unable to close a read-only connection", sqlEx);
+		}
+	}
+}
@@ -0,0 +1,267 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.controller.managers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.ColumnarAlbumItemList;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.MetaItemField;
+import org.sammelbox.model.database.QueryBuilder;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+/**
+ * The result of a quick search together with the values of the quick-searchable fields of every found item.
+ * If the terms of a following search only extend the previous terms (e.g. "bea" becomes "beat"), the new result is a subset
+ * of this result and is determined in memory by applying the same matching rules as the database query.
+ * A result can only be refined as long as the searched album has not changed since it has been read.
+ */
+final class RefinableQuickSearchResult {
+	private final String albumName;
+	private final List<String> quickSearchTerms;
+	private final boolean fullTextSearch;
+	private final long albumChangeVersion;
+	private final long catalogVersion;
+	private final ColumnarAlbumItemList albumItems;
+	/** For each item, the tokens (full text search) or the ASCII lower case values (LIKE search) of the quick-searchable fields */
+	private final List<String[]> matchedValues;
+
+	private RefinableQuickSearchResult(String albumName, List<String> quickSearchTerms, boolean fullTextSearch, long albumChangeVersion,
+			long catalogVersion, ColumnarAlbumItemList albumItems, List<String[]> matchedValues) {
+		this.albumName = albumName;
+		this.quickSearchTerms = quickSearchTerms;
+		this.fullTextSearch = fullTextSearch;
+		this.albumChangeVersion = albumChangeVersion;
+		this.catalogVersion = catalogVersion;
+		this.albumItems = albumItems;
+		this.matchedValues = matchedValues;
+	}
+
+	/**
+	 * Creates a refinable result for the items found by a quick search.
+	 * @param albumName The name of the searched album.
+	 * @param quickSearchTerms The terms of the search. Null or empty if all items have been retrieved.
+	 * @param albumItems The items found by the search in the order in which they are shown.
+	 * @param albumChangeVersion The change version of the album read before the search has been started.
+	 * @param catalogVersion The album schema catalog version read before the search has been started.
+	 * @return The refinable result, or null if the result cannot be refined in memory. This is the case for albums with
+	 * quick-searchable fields which are not textual, since e.g. numbers are compared for equality instead of by their prefix.
+	 * @throws DatabaseWrapperOperationException If the album structure could not be read.
+	 */
+	static RefinableQuickSearchResult create(String albumName, List<String> quickSearchTerms, List<AlbumItem> albumItems,
+			long albumChangeVersion, long catalogVersion) throws DatabaseWrapperOperationException {
+		List<String> textualFieldNames = new ArrayList<String>();
+		for (MetaItemField metaItemField : DatabaseOperations.getMetaItemFields(albumName)) {
+			if (!metaItemField.isQuickSearchable()) {
+				continue;
+			}
+
+			if (!isTextualField(metaItemField.getType())) {
+				return null;
+			}
+			textualFieldNames.add(metaItemField.getName());
+		}
+
+		if (textualFieldNames.isEmpty()) {
+			// Without quick-searchable fields, every search shows all items
+			return null;
+		}
+
+		boolean fullTextSearch = DatabaseOperations.hasFullTextIndex(albumName);
+		ColumnarAlbumItemList columnarAlbumItems = ColumnarAlbumItemList.copyOf(albumItems);
+		List<String[]> matchedValues = new ArrayList<String[]>(columnarAlbumItems.size());
+		for (int i=0; i<columnarAlbumItems.size(); i++) {
+			matchedValues.add(extractMatchedValues(columnarAlbumItems, i, textualFieldNames, fullTextSearch));
+		}
+
+		return new RefinableQuickSearchResult(albumName, normalizeTerms(quickSearchTerms), fullTextSearch,
+				albumChangeVersion, catalogVersion, columnarAlbumItems, matchedValues);
+	}
+
+	/** Returns the items of this result in the order in which they are shown. The returned list must not be modified,
+	 * it is returned as it is such that the album item store can adopt it without copying the values */
+	List<AlbumItem> getAlbumItems() {
+		return albumItems;
+	}
+
+	/**
+	 * Determines the result of a new search in memory, provided that the new search is a refinement of this result.
+	 * @param newAlbumName The name of the album to be searched.
+	 * @param newQuickSearchTerms The terms of the new search.
+	 * @return The refined result, or null if the new search must be performed by the database. This is the case if the album
+	 * or the album changed, or if any term has been shortened or replaced instead of extended.
+	 */
+	RefinableQuickSearchResult refine(String newAlbumName, List<String> newQuickSearchTerms) {
+		List<String> newTerms = normalizeTerms(newQuickSearchTerms);
+
+		if (!isRefinement(newAlbumName, newTerms)) {
+			return null;
+		}
+
+		List<Integer> refinedIndexes = new ArrayList<Integer>();
+		List<String[]> refinedMatchedValues = new ArrayList<String[]>();
+		for (int i=0; i<albumItems.size(); i++) {
+			if (matchesAnyTerm(matchedValues.get(i), newTerms)) {
+				refinedIndexes.add(i);
+				refinedMatchedValues.add(matchedValues.get(i));
+			}
+		}
+
+		return new RefinableQuickSearchResult(albumName, newTerms, fullTextSearch,
+				albumChangeVersion, catalogVersion, albumItems.select(refinedIndexes), refinedMatchedValues);
+	}
+
+	private boolean isRefinement(String newAlbumName, List<String> newTerms) {
+		if (!albumName.equals(newAlbumName) || newTerms.isEmpty()
+				|| catalogVersion != DatabaseOperations.getAlbumSchemaCatalogVersion()) {
+			return false;
+		}
+
+		try {
+			if (albumChangeVersion != DatabaseOperations.getAlbumChangeVersion(albumName)) {
+				return false;
+			}
+		} catch (DatabaseWrapperOperationException ex) {
+			// The search is simply performed by the database
+			return false;
+		}
+
+		for (String newTerm : newTerms) {
+			// LIKE wildcards and terms ignored by the full text search would need the database's interpretation
+			if (fullTextSearch ? QueryBuilder.tokenizeForFullTextSearch(newTerm).isEmpty() : newTerm.contains("%") || newTerm.contains("_")) {
+				return false;
+			}
+		}
+
+		if (quickSearchTerms.isEmpty()) {
+			// This result contains all items. Every search is a refinement unless the items need to be ranked
+			return !fullTextSearch || newTerms.size() == 1;
+		}
+
+		// With more than a single term, full text results are ranked by the number of matching terms. A refinement could change the rank
+		if (newTerms.size() != quickSearchTerms.size() || (fullTextSearch && newTerms.size() > 1)) {
+			return false;
+		}
+
+		for (int i=0; i<newTerms.size(); i++) {
+			// Full text search matches prefixes of words, thus only appended characters guarantee a subset
+			boolean isExtended = fullTextSearch ? newTerms.get(i).startsWith(quickSearchTerms.get(i))
+					: foldAsciiCase(newTerms.get(i)).contains(foldAsciiCase(quickSearchTerms.get(i)));
+			if (!isExtended) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private boolean matchesAnyTerm(String[] itemValues, List<String> terms) {
+		for (String term : terms) {
+			if (fullTextSearch ? matchesAllTokenPrefixes(itemValues, QueryBuilder.tokenizeForFullTextSearch(term))
+					: containsTerm(itemValues, foldAsciiCase(term))) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean matchesAllTokenPrefixes(String[] itemTokens, List<String> termTokens) {
+		for (String termToken : termTokens) {
+			boolean found = false;
+			for (String itemToken : itemTokens) {
+				if (itemToken.startsWith(termToken)) {
+					found = true;
+					break;
+				}
+			}
+
+			if (!found) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean containsTerm(String[] itemValues, String foldedTerm) {
+		for (String itemValue : itemValues) {
+			if (itemValue.contains(foldedTerm)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static String[] extractMatchedValues(ColumnarAlbumItemList albumItems, int index, List<String> textualFieldNames, 
+			boolean fullTextSearch) {
+		List<String> values = new ArrayList<String>();
+
+		for (String fieldName : textualFieldNames) {
+			Object fieldValue = albumItems.getFieldValue(index, fieldName);
+			if (fieldValue == null) {
+				continue;
+			}
+
+			String value = String.valueOf(fieldValue);
+			if (fullTextSearch) {
+				values.addAll(QueryBuilder.tokenizeForFullTextSearch(value));
+			} else {
+				values.add(foldAsciiCase(value));
+			}
+		}
+
+		return values.toArray(new String[values.size()]);
+	}
+
+	/** Removes the empty terms, which are ignored by the quick search */
+	private static List<String> normalizeTerms(List<String> quickSearchTerms) {
+		List<String> terms = new ArrayList<String>();
+
+		if (quickSearchTerms != null) {
+			for (String term : quickSearchTerms) {
+				if (!term.isEmpty()) {
+					terms.add(term);
+				}
+			}
+		}
+
+		return terms;
+	}
+
+	private static boolean isTextualField(FieldType fieldType) {
+		return FieldType.TEXT.equals(fieldType) || FieldType.URL.equals(fieldType) || FieldType.OPTION.equals(fieldType);
+	}
+
+	/** Folds ASCII letters to lower case like the LIKE operator of SQLite does */
+	private static String foldAsciiCase(String value) {
+		StringBuilder foldedValue = new StringBuilder(value.length());
+
+		for (int i=0; i<value.length(); i++) {
+			char character = value.charAt(i);
+			foldedValue.append(character >= 'A' && character <= 'Z' ? Character.toLowerCase(character) : character);
+		}
+
+		return foldedValue.toString();
+	}
+}
@@ -29,6 +29,7 @@ import org.sammelbox.controller.events.SammelboxEvent;
 import org.sammelbox.controller.filesystem.xml.XmlStorageWrapper;
 import org.sammelbox.controller.i18n.DictKeys;
 import org.sammelbox.controller.i18n.Translator;
+import org.sammelbox.model.database.ParameterizedQuery;
 import org.sammelbox.model.database.QueryBuilder;
 import org.sammelbox.model.database.QueryBuilderException;
 import org.sammelbox.model.database.QueryComponent;
@@ -231,22 +232,28 @@ public final class SavedSearchManager {
 						this.getOrderByField(), this.isOrderAscending());
 			}
 		}
+		
+		/** Returns the query of this saved search with its values bound to parameters, such that the compiled statement 
+		 * can be reused every time the search is run */
+		public ParameterizedQuery getParameterizedQuery() throws QueryBuilderException {
+			if (this.getOrderByField() == null || this.getOrderByField().isEmpty()) {
+				return QueryBuilder.buildParameterizedQuery(this.getQueryComponents(), 
+						this.isConnectedByAnd(), this.getAlbum());
+			} else {
+				return QueryBuilder.buildParameterizedQuery(this.getQueryComponents(), 
+						this.isConnectedByAnd(), this.getAlbum(), 
+						this.getOrderByField(), this.isOrderAscending());
+			}
+		}
 	}
 
-	public static String getSqlQueryBySavedSearchName(String albumName, String savedSearchName) {
+	public static ParameterizedQuery getSqlQueryBySavedSearchName(String albumName, String savedSearchName) {
 		List<SavedSearch> savedSearches = albumNamesToSavedSearches.get(albumName);
 		
 		for (SavedSearch savedSearch : savedSearches) {
 			if (savedSearch.getName().equals(savedSearchName)) {
 				try {
-					if (savedSearch.getOrderByField() == null || savedSearch.getOrderByField().isEmpty()) {
-						return QueryBuilder.buildQuery(savedSearch.getQueryComponents(), 
-								savedSearch.isConnectedByAnd(), savedSearch.getAlbum());
-					} else {
-						return QueryBuilder.buildQuery(savedSearch.getQueryComponents(), 
-								savedSearch.isConnectedByAnd(), savedSearch.getAlbum(), 
-								savedSearch.getOrderByField(), savedSearch.isOrderAscending());
-					}
+					return savedSearch.getParameterizedQuery();
 				} catch (QueryBuilderException queryBuilderException) {
 					ComponentFactory.getMessageBox(Translator.get(DictKeys.ERROR_AN_ERROR_OCCURRED), queryBuilderException.getMessage(), SWT.ICON_ERROR);
 					LOGGER.error("An error occurred while executing the saved search: ", queryBuilderException);
@@ -0,0 +1,251 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.controller.managers;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException.DBErrorState;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Manages the transaction scopes of the database operations. Operations open a scope before altering the database and
+ * end it afterwards, typically within a finally block. Only the outermost scope is a real transaction boundary, which
+ * creates a savepoint when it is opened and commits the transaction when it ends. Scopes opened by nested operations
+ * (e.g. adding the items of an album within the alteration of a field) only increase the nesting depth.<br>
+ * Since a nested scope has no savepoint of its own, rolling it back marks the complete transaction for rollback.
+ * The transaction is rolled back when the outermost scope ends. If the outermost operation did not roll back itself,
+ * it is informed by an exception since none of its changes have been committed.<br>
+ * The JDBC driver does not support savepoint objects, thus the savepoint of the transaction is a savepoint statement.<br>
+ * Side effects outside of the database which must not happen unless the transaction is committed (e.g. deleting the
+ * picture files of removed items) are registered via {@link #runAfterCommit(Runnable)}.
+ */
+public final class TransactionManager {
+	private static final Logger LOGGER = LoggerFactory.getLogger(TransactionManager.class);
+	/** The name of the savepoint enclosing the transaction of the outermost scope */
+	private static final String TRANSACTION_SAVEPOINT_NAME = "sammelbox_transaction";
+	/** The prefix of the token identifying a scope. The token ends with the nesting depth of the scope */
+	private static final String SCOPE_TOKEN_PREFIX = "scope-";
+
+	/** The number of currently open scopes. Zero if no transaction is active */
+	private static int depth = 0;
+	/** Set if a scope has been rolled back. The transaction is rolled back as soon as the outermost scope ends */
+	private static boolean isRollbackOnly = false;
+	/** Set if the outermost scope itself has been rolled back */
+	private static boolean isOutermostScopeRolledBack = false;
+	/** The number of committed transactions */
+	private static long commitCount = 0;
+	/** The number of rolled back transactions */
+	private static long rollbackCount = 0;
+	/** The number of nested scopes, none of which required a savepoint */
+	private static long nestedScopeCount = 0;
+	/** The actions to be run once the current transaction has been committed, in the order of their registration */
+	private static final List<Runnable> AFTER_COMMIT_ACTIONS = new ArrayList<Runnable>();
+
+	private TransactionManager() {
+		// use static methods
+	}
+
+	/**
+	 * Opens a new scope. The outermost scope starts a new transaction.
+	 * @return The token identifying the scope, which must be passed when ending or rolling back the scope.
+	 * @throws DatabaseWrapperOperationException If the transaction could not be started.
+	 */
+	public static synchronized String beginScope() throws DatabaseWrapperOperationException {
+		if (depth == 0) {
+			executeSavepointStatement("SAVEPOINT " + TRANSACTION_SAVEPOINT_NAME, DBErrorState.ERROR_CLEAN_STATE);
+			isRollbackOnly = false;
+			isOutermostScopeRolledBack = false;
+		} else {
+			nestedScopeCount++;
+		}
+
+		depth++;
+		return SCOPE_TOKEN_PREFIX + depth;
+	}
+
+	/**
+	 * Ends the innermost scope. If it is the outermost scope, the transaction is either committed or, if any scope
+	 * has been rolled back, rolled back.
+	 * @param scopeToken The token returned when the scope has been opened.
+	 * @throws DatabaseWrapperOperationException If the scope is not the innermost scope, if the transaction could not be
+	 * committed, or if the transaction has been rolled back although the outermost scope did not roll back itself.
+	 */
+	public static synchronized void endScope(String scopeToken) throws DatabaseWrapperOperationException {
+		checkInnermostScope(scopeToken);
+		depth--;
+
+		if (depth > 0) {
+			return;
+		}
+
+		if (!isRollbackOnly) {
+			try {
+				executeSavepointStatement("RELEASE SAVEPOINT " + TRANSACTION_SAVEPOINT_NAME, DBErrorState.ERROR_DIRTY_STATE);
+				commitCount++;
+				runAfterCommitActions();
+			} finally {
+				AFTER_COMMIT_ACTIONS.clear();
+			}
+			return;
+		}
+
+		// Also undoes changes made after the outermost scope has been rolled back
+		AFTER_COMMIT_ACTIONS.clear();
+		rollbackTransaction();
+		executeSavepointStatement("RELEASE SAVEPOINT " + TRANSACTION_SAVEPOINT_NAME, DBErrorState.ERROR_DIRTY_STATE);
+		rollbackCount++;
+
+		if (!isOutermostScopeRolledBack) {
+			LOGGER.error("The transaction has been rolled back since a nested operation failed");
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, 
+					"The transaction has been rolled back since a nested operation failed");
+		}
+	}
+
+	/**
+	 * Rolls back the innermost scope. Rolling back the outermost scope undoes all changes of the transaction immediately.
+	 * Rolling back a nested scope marks the transaction such that it is rolled back when the outermost scope ends.
+	 * In both cases, the scope must be ended afterwards.
+	 * @param scopeToken The token returned when the scope has been opened.
+	 * @throws DatabaseWrapperOperationException If the scope is not the innermost scope or the rollback failed.
+	 */
+	public static synchronized void rollbackScope(String scopeToken) throws DatabaseWrapperOperationException {
+		checkInnermostScope(scopeToken);
+		isRollbackOnly = true;
+
+		if (depth == 1) {
+			isOutermostScopeRolledBack = true;
+			rollbackTransaction();
+		}
+	}
+
+	/**
+	 * Registers an action which is run once the current transaction has been committed. The action is dropped if the
+	 * transaction is rolled back. Outside of a transaction, the action is run immediately.
+	 * @param action The action, which should be quick since it is run while the transaction manager is locked.
+	 */
+	public static synchronized void runAfterCommit(Runnable action) {
+		if (depth == 0) {
+			action.run();
+		} else {
+			AFTER_COMMIT_ACTIONS.add(action);
+		}
+	}
+
+	/**
+	 * Forgets the open scopes. Must be called whenever a new connection is opened, since the transaction of the 
+	 * previous connection has ended together with the connection.
+	 */
+	public static synchronized void reset() {
+		if (depth > 0) {
+			LOGGER.warn("The connection has been replaced while {} transaction scopes were open", depth);
+		}
+
+		depth = 0;
+		isRollbackOnly = false;
+		isOutermostScopeRolledBack = false;
+		AFTER_COMMIT_ACTIONS.clear();
+	}
+
+	/**
+	 * Gets the nesting depth of the currently open scopes.
+	 * @return The number of open scopes, zero if no transaction is active.
+	 */
+	public static synchronized int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Gets the number of committed transactions.
+	 * @return The number of commits since the last reset of the statistics.
+	 */
+	public static synchronized long getCommitCount() {
+		return commitCount;
+	}
+
+	/**
+	 * Gets the number of rolled back transactions.
+	 * @return The number of rollbacks since the last reset of the statistics.
+	 */
+	public static synchronized long getRollbackCount() {
+		return rollbackCount;
+	}
+
+	/**
+	 * Gets the number of scopes opened within another scope, none of which required a savepoint.
+	 * @return The number of nested scopes since the last reset of the statistics.
+	 */
+	public static synchronized long getNestedScopeCount() {
+		return nestedScopeCount;
+	}
+
+	/** Resets the commit, rollback and nested scope counters. Open scopes are not affected. */
+	public static synchronized void resetStatistics() {
+		commitCount = 0;
+		rollbackCount = 0;
+		nestedScopeCount = 0;
+	}
+
+	/** Runs all after commit actions. A failing action is logged and does not prevent the remaining actions from running */
+	private static void runAfterCommitActions() {
+		for (Runnable action : new ArrayList<Runnable>(AFTER_COMMIT_ACTIONS)) {
+			try {
+				action.run();
+			} catch (RuntimeException e) {
+				LOGGER.error("An action after the commit of the transaction failed", e);
+			}
+		}
+	}
+
+	private static void checkInnermostScope(String scopeToken) throws DatabaseWrapperOperationException {
+		if (depth == 0 || !(SCOPE_TOKEN_PREFIX + depth).equals(scopeToken)) {
+			LOGGER.error("The scope {} is not the innermost open scope (depth {})", scopeToken, depth);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE);
+		}
+	}
+
+	private static void rollbackTransaction() throws DatabaseWrapperOperationException {
+		try {
+			executeSavepointStatement("ROLLBACK TO SAVEPOINT " + TRANSACTION_SAVEPOINT_NAME, DBErrorState.ERROR_DIRTY_STATE);
+		} finally {
+			// Structural changes might have been undone by the rollback
+			DatabaseOperations.clearAlbumSchemaCatalog();
+		}
+	}
+
+	/** Executes a statement beginning, committing or rolling back the transaction. Its duration is recorded in the writer metrics */
+	private static void executeSavepointStatement(String savepointStatement, DBErrorState errorState) throws DatabaseWrapperOperationException {
+		long executionStart = System.nanoTime();
+		
+		try (Statement statement = ConnectionManager.getConnection().createStatement()) {
+			statement.execute(savepointStatement);
+		} catch (SQLException e) {
+			LOGGER.error("Executing '{}' failed", savepointStatement);
+			throw new DatabaseWrapperOperationException(errorState, e);
+		} finally {
+			ConnectionManager.recordWriterTransactionBoundary(System.nanoTime() - executionStart);
+		}
+	}
+}
@@ -107,9 +107,15 @@ public final class WelcomePageManager {
 		return Translator.get(DictKeys.BROWSER_NEVER);
 	}
 
+	/**
+	 * Gets the number of items in the album. The number is taken from the album statistics, which are maintained 
+	 * while items are added or removed, such that showing the welcome page does not count the items of every album.
+	 * @param albumName The name of the album.
+	 * @return The number of items, or zero if the items could not be counted.
+	 */
 	public static Long getNumberOfItemsInAlbum(String albumName) {
 		try {
-			return DatabaseOperations.getNumberOfItemsInAlbum(albumName);
+			return DatabaseOperations.getAlbumStatistics(albumName).getItemCount();
 		} catch (DatabaseWrapperOperationException ex) {
 			LOGGER.error("Could not retrieve the number of items in the '" + albumName + "' album", ex);
 			
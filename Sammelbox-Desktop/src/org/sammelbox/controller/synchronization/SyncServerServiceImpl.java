@@ -31,7 +31,9 @@ import org.sammelbox.controller.filesystem.FileSystemAccessWrapper;
 import org.sammelbox.controller.filesystem.FileSystemLocations;
 import org.sammelbox.controller.i18n.DictKeys;
 import org.sammelbox.controller.i18n.Translator;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
 import org.sammelbox.controller.managers.SettingsManager;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.view.ApplicationUI;
 import org.sammelbox.view.browser.BrowserFacade;
 import org.sammelbox.view.various.SynchronizeCompositeHelper;
@@ -81,9 +83,7 @@ public class SyncServerServiceImpl implements SyncServerService {
 				LOGGER.error("Could not create sync folder");
 			}
 
-			FileSystemAccessWrapper.copyFile(
-					new File(FileSystemLocations.getDatabaseFile()), 
-					new File(SYNC_DIRECTORY_PATH + FileSystemLocations.DATABASE_NAME));
+			DatabaseIntegrityManager.copyDatabaseToFile(new File(SYNC_DIRECTORY_PATH + FileSystemLocations.DATABASE_NAME));
 
 			FileSystemAccessWrapper.copyDirectory(
 					new File(FileSystemLocations.getThumbnailsDir()), 
@@ -100,8 +100,8 @@ public class SyncServerServiceImpl implements SyncServerService {
 					new File(SYNC_DIRECTORY_PATH + FileSystemLocations.APP_DATA_DIR_NAME));
 
 			FileSystemAccessWrapper.zipFolderToFile(syncFolder.getAbsolutePath(), SYNC_ZIP_ARCHIVE_PATH);
-		} catch (IOException ioe) {
-			LOGGER.error("An error occured while packaging the information before synchronization", ioe);
+		} catch (IOException | DatabaseWrapperOperationException ex) {
+			LOGGER.error("An error occured while packaging the information before synchronization", ex);
 		}
 		
 		return new File(SYNC_ZIP_ARCHIVE_PATH);
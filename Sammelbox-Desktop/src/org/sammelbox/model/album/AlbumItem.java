@@ -19,15 +19,16 @@
 package org.sammelbox.model.album;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import org.sammelbox.controller.filters.ItemFieldFilter;
 import org.sammelbox.model.database.DatabaseStringUtilities;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.operations.DatabaseConstants;
-import org.sammelbox.model.database.operations.DatabaseOperations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +42,9 @@ public class AlbumItem {
 	private List<ItemField> itemFields;
 	private List<AlbumItemPicture> albumItemPictures;
 	private UUID contentVersion;
+	/** True once the item has been marked as stored, such that changes made afterwards can be told apart */
+	private boolean changeTracked = false;
+	private boolean picturesChanged = false;
 	
 	/**
 	 * Constructor
@@ -168,6 +172,35 @@ public class AlbumItem {
 		return itemFields;
 	}
 
+	/**
+	 * Gets all the fields in the order in which they are displayed. Fields which are not displayed (e.g. the id) precede the displayed fields.
+	 * @param displayedFields The displayed fields of the album in display order, as returned by 
+	 * {@link org.sammelbox.model.database.operations.DatabaseOperations#getMetaItemFields(String)}.
+	 * @return A new list containing all fields of this item.
+	 */
+	public List<ItemField> getFieldsInDisplayOrder(List<MetaItemField> displayedFields) {
+		Set<String> displayedFieldNames = new HashSet<String>();
+		for (MetaItemField displayedField : displayedFields) {
+			displayedFieldNames.add(displayedField.getName());
+		}
+		
+		List<ItemField> orderedFields = new ArrayList<ItemField>(itemFields.size());
+		for (ItemField itemField : itemFields) {
+			if (!displayedFieldNames.contains(itemField.getName())) {
+				orderedFields.add(itemField);
+			}
+		}
+		
+		for (MetaItemField displayedField : displayedFields) {
+			ItemField itemField = getField(displayedField.getName());
+			if (itemField != null) {
+				orderedFields.add(itemField);
+			}
+		}
+		
+		return orderedFields;
+	}
+
 	/**
 	 * Sets all the fields by specifying a list of fields. The order of the list specifies the later indices if inserted into the db.
 	 * Ususally used for bulk initialization of the item.
@@ -237,6 +270,20 @@ public class AlbumItem {
 		itemFields.remove(fieldIndex);
 	}
 	
+	/**
+	 * Adds a field whose name, type and quicksearch flag are described by a shared descriptor. Used when reading items 
+	 * from an album, such that all items of the album share the descriptors of their fields.
+	 * @param descriptor The immutable description of the field, e.g. taken from a {@link FieldDescriptorTable}.
+	 * @param value The Java object representing the value of the field. Must be compliant with the type of the descriptor.
+	 */
+	public void addField(FieldDescriptor descriptor, Object value) {
+		itemFields.add(new ItemField(descriptor, value));
+		
+		if (DatabaseConstants.ID_COLUMN_NAME.equals(descriptor.getName())) {
+			itemId = (Long) value;
+		}
+	}
+	
 	/**
 	 * Removes an ItemField from the internal fieldList by matching it against the provided metaItem. 
 	 * More specifically tests for equality between name and type.
@@ -338,18 +385,22 @@ public class AlbumItem {
 		this.contentVersion = contentVersion;
 	}
 	
-	/** Loads the pictures associated with this album item from the database. */
+	/** Loads the pictures associated with this album item from the database. If the item is part of the 
+	 * album item store, the pictures of the following stored items are loaded at the same time. */
 	public void loadPicturesFromDatabase() {
 		try {
-			setPictures(DatabaseOperations.getAlbumItemPictures(albumName, itemId));
+			albumItemPictures = AlbumItemStore.getAlbumItemPictures(this);
 		} catch (DatabaseWrapperOperationException e) {
 			LOGGER.error("Couldn't load album item pictures for album " + albumName + " with id " + itemId + "\n" + 
 							" Stacktrace: " +  e.getMessage());
 		}
 	}
 	
+	/** Sets the pictures of the album item. Once set, the pictures are considered changed, even if the same list is set again.
+	 * @param pictures the pictures associated with the album item */
 	public void setPictures(List<AlbumItemPicture> pictures) {
 		this.albumItemPictures = pictures;
+		this.picturesChanged = true;
 	}
 	
 	/** Returns the list of pictures associated with the album item
@@ -377,6 +428,55 @@ public class AlbumItem {
 		}
 	}
 	
+	/**
+	 * Marks the current state of this item as the state stored in the database, e.g. right after the item has been read.
+	 * From then on, an update of the item only writes the fields changed afterwards, only rewrites the pictures if they have
+	 * been set afterwards, and fails if the stored item no longer has the content version of this item.
+	 */
+	public void markAsStored() {
+		for (ItemField itemField : itemFields) {
+			itemField.markAsStored();
+		}
+		
+		picturesChanged = false;
+		changeTracked = true;
+	}
+	
+	/**
+	 * Indicates whether this item has been marked as stored, i.e. whether its changes are tracked.
+	 * @return True if only the changed fields and pictures of this item need to be written, false if the whole item must be written.
+	 */
+	public boolean isChangeTracked() {
+		return changeTracked;
+	}
+	
+	/**
+	 * Gets the fields which have been changed since the item has been marked as stored.
+	 * @return The changed fields, or all fields if the changes of this item are not tracked.
+	 */
+	public List<ItemField> getChangedFields() {
+		if (!changeTracked) {
+			return itemFields;
+		}
+		
+		List<ItemField> changedFields = new ArrayList<ItemField>();
+		for (ItemField itemField : itemFields) {
+			if (itemField.isChanged()) {
+				changedFields.add(itemField);
+			}
+		}
+		
+		return changedFields;
+	}
+	
+	/**
+	 * Indicates whether the pictures have been set since the item has been marked as stored.
+	 * @return True if the pictures must be written, false if the stored pictures are still valid.
+	 */
+	public boolean arePicturesChanged() {
+		return !changeTracked || picturesChanged;
+	}
+	
 	public void initializeWithDefaultValuesUsingMetaItems(List<MetaItemField> metaItemFields) {
 		itemFields.clear();
 		itemFields.add(new ItemField(DatabaseConstants.ID_COLUMN_NAME, FieldType.ID, ITEM_ID_UNDEFINED));
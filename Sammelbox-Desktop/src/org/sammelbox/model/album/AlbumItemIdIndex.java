@@ -0,0 +1,103 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.model.album;
+
+import java.util.Arrays;
+
+/**
+ * Maps album item ids to the positions of the items within a list. The ids and positions are kept in primitive arrays
+ * (open addressing with linear probing), such that neither the ids nor the positions are boxed.
+ * If several items share an id, the position of the first added item is kept.
+ */
+final class AlbumItemIdIndex {
+	private static final int INITIAL_CAPACITY = 64;
+	private static final int NO_POSITION = -1;
+	/** The golden ratio, used to spread consecutive ids over the table */
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	private long[] ids;
+	private int[] positions;
+	private int shift;
+	private int size = 0;
+
+	AlbumItemIdIndex(int expectedSize) {
+		int capacity = INITIAL_CAPACITY;
+		while (capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+
+		allocate(capacity);
+	}
+
+	/** Adds the position of the given id, unless the id is already known */
+	void put(long id, int position) {
+		if ((size + 1) * 2 > positions.length) {
+			grow();
+		}
+
+		int slot = findSlot(id);
+		if (positions[slot] == NO_POSITION) {
+			ids[slot] = id;
+			positions[slot] = position;
+			size++;
+		}
+	}
+
+	/** Returns the position of the given id, or -1 if the id is unknown */
+	int get(long id) {
+		return positions[findSlot(id)];
+	}
+
+	int size() {
+		return size;
+	}
+
+	/** Returns the slot containing the given id, or the empty slot at which the id would be added */
+	private int findSlot(long id) {
+		int mask = positions.length - 1;
+		int slot = (int) ((id * HASH_MULTIPLIER) >>> shift);
+
+		while (positions[slot] != NO_POSITION && ids[slot] != id) {
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	private void grow() {
+		long[] oldIds = ids;
+		int[] oldPositions = positions;
+
+		allocate(oldPositions.length * 2);
+		for (int i=0; i<oldPositions.length; i++) {
+			if (oldPositions[i] != NO_POSITION) {
+				int slot = findSlot(oldIds[i]);
+				ids[slot] = oldIds[i];
+				positions[slot] = oldPositions[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		ids = new long[capacity];
+		positions = new int[capacity];
+		Arrays.fill(positions, NO_POSITION);
+		shift = Long.numberOfLeadingZeros(capacity - 1);
+	}
+}
@@ -0,0 +1,94 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.model.album;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A window of consecutive album items in the default order of the album. Besides the items, a page remembers the position
+ * of its last item (sort value and id) such that the following page can be requested without skipping the preceding items.
+ */
+public final class AlbumItemPage {
+	private final String albumName;
+	private final String sortFieldName;
+	private final int pageSize;
+	private final ColumnarAlbumItemList albumItems;
+	private final boolean hasNextPage;
+	private final Object lastSortValue;
+	private final long lastAlbumItemId;
+
+	/**
+	 * Creates a new page.
+	 * @param albumName The name of the album to which the items belong.
+	 * @param sortFieldName The field by which the items are ordered, or null if they are ordered by id.
+	 * @param pageSize The maximum number of items of a page.
+	 * @param albumItems The items of this page.
+	 * @param hasNextPage True if further items follow this page.
+	 * @param lastSortValue The sort field value of the last item as stored in the database.
+	 * @param lastAlbumItemId The id of the last item.
+	 */
+	public AlbumItemPage(String albumName, String sortFieldName, int pageSize, List<AlbumItem> albumItems, 
+			boolean hasNextPage, Object lastSortValue, long lastAlbumItemId) {
+		this.albumName = albumName;
+		this.sortFieldName = sortFieldName;
+		this.pageSize = pageSize;
+		this.albumItems = ColumnarAlbumItemList.copyOf(albumItems);
+		this.hasNextPage = hasNextPage;
+		this.lastSortValue = lastSortValue;
+		this.lastAlbumItemId = lastAlbumItemId;
+	}
+
+	public String getAlbumName() {
+		return albumName;
+	}
+
+	/** Returns the field by which the items are ordered, or null if they are ordered by id */
+	public String getSortFieldName() {
+		return sortFieldName;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	public List<AlbumItem> getAlbumItems() {
+		return Collections.unmodifiableList(albumItems);
+	}
+	
+	/** Returns the items of this page without creating album items. Must not be modified */
+	ColumnarAlbumItemList getColumnarAlbumItems() {
+		return albumItems;
+	}
+
+	/** Returns true if further items follow the items of this page */
+	public boolean hasNextPage() {
+		return hasNextPage;
+	}
+
+	/** Returns the sort field value of the last item as stored in the database */
+	public Object getLastSortValue() {
+		return lastSortValue;
+	}
+
+	/** Returns the id of the last item */
+	public long getLastAlbumItemId() {
+		return lastAlbumItemId;
+	}
+}
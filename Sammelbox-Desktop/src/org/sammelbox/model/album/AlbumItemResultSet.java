@@ -19,13 +19,19 @@
 package org.sammelbox.model.album;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
+import org.sammelbox.controller.managers.ConnectionManager;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException.DBErrorState;
 import org.sammelbox.model.database.operations.DatabaseConstants;
@@ -33,13 +39,28 @@ import org.sammelbox.model.database.operations.DatabaseOperations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class AlbumItemResultSet {	
+/**
+ * A forward-only cursor over the items of an album. The items are read from the database while moving through the result set, 
+ * either using {@link #moveToNext()} or by iterating over its rows. The result set must be closed once it is no longer needed, 
+ * which also closes the statement it has been created with, unless the statement has been provided by the caller.
+ */
+public class AlbumItemResultSet implements AutoCloseable, Iterable<AlbumItemResultSet.Row> {	
 	private static final Logger LOGGER = LoggerFactory.getLogger(AlbumItemResultSet.class);
+	/** A fetch size hint suitable for reading large results row by row */
+	public static final int STREAMING_FETCH_SIZE = 1000;
 	
 	private ResultSet items;
+	/** The statement which has been created for this result set and which is closed together with it. Null if provided by the caller */
+	private Statement ownedStatement = null;
+	/** The cached statement which is released to the connection manager together with this result set. Null if not cached */
+	private PreparedStatement cachedStatement = null;
+	private boolean closed = false;
+	private boolean iterated = false;
 	private String albumName = "";
 	private ResultSetMetaData metaData = null;
 	private Map<Integer, MetaItemField> metaInfoMap = new HashMap<Integer, MetaItemField>();
+	/** The descriptors shared by all items created from this result set. Built when first requested */
+	private FieldDescriptorTable fieldDescriptors = null;
 	
 	/**
 	 * Constructor.
@@ -51,6 +72,7 @@ public class AlbumItemResultSet {
 		Statement statement = null;
 		try {
 			statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY,ResultSet.CONCUR_READ_ONLY);
+			this.ownedStatement = statement;
 			this.items = statement.executeQuery(sqlStatement);
 			this.metaData = items.getMetaData();
 			this.albumName = DatabaseOperations.getAlbumName(metaData.getTableName(1));			
@@ -80,6 +102,7 @@ public class AlbumItemResultSet {
 		Statement statement = null;
 		try {
 			statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			this.ownedStatement = statement;
 			this.items = statement.executeQuery(sqlStatement);
 			this.metaData = items.getMetaData();
 			this.albumName = DatabaseOperations.getAlbumName(metaData.getTableName(1));	
@@ -110,6 +133,7 @@ public class AlbumItemResultSet {
 		Statement statement = null;
 		try {
 			statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			this.ownedStatement = statement;
 			this.items = statement.executeQuery(sqlStatement);
 			this.metaData = items.getMetaData();
 			this.albumName = albumName;
@@ -126,6 +150,26 @@ public class AlbumItemResultSet {
 		}
 	}
 
+	/**
+	 * Constructor. Executes a cached statement whose parameters have already been bound. The statement is not closed, 
+	 * but released using {@link ConnectionManager#releasePreparedStatement(PreparedStatement)} when closing this result set 
+	 * or if the result set cannot be created, such that it can be reused.
+	 * @param preparedStatement The compiled statement to yield the result set, retrieved by {@link ConnectionManager#getPreparedStatement(String)}.
+	 * @throws DatabaseWrapperOperationException Exception which will be thrown in case anything went wrong while creating the result set.
+	 */
+	public AlbumItemResultSet(PreparedStatement preparedStatement) throws DatabaseWrapperOperationException {
+		this.cachedStatement = preparedStatement;
+		try {
+			this.items = preparedStatement.executeQuery();
+			this.metaData = items.getMetaData();
+			this.albumName = DatabaseOperations.getAlbumName(metaData.getTableName(1));			
+			this.metaInfoMap = DatabaseOperations.getAlbumItemMetaMap(albumName);
+		} catch (SQLException | DatabaseWrapperOperationException ex) {
+			close();
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, ex);
+		}
+	}
+
 	/**
 	 * Getter for the album name to which this result set refers to.
 	 * @return The name of the album.
@@ -155,6 +199,31 @@ public class AlbumItemResultSet {
 		}
 	}
 	
+	/**
+	 * Indicates whether the columns of the result set are the fields described by the meta data, in the same order. This is not 
+	 * the case if the result set has been read on a connection which does not see the latest change to the structure of the album.
+	 * @return True if the name of each column matches the name of the corresponding field.
+	 */
+	public boolean matchesMetaData() {
+		try {
+			if (metaData == null || metaData.getColumnCount() != metaInfoMap.size()) {
+				return false;
+			}
+			
+			for (int columnIndex = 1; columnIndex <= metaData.getColumnCount(); columnIndex++) {
+				MetaItemField field = metaInfoMap.get(columnIndex);
+				if (field == null || !field.getName().equals(metaData.getColumnName(columnIndex))) {
+					return false;
+				}
+			}
+		} catch (SQLException e) {
+			LOGGER.error("An error occured while comparing the columns of the album item result set with its meta data", e);
+			return false;
+		}
+		
+		return true;
+	}
+	
 	/**
 	 * Gets the number of fields for the current item.
 	 * @return An integer specifying the number of fields.
@@ -221,6 +290,27 @@ public class AlbumItemResultSet {
 		return type;
 	}
 	
+	/**
+	 * Gets the descriptors of the fields in field order, which are shared by all items created from this result set.
+	 * The fields are not marked as quick-searchable.
+	 * @return The descriptor table of the fields of this result set.
+	 */
+	public FieldDescriptorTable getFieldDescriptors() {
+		if (fieldDescriptors == null) {
+			int fieldCount = getFieldCount();
+			String[] fieldNames = new String[fieldCount];
+			FieldType[] fieldTypes = new FieldType[fieldCount];
+			for (int i=1; i<=fieldCount; i++) {
+				fieldNames[i - 1] = getFieldName(i);
+				fieldTypes[i - 1] = getFieldType(i);
+			}
+			
+			fieldDescriptors = FieldDescriptorTable.of(fieldNames, fieldTypes, new boolean[fieldCount]);
+		}
+		
+		return fieldDescriptors;
+	}
+	
 	/**
 	 * Indicates if the specified field index points to an Id field.
 	 * @param fieldIndex The index to be checked.
@@ -241,16 +331,148 @@ public class AlbumItemResultSet {
 	}
 	
 	/**
-	 * Closes the result set and ensures that allocated resources are freed properly-
-	 * @return true if the closing was successfully, false otherwise.
+	 * Gives the database a hint about the number of rows which should be fetched at once.
+	 * @param fetchSize The number of rows, e.g. {@link #STREAMING_FETCH_SIZE}, or zero to let the database decide.
+	 */
+	public void setFetchSize(int fetchSize) {
+		try {
+			items.setFetchSize(fetchSize);
+		} catch (SQLException e) {
+			LOGGER.error("The fetch size of the album item result set could not be set to {}", fetchSize, e);
+		}
+	}
+	
+	/** Returns the number of rows which are fetched at once, or zero if the database decides */
+	public int getFetchSize() {
+		try {
+			return items.getFetchSize();
+		} catch (SQLException e) {
+			LOGGER.error("The fetch size of the album item result set could not be retrieved", e);
+			return 0;
+		}
+	}
+	
+	/**
+	 * Returns an iterator over the remaining rows. Every row is read when the iterator advances to it, such that arbitrarily
+	 * large results can be processed with constant memory. The result set is closed once the last row has been passed.
+	 * The returned row is a view of the current position of the cursor and must not be used after advancing the iterator. 
+	 * A result set can only be iterated once.
+	 */
+	@Override
+	public Iterator<Row> iterator() {
+		if (iterated) {
+			throw new IllegalStateException("The album item result set has already been iterated");
+		}
+		iterated = true;
+		
+		return new RowIterator();
+	}
+	
+	/** Indicates whether the result set has been closed */
+	public boolean isClosed() {
+		return closed;
+	}
+	
+	/**
+	 * Closes the result set and the statement it has been created with, unless the statement has been provided by the caller. 
+	 * Closing an already closed result set has no effect.
 	 */
-	public boolean close() {
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		
 		try {
-			items.close();
+			if (items != null) {
+				items.close();
+			}
 		} catch (SQLException e) {			
-			LOGGER.error("An error occured while closing the album item result set");
-			return false;
+			LOGGER.error("An error occured while closing the album item result set", e);
+		}
+		
+		try {
+			if (ownedStatement != null) {
+				ownedStatement.close();
+			}
+		} catch (SQLException e) {
+			LOGGER.error("An error occured while closing the statement of the album item result set", e);
+		}
+		
+		if (cachedStatement != null) {
+			ConnectionManager.releasePreparedStatement(cachedStatement);
+		}
+	}
+	
+	/** The current row of the result set. Values are read from the database when they are requested */
+	public final class Row {
+		private Row() {
+		}
+		
+		public String getAlbumName() {
+			return albumName;
+		}
+		
+		public int getFieldCount() {
+			return AlbumItemResultSet.this.getFieldCount();
+		}
+		
+		public String getFieldName(int fieldIndex) {
+			return AlbumItemResultSet.this.getFieldName(fieldIndex);
+		}
+		
+		public FieldType getFieldType(int fieldIndex) {
+			return AlbumItemResultSet.this.getFieldType(fieldIndex);
+		}
+		
+		public <T> T getFieldValue(int fieldIndex) throws DatabaseWrapperOperationException {
+			return AlbumItemResultSet.this.getFieldValue(fieldIndex);
+		}
+		
+		/** Creates an album item containing all fields of this row */
+		public AlbumItem toAlbumItem() throws DatabaseWrapperOperationException {
+			FieldDescriptorTable descriptors = getFieldDescriptors();
+			List<ItemField> itemFields = new ArrayList<ItemField>(descriptors.size());
+			
+			for (int i=1; i<=descriptors.size(); i++) {
+				itemFields.add(new ItemField(descriptors.get(i - 1), getFieldValue(i)));
+			}
+			
+			return new AlbumItem(albumName, itemFields);
+		}
+	}
+	
+	private final class RowIterator implements Iterator<Row> {
+		private final Row row = new Row();
+		/** True if the cursor has been moved to a row which has not been returned yet */
+		private boolean hasPendingRow = false;
+		
+		@Override
+		public boolean hasNext() {
+			if (!hasPendingRow && !closed) {
+				hasPendingRow = moveToNext();
+				if (!hasPendingRow) {
+					close();
+				}
+			}
+			
+			return hasPendingRow;
+		}
+		
+		@Override
+		public Row next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			hasPendingRow = false;
+			
+			return row;
+		}
+		
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("Album items cannot be removed from a result set");
 		}
-		return true;
 	}
 }
@@ -20,69 +20,373 @@ package org.sammelbox.model.album;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.sammelbox.controller.filesystem.FileSystemLocations;
 import org.sammelbox.controller.i18n.DictKeys;
 import org.sammelbox.controller.i18n.Translator;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
 import org.sammelbox.view.ApplicationUI;
 import org.sammelbox.view.composites.StatusBarComposite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Holds the album items of the current result, e.g. the pages of the selected album which have been loaded so far.<br>
+ * The values are kept column by column in a {@link ColumnarAlbumItemList}. Every album item returned by the store is a new 
+ * copy created from these values, hence changing a returned item neither changes the store nor the items returned later. 
+ * Changes are written to the database (e.g. using {@link DatabaseOperations#applyAlbumItemChanges}) and then applied to 
+ * the store using {@link #patchStore(List, List)} or by reinitializing the store.
+ */
 public final class AlbumItemStore {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AlbumItemStore.class);
+	/** The number of album items which are loaded at once when browsing an album */
+	public static final int ALBUM_ITEM_PAGE_SIZE = 100;
 	private static final int UPPER_EXCLUSIVE_BOUND_FOR_RANDOM_OPTION = 3;
 	private static final int UPPER_EXCLUSIVE_BOUND_FOR_RANDOM_STAR_RATING = 6;
 	private static final int MULTIPLIER_FOR_RANDOM_DECIMAL = 100;
 	private static final int MAX_RANDOM_INT = 100;
 	private static final String SAMPLE = "Sample";
 	
-	private static List<AlbumItem> albumItems = new ArrayList<AlbumItem>();
+	/** The stored items. Replaced instead of cleared, since a result adopted by the store may still be referenced elsewhere */
+	private static ColumnarAlbumItemList albumItems = new ColumnarAlbumItemList();
+	/** The pictures of the stored items by item id. Filled on demand for a batch of items at a time */
+	private static Map<Long, List<AlbumItemPicture>> albumItemPictures = new HashMap<Long, List<AlbumItemPicture>>();
+	/** The change version of the album and the album schema catalog version at the time the stored pictures have been read */
+	private static long albumItemPicturesChangeVersion = -1;
+	private static long albumItemPicturesCatalogVersion = -1;
+	/** The last page which has been added to the store, or null if the store does not contain pages but a complete result */
+	private static AlbumItemPage lastLoadedPage = null;
 	
 	private AlbumItemStore() {
 	}
 	
 	public static void reinitializeStore(AlbumItemResultSet albumItemResultSet) throws DatabaseWrapperOperationException {
-		albumItems.clear();
-		
-		while (albumItemResultSet.moveToNext()) {
-			List<ItemField> itemFields = new ArrayList<ItemField>();
+		lastLoadedPage = null;
+		albumItemPictures.clear();
+		albumItems = readAlbumItems(albumItemResultSet, new AtomicBoolean(false));
+	}
+	
+	/**
+	 * Reads all items of the result set without modifying the store. Can be used from any thread.
+	 * The result set is closed in any case.
+	 * @param albumItemResultSet The result set to be read.
+	 * @param cancelled Checked before each item. Once set, reading stops and null is returned.
+	 * @return The items of the result set, or null if reading has been cancelled. The values are stored column by column,
+	 * the album items are created when they are accessed.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	public static ColumnarAlbumItemList readAlbumItems(AlbumItemResultSet albumItemResultSet, AtomicBoolean cancelled) throws DatabaseWrapperOperationException {
+		try {
+			albumItemResultSet.setFetchSize(AlbumItemResultSet.STREAMING_FETCH_SIZE);
+			int fieldCount = albumItemResultSet.getFieldCount();
+			ColumnarAlbumItemList readAlbumItems = new ColumnarAlbumItemList(
+					albumItemResultSet.getAlbumName(), albumItemResultSet.getFieldDescriptors());
+			Object[] values = new Object[fieldCount];
 			
-			for (int i=1; i<=albumItemResultSet.getFieldCount(); i++) {				
-				itemFields.add(new ItemField(albumItemResultSet.getFieldName(i), albumItemResultSet.getFieldType(i), albumItemResultSet.getFieldValue(i)));
+			while (albumItemResultSet.moveToNext()) {
+				if (cancelled.get()) {
+					return null;
+				}
+				
+				for (int i=1; i<=fieldCount; i++) {				
+					values[i - 1] = albumItemResultSet.getFieldValue(i);
+				}
+				
+				readAlbumItems.addRow(values, null);
 			}
 			
-			AlbumItem albumItem = new AlbumItem(albumItemResultSet.getAlbumName(), itemFields);
-			albumItem.setFields(itemFields);
-			albumItems.add(albumItem);
+			readAlbumItems.trimToSize();
+			return readAlbumItems;
+		} finally {
+			albumItemResultSet.close();
 		}
+	}
+	
+	/**
+	 * Replaces the content of the store by the given items, e.g. read using {@link #readAlbumItems(AlbumItemResultSet, AtomicBoolean)},
+	 * and updates the number of items in the status bar. Must be called from the UI thread.
+	 * @param newAlbumItems The items to be stored.
+	 */
+	public static void replaceStoreAndUpdateStatus(List<AlbumItem> newAlbumItems) {
+		lastLoadedPage = null;
+		albumItemPictures.clear();
+		albumItems = ColumnarAlbumItemList.copyOf(newAlbumItems);
 		
-		albumItemResultSet.close();
+		updateStatus();
 	}
 	
 	public static void reinitializeStoreAndUpdateStatus(AlbumItemResultSet albumItemResultSet) throws DatabaseWrapperOperationException {
 		reinitializeStore(albumItemResultSet);
 		
-		StatusBarComposite.getInstance(ApplicationUI.getShell()).writeStatus(
-				Translator.get(DictKeys.STATUSBAR_NUMBER_OF_ITEMS, albumItems.size()), false);
+		updateStatus();
+	}
+	
+	/**
+	 * Replaces the content of the store by the items of the given page, typically the first page of an album. 
+	 * Further pages can be added using {@link #appendPage(AlbumItemPage)}. Must be called from the UI thread.
+	 * @param firstPage The page to be stored.
+	 */
+	public static void reinitializeStoreWithPageAndUpdateStatus(AlbumItemPage firstPage) {
+		reinitializeStoreWithPage(firstPage);
+		
+		updateStatus();
+	}
+	
+	/**
+	 * Replaces the content of the store by the items of the given page without updating the status bar.
+	 * @param firstPage The page to be stored.
+	 */
+	public static void reinitializeStoreWithPage(AlbumItemPage firstPage) {
+		albumItems = new ColumnarAlbumItemList();
+		albumItemPictures.clear();
+		lastLoadedPage = null;
+		appendPage(firstPage);
+	}
+	
+	/**
+	 * Patches the items which have been added, updated or removed in place, such that the album does not need to be 
+	 * queried again. Only a store containing the pages of an album can be patched, since the items of any other result 
+	 * might no longer match its query. Changed items which are now ordered after the loaded pages are left to the pages 
+	 * which have not been loaded yet. The store is left untouched if the position of a changed item within the loaded pages
+	 * is unknown, i.e. if a loaded item has a new sort value or an item has been moved into or added to the loaded pages.
+	 * @param changedAlbumItems The added and updated items as stored in the database, e.g. read using 
+	 * {@link DatabaseOperations#getAlbumItems(String, java.util.Collection)}.
+	 * @param removedAlbumItemIds The ids of the removed items.
+	 * @return True if the store has been patched, false if the album must be queried again.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	public static boolean patchStore(List<AlbumItem> changedAlbumItems, List<Long> removedAlbumItemIds) throws DatabaseWrapperOperationException {
+		if (lastLoadedPage == null) {
+			return false;
+		}
+		
+		List<Long> changedAlbumItemIds = new ArrayList<Long>(changedAlbumItems.size());
+		for (AlbumItem changedAlbumItem : changedAlbumItems) {
+			if (!changedAlbumItem.getAlbumName().equals(lastLoadedPage.getAlbumName())) {
+				return false;
+			}
+			changedAlbumItemIds.add(changedAlbumItem.getItemId());
+		}
+		
+		String sortFieldName = lastLoadedPage.getSortFieldName();
+		Set<Long> followingAlbumItemIds = DatabaseOperations.getAlbumItemIdsFollowingPage(lastLoadedPage, changedAlbumItemIds);
+		List<AlbumItem> updatedAlbumItems = new ArrayList<AlbumItem>();
+		List<Long> movedAlbumItemIds = new ArrayList<Long>(removedAlbumItemIds);
+		
+		for (AlbumItem changedAlbumItem : changedAlbumItems) {
+			int index = albumItems.indexOfItemId(changedAlbumItem.getItemId());
+			
+			if (followingAlbumItemIds.contains(changedAlbumItem.getItemId())) {
+				if (!hasNextPage()) {
+					// Without a further page, the item would have to be appended after the last loaded item
+					return false;
+				} else if (index != -1) {
+					movedAlbumItemIds.add(changedAlbumItem.getItemId());
+				}
+			} else if (index != -1 && (sortFieldName == null || isSortValueKept(index, changedAlbumItem, sortFieldName))) {
+				updatedAlbumItems.add(changedAlbumItem);
+			} else {
+				return false;
+			}
+		}
+		
+		// The store is patched on a copy, since the loaded pages are shared with the query result cache
+		ColumnarAlbumItemList patchedAlbumItems = new ColumnarAlbumItemList();
+		patchedAlbumItems.addAll(albumItems);
+		
+		try {
+			for (AlbumItem updatedAlbumItem : updatedAlbumItems) {
+				patchedAlbumItems.set(patchedAlbumItems.indexOfItemId(updatedAlbumItem.getItemId()), updatedAlbumItem);
+			}
+		} catch (IllegalArgumentException ex) {
+			LOGGER.warn("The changed album items do not match the stored album items", ex);
+			return false;
+		}
+		
+		patchedAlbumItems.removeItemIds(movedAlbumItemIds);
+		albumItems = patchedAlbumItems;
+		
+		return true;
+	}
+	
+	/**
+	 * Patches the store as described in {@link #patchStore(List, List)} and updates the number of items in the status bar.
+	 * Must be called from the UI thread.
+	 * @return True if the store has been patched, false if the album must be queried again.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	public static boolean patchStoreAndUpdateStatus(List<AlbumItem> changedAlbumItems, List<Long> removedAlbumItemIds) 
+			throws DatabaseWrapperOperationException {
+		if (!patchStore(changedAlbumItems, removedAlbumItemIds)) {
+			return false;
+		}
+		
+		updateStatus();
+		return true;
+	}
+	
+	private static boolean isSortValueKept(int index, AlbumItem changedAlbumItem, String sortFieldName) {
+		ItemField sortField = changedAlbumItem.getField(sortFieldName);
+		Object storedSortValue = albumItems.getFieldValue(index, sortFieldName);
+		
+		Object changedSortValue = sortField == null ? null : sortField.getValue();
+		
+		return changedSortValue == null ? storedSortValue == null : changedSortValue.equals(storedSortValue);
+	}
+	
+	/**
+	 * Adds the items of the page following the last loaded page to the store.
+	 * @param nextPage The page following {@link #getLastLoadedPage()}.
+	 */
+	public static void appendPage(AlbumItemPage nextPage) {
+		albumItems.addAll(nextPage.getColumnarAlbumItems());
+		lastLoadedPage = nextPage;
+	}
+	
+	/** Returns the last page which has been added to the store, or null if the store contains a complete result instead of pages */
+	public static AlbumItemPage getLastLoadedPage() {
+		return lastLoadedPage;
 	}
 	
+	/** Returns true if the store contains pages and further pages can be loaded */
+	public static boolean hasNextPage() {
+		return lastLoadedPage != null && lastLoadedPage.hasNextPage();
+	}
+	
+	/** Returns all items of the current result, each accessed item being a new copy. If the store contains pages, the remaining pages are loaded first */
 	public static List<AlbumItem> getAllAlbumItems() {
+		try {
+			while (hasNextPage()) {
+				appendPage(DatabaseOperations.getNextAlbumItemPage(lastLoadedPage));
+			}
+		} catch (DatabaseWrapperOperationException ex) {
+			LOGGER.error("Could not load the remaining album items of " + lastLoadedPage.getAlbumName(), ex);
+		}
+		
 		return albumItems;
 	}
 	
+	/** Returns the items which have been loaded so far, each accessed item being a new copy */
 	public static List<AlbumItem> getAlbumItems() {
 		return albumItems;
 	}
 
+	/**
+	 * Returns a copy of the stored item with the given id. If the item has not been loaded yet, the remaining pages are loaded.
+	 * @param albumItemId The id of the requested item.
+	 * @return A new copy of the item, or null if the item is not part of the current result.
+	 */
 	public static AlbumItem getAlbumItem(long albumItemId) {
-		for (AlbumItem albumItem : albumItems) {
-			if (albumItem.getItemId() == albumItemId) {
-				return albumItem;
+		int index = albumItems.indexOfItemId(albumItemId);
+		
+		if (index == -1 && hasNextPage()) {
+			// The item might be part of a page which has not been loaded yet
+			getAllAlbumItems();
+			index = albumItems.indexOfItemId(albumItemId);
+		}
+		
+		return index == -1 ? null : albumItems.get(index);
+	}
+	
+	/**
+	 * Returns the stored items with the given ids. Each item is found in constant time, and the remaining pages are
+	 * loaded at most once if any of the items has not been loaded yet.
+	 * @param albumItemIds The ids of the requested items.
+	 * @return Copies of the items in the order of the given ids. Ids which are not part of the current result are skipped.
+	 */
+	public static List<AlbumItem> getAlbumItems(List<Long> albumItemIds) {
+		List<AlbumItem> requestedAlbumItems = new ArrayList<AlbumItem>(albumItemIds.size());
+		
+		for (long albumItemId : albumItemIds) {
+			if (albumItems.indexOfItemId(albumItemId) == -1 && hasNextPage()) {
+				getAllAlbumItems();
+				break;
+			}
+		}
+		
+		for (long albumItemId : albumItemIds) {
+			int index = albumItems.indexOfItemId(albumItemId);
+			if (index != -1) {
+				requestedAlbumItems.add(albumItems.get(index));
 			}
 		}
 		
-		return null;
+		return requestedAlbumItems;
+	}
+	
+	/** Returns true if the item with the given id has been loaded into the store, without loading further pages */
+	public static boolean isAlbumItemLoaded(long albumItemId) {
+		return albumItems.indexOfItemId(albumItemId) != -1;
+	}
+	
+	/**
+	 * Returns the pictures of the given album item. If the item is part of the store, the pictures of the following stored items 
+	 * whose pictures have not been read yet are retrieved together with the pictures of the given item, such that a view 
+	 * showing the stored items one after the other only requires a single query per page of items.
+	 * @param albumItem The album item whose pictures are requested.
+	 * @return The pictures of the album item, in the order in which they have been added.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	public static List<AlbumItemPicture> getAlbumItemPictures(AlbumItem albumItem) throws DatabaseWrapperOperationException {
+		// Pictures read before any modification of the database might be outdated
+		long albumChangeVersion = DatabaseOperations.getAlbumChangeVersion(albumItem.getAlbumName());
+		long catalogVersion = DatabaseOperations.getAlbumSchemaCatalogVersion();
+		if (albumChangeVersion != albumItemPicturesChangeVersion || catalogVersion != albumItemPicturesCatalogVersion) {
+			albumItemPictures.clear();
+			albumItemPicturesChangeVersion = albumChangeVersion;
+			albumItemPicturesCatalogVersion = catalogVersion;
+		}
+		
+		List<AlbumItemPicture> pictures = albumItemPictures.get(albumItem.getItemId());
+		if (pictures != null) {
+			return pictures;
+		}
+		
+		List<Long> albumItemIds = getAlbumItemIdsWithoutPictures(albumItem);
+		if (albumItemIds.isEmpty()) {
+			// Items which are not part of the store are not cached
+			return DatabaseOperations.getAlbumItemPictures(albumItem.getAlbumName(), albumItem.getItemId());
+		}
+		
+		albumItemPictures.putAll(DatabaseOperations.getAlbumItemPictures(albumItem.getAlbumName(), albumItemIds));
+		
+		return albumItemPictures.get(albumItem.getItemId());
+	}
+	
+	/** Returns the ids of up to one page of stored items without pictures, starting at the given item. 
+	 * The list is empty if the item is not part of the store */
+	private static List<Long> getAlbumItemIdsWithoutPictures(AlbumItem albumItem) {
+		List<Long> albumItemIds = new ArrayList<Long>();
+		if (!albumItem.getAlbumName().equals(albumItems.getAlbumName())) {
+			return albumItemIds;
+		}
+		
+		int index = albumItems.indexOfItemId(albumItem.getItemId());
+		if (index == -1) {
+			return albumItemIds;
+		}
+		
+		albumItemIds.add(albumItem.getItemId());
+		for (int i=index+1; i<albumItems.size() && albumItemIds.size() < ALBUM_ITEM_PAGE_SIZE; i++) {
+			long storedAlbumItemId = albumItems.getItemId(i);
+			if (!albumItemPictures.containsKey(storedAlbumItemId)) {
+				albumItemIds.add(storedAlbumItemId);
+			}
+		}
+		
+		return albumItemIds;
+	}
+	
+	private static void updateStatus() {
+		StatusBarComposite.getInstance(ApplicationUI.getShell()).writeStatus(
+				Translator.get(DictKeys.STATUSBAR_NUMBER_OF_ITEMS, albumItems.size()), false);
 	}
 	
 	public static AlbumItem getSamplePictureAlbumItemWithoutFields() {
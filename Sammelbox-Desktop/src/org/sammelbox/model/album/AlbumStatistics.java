@@ -0,0 +1,173 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.model.album;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the statistics of an album: the number of items and pictures, the minimum, maximum and sum of
+ * every numeric field (see {@link FieldType#INTEGER} and {@link FieldType#DECIMAL}), and the distribution of the values
+ * of every star rating and option field. Missing values are not taken into account.
+ */
+public final class AlbumStatistics {
+	private final String albumName;
+	private final long itemCount;
+	private final long pictureCount;
+	private final Map<String, NumericFieldStatistics> numericFieldStatistics;
+	private final Map<String, Map<StarRating, Long>> starRatingDistributions;
+	private final Map<String, Map<OptionType, Long>> optionDistributions;
+
+	/**
+	 * Constructor. The given maps are adopted and must not be changed afterwards.
+	 * @param albumName The name of the album.
+	 * @param itemCount The number of items in the album.
+	 * @param pictureCount The number of pictures of all items in the album.
+	 * @param numericFieldStatistics The statistics of every numeric field by field name.
+	 * @param starRatingDistributions The number of items per star rating of every star rating field by field name.
+	 * @param optionDistributions The number of items per option of every option field by field name.
+	 */
+	public AlbumStatistics(String albumName, long itemCount, long pictureCount, Map<String, NumericFieldStatistics> numericFieldStatistics,
+			Map<String, Map<StarRating, Long>> starRatingDistributions, Map<String, Map<OptionType, Long>> optionDistributions) {
+		this.albumName = albumName;
+		this.itemCount = itemCount;
+		this.pictureCount = pictureCount;
+		this.numericFieldStatistics = Collections.unmodifiableMap(numericFieldStatistics);
+		this.starRatingDistributions = Collections.unmodifiableMap(starRatingDistributions);
+		this.optionDistributions = Collections.unmodifiableMap(optionDistributions);
+	}
+
+	public String getAlbumName() {
+		return albumName;
+	}
+
+	public long getItemCount() {
+		return itemCount;
+	}
+
+	public long getPictureCount() {
+		return pictureCount;
+	}
+
+	/**
+	 * Gets the statistics of all numeric fields.
+	 * @return An unmodifiable map containing the statistics of every numeric field by field name.
+	 */
+	public Map<String, NumericFieldStatistics> getNumericFieldStatistics() {
+		return numericFieldStatistics;
+	}
+
+	/**
+	 * Gets the statistics of a numeric field.
+	 * @param fieldName The name of an {@link FieldType#INTEGER} or {@link FieldType#DECIMAL} field.
+	 * @return The statistics of the field, or null if there is no such numeric field.
+	 */
+	public NumericFieldStatistics getNumericFieldStatistics(String fieldName) {
+		return numericFieldStatistics.get(fieldName);
+	}
+
+	/**
+	 * Gets the number of items per star rating.
+	 * @param fieldName The name of a {@link FieldType#STAR_RATING} field.
+	 * @return An unmodifiable map containing the number of items for every star rating, or null if there is no such field.
+	 */
+	public Map<StarRating, Long> getStarRatingDistribution(String fieldName) {
+		return starRatingDistributions.get(fieldName);
+	}
+
+	/**
+	 * Gets the number of items per option.
+	 * @param fieldName The name of an {@link FieldType#OPTION} field.
+	 * @return An unmodifiable map containing the number of items for every option, or null if there is no such field.
+	 */
+	public Map<OptionType, Long> getOptionDistribution(String fieldName) {
+		return optionDistributions.get(fieldName);
+	}
+
+	/**
+	 * Creates an unmodifiable distribution from the number of items per enum ordinal.
+	 * @param enumClass The enum whose constants are counted.
+	 * @param counts The number of items for every constant, indexed by ordinal.
+	 * @return An unmodifiable map containing the number of items for every constant.
+	 */
+	public static <E extends Enum<E>> Map<E, Long> createDistribution(Class<E> enumClass, long[] counts) {
+		Map<E, Long> distribution = new EnumMap<E, Long>(enumClass);
+		for (E constant : enumClass.getEnumConstants()) {
+			distribution.put(constant, counts[constant.ordinal()]);
+		}
+
+		return Collections.unmodifiableMap(distribution);
+	}
+
+	@Override
+	public String toString() {
+		return albumName + ": " + itemCount + " items, " + pictureCount + " pictures";
+	}
+
+	/** The number of values, the minimum, the maximum and the sum of a numeric field */
+	public static final class NumericFieldStatistics {
+		private final long valueCount;
+		private final double minimum;
+		private final double maximum;
+		private final double sum;
+
+		/**
+		 * Constructor.
+		 * @param valueCount The number of items which have a value for the field.
+		 * @param minimum The smallest value. Ignored if there are no values.
+		 * @param maximum The largest value. Ignored if there are no values.
+		 * @param sum The sum of all values.
+		 */
+		public NumericFieldStatistics(long valueCount, double minimum, double maximum, double sum) {
+			this.valueCount = valueCount;
+			this.minimum = minimum;
+			this.maximum = maximum;
+			this.sum = sum;
+		}
+
+		public long getValueCount() {
+			return valueCount;
+		}
+
+		/** Returns the smallest value, or null if no item has a value */
+		public Double getMinimum() {
+			return valueCount == 0 ? null : minimum;
+		}
+
+		/** Returns the largest value, or null if no item has a value */
+		public Double getMaximum() {
+			return valueCount == 0 ? null : maximum;
+		}
+
+		public double getSum() {
+			return sum;
+		}
+
+		/** Returns the average value, or null if no item has a value */
+		public Double getAverage() {
+			return valueCount == 0 ? null : sum / valueCount;
+		}
+
+		@Override
+		public String toString() {
+			return valueCount + " values, min " + getMinimum() + ", max " + getMaximum() + ", sum " + sum;
+		}
+	}
+}
@@ -0,0 +1,949 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.model.album;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.UUID;
+
+import org.sammelbox.model.database.operations.DatabaseConstants;
+
+/**
+ * A list of album items which keeps the field values column by column instead of one object per item and field.
+ * Numbers, dates, times, options and star ratings are stored in primitive arrays, repetitive texts are dictionary encoded.
+ * All items share the same structure (album name, field names, types and quick search flags), which is stored once.<br>
+ * Album items are created when they are accessed. Changes to a returned album item are not written back to the list.
+ */
+public final class ColumnarAlbumItemList extends AbstractList<AlbumItem> implements RandomAccess {
+	private static final int INITIAL_CAPACITY = 16;
+	/** Text columns are dictionary encoded until they contain at least this many distinct values... */
+	private static final int MIN_DICTIONARY_SIZE_FOR_PLAIN_TEXT = 256;
+	/** ...and more than one distinct value per this many items */
+	private static final int MIN_ITEMS_PER_DICTIONARY_ENTRY = 2;
+	private static final byte NULL_ORDINAL = -1;
+	private static final int NULL_CODE = -1;
+	/** Rough heap sizes used to estimate the memory retained by a list */
+	private static final int OBJECT_HEADER_BYTES = 16;
+	private static final int REFERENCE_BYTES = 8;
+	private static final int STRING_BYTES = 40;
+
+	private Schema schema;
+	private Column[] columns;
+	private UuidColumn contentVersions;
+	private int size = 0;
+	private int capacity = 0;
+	/** The positions of the items by id. Built on the first lookup and kept up to date while items are added.
+	 * Volatile, since unmodifiable lists may be read by several threads and the index must only be seen once it is complete */
+	private volatile AlbumItemIdIndex itemIdIndex = null;
+	private boolean unmodifiable = false;
+
+	/** Creates an empty list whose structure is defined by the first added album item */
+	public ColumnarAlbumItemList() {
+	}
+
+	/**
+	 * Creates an empty list for album items with the given structure.
+	 * @param albumName The name of the album to which the items belong.
+	 * @param fieldNames The names of the fields of every item, in the order of the fields.
+	 * @param fieldTypes The types of the fields.
+	 * @param quickSearchableFlags True for every field which is quick-searchable.
+	 */
+	public ColumnarAlbumItemList(String albumName, String[] fieldNames, FieldType[] fieldTypes, boolean[] quickSearchableFlags) {
+		this(albumName, FieldDescriptorTable.of(fieldNames, fieldTypes, quickSearchableFlags));
+	}
+
+	/**
+	 * Creates an empty list for album items with the given structure. The items returned by the list share the given descriptors.
+	 * @param albumName The name of the album to which the items belong.
+	 * @param fieldDescriptors The descriptors of the fields of every item, in the order of the fields.
+	 */
+	public ColumnarAlbumItemList(String albumName, FieldDescriptorTable fieldDescriptors) {
+		initialize(new Schema(albumName, fieldDescriptors));
+	}
+
+	/** Returns a columnar copy of the given items, or the given list itself if it is already a columnar list */
+	public static ColumnarAlbumItemList copyOf(List<AlbumItem> albumItems) {
+		if (albumItems instanceof ColumnarAlbumItemList) {
+			return (ColumnarAlbumItemList) albumItems;
+		}
+
+		ColumnarAlbumItemList columnarAlbumItems = new ColumnarAlbumItemList();
+		columnarAlbumItems.addAll(albumItems);
+		columnarAlbumItems.trimToSize();
+
+		return columnarAlbumItems;
+	}
+
+	/**
+	 * Prevents any further change to this list, such that it can be shared, e.g. by a cache.
+	 * Afterwards, all methods which would change the list throw an {@link UnsupportedOperationException}.
+	 * @return This list.
+	 */
+	public ColumnarAlbumItemList makeUnmodifiable() {
+		trimToSize();
+		unmodifiable = true;
+		return this;
+	}
+
+	/** Returns true if this list can no longer be changed */
+	public boolean isUnmodifiable() {
+		return unmodifiable;
+	}
+
+	private void checkModifiable() {
+		if (unmodifiable) {
+			throw new UnsupportedOperationException("The album item list cannot be modified");
+		}
+	}
+
+	private void initialize(Schema newSchema) {
+		schema = newSchema;
+		size = 0;
+		capacity = 0;
+		itemIdIndex = null;
+		columns = new Column[schema.fieldDescriptors.size()];
+		for (int i=0; i<columns.length; i++) {
+			columns[i] = createColumn(schema.fieldDescriptors.get(i).getType());
+		}
+		contentVersions = new UuidColumn();
+	}
+
+	/**
+	 * Creates an album item from the values at the given position. Each call returns a new item, which can be changed 
+	 * without affecting this list. Callers accessing the same item repeatedly should therefore keep the returned item.
+	 */
+	@Override
+	public AlbumItem get(int index) {
+		checkIndex(index);
+
+		List<ItemField> itemFields = new ArrayList<ItemField>(columns.length);
+		for (int i=0; i<columns.length; i++) {
+			itemFields.add(new ItemField(schema.fieldDescriptors.get(i), columns[i].get(index)));
+		}
+
+		AlbumItem albumItem = new AlbumItem(schema.albumName, itemFields);
+		albumItem.setContentVersion((UUID) contentVersions.get(index));
+		albumItem.markAsStored();
+
+		return albumItem;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Appends the values of the given album item.
+	 * @throws IllegalArgumentException If the item does not have the structure of the items of this list.
+	 */
+	@Override
+	public boolean add(AlbumItem albumItem) {
+		checkModifiable();
+		if (schema == null) {
+			initialize(Schema.of(albumItem));
+		} else if (!schema.matches(albumItem)) {
+			throw new IllegalArgumentException("The fields of the album item do not match the fields of the list");
+		}
+
+		ensureCapacity(size + 1);
+		int column = 0;
+		for (ItemField itemField : albumItem.getFields()) {
+			setValue(column++, size, itemField.getValue());
+		}
+		contentVersions.set(size, albumItem.getContentVersion(), size + 1);
+		size++;
+		indexLastItemId();
+		modCount++;
+
+		return true;
+	}
+
+	/**
+	 * Appends the given album items. The values of a columnar list with the same structure are copied without creating album items.
+	 * @throws IllegalArgumentException If the items do not have the structure of the items of this list.
+	 */
+	@Override
+	public boolean addAll(Collection<? extends AlbumItem> albumItems) {
+		checkModifiable();
+		if (!(albumItems instanceof ColumnarAlbumItemList)) {
+			return super.addAll(albumItems);
+		}
+
+		ColumnarAlbumItemList otherAlbumItems = (ColumnarAlbumItemList) albumItems;
+		if (otherAlbumItems.schema == null) {
+			return false;
+		} else if (schema == null) {
+			initialize(otherAlbumItems.schema);
+		} else if (!schema.matches(otherAlbumItems.schema)) {
+			throw new IllegalArgumentException("The fields of the album items do not match the fields of the list");
+		}
+
+		ensureCapacity(size + otherAlbumItems.size);
+		for (int index=0; index<otherAlbumItems.size; index++) {
+			for (int i=0; i<columns.length; i++) {
+				setValue(i, size, otherAlbumItems.columns[i].get(index));
+			}
+			contentVersions.set(size, otherAlbumItems.contentVersions.get(index), size + 1);
+			size++;
+			indexLastItemId();
+		}
+		modCount++;
+
+		return !otherAlbumItems.isEmpty();
+	}
+
+	/**
+	 * Appends an album item with the given field values.
+	 * @param values The values of all fields, in the order of the fields of this list.
+	 * @param contentVersion The content version of the album item, or null if it is not known.
+	 */
+	public void addRow(Object[] values, UUID contentVersion) {
+		checkModifiable();
+		if (schema == null || values.length != columns.length) {
+			throw new IllegalArgumentException("The number of values does not match the fields of the list");
+		}
+
+		ensureCapacity(size + 1);
+		for (int i=0; i<values.length; i++) {
+			setValue(i, size, values[i]);
+		}
+		contentVersions.set(size, contentVersion, size + 1);
+		size++;
+		indexLastItemId();
+		modCount++;
+	}
+
+	/**
+	 * Replaces the values of the item at the given position by the values of the given album item.
+	 * @throws IllegalArgumentException If the item does not have the structure of the items of this list.
+	 */
+	@Override
+	public AlbumItem set(int index, AlbumItem albumItem) {
+		checkModifiable();
+		checkIndex(index);
+		if (!schema.matches(albumItem)) {
+			throw new IllegalArgumentException("The fields of the album item do not match the fields of the list");
+		}
+
+		AlbumItem previousAlbumItem = get(index);
+		int column = 0;
+		for (ItemField itemField : albumItem.getFields()) {
+			setValue(column++, index, itemField.getValue());
+		}
+		contentVersions.set(index, albumItem.getContentVersion(), size);
+		if (previousAlbumItem.getItemId() != albumItem.getItemId()) {
+			itemIdIndex = null;
+		}
+
+		return previousAlbumItem;
+	}
+
+	/**
+	 * Removes the items with the given ids. The remaining items keep their order and are moved together in a single pass.
+	 * @param albumItemIds The ids of the items to be removed. Ids which are not part of the list are ignored.
+	 * @return The number of removed items.
+	 */
+	public int removeItemIds(Collection<Long> albumItemIds) {
+		checkModifiable();
+		if (schema == null || schema.idColumn == -1 || albumItemIds.isEmpty()) {
+			return 0;
+		}
+
+		Set<Long> removedAlbumItemIds = new HashSet<Long>(albumItemIds);
+		int newSize = 0;
+		for (int index=0; index<size; index++) {
+			if (removedAlbumItemIds.contains(getItemId(index))) {
+				continue;
+			}
+
+			if (newSize != index) {
+				for (int i=0; i<columns.length; i++) {
+					setValue(i, newSize, columns[i].get(index));
+				}
+				contentVersions.set(newSize, contentVersions.get(index), newSize + 1);
+			}
+			newSize++;
+		}
+
+		int removedItems = size - newSize;
+		if (removedItems > 0) {
+			truncate(newSize);
+		}
+
+		return removedItems;
+	}
+
+	@Override
+	public void clear() {
+		checkModifiable();
+		if (schema != null) {
+			initialize(schema);
+		}
+		modCount++;
+	}
+
+	/** Removes all items beyond the given number of items */
+	public void truncate(int newSize) {
+		checkModifiable();
+		if (newSize < 0 || newSize > size) {
+			throw new IndexOutOfBoundsException("Size: " + newSize + ", current size: " + size);
+		} else if (newSize == size) {
+			return;
+		}
+
+		for (Column column : columns) {
+			column.clear(newSize, size);
+		}
+		contentVersions.clear(newSize, size);
+		size = newSize;
+		itemIdIndex = null;
+		modCount++;
+	}
+
+	/** Returns a new list containing the items at the given positions, in the given order */
+	public ColumnarAlbumItemList select(List<Integer> indexes) {
+		ColumnarAlbumItemList selection = new ColumnarAlbumItemList();
+		if (schema == null) {
+			return selection;
+		}
+
+		selection.initialize(schema);
+		selection.ensureCapacity(indexes.size());
+		for (int index : indexes) {
+			checkIndex(index);
+			for (int i=0; i<columns.length; i++) {
+				selection.setValue(i, selection.size, columns[i].get(index));
+			}
+			selection.contentVersions.set(selection.size, contentVersions.get(index), selection.size + 1);
+			selection.size++;
+		}
+
+		return selection;
+	}
+
+	/** Reduces the memory reserved for future items to a minimum */
+	public void trimToSize() {
+		if (schema == null || capacity == size) {
+			return;
+		}
+
+		checkModifiable();
+
+		for (Column column : columns) {
+			column.resize(size);
+		}
+		contentVersions.resize(size);
+		capacity = size;
+	}
+
+	/** Returns the name of the album to which the items belong, or null if the list has never contained an item */
+	public String getAlbumName() {
+		return schema == null ? null : schema.albumName;
+	}
+
+	/** Returns the id of the item at the given position without creating the item */
+	public long getItemId(int index) {
+		checkIndex(index);
+
+		if (schema.idColumn == -1) {
+			return AlbumItem.ITEM_ID_UNDEFINED;
+		}
+
+		Column idColumn = columns[schema.idColumn];
+		if (idColumn instanceof LongColumn) {
+			return ((LongColumn) idColumn).getLong(index);
+		}
+
+		Object id = idColumn.get(index);
+		return id instanceof Long ? (Long) id : AlbumItem.ITEM_ID_UNDEFINED;
+	}
+
+	/** Returns the position of the first item with the given id, or -1 if the list does not contain such an item.
+	 * Apart from the first lookup, which indexes the ids of all items, the position is found in constant time */
+	public int indexOfItemId(long albumItemId) {
+		if (schema == null || schema.idColumn == -1) {
+			return -1;
+		}
+
+		AlbumItemIdIndex index = itemIdIndex;
+		if (index == null) {
+			// The index is only published once it is complete
+			index = new AlbumItemIdIndex(size);
+			for (int i=0; i<size; i++) {
+				index.put(getItemId(i), i);
+			}
+			itemIdIndex = index;
+		}
+
+		return index.get(albumItemId);
+	}
+
+	private void indexLastItemId() {
+		if (itemIdIndex != null && schema.idColumn != -1) {
+			itemIdIndex.put(getItemId(size - 1), size - 1);
+		}
+	}
+
+	/** Returns the value of the given field of the item at the given position without creating the item,
+	 * or null if the items do not have such a field */
+	public Object getFieldValue(int index, String fieldName) {
+		checkIndex(index);
+
+		int column = schema.fieldDescriptors.indexOf(fieldName);
+		return column == -1 ? null : columns[column].get(index);
+	}
+
+	/** Returns an estimation of the number of bytes retained by this list, including the values of all fields */
+	public long getEstimatedHeapSize() {
+		long heapSize = OBJECT_HEADER_BYTES;
+		if (schema == null) {
+			return heapSize;
+		}
+
+		for (Column column : columns) {
+			heapSize += column.getEstimatedHeapSize(size);
+		}
+		heapSize += contentVersions.getEstimatedHeapSize(size);
+
+		return heapSize;
+	}
+
+	private static long estimateHeapSize(Object value) {
+		if (value == null) {
+			return 0;
+		} else if (value instanceof String) {
+			return estimateHeapSize((String) value);
+		}
+
+		return OBJECT_HEADER_BYTES + Long.SIZE / Byte.SIZE;
+	}
+
+	private static long estimateHeapSize(String value) {
+		return value == null ? 0 : STRING_BYTES + 2L * value.length();
+	}
+
+	private static long estimateHeapSize(BitSet bitSet) {
+		return OBJECT_HEADER_BYTES + bitSet.size() / Byte.SIZE;
+	}
+
+	private void setValue(int column, int index, Object value) {
+		int numberOfValues = Math.max(size, index + 1);
+		if (!columns[column].set(index, value, numberOfValues)) {
+			// Values which do not have the representation of their field type are kept as they are
+			Column objectColumn = new ObjectColumn(columns[column], size, capacity);
+			objectColumn.set(index, value, numberOfValues);
+			columns[column] = objectColumn;
+		}
+	}
+
+	private void ensureCapacity(int minCapacity) {
+		if (minCapacity <= capacity) {
+			return;
+		}
+
+		int newCapacity = Math.max(Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1)), minCapacity);
+		for (Column column : columns) {
+			column.resize(newCapacity);
+		}
+		contentVersions.resize(newCapacity);
+		capacity = newCapacity;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	private static Column createColumn(FieldType fieldType) {
+		switch (fieldType) {
+		case ID:
+		case DATE:
+		case TIME:
+			return new LongColumn(fieldType);
+		case INTEGER:
+			return new IntColumn();
+		case DECIMAL:
+			return new DoubleColumn();
+		case OPTION:
+			return new EnumColumn(OptionType.values());
+		case STAR_RATING:
+			return new EnumColumn(StarRating.values());
+		case TEXT:
+		case URL:
+			return new TextColumn();
+		case UUID:
+			return new UuidColumn();
+		default:
+			return new ObjectColumn();
+		}
+	}
+
+	/** The structure shared by all items of a list */
+	private static final class Schema {
+		private final String albumName;
+		private final FieldDescriptorTable fieldDescriptors;
+		private final int idColumn;
+
+		private Schema(String albumName, FieldDescriptorTable fieldDescriptors) {
+			this.albumName = albumName;
+			this.fieldDescriptors = fieldDescriptors;
+			this.idColumn = fieldDescriptors.indexOf(DatabaseConstants.ID_COLUMN_NAME);
+		}
+
+		private static Schema of(AlbumItem albumItem) {
+			// Items read from an album share their descriptors, which are therefore kept instead of copied
+			return new Schema(albumItem.getAlbumName(), FieldDescriptorTable.of(albumItem.getFields()));
+		}
+
+		private boolean matches(AlbumItem albumItem) {
+			if (!equal(albumName, albumItem.getAlbumName()) || fieldDescriptors.size() != albumItem.getFields().size()) {
+				return false;
+			}
+
+			Iterator<ItemField> itemFields = albumItem.getFields().iterator();
+			for (int i=0; i<fieldDescriptors.size(); i++) {
+				if (!fieldDescriptors.get(i).describesSameField(itemFields.next().getDescriptor())) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		private boolean matches(Schema schema) {
+			return this == schema || (equal(albumName, schema.albumName) && fieldDescriptors.describesSameFields(schema.fieldDescriptors));
+		}
+
+		private static boolean equal(Object first, Object second) {
+			return first == null ? second == null : first.equals(second);
+		}
+	}
+
+	/** The values of a single field of all items */
+	private abstract static class Column {
+		/**
+		 * Stores the value at the given position. Returns false if the value cannot be represented by this column.
+		 * The size is the number of stored values, including the given position.
+		 */
+		abstract boolean set(int index, Object value, int size);
+
+		abstract Object get(int index);
+
+		/** Changes the number of values which can be stored without growing */
+		abstract void resize(int newCapacity);
+
+		/** Forgets the values between the given positions */
+		abstract void clear(int fromIndex, int toIndex);
+
+		/** Returns an estimation of the number of bytes retained by the column, given the number of stored values */
+		abstract long getEstimatedHeapSize(int size);
+	}
+
+	/** Ids, dates and times, the latter two in milliseconds */
+	private static final class LongColumn extends Column {
+		private final FieldType fieldType;
+		private long[] values = new long[0];
+		private final BitSet nulls = new BitSet();
+
+		private LongColumn(FieldType fieldType) {
+			this.fieldType = fieldType;
+		}
+
+		@Override
+		boolean set(int index, Object value, int size) {
+			if (value == null) {
+				nulls.set(index);
+				return true;
+			}
+
+			if (fieldType == FieldType.ID && value instanceof Long) {
+				values[index] = (Long) value;
+			} else if (fieldType == FieldType.DATE && value.getClass() == Date.class) {
+				values[index] = ((Date) value).getTime();
+			} else if (fieldType == FieldType.TIME && value.getClass() == Time.class) {
+				values[index] = ((Time) value).getTime();
+			} else {
+				return false;
+			}
+
+			nulls.clear(index);
+			return true;
+		}
+
+		long getLong(int index) {
+			return nulls.get(index) ? AlbumItem.ITEM_ID_UNDEFINED : values[index];
+		}
+
+		@Override
+		Object get(int index) {
+			if (nulls.get(index)) {
+				return null;
+			}
+
+			if (fieldType == FieldType.DATE) {
+				return new Date(values[index]);
+			} else if (fieldType == FieldType.TIME) {
+				return new Time(values[index]);
+			}
+
+			return values[index];
+		}
+
+		@Override
+		void resize(int newCapacity) {
+			values = Arrays.copyOf(values, newCapacity);
+		}
+
+		@Override
+		void clear(int fromIndex, int toIndex) {
+			nulls.clear(fromIndex, toIndex);
+		}
+
+		@Override
+		long getEstimatedHeapSize(int size) {
+			return OBJECT_HEADER_BYTES + 8L * values.length + estimateHeapSize(nulls);
+		}
+	}
+
+	private static final class IntColumn extends Column {
+		private int[] values = new int[0];
+		private final BitSet nulls = new BitSet();
+
+		@Override
+		boolean set(int index, Object value, int size) {
+			if (value == null) {
+				nulls.set(index);
+				return true;
+			} else if (!(value instanceof Integer)) {
+				return false;
+			}
+
+			values[index] = (Integer) value;
+			nulls.clear(index);
+			return true;
+		}
+
+		@Override
+		Object get(int index) {
+			return nulls.get(index) ? null : Integer.valueOf(values[index]);
+		}
+
+		@Override
+		void resize(int newCapacity) {
+			values = Arrays.copyOf(values, newCapacity);
+		}
+
+		@Override
+		void clear(int fromIndex, int toIndex) {
+			nulls.clear(fromIndex, toIndex);
+		}
+
+		@Override
+		long getEstimatedHeapSize(int size) {
+			return OBJECT_HEADER_BYTES + 4L * values.length + estimateHeapSize(nulls);
+		}
+	}
+
+	private static final class DoubleColumn extends Column {
+		private double[] values = new double[0];
+		private final BitSet nulls = new BitSet();
+
+		@Override
+		boolean set(int index, Object value, int size) {
+			if (value == null) {
+				nulls.set(index);
+				return true;
+			} else if (!(value instanceof Double)) {
+				return false;
+			}
+
+			values[index] = (Double) value;
+			nulls.clear(index);
+			return true;
+		}
+
+		@Override
+		Object get(int index) {
+			return nulls.get(index) ? null : Double.valueOf(values[index]);
+		}
+
+		@Override
+		void resize(int newCapacity) {
+			values = Arrays.copyOf(values, newCapacity);
+		}
+
+		@Override
+		void clear(int fromIndex, int toIndex) {
+			nulls.clear(fromIndex, toIndex);
+		}
+
+		@Override
+		long getEstimatedHeapSize(int size) {
+			return OBJECT_HEADER_BYTES + 8L * values.length + estimateHeapSize(nulls);
+		}
+	}
+
+	/** Options and star ratings, stored by their ordinal */
+	private static final class EnumColumn extends Column {
+		private final Enum<?>[] constants;
+		private byte[] ordinals = new byte[0];
+
+		private EnumColumn(Enum<?>[] constants) {
+			this.constants = constants;
+		}
+
+		@Override
+		boolean set(int index, Object value, int size) {
+			if (value == null) {
+				ordinals[index] = NULL_ORDINAL;
+				return true;
+			} else if (value.getClass() != constants[0].getDeclaringClass()) {
+				return false;
+			}
+
+			ordinals[index] = (byte) ((Enum<?>) value).ordinal();
+			return true;
+		}
+
+		@Override
+		Object get(int index) {
+			return ordinals[index] == NULL_ORDINAL ? null : constants[ordinals[index]];
+		}
+
+		@Override
+		void resize(int newCapacity) {
+			ordinals = Arrays.copyOf(ordinals, newCapacity);
+		}
+
+		@Override
+		void clear(int fromIndex, int toIndex) {
+			// Positions beyond the size are overwritten when items are added
+		}
+
+		@Override
+		long getEstimatedHeapSize(int size) {
+			return OBJECT_HEADER_BYTES + ordinals.length;
+		}
+	}
+
+	/**
+	 * Texts and URLs. Values are dictionary encoded as long as the same values are used by several items.
+	 * Once the column contains mostly distinct values, the values are stored as they are.
+	 */
+	private static final class TextColumn extends Column {
+		private int[] codes = new int[0];
+		private List<String> dictionary = new ArrayList<String>();
+		private Map<String, Integer> codesByValue = new HashMap<String, Integer>();
+		/** Null as long as the column is dictionary encoded */
+		private String[] values = null;
+
+		@Override
+		boolean set(int index, Object value, int size) {
+			if (value != null && !(value instanceof String)) {
+				return false;
+			}
+
+			if (values != null) {
+				values[index] = (String) value;
+				return true;
+			}
+
+			if (value == null) {
+				codes[index] = NULL_CODE;
+				return true;
+			}
+
+			Integer code = codesByValue.get(value);
+			if (code == null) {
+				if (dictionary.size() >= MIN_DICTIONARY_SIZE_FOR_PLAIN_TEXT
+						&& dictionary.size() * MIN_ITEMS_PER_DICTIONARY_ENTRY >= size) {
+					// All stored values are kept, including those after the given position when an item is replaced
+					switchToPlainValues(size);
+					values[index] = (String) value;
+					return true;
+				}
+
+				code = dictionary.size();
+				dictionary.add((String) value);
+				codesByValue.put((String) value, code);
+			}
+
+			codes[index] = code;
+			return true;
+		}
+
+		private void switchToPlainValues(int numberOfValues) {
+			values = new String[codes.length];
+			for (int i=0; i<numberOfValues; i++) {
+				values[i] = codes[i] == NULL_CODE ? null : dictionary.get(codes[i]);
+			}
+
+			codes = null;
+			dictionary = null;
+			codesByValue = null;
+		}
+
+		@Override
+		Object get(int index) {
+			if (values != null) {
+				return values[index];
+			}
+
+			return codes[index] == NULL_CODE ? null : dictionary.get(codes[index]);
+		}
+
+		@Override
+		void resize(int newCapacity) {
+			if (values != null) {
+				values = Arrays.copyOf(values, newCapacity);
+			} else {
+				codes = Arrays.copyOf(codes, newCapacity);
+			}
+		}
+
+		@Override
+		void clear(int fromIndex, int toIndex) {
+			if (values != null) {
+				Arrays.fill(values, fromIndex, toIndex, null);
+			}
+		}
+
+		@Override
+		long getEstimatedHeapSize(int size) {
+			long heapSize = OBJECT_HEADER_BYTES;
+			if (values != null) {
+				heapSize += (long) REFERENCE_BYTES * values.length;
+				for (int i=0; i<size; i++) {
+					heapSize += estimateHeapSize(values[i]);
+				}
+			} else {
+				heapSize += 4L * codes.length;
+				for (String value : dictionary) {
+					// The value is referenced by the dictionary and by the map of codes
+					heapSize += estimateHeapSize(value) + 4L * REFERENCE_BYTES + OBJECT_HEADER_BYTES;
+				}
+			}
+
+			return heapSize;
+		}
+	}
+
+	private static final class UuidColumn extends Column {
+		private long[] mostSignificantBits = new long[0];
+		private long[] leastSignificantBits = new long[0];
+		private final BitSet nulls = new BitSet();
+
+		@Override
+		boolean set(int index, Object value, int size) {
+			if (value == null) {
+				nulls.set(index);
+				return true;
+			} else if (!(value instanceof UUID)) {
+				return false;
+			}
+
+			mostSignificantBits[index] = ((UUID) value).getMostSignificantBits();
+			leastSignificantBits[index] = ((UUID) value).getLeastSignificantBits();
+			nulls.clear(index);
+			return true;
+		}
+
+		@Override
+		Object get(int index) {
+			return nulls.get(index) ? null : new UUID(mostSignificantBits[index], leastSignificantBits[index]);
+		}
+
+		@Override
+		void resize(int newCapacity) {
+			mostSignificantBits = Arrays.copyOf(mostSignificantBits, newCapacity);
+			leastSignificantBits = Arrays.copyOf(leastSignificantBits, newCapacity);
+		}
+
+		@Override
+		void clear(int fromIndex, int toIndex) {
+			nulls.clear(fromIndex, toIndex);
+		}
+
+		@Override
+		long getEstimatedHeapSize(int size) {
+			return OBJECT_HEADER_BYTES + 16L * mostSignificantBits.length + estimateHeapSize(nulls);
+		}
+	}
+
+	/** Values of unknown types, or values which do not have the representation of their field type */
+	private static final class ObjectColumn extends Column {
+		private Object[] values;
+
+		private ObjectColumn() {
+			values = new Object[0];
+		}
+
+		private ObjectColumn(Column column, int size, int capacity) {
+			values = new Object[capacity];
+			for (int i=0; i<size; i++) {
+				values[i] = column.get(i);
+			}
+		}
+
+		@Override
+		boolean set(int index, Object value, int size) {
+			values[index] = value;
+			return true;
+		}
+
+		@Override
+		Object get(int index) {
+			return values[index];
+		}
+
+		@Override
+		void resize(int newCapacity) {
+			values = Arrays.copyOf(values, newCapacity);
+		}
+
+		@Override
+		void clear(int fromIndex, int toIndex) {
+			Arrays.fill(values, fromIndex, toIndex, null);
+		}
+
+		@Override
+		long getEstimatedHeapSize(int size) {
+			long heapSize = OBJECT_HEADER_BYTES + (long) REFERENCE_BYTES * values.length;
+			for (int i=0; i<size; i++) {
+				heapSize += estimateHeapSize(values[i]);
+			}
+
+			return heapSize;
+		}
+	}
+}
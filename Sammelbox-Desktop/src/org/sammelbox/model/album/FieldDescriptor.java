@@ -0,0 +1,99 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.model.album;
+
+/**
+ * The immutable description (name, type and quicksearch flag) of an album field. Since a descriptor never changes,
+ * a single instance can be shared by the fields of all items of an album, such that each item field only needs
+ * to store its value.
+ */
+public final class FieldDescriptor {
+	private final String name;
+	private final FieldType type;
+	private final boolean quickSearchable;
+
+	/**
+	 * Constructor.
+	 * @param name The name of the field.
+	 * @param type The type of the field.
+	 * @param quickSearchable True if the field is taken into account by the quicksearch feature.
+	 */
+	public FieldDescriptor(String name, FieldType type, boolean quickSearchable) {
+		this.name = name;
+		this.type = type;
+		this.quickSearchable = quickSearchable;
+	}
+
+	/**
+	 * Getter for the name.
+	 * @return The name of the field.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Getter for the type.
+	 * @return The type of the field.
+	 */
+	public FieldType getType() {
+		return type;
+	}
+
+	/**
+	 * Getter for the quicksearch flag.
+	 * @return True if the field is quick-searchable.
+	 */
+	public boolean isQuickSearchable() {
+		return quickSearchable;
+	}
+
+	/** Returns a descriptor which differs from this descriptor in its name only */
+	FieldDescriptor withName(String newName) {
+		return equal(name, newName) ? this : new FieldDescriptor(newName, type, quickSearchable);
+	}
+
+	/** Returns a descriptor which differs from this descriptor in its type only */
+	FieldDescriptor withType(FieldType newType) {
+		return type == newType ? this : new FieldDescriptor(name, newType, quickSearchable);
+	}
+
+	/** Returns a descriptor which differs from this descriptor in its quicksearch flag only */
+	FieldDescriptor withQuickSearchable(boolean newQuickSearchable) {
+		return quickSearchable == newQuickSearchable ? this : new FieldDescriptor(name, type, newQuickSearchable);
+	}
+
+	/**
+	 * Determines whether both descriptors describe the same field.
+	 * @param other The descriptor to compare with.
+	 * @return True if the name, the type and the quicksearch flag are equal.
+	 */
+	public boolean describesSameField(FieldDescriptor other) {
+		return this == other || (other != null && equal(name, other.name) && type == other.type && quickSearchable == other.quickSearchable);
+	}
+
+	private static boolean equal(Object first, Object second) {
+		return first == null ? second == null : first.equals(second);
+	}
+
+	@Override
+	public String toString() {
+		return name + ":" + type;
+	}
+}
@@ -0,0 +1,138 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.model.album;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The immutable field descriptors of an album in field order. The table is shared by all items read from the same
+ * album structure, such that the name, type and quicksearch flag of a field are stored once per album instead of once per value.
+ */
+public final class FieldDescriptorTable {
+	private final FieldDescriptor[] descriptors;
+	/** Maps the field name to the position of the first field of that name */
+	private final Map<String, Integer> positionsByName;
+
+	private FieldDescriptorTable(FieldDescriptor[] descriptors) {
+		this.descriptors = descriptors;
+		this.positionsByName = new HashMap<String, Integer>(descriptors.length * 2);
+
+		for (int i=descriptors.length-1; i>=0; i--) {
+			// The first field of a name is returned by AlbumItem.getField
+			positionsByName.put(descriptors[i].getName(), i);
+		}
+	}
+
+	/**
+	 * Creates a table for the given fields. Fields which already share a descriptor keep sharing it.
+	 * @param fields The fields in field order.
+	 * @return The descriptor table of the fields.
+	 */
+	public static FieldDescriptorTable of(List<? extends MetaItemField> fields) {
+		FieldDescriptor[] descriptors = new FieldDescriptor[fields.size()];
+
+		int i = 0;
+		for (MetaItemField field : fields) {
+			descriptors[i++] = field.getDescriptor();
+		}
+
+		return new FieldDescriptorTable(descriptors);
+	}
+
+	/**
+	 * Creates a table for fields with the given structure.
+	 * @param fieldNames The names of the fields in field order.
+	 * @param fieldTypes The types of the fields.
+	 * @param quickSearchableFlags True for every field which is quick-searchable.
+	 * @return The descriptor table of the fields.
+	 */
+	public static FieldDescriptorTable of(String[] fieldNames, FieldType[] fieldTypes, boolean[] quickSearchableFlags) {
+		if (fieldNames.length != fieldTypes.length || fieldNames.length != quickSearchableFlags.length) {
+			throw new IllegalArgumentException("The field names, types and quick search flags must have the same length");
+		}
+
+		FieldDescriptor[] descriptors = new FieldDescriptor[fieldNames.length];
+		for (int i=0; i<descriptors.length; i++) {
+			descriptors[i] = new FieldDescriptor(fieldNames[i], fieldTypes[i], quickSearchableFlags[i]);
+		}
+
+		return new FieldDescriptorTable(descriptors);
+	}
+
+	/**
+	 * Gets the number of fields.
+	 * @return The number of descriptors in this table.
+	 */
+	public int size() {
+		return descriptors.length;
+	}
+
+	/**
+	 * Gets the descriptor at the given position.
+	 * @param position The position of the field, starting at zero.
+	 * @return The descriptor of the field.
+	 */
+	public FieldDescriptor get(int position) {
+		return descriptors[position];
+	}
+
+	/**
+	 * Gets the position of the first field with the given name.
+	 * @param fieldName The name of the field.
+	 * @return The position of the field, or -1 if there is no such field.
+	 */
+	public int indexOf(String fieldName) {
+		Integer position = positionsByName.get(fieldName);
+		return position == null ? -1 : position;
+	}
+
+	/**
+	 * Gets the descriptor of the first field with the given name.
+	 * @param fieldName The name of the field.
+	 * @return The descriptor, or null if there is no such field.
+	 */
+	public FieldDescriptor get(String fieldName) {
+		int position = indexOf(fieldName);
+		return position == -1 ? null : descriptors[position];
+	}
+
+	/**
+	 * Determines whether both tables describe the same fields in the same order.
+	 * @param other The table to compare with.
+	 * @return True if all descriptors describe the same fields.
+	 */
+	public boolean describesSameFields(FieldDescriptorTable other) {
+		if (this == other) {
+			return true;
+		}
+		if (other == null || descriptors.length != other.descriptors.length) {
+			return false;
+		}
+
+		for (int i=0; i<descriptors.length; i++) {
+			if (!descriptors[i].describesSameField(other.descriptors[i])) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
@@ -22,8 +22,24 @@ import java.sql.Date;
 import java.sql.Time;
 import java.util.UUID;
 
+/**
+ * The value of a field of an album item. The name, type and quicksearch flag are kept in a {@link FieldDescriptor},
+ * which is shared by the fields of all items read from the same album, such that an item field only stores its value.
+ */
 public class ItemField extends MetaItemField {
 	private Object value; 
+	/** True if the value differs from the stored value. Fields which have not been read from the database are always changed */
+	private boolean changed = true;
+	
+	/**
+	 * Constructor sharing the given descriptor, e.g. the descriptor of the album field in a {@link FieldDescriptorTable}.
+	 * @param descriptor The immutable description of the field.
+	 * @param value The value which must be compliant to the type of the descriptor.
+	 */
+	public ItemField(FieldDescriptor descriptor, Object value) {
+		super(descriptor);
+		this.value = value;
+	}
 	
 	/**
 	 * Constructor.
@@ -109,8 +125,25 @@ public class ItemField extends MetaItemField {
 	 * @see {@link FieldType} for supported types.
 	 */
 	public final void setValue(Object value) {
+		if (value == null ? this.value != null : !value.equals(this.value)) {
+			changed = true;
+		}
+		
 		this.value = value;
 	}
+	
+	/**
+	 * Indicates whether the value has been changed since the field has been marked as stored.
+	 * @return True if the value might differ from the value stored in the database, false otherwise.
+	 */
+	public boolean isChanged() {
+		return changed;
+	}
+	
+	/** Marks the current value as the value stored in the database */
+	void markAsStored() {
+		changed = false;
+	}
 
 	/**
 	 * Tests if the value is of the same type as the stored field type. The stored type may be converted
@@ -23,15 +23,22 @@ public class MetaItemField {
 	private static final int RANDOM_INT_FOR_HASHING_IF_NON_QUICKSEARCHABLE = 1237;
 	private static final int RANDOM_INT_FOR_HASHING_IF_QUICKSEARCHABLE = 1231;
 	
-	private String name;
-	private FieldType type;
-	private boolean quickSearchable;
+	/** The name, type and quicksearch flag. Replaced instead of changed, since descriptors are shared between fields */
+	private FieldDescriptor descriptor;
 	
 	/**
 	 * Standard constructor. For internal use by inheriting classes only. 
 	 */
 	protected MetaItemField() {
-		super();
+		this.descriptor = new FieldDescriptor(null, null, false);
+	}
+	
+	/**
+	 * Constructor sharing the given descriptor. For internal use by inheriting classes only.
+	 * @param descriptor The immutable description of the field.
+	 */
+	protected MetaItemField(FieldDescriptor descriptor) {
+		this.descriptor = descriptor;
 	}
 	
 	/**
@@ -41,9 +48,7 @@ public class MetaItemField {
 	 * @param type The type of the field. All values inserted must be of the specified type.
 	 */
 	public MetaItemField(String name, FieldType type) {
-		this.name = name;
-		this.type = type;
-		this.quickSearchable = false;
+		this.descriptor = new FieldDescriptor(name, type, false);
 	}
 	
 	/**
@@ -55,9 +60,15 @@ public class MetaItemField {
 	 * @param quickSearchable True enables quicksearch support, false disables it.
 	 */
 	public MetaItemField(String name, FieldType type, boolean quickSearchable) {
-		this.name = name;
-		this.type = type;
-		this.quickSearchable = quickSearchable;
+		this.descriptor = new FieldDescriptor(name, type, quickSearchable);
+	}
+
+	/**
+	 * Getter for the descriptor, which may be shared with other fields.
+	 * @return The immutable description of this field.
+	 */
+	public FieldDescriptor getDescriptor() {
+		return descriptor;
 	}
 
 	/**
@@ -65,7 +76,7 @@ public class MetaItemField {
 	 * @return The current name.
 	 */
 	public String getName() {
-		return name;
+		return descriptor.getName();
 	}
 
 	/**
@@ -73,7 +84,7 @@ public class MetaItemField {
 	 * @param name The new name.
 	 */
 	public final void setName(String name) {
-		this.name = name;
+		this.descriptor = descriptor.withName(name);
 	}
 
 	/**
@@ -81,7 +92,7 @@ public class MetaItemField {
 	 * @return The current field type.
 	 */
 	public FieldType getType() {
-		return type;
+		return descriptor.getType();
 	}
 
 	/**
@@ -89,17 +100,17 @@ public class MetaItemField {
 	 * @param type The new type.
 	 */
 	public final void setType(FieldType type) {
-		this.type = type;
+		this.descriptor = descriptor.withType(type);
 	}
 	
 	@Override
 	public int hashCode() {
 		int result = 1;
 		final int prime = RANDOM_PRIME_FOR_HASHING;
-		result = prime * result + ((name == null) ? 0 : name.hashCode());
-		result = prime * result + (quickSearchable ? 
+		result = prime * result + ((getName() == null) ? 0 : getName().hashCode());
+		result = prime * result + (isQuickSearchable() ? 
 				 RANDOM_INT_FOR_HASHING_IF_QUICKSEARCHABLE : RANDOM_INT_FOR_HASHING_IF_NON_QUICKSEARCHABLE);
-		result = prime * result + ((type == null) ? 0 : type.toString().hashCode());
+		result = prime * result + ((getType() == null) ? 0 : getType().toString().hashCode());
 		return result;
 	}
 
@@ -115,21 +126,8 @@ public class MetaItemField {
 			return false;
 		}
 		MetaItemField other = (MetaItemField) obj;
-		if (name == null) {
-			if (other.name != null) {
-				return false;
-			}
-		} else if (!name.equals(other.name)) {
-			return false;
-		}
-		if (quickSearchable != other.quickSearchable) {
-			return false;
-		}
-		if (type != other.type) {
-			return false;
-		}
 		
-		return true;
+		return descriptor.describesSameField(other.descriptor);
 	}
 
 	@Override
@@ -142,7 +140,7 @@ public class MetaItemField {
 	 * @return
 	 */
 	public boolean isQuickSearchable() {
-		return quickSearchable;
+		return descriptor.isQuickSearchable();
 	}
 
 	/**
@@ -150,6 +148,6 @@ public class MetaItemField {
 	 * @param quickSearchable The ne state of the Setter for quicksearch feature status.
 	 */
 	public void setQuickSearchable(boolean quickSearchable) {
-		this.quickSearchable = quickSearchable;
+		this.descriptor = descriptor.withQuickSearchable(quickSearchable);
 	}
 }
\ No newline at end of file
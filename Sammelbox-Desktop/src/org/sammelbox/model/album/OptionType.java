@@ -24,12 +24,38 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public enum OptionType {
-	YES,
-	NO,
-	UNKNOWN;
+	YES     (2),
+	NO      (0),
+	UNKNOWN (1);
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(OptionType.class);
 	
+	/** The value stored by albums in the lean row format. Ordered like the names, such that sorting by either yields the same order */
+	private int numericValue;
+	
+	private OptionType(int numericValue) {
+		this.numericValue = numericValue;
+	}
+	
+	public int getIntegerValue() {
+		return numericValue;
+	}
+	
+	/**
+	 * Retrieves the option type which is stored as the given integer value by albums in the lean row format
+	 * @param integerValue the stored integer value
+	 * @return the option type of the value, or UNKNOWN if the value is not an option type value
+	 * */
+	public static OptionType getByIntegerValue(int integerValue) {
+		for (OptionType optionType : OptionType.values()) {
+			if (optionType.getIntegerValue() == integerValue) {
+				return optionType;
+			}
+		}
+		
+		return OptionType.UNKNOWN;
+	}
+	
 	/**
 	 * Retrieves the option type string value which is stored in the database, based on a given dictionary key
 	 * @param dictKey the dictionary key for which the string database value should be retrieved
@@ -44,6 +44,21 @@ public final class DatabaseStringUtilities {
 		return (albumName.toLowerCase()).replace(" ", "_").replace("-", "_") + DatabaseConstants.INDEX_NAME_SUFFIX;
 	}
 	
+	/** Creates a database safe full text index table name for a given album name The according suffix is used! */
+	public static String generateFullTextIndexTableName(String albumName) {
+		return (albumName.toLowerCase()).replace(" ", "_").replace("-", "_") + DatabaseConstants.FULL_TEXT_INDEX_SUFFIX;
+	}
+	
+	/** Creates a database safe name for the index on the sort field of a given album. The according suffix is used! */
+	public static String generateSortIndexName(String albumName) {
+		return (albumName.toLowerCase()).replace(" ", "_").replace("-", "_") + DatabaseConstants.SORT_INDEX_SUFFIX;
+	}
+	
+	/** Creates a database safe name for the index on the album item reference of the picture table of a given album. The according suffix is used! */
+	public static String generatePictureIndexName(String albumName) {
+		return generatePictureTableName(albumName) + DatabaseConstants.PICTURE_INDEX_SUFFIX;
+	}
+	
 	/** Creates a database safe temporary table name for a given album name The according suffix is used! */
 	public static String generateTempTableName(String albumName) {
 		return (albumName.toLowerCase()).replace(" ", "_").replace("-", "_") + DatabaseConstants.TEMP_TABLE_SUFFIX;
@@ -0,0 +1,67 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.model.database;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** 
+ * A query consisting of a statement with bind parameters (?) and the values to be bound. Queries which only differ 
+ * in their values share the same statement and can thus reuse a statement which has already been compiled.
+ */
+public final class ParameterizedQuery {
+	private final String sqlStatement;
+	private final List<Object> parameters;
+
+	public ParameterizedQuery(String sqlStatement, List<Object> parameters) {
+		this.sqlStatement = sqlStatement;
+		this.parameters = Collections.unmodifiableList(new ArrayList<Object>(parameters));
+	}
+
+	/** Returns the SQL statement containing a bind parameter for every value */
+	public String getSqlStatement() {
+		return sqlStatement;
+	}
+
+	/** Returns the values in the order of their bind parameters */
+	public List<Object> getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * Binds the values of this query to the parameters of the given statement.
+	 * @param preparedStatement A statement which has been prepared using {@link #getSqlStatement()}.
+	 * @throws SQLException If a value could not be bound.
+	 */
+	public void bindParameters(PreparedStatement preparedStatement) throws SQLException {
+		preparedStatement.clearParameters();
+		
+		for (int i=0; i<parameters.size(); i++) {
+			preparedStatement.setObject(i + 1, parameters.get(i));
+		}
+	}
+
+	@Override
+	public String toString() {
+		return sqlStatement + " " + parameters;
+	}
+}
@@ -30,7 +30,9 @@ import org.sammelbox.controller.managers.AlbumManager;
 import org.sammelbox.model.album.Album;
 import org.sammelbox.model.album.FieldType;
 import org.sammelbox.model.album.MetaItemField;
+import org.sammelbox.model.album.OptionType;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseConstants;
 import org.sammelbox.model.database.operations.DatabaseOperations;
 import org.sammelbox.view.browser.BrowserFacade;
 import org.slf4j.Logger;
@@ -156,6 +158,43 @@ public final class QueryBuilder {
 	 * @return a valid SQL query as a string. By default a 'SELECT *' is performed on the field/column names. 
 	 * @throws QueryBuilderException */
 	public static String buildQuery(List<QueryComponent> queryComponents, boolean connectByAnd, String albumName, String sortField, boolean sortAscending) throws QueryBuilderException {
+		return buildQuery(queryComponents, connectByAnd, albumName, sortField, sortAscending, null);
+	}
+	
+	/** This method builds a parameterized SQL query out of multiple query components. Instead of being inserted into the statement,
+	 * the values are bound to parameters. Hence, searches which only differ in their values share the same statement.
+	 * @param queryComponents a list of query components.
+	 * @param connectByAnd a boolean specifying whether the query components are connected by AND (connectedByAnd == true) 
+	 * 						or by OR (connectedByAnd == false). 
+	 * @param albumName the name of the album which should be queried.
+	 * @return a parameterized query. By default a 'SELECT *' is performed on the field/column names. 
+	 * @throws QueryBuilderException */
+	public static ParameterizedQuery buildParameterizedQuery(List<QueryComponent> queryComponents, boolean connectByAnd, String albumName) throws QueryBuilderException {
+		return buildParameterizedQuery(queryComponents, connectByAnd, albumName, null, false);
+	}
+	
+	/** This method builds a parameterized SQL query out of multiple query components. Instead of being inserted into the statement,
+	 * the values are bound to parameters. Hence, searches which only differ in their values share the same statement.
+	 * @param queryComponents a list of query components.
+	 * @param connectByAnd a boolean specifying whether the query components are connected by AND (connectedByAnd == true) 
+	 * 						or by OR (connectedByAnd == false). 
+	 * @param albumName the name of the album which should be queried.
+	 * @param sortField the field upon which the results should be sorted. Can be null or empty if not needed
+	 * @param sortAscending only if a sortField is specified. In this case, true means that the results are sorted ascending, false means descending
+	 * @return a parameterized query. By default a 'SELECT *' is performed on the field/column names. 
+	 * @throws QueryBuilderException */
+	public static ParameterizedQuery buildParameterizedQuery(List<QueryComponent> queryComponents, boolean connectByAnd, String albumName, 
+			String sortField, boolean sortAscending) throws QueryBuilderException {
+		List<Object> parameters = new ArrayList<Object>();
+		String sqlStatement = buildQuery(queryComponents, connectByAnd, albumName, sortField, sortAscending, parameters);
+		
+		return new ParameterizedQuery(sqlStatement, parameters);
+	}
+	
+	/** Builds the query. If a parameter list is provided, the values are added to this list and replaced by bind parameters. 
+	 * Otherwise the values are inserted into the query. */
+	private static String buildQuery(List<QueryComponent> queryComponents, boolean connectByAnd, String albumName, String sortField, 
+			boolean sortAscending, List<Object> parameters) throws QueryBuilderException {
 		StringBuilder query = new StringBuilder();
 		query.append("SELECT * FROM " + DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generateTableName(albumName)));
 		
@@ -171,30 +210,39 @@ public final class QueryBuilder {
 		}
 			
 		for (int i=0; i<queryComponents.size(); i++) {	
-			if (fieldNameToFieldTypeMap.get(queryComponents.get(i).getFieldName()) == null) {
-				throw new QueryBuilderException(Translator.get(DictKeys.ERROR_FIELD_CAUSES_PROBLEMS, queryComponents.get(i).getFieldName()));
+			QueryComponent queryComponent = queryComponents.get(i);
+			FieldType fieldType = fieldNameToFieldTypeMap.get(queryComponent.getFieldName());
+			
+			if (fieldType == null) {
+				throw new QueryBuilderException(Translator.get(DictKeys.ERROR_FIELD_CAUSES_PROBLEMS, queryComponent.getFieldName()));
+			}
+			
+			String column = "[" + queryComponent.getFieldName() + "]";
+			if (fieldType.equals(FieldType.OPTION)) {
+				// Options are compared by their name, even if they are stored by their integer value
+				column = createOptionNameExpression(column);
 			}
+			query.append("(" + column + " " + toSQLOperator(queryComponent.getOperator()) + " ");
 			
-			if (fieldNameToFieldTypeMap.get(queryComponents.get(i).getFieldName()).equals(FieldType.OPTION) ||
-					fieldNameToFieldTypeMap.get(queryComponents.get(i).getFieldName()).equals(FieldType.URL) ||
-					fieldNameToFieldTypeMap.get(queryComponents.get(i).getFieldName()).equals(FieldType.TEXT)) {
-				if (queryComponents.get(i).getOperator() == QueryOperator.CONTAINS) {
-					query.append( "(" +
-							"[" + queryComponents.get(i).getFieldName() + "] " + 
-							toSQLOperator(queryComponents.get(i).getOperator()) + " " + 
-							"'%" + DatabaseStringUtilities.sanitizeSingleQuotesInAlbumItemValues(queryComponents.get(i).getValue()) + "%')");
+			if (fieldType.equals(FieldType.OPTION) || fieldType.equals(FieldType.URL) || fieldType.equals(FieldType.TEXT)) {
+				String value = queryComponent.getOperator() == QueryOperator.CONTAINS ? "%" + queryComponent.getValue() + "%" : queryComponent.getValue();
+				
+				if (parameters == null) {
+					query.append("'" + DatabaseStringUtilities.sanitizeSingleQuotesInAlbumItemValues(value) + "'");
 				} else {
-					query.append( "(" +
-							"[" + queryComponents.get(i).getFieldName() + "] " + 
-							toSQLOperator(queryComponents.get(i).getOperator()) + " " + 
-							"'" + DatabaseStringUtilities.sanitizeSingleQuotesInAlbumItemValues(queryComponents.get(i).getValue()) + "')");
+					query.append("?");
+					parameters.add(value);
 				}
 			} else {
-				query.append( "(" +
-						"[" + queryComponents.get(i).getFieldName() + "] " + 
-						toSQLOperator(queryComponents.get(i).getOperator()) + " " + 
-						queryComponents.get(i).getValue() + ")");
+				if (parameters == null) {
+					query.append(queryComponent.getValue());
+				} else {
+					query.append("?");
+					parameters.add(toNumericParameter(queryComponent.getValue()));
+				}
 			}
+			
+			query.append(")");
 
 			if (i+1 != queryComponents.size()) {
 				if (connectByAnd) {
@@ -217,6 +265,35 @@ public final class QueryBuilder {
 		
 		return query.toString();
 	}
+	
+	/**
+	 * Creates an SQL expression which yields the name of a stored option. Albums in the lean row format store options by their
+	 * integer value, which is transformed into the name. Names (as stored by albums in the row format v1) are kept.
+	 * @param columnExpression The expression yielding the stored option, e.g. the column name.
+	 * @return The SQL expression yielding the name of the option.
+	 */
+	public static String createOptionNameExpression(String columnExpression) {
+		StringBuilder expression = new StringBuilder("(CASE ").append(columnExpression);
+		for (OptionType optionType : OptionType.values()) {
+			expression.append(" WHEN ").append(optionType.getIntegerValue()).append(" THEN '").append(optionType.toString()).append("'");
+		}
+		
+		return expression.append(" ELSE ").append(columnExpression).append(" END)").toString();
+	}
+	
+	/** Numbers, dates and star ratings are bound as numbers such that they are compared numerically. Values which
+	 * are not a number are bound as they are */
+	private static Object toNumericParameter(String value) {
+		try {
+			return Long.valueOf(value.trim());
+		} catch (NumberFormatException notAnInteger) {
+			try {
+				return Double.valueOf(value.trim());
+			} catch (NumberFormatException notADecimal) {
+				return value;
+			}
+		}
+	}
 
 	/** This method builds a SQL query out of multiple query components and executes the resulting query. The result set is presented
 	 * using the BrowserContent class.
@@ -226,8 +303,7 @@ public final class QueryBuilder {
 	 * @param album the name of the album which should be queried 
 	 * @throws QueryBuilderException */
 	public static void buildQueryAndExecute(ArrayList<QueryComponent> queryComponents, boolean connectByAnd, String album) throws QueryBuilderException {
-		String query = buildQuery(queryComponents, connectByAnd, album, null, false);		
-		BrowserFacade.performBrowserQueryAndShow(query);
+		BrowserFacade.performBrowserQueryAndShow(buildParameterizedQuery(queryComponents, connectByAnd, album, null, false));
 	}
 
 	/** This method builds a SQL query out of multiple query components and executes the resulting query. The result set is presented
@@ -240,11 +316,178 @@ public final class QueryBuilder {
 	 * @param album the name of the album which should be queried 
 	 * @throws QueryBuilderException */
 	public static void buildQueryAndExecute(ArrayList<QueryComponent> queryComponents, boolean connectByAnd, String album, String sortField, boolean sortAscending) throws QueryBuilderException {
-		String query = buildQuery(queryComponents, connectByAnd, album, sortField, sortAscending);
-		BrowserFacade.performBrowserQueryAndShow(query);
+		BrowserFacade.performBrowserQueryAndShow(buildParameterizedQuery(queryComponents, connectByAnd, album, sortField, sortAscending));
 	}
 
 	public static String createOrderedSelectStarQuery(String albumName) {		
+		String sortByColumn = getSortByColumn(albumName);
+		
+		return "SELECT * " + 
+	           "FROM " + DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generateTableName(albumName)) + 
+	           (sortByColumn == null ? "" : " ORDER BY " + sortByColumn);
+	}
+	
+	/**
+	 * Creates a quick search query which uses the full text index of the album. An item is part of the result if its indexed
+	 * fields match at least one of the match expressions, or if it satisfies at least one of the additional components.
+	 * The items are ranked by the number of matching expressions, ties are ordered like {@link #createOrderedSelectStarQuery(String)}.
+	 * @param albumName The album on which the query should be performed. The album must have a full text index.
+	 * @param matchExpressions The full text match expressions, see {@link #createFullTextMatchExpression(String)}.
+	 * @param additionalComponents Components on fields which are not part of the full text index (e.g. numbers and dates).
+	 * Their values are inserted as they are and must therefore be numeric.
+	 * @return A string containing the proper SQL string. The columns are the same as for a select * on the album table. 
+	 */
+	public static String createFullTextQuickSearchQuery(String albumName, List<String> matchExpressions, List<QueryComponent> additionalComponents) {
+		String indexTableName = DatabaseStringUtilities.transformColumnNameToSelectQueryName(
+				DatabaseStringUtilities.generateFullTextIndexTableName(albumName));
+		
+		StringBuilder matchQuery = new StringBuilder();
+		for (String matchExpression : matchExpressions) {
+			if (matchQuery.length() > 0) {
+				matchQuery.append(" UNION ALL ");
+			}
+			matchQuery.append("SELECT docid FROM " + indexTableName + " WHERE " + indexTableName + 
+					" MATCH '" + DatabaseStringUtilities.sanitizeSingleQuotesInAlbumItemValues(matchExpression) + "'");
+		}
+		
+		StringBuilder query = new StringBuilder("SELECT album.* FROM ");
+		query.append(DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generateTableName(albumName)));
+		query.append(" AS album");
+		
+		if (matchExpressions.isEmpty()) {
+			// Without match expressions the full text index cannot contribute to the result
+			query.append(" WHERE 0");
+		} else {
+			// Only items found in the full text index qualify unless there are additional components. Thus the index drives the join
+			query.append(additionalComponents.isEmpty() ? " JOIN " : " LEFT JOIN ");
+			query.append("(SELECT docid, COUNT(*) AS relevance FROM (" + matchQuery + ") GROUP BY docid) AS matches");
+			query.append(" ON album.id = matches.docid");
+			query.append(" WHERE matches.docid IS NOT NULL");
+		}
+		
+		for (QueryComponent additionalComponent : additionalComponents) {
+			query.append(" OR (album." + DatabaseStringUtilities.transformColumnNameToSelectQueryName(additionalComponent.getFieldName()) + 
+					" " + toSQLOperator(additionalComponent.getOperator()) + " " + additionalComponent.getValue() + ")");
+		}
+		
+		String sortByColumn = getSortByColumn(albumName);
+		if (matchExpressions.isEmpty()) {
+			if (sortByColumn != null) {
+				query.append(" ORDER BY album." + sortByColumn);
+			}
+		} else {
+			query.append(" ORDER BY matches.relevance DESC");
+			if (sortByColumn != null) {
+				query.append(", album." + sortByColumn);
+			}
+		}
+		
+		return query.toString();
+	}
+	
+	/**
+	 * Transforms a single quick search term into a full text match expression. The term is split into tokens the same way
+	 * the full text index tokenizes the field values, see {@link #tokenizeForFullTextSearch(String)}. 
+	 * Each token is matched as a prefix and all tokens must be present.
+	 * @param term The term as entered by the user.
+	 * @return The match expression, or null if the term does not contain a single token.
+	 */
+	public static String createFullTextMatchExpression(String term) {
+		StringBuilder matchExpression = new StringBuilder();
+		
+		for (String token : tokenizeForFullTextSearch(term)) {
+			if (matchExpression.length() > 0) {
+				matchExpression.append(" ");
+			}
+			// Lower case tokens can never be mistaken for operators (e.g. OR)
+			matchExpression.append(token).append("*");
+		}
+		
+		return matchExpression.length() == 0 ? null : matchExpression.toString();
+	}
+	
+	/**
+	 * Splits a text into tokens the same way the full text index does. Tokens are separated by every ASCII character 
+	 * which is neither a letter nor a digit. ASCII letters are folded to lower case, all other characters are kept as they are.
+	 * @param text The text to be split.
+	 * @return The tokens in their order of appearance. Empty if the text does not contain any token.
+	 */
+	public static List<String> tokenizeForFullTextSearch(String text) {
+		List<String> tokens = new ArrayList<String>();
+		StringBuilder token = new StringBuilder();
+		
+		for (int i=0; i<=text.length(); i++) {
+			char character = i < text.length() ? text.charAt(i) : ' ';
+			
+			if (character >= 128 || (character >= '0' && character <= '9') || (character >= 'a' && character <= 'z')) {
+				token.append(character);
+			} else if (character >= 'A' && character <= 'Z') {
+				token.append(Character.toLowerCase(character));
+			} else if (token.length() > 0) {
+				tokens.add(token.toString());
+				token.setLength(0);
+			}
+		}
+		
+		return tokens;
+	}
+	
+	/**
+	 * Creates the query for a page of album items using keyset pagination. The items are ordered by the sort field of the album
+	 * and by their id. Instead of skipping the preceding items, a page starts right after the last item of the previous page.
+	 * Thus, given an index on the sort field, the time to fetch a page does not depend on its position within the album.
+	 * @param albumName The album on which the query should be performed.
+	 * @param sortFieldName The field by which the items are ordered, see {@link #getSortByFieldName(String)}. Null to order by id.
+	 * @param isFirstPage True if the first page is requested. In this case, the values of the last item are ignored.
+	 * @param lastSortValue The sort field value of the last item of the previous page as stored in the database. Might be null.
+	 * @param lastAlbumItemId The id of the last item of the previous page.
+	 * @param numberOfItems The maximum number of items to be returned.
+	 * @return The parameterized query. The statement only depends on the album, the sort field and whether a value is null.
+	 */
+	public static ParameterizedQuery createAlbumItemPageQuery(String albumName, String sortFieldName, boolean isFirstPage, 
+			Object lastSortValue, long lastAlbumItemId, int numberOfItems) {
+		StringBuilder query = new StringBuilder(createSelectStarQuery(albumName));
+		List<Object> parameters = new ArrayList<Object>();
+		String idColumn = DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.ID_COLUMN_NAME);
+		
+		if (sortFieldName == null) {
+			if (!isFirstPage) {
+				query.append(" WHERE " + idColumn + " > ?");
+				parameters.add(lastAlbumItemId);
+			}
+			query.append(" ORDER BY " + idColumn);
+		} else {
+			String sortColumn = DatabaseStringUtilities.transformColumnNameToSelectQueryName(sortFieldName);
+			
+			if (!isFirstPage) {
+				if (lastSortValue == null) {
+					// NULL values are sorted first. Hence all remaining NULL values and all other values follow
+					query.append(" WHERE (" + sortColumn + " IS NULL AND " + idColumn + " > ?) OR " + sortColumn + " IS NOT NULL");
+					parameters.add(lastAlbumItemId);
+				} else {
+					// The first condition restricts the range of the sort field index which has to be scanned
+					query.append(" WHERE " + sortColumn + " >= ? AND (" + sortColumn + " > ? OR " + idColumn + " > ?)");
+					parameters.add(lastSortValue);
+					parameters.add(lastSortValue);
+					parameters.add(lastAlbumItemId);
+				}
+			}
+			query.append(" ORDER BY " + sortColumn + ", " + idColumn);
+		}
+		
+		query.append(" LIMIT ?");
+		parameters.add(numberOfItems);
+		
+		return new ParameterizedQuery(query.toString(), parameters);
+	}
+	
+	/**
+	 * Determines the field by which the items of an album are sorted by default. This is the sort field chosen by the user if it
+	 * is still valid, otherwise the first field of the album.
+	 * @param albumName The album of which the sort field should be determined.
+	 * @return The name of the sort field, or null if the items should not be sorted.
+	 */
+	public static String getSortByFieldName(String albumName) {
 		List<MetaItemField> metaItemFields = new ArrayList<MetaItemField>();
 		try {
 			metaItemFields.addAll(DatabaseOperations.getMetaItemFields(albumName));
@@ -252,30 +495,34 @@ public final class QueryBuilder {
 			LOGGER.error("An error occurred while retrieving meta information about: " + albumName, dwoe);
 		}
 		
-		String orderBy = "";
 		if (!metaItemFields.isEmpty()) {
 			String sortByField = AlbumManager.getSortByField(albumName);
 			
 			// check whether the the "SortByField" is valid
-			boolean isSortByFieldValid = false;
 			for (MetaItemField metaItemField : metaItemFields) {
 				if (metaItemField.getName().equals(sortByField)) {
-					isSortByFieldValid = true;
-					break;
+					return sortByField;
 				}
 			}
 			
-			// Sort by "SortByField" or by first column
-			if (isSortByFieldValid) {
-				orderBy = " ORDER BY " + DatabaseStringUtilities.transformColumnNameToSelectQueryName(sortByField);
-			} else if (!Album.NO_SORTING.equals(sortByField)) {
-				orderBy = " ORDER BY " + DatabaseStringUtilities.transformColumnNameToSelectQueryName(metaItemFields.get(0).getName());
+			// Sort by first column unless sorting has been disabled
+			if (!Album.NO_SORTING.equals(sortByField)) {
+				return metaItemFields.get(0).getName();
 			}
 		}
 		
-		return "SELECT * " + 
-	           "FROM " + DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generateTableName(albumName)) + 
-	           orderBy;
+		return null;
+	}
+	
+	/**
+	 * Determines the column by which the items of an album are sorted by default.
+	 * @param albumName The album of which the sort column should be determined.
+	 * @return The sort column in select query format, or null if the items should not be sorted.
+	 */
+	private static String getSortByColumn(String albumName) {
+		String sortByField = getSortByFieldName(albumName);
+		
+		return sortByField == null ? null : DatabaseStringUtilities.transformColumnNameToSelectQueryName(sortByField);
 	}
 	
 	/**
@@ -0,0 +1,247 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.model.database.operations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.model.database.DatabaseStringUtilities;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException.DBErrorState;
+
+/**
+ * Keeps track of the change version of each album. The change version is a counter stored in the album master table,
+ * which is increased by every operation altering the items or the structure of the album. Unlike the database change
+ * time stamp, it allows to tell which album changed, such that data derived from untouched albums can be kept.<br>
+ * The versions of all albums are read from the database once and kept in memory afterwards. Albums which are
+ * recreated (e.g. when a field is removed) continue with the version following the version of the removed album.
+ */
+public final class AlbumChangeVersions {
+	/** The change version of an album which does not exist */
+	static final long NO_CHANGE_VERSION = -1;
+
+	/** Maps the album name to its change version. Only valid while loaded is set */
+	private static final Map<String, Long> CHANGE_VERSIONS = new HashMap<String, Long>();
+	/** Maps the name of a removed album to its last change version */
+	private static final Map<String, Long> REMOVED_ALBUM_CHANGE_VERSIONS = new HashMap<String, Long>();
+	private static boolean loaded = false;
+	/** Increased with every invalidation, which prevents concurrently loaded (and therefore possibly outdated) versions from being kept */
+	private static long loadGeneration = 0;
+
+	private AlbumChangeVersions() {
+		// use static methods
+	}
+
+	/**
+	 * Gets the current change version of the album.
+	 * @param albumName The name of the album.
+	 * @return The change version, or {@link #NO_CHANGE_VERSION} if the album does not exist.
+	 * @throws DatabaseWrapperOperationException If the album master table could not be read.
+	 */
+	static long getChangeVersion(String albumName) throws DatabaseWrapperOperationException {
+		String storedAlbumName = DatabaseStringUtilities.removeQuotesEnclosingName(albumName);
+
+		synchronized (AlbumChangeVersions.class) {
+			if (loaded) {
+				Long changeVersion = CHANGE_VERSIONS.get(storedAlbumName);
+				return changeVersion == null ? NO_CHANGE_VERSION : changeVersion;
+			}
+		}
+
+		Long changeVersion = getChangeVersions().get(storedAlbumName);
+		return changeVersion == null ? NO_CHANGE_VERSION : changeVersion;
+	}
+
+	/**
+	 * Reads the change version of the album on the given connection, bypassing the versions kept in memory. Unlike
+	 * {@link #getChangeVersion(String)}, the version is consistent with the state seen by a read-only connection, 
+	 * which does not include uncommitted alterations of the writer connection.
+	 * @param connection The connection on which the album master table is read.
+	 * @param albumName The name of the album.
+	 * @return The change version, or {@link #NO_CHANGE_VERSION} if the album does not exist.
+	 * @throws DatabaseWrapperOperationException If the album master table could not be read.
+	 */
+	static long readChangeVersion(Connection connection, String albumName) throws DatabaseWrapperOperationException {
+		String query = "SELECT " + DatabaseConstants.CHANGE_VERSION_COLUMN_IN_ALBUM_MASTER_TABLE +
+				" FROM " + DatabaseStringUtilities.encloseNameWithQuotes(DatabaseConstants.ALBUM_MASTER_TABLE_NAME) +
+				" WHERE " + DatabaseConstants.ALBUMNAME_IN_ALBUM_MASTER_TABLE + " = ?";
+
+		try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+			preparedStatement.setString(1, DatabaseStringUtilities.removeQuotesEnclosingName(albumName));
+			
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				return resultSet.next() ? resultSet.getLong(1) : NO_CHANGE_VERSION;
+			}
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		}
+	}
+
+	/**
+	 * Gets the current change versions of all albums.
+	 * @return A new map containing the change version of every album by album name.
+	 * @throws DatabaseWrapperOperationException If the album master table could not be read.
+	 */
+	static Map<String, Long> getChangeVersions() throws DatabaseWrapperOperationException {
+		long generationBeforeLoad;
+
+		synchronized (AlbumChangeVersions.class) {
+			if (loaded) {
+				return new HashMap<String, Long>(CHANGE_VERSIONS);
+			}
+
+			generationBeforeLoad = loadGeneration;
+		}
+
+		// The database is accessed outside of the lock. The generation check ensures that versions
+		// which have been invalidated while loading are not kept
+		Map<String, Long> changeVersions = loadChangeVersions();
+
+		synchronized (AlbumChangeVersions.class) {
+			if (generationBeforeLoad == loadGeneration) {
+				CHANGE_VERSIONS.clear();
+				CHANGE_VERSIONS.putAll(changeVersions);
+				loaded = true;
+			}
+		}
+
+		return changeVersions;
+	}
+
+	/**
+	 * Increases the change version of the album. Must be called within the savepoint of the operation altering the album,
+	 * such that the new version is rolled back together with the alteration.
+	 * @param albumName The name of the album which has been altered.
+	 * @throws DatabaseWrapperOperationException If the album master table could not be updated.
+	 */
+	static void increment(String albumName) throws DatabaseWrapperOperationException {
+		String storedAlbumName = DatabaseStringUtilities.removeQuotesEnclosingName(albumName);
+		// Ensures that the versions are loaded
+		long changeVersion = getChangeVersion(storedAlbumName);
+		if (changeVersion == NO_CHANGE_VERSION) {
+			return;
+		}
+
+		String incrementQuery = "UPDATE " + DatabaseStringUtilities.encloseNameWithQuotes(DatabaseConstants.ALBUM_MASTER_TABLE_NAME) +
+				" SET " + DatabaseConstants.CHANGE_VERSION_COLUMN_IN_ALBUM_MASTER_TABLE + " = ?" +
+				" WHERE " + DatabaseConstants.ALBUMNAME_IN_ALBUM_MASTER_TABLE + " = ?";
+
+		PreparedStatement preparedStatement = ConnectionManager.getPreparedStatement(incrementQuery);
+		try {
+			preparedStatement.setLong(1, changeVersion + 1);
+			preparedStatement.setString(2, storedAlbumName);
+			preparedStatement.executeUpdate();
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
+		} finally {
+			ConnectionManager.releasePreparedStatement(preparedStatement);
+		}
+
+		synchronized (AlbumChangeVersions.class) {
+			if (loaded) {
+				CHANGE_VERSIONS.put(storedAlbumName, changeVersion + 1);
+			}
+		}
+	}
+
+	/**
+	 * Gets the change version with which a new album is added to the album master table. An album that replaces
+	 * a removed album of the same name continues with the version following the version of the removed album.
+	 * @param albumName The name of the new album.
+	 * @return The initial change version of the album.
+	 */
+	static synchronized long getInitialChangeVersion(String albumName) {
+		Long removedAlbumChangeVersion = REMOVED_ALBUM_CHANGE_VERSIONS.remove(DatabaseStringUtilities.removeQuotesEnclosingName(albumName));
+		return removedAlbumChangeVersion == null ? 0 : removedAlbumChangeVersion + 1;
+	}
+
+	/**
+	 * Remembers the change version of an album which is about to be removed from the album master table.
+	 * @param albumName The name of the album.
+	 * @throws DatabaseWrapperOperationException If the album master table could not be read.
+	 */
+	static void rememberRemovedAlbum(String albumName) throws DatabaseWrapperOperationException {
+		long changeVersion = getChangeVersion(albumName);
+
+		synchronized (AlbumChangeVersions.class) {
+			if (changeVersion != NO_CHANGE_VERSION) {
+				REMOVED_ALBUM_CHANGE_VERSIONS.put(DatabaseStringUtilities.removeQuotesEnclosingName(albumName), changeVersion);
+			}
+		}
+	}
+
+	/**
+	 * Drops the versions kept in memory. Must be called whenever albums are added, removed or renamed, or when
+	 * the complete database might have changed (e.g. restore, rollback or a new connection).
+	 */
+	static synchronized void invalidateAll() {
+		CHANGE_VERSIONS.clear();
+		loaded = false;
+		loadGeneration++;
+	}
+
+	/**
+	 * Adds the change version column to the album master table of databases created before change versions were introduced.
+	 * Called together with the other schema setup whenever a database is opened or restored, never by reading operations.
+	 * @throws DatabaseWrapperOperationException If the album master table could not be altered.
+	 */
+	static void ensureChangeVersionColumn() throws DatabaseWrapperOperationException {
+		String masterTableName = DatabaseStringUtilities.encloseNameWithQuotes(DatabaseConstants.ALBUM_MASTER_TABLE_NAME);
+
+		try (Statement statement = ConnectionManager.getConnection().createStatement()) {
+			try (ResultSet resultSet = statement.executeQuery("PRAGMA table_info(" + masterTableName + ")")) {
+				while (resultSet.next()) {
+					if (DatabaseConstants.CHANGE_VERSION_COLUMN_IN_ALBUM_MASTER_TABLE.equals(resultSet.getString("name"))) {
+						return;
+					}
+				}
+			}
+
+			statement.executeUpdate("ALTER TABLE " + masterTableName + " ADD COLUMN " +
+					DatabaseConstants.CHANGE_VERSION_COLUMN_IN_ALBUM_MASTER_TABLE + " INTEGER NOT NULL DEFAULT 0");
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
+		}
+	}
+
+	private static Map<String, Long> loadChangeVersions() throws DatabaseWrapperOperationException {
+		Map<String, Long> changeVersions = new HashMap<String, Long>();
+		String query = "SELECT " + DatabaseConstants.ALBUMNAME_IN_ALBUM_MASTER_TABLE + ", " +
+				DatabaseConstants.CHANGE_VERSION_COLUMN_IN_ALBUM_MASTER_TABLE +
+				" FROM " + DatabaseStringUtilities.encloseNameWithQuotes(DatabaseConstants.ALBUM_MASTER_TABLE_NAME);
+
+		try (Statement statement = ConnectionManager.getConnection().createStatement();
+			 ResultSet resultSet = statement.executeQuery(query)) {
+
+			while (resultSet.next()) {
+				changeVersions.put(resultSet.getString(1), resultSet.getLong(2));
+			}
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		}
+
+		return changeVersions;
+	}
+}
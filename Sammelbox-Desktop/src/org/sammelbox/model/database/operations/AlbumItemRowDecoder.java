@@ -0,0 +1,140 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.model.database.operations;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.FieldDescriptor;
+import org.sammelbox.model.album.FieldDescriptorTable;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException.DBErrorState;
+
+/**
+ * Decodes the rows of an album result set into album items. The decoding plan (index, name, type and role of every column)
+ * is built once from the result set meta data, such that decoding a row requires no further meta data or database access.
+ * The decoded fields share the descriptors of the album schema catalog, such that each field only adds its value.
+ */
+final class AlbumItemRowDecoder {
+	/** Describes how the value of a column is used when decoding a row */
+	private enum ColumnRole {
+		/** A regular field which is added to the album item */
+		FIELD,
+		/** The reference to the type info table which is omitted */
+		TYPE_INFO,
+		/** The content version which is set separately on the album item */
+		CONTENT_VERSION
+	}
+
+	private final String albumName;
+	private final ColumnDecoder[] columnDecoders;
+
+	private AlbumItemRowDecoder(String albumName, ColumnDecoder[] columnDecoders) {
+		this.albumName = albumName;
+		this.columnDecoders = columnDecoders;
+	}
+
+	/**
+	 * Builds the decoding plan for the given result set meta data. All columns must belong to a single album table.
+	 * @param metaData The meta data of the result set which should be decoded.
+	 * @return A decoder for the rows of the result set.
+	 * @throws DatabaseWrapperOperationException If the album or the type of a column could not be determined.
+	 */
+	static AlbumItemRowDecoder create(ResultSetMetaData metaData) throws DatabaseWrapperOperationException {
+		try {
+			String tableName = metaData.getTableName(1);
+			String albumName = QueryOperations.getAlbumName(tableName);
+
+			FieldDescriptorTable albumFields = AlbumSchemaCatalog.getFieldDescriptors(tableName);
+
+			ColumnDecoder[] columnDecoders = new ColumnDecoder[metaData.getColumnCount()];
+			for (int columnIndex = 1; columnIndex <= columnDecoders.length; columnIndex++) {
+				String fieldName = metaData.getColumnName(columnIndex);
+				FieldDescriptor descriptor = albumFields.get(fieldName);
+
+				// Columns which are not part of the album structure (e.g. aliases) are resolved individually
+				if (descriptor == null) {
+					descriptor = new FieldDescriptor(fieldName, HelperOperations.detectDataType(tableName, fieldName), false);
+				}
+				FieldType type = descriptor.getType();
+
+				ColumnRole role = ColumnRole.FIELD;
+				if (type == FieldType.ID && fieldName.endsWith(DatabaseConstants.TYPE_INFO_COLUMN_NAME)) {
+					role = ColumnRole.TYPE_INFO;
+				} else if (type == FieldType.UUID && fieldName.equals(DatabaseConstants.CONTENT_VERSION_COLUMN_NAME)) {
+					role = ColumnRole.CONTENT_VERSION;
+				}
+
+				columnDecoders[columnIndex - 1] = new ColumnDecoder(columnIndex, descriptor, role);
+			}
+
+			return new AlbumItemRowDecoder(albumName, columnDecoders);
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		}
+	}
+
+	/**
+	 * Decodes the current row of the result set into a new album item.
+	 * @param resultSet The result set positioned on the row to be decoded.
+	 * @return The album item containing the values of the current row, marked as stored.
+	 * @throws DatabaseWrapperOperationException If a value could not be read.
+	 */
+	AlbumItem decode(ResultSet resultSet) throws DatabaseWrapperOperationException {
+		AlbumItem albumItem = new AlbumItem(albumName);
+
+		for (ColumnDecoder columnDecoder : columnDecoders) {
+			switch (columnDecoder.role) {
+			case TYPE_INFO:
+				break;
+			case CONTENT_VERSION:
+				albumItem.setContentVersion((UUID) columnDecoder.extractValue(resultSet, albumName));
+				break;
+			default:
+				albumItem.addField(columnDecoder.descriptor, columnDecoder.extractValue(resultSet, albumName));
+				break;
+			}
+		}
+
+		albumItem.markAsStored();
+		return albumItem;
+	}
+
+	/** The precomputed information required to decode a single column */
+	private static final class ColumnDecoder {
+		private final int columnIndex;
+		/** The descriptor shared by the fields of all decoded items */
+		private final FieldDescriptor descriptor;
+		private final ColumnRole role;
+
+		private ColumnDecoder(int columnIndex, FieldDescriptor descriptor, ColumnRole role) {
+			this.columnIndex = columnIndex;
+			this.descriptor = descriptor;
+			this.role = role;
+		}
+
+		private Object extractValue(ResultSet resultSet, String albumName) throws DatabaseWrapperOperationException {
+			return HelperOperations.fetchFieldItemValue(resultSet, columnIndex, descriptor.getType(), albumName);
+		}
+	}
+}
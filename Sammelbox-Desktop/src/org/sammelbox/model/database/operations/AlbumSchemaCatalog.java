@@ -0,0 +1,416 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.model.database.operations;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.model.album.FieldDescriptorTable;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.MetaItemField;
+import org.sammelbox.model.database.DatabaseStringUtilities;
+import org.sammelbox.model.database.QueryBuilder;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException.DBErrorState;
+
+/**
+ * Keeps the structural information of each album (fields, field types, the display order of the fields, quick-searchable 
+ * fields, the existence of a full text index, the picture flag and the row format)
+ * in memory such that it is read from the database only once. The catalog must be invalidated by every operation
+ * altering the structure of an album. Each invalidation increases the catalog version, which prevents a concurrently
+ * loaded (and therefore possibly outdated) entry from being stored.
+ */
+public final class AlbumSchemaCatalog {
+	/** The columns which are part of every album table and are not displayed as fields */
+	private static final List<String> INTERNAL_COLUMN_NAMES = Arrays.asList(
+			DatabaseConstants.ID_COLUMN_NAME, DatabaseConstants.TYPE_INFO_COLUMN_NAME, DatabaseConstants.CONTENT_VERSION_COLUMN_NAME);
+	
+	/** Maps the table name of an album to its cached structure */
+	private static final Map<String, AlbumSchema> SCHEMAS = new HashMap<String, AlbumSchema>();
+	/** Maps the album name to its picture flag as stored in the album master table */
+	private static final Map<String, Boolean> PICTURE_FLAGS = new HashMap<String, Boolean>();
+	/** Maps the table name of an album to its row format */
+	private static final Map<String, Integer> ROW_FORMATS = new HashMap<String, Integer>();
+	/** The current version of the catalog. Increased with every invalidation */
+	private static long catalogVersion = 0;
+	/** The number of lookups that could be answered from memory */
+	private static long hitCount = 0;
+	/** The number of lookups that required the database to be queried */
+	private static long missCount = 0;
+
+	private AlbumSchemaCatalog() {
+		// use static methods
+	}
+
+	/**
+	 * Retrieves a copy of all meta item fields of the album in column order, including those for internal use only.
+	 * The returned fields can be freely modified by the caller without affecting the catalog.
+	 * @param albumName The name of the album of which to retrieve the information.
+	 * @return The list of all meta item fields.
+	 * @throws DatabaseWrapperOperationException If the album does not exist or its structure could not be read.
+	 */
+	static List<MetaItemField> getAllMetaItemFields(String albumName) throws DatabaseWrapperOperationException {
+		return copyMetaItemFields(getAlbumSchema(albumName).metaItemFields);
+	}
+
+	/**
+	 * Retrieves a copy of the meta item fields of the album in display order, excluding those for internal use only.
+	 * Unless the fields have been reordered, the display order is the column order.
+	 * The returned fields can be freely modified by the caller without affecting the catalog.
+	 * @param albumName The name of the album of which to retrieve the information.
+	 * @return The list of displayed meta item fields.
+	 * @throws DatabaseWrapperOperationException If the album does not exist or its structure could not be read.
+	 */
+	static List<MetaItemField> getFieldsInDisplayOrder(String albumName) throws DatabaseWrapperOperationException {
+		return copyMetaItemFields(getAlbumSchema(albumName).displayedFields);
+	}
+
+	/**
+	 * Retrieves a copy of the meta item fields of the album in column order, excluding those for internal use only.
+	 * The positions of the fields within this list make up the stored display order.
+	 * @param albumName The name of the album of which to retrieve the information.
+	 * @return The list of displayed meta item fields in column order.
+	 * @throws DatabaseWrapperOperationException If the album does not exist or its structure could not be read.
+	 */
+	static List<MetaItemField> getFieldsInColumnOrder(String albumName) throws DatabaseWrapperOperationException {
+		List<MetaItemField> fields = new ArrayList<MetaItemField>();
+		
+		for (MetaItemField metaItemField : getAlbumSchema(albumName).metaItemFields) {
+			if (!INTERNAL_COLUMN_NAMES.contains(metaItemField.getName())) {
+				fields.add(new MetaItemField(metaItemField.getName(), metaItemField.getType(), metaItemField.isQuickSearchable()));
+			}
+		}
+		
+		return fields;
+	}
+
+	/**
+	 * Retrieves the shared descriptors of all fields of the album in column order, including those for internal use only.
+	 * The same table is returned until the structure of the album changes, such that all items read from the album share it.
+	 * @param albumName The name of the album of which to retrieve the information.
+	 * @return The immutable descriptor table of the album.
+	 * @throws DatabaseWrapperOperationException If the album does not exist or its structure could not be read.
+	 */
+	static FieldDescriptorTable getFieldDescriptors(String albumName) throws DatabaseWrapperOperationException {
+		return getAlbumSchema(albumName).fieldDescriptors;
+	}
+
+	/**
+	 * Retrieves the names of the quick-searchable fields in the order in which they are stored in the album index.
+	 * @param albumName The name of the album of which to retrieve the information.
+	 * @return A new list containing the names of the quick-searchable fields. Empty if no field is quick-searchable.
+	 * @throws DatabaseWrapperOperationException If the album does not exist or its structure could not be read.
+	 */
+	static List<String> getQuickSearchableFieldNames(String albumName) throws DatabaseWrapperOperationException {
+		return new ArrayList<String>(getAlbumSchema(albumName).quickSearchableFieldNames);
+	}
+
+	/**
+	 * Indicates whether the specified field of the album is quick-searchable.
+	 * @param albumName The name of the album to which the field belongs.
+	 * @param fieldName The name of the field.
+	 * @return True if the field is quick-searchable, false otherwise.
+	 * @throws DatabaseWrapperOperationException If the album does not exist or its structure could not be read.
+	 */
+	static boolean isQuickSearchable(String albumName, String fieldName) throws DatabaseWrapperOperationException {
+		return getAlbumSchema(albumName).quickSearchableFieldNames.contains(fieldName);
+	}
+
+	/**
+	 * Indicates whether the album has a full text index for its quick-searchable fields.
+	 * Albums created before full text indices were introduced do not have one until their index is rebuilt.
+	 * @param albumName The name of the album.
+	 * @return True if the full text index table of the album exists, false otherwise.
+	 * @throws DatabaseWrapperOperationException If the album does not exist or its structure could not be read.
+	 */
+	static boolean hasFullTextIndex(String albumName) throws DatabaseWrapperOperationException {
+		return getAlbumSchema(albumName).hasFullTextIndex;
+	}
+
+	/**
+	 * Indicates whether the picture table of the album has an index on the album item reference.
+	 * Albums created before this index was introduced do not have one until it is created on demand.
+	 * @param albumName The name of the album.
+	 * @return True if the picture table of the album is indexed, false otherwise.
+	 * @throws DatabaseWrapperOperationException If the album does not exist or its structure could not be read.
+	 */
+	static boolean hasPictureTableIndex(String albumName) throws DatabaseWrapperOperationException {
+		return getAlbumSchema(albumName).hasPictureTableIndex;
+	}
+
+	/**
+	 * Indicates whether the album may contain pictures.
+	 * @param albumName The name of the album.
+	 * @return True if the picture flag of the album is set, false otherwise or if the album does not exist.
+	 * @throws DatabaseWrapperOperationException If the album master table could not be read.
+	 */
+	static boolean isPictureAlbum(String albumName) throws DatabaseWrapperOperationException {
+		long versionBeforeLoad;
+
+		synchronized (AlbumSchemaCatalog.class) {
+			Boolean pictureFlag = PICTURE_FLAGS.get(albumName);
+			if (pictureFlag != null) {
+				hitCount++;
+				return pictureFlag;
+			}
+
+			missCount++;
+			versionBeforeLoad = catalogVersion;
+		}
+
+		boolean pictureFlag = QueryOperations.fetchPictureFlag(albumName);
+
+		synchronized (AlbumSchemaCatalog.class) {
+			if (versionBeforeLoad == catalogVersion) {
+				PICTURE_FLAGS.put(albumName, pictureFlag);
+			}
+		}
+
+		return pictureFlag;
+	}
+
+	/**
+	 * Determines the row format of the album. Unlike the other structural information, the row format is available while the
+	 * structure of the album is being altered, since it is read from the album table only.
+	 * @param albumName The name (or table name) of the album.
+	 * @return {@link DatabaseConstants#ROW_FORMAT_V1} or {@link DatabaseConstants#ROW_FORMAT_V2}.
+	 * @throws DatabaseWrapperOperationException If the album table could not be read.
+	 */
+	static int getRowFormat(String albumName) throws DatabaseWrapperOperationException {
+		String tableName = DatabaseStringUtilities.generateTableName(DatabaseStringUtilities.removeQuotesEnclosingName(albumName));
+		long versionBeforeLoad;
+
+		synchronized (AlbumSchemaCatalog.class) {
+			Integer rowFormat = ROW_FORMATS.get(tableName);
+			if (rowFormat != null) {
+				hitCount++;
+				return rowFormat;
+			}
+
+			missCount++;
+			versionBeforeLoad = catalogVersion;
+		}
+
+		int rowFormat = QueryOperations.fetchRowFormat(tableName);
+
+		synchronized (AlbumSchemaCatalog.class) {
+			if (versionBeforeLoad == catalogVersion) {
+				ROW_FORMATS.put(tableName, rowFormat);
+			}
+		}
+
+		return rowFormat;
+	}
+
+	/**
+	 * Removes the cached information of the specified album. Must be called whenever the structure, the index,
+	 * the name or the picture flag of an album changes.
+	 * @param albumName The name (or table name) of the album whose structure changed.
+	 */
+	static void invalidate(String albumName) {
+		synchronized (AlbumSchemaCatalog.class) {
+			if (albumName != null) {
+				String tableName = DatabaseStringUtilities.generateTableName(DatabaseStringUtilities.removeQuotesEnclosingName(albumName));
+				SCHEMAS.remove(tableName);
+				ROW_FORMATS.remove(tableName);
+			}
+	
+			// the picture flags are keyed by the exact album name and thus cleared completely
+			PICTURE_FLAGS.clear();
+			catalogVersion++;
+		}
+
+		// Compiled statements and statistics might refer to the previous structure. Cleared outside of the catalog lock to keep the lock order
+		ConnectionManager.clearPreparedStatementCache();
+		AlbumStatisticsCatalog.invalidate(albumName);
+	}
+
+	/**
+	 * Removes the cached information of all albums. Must be called whenever the complete database might
+	 * have changed (e.g. restore, rollback or a new connection).
+	 */
+	static void invalidateAll() {
+		synchronized (AlbumSchemaCatalog.class) {
+			SCHEMAS.clear();
+			PICTURE_FLAGS.clear();
+			ROW_FORMATS.clear();
+			catalogVersion++;
+		}
+
+		ConnectionManager.clearPreparedStatementCache();
+		AlbumStatisticsCatalog.invalidateAll();
+	}
+
+	/**
+	 * Gets the current version of the catalog. The version changes whenever the structure of any album changes.
+	 * @return The current catalog version.
+	 */
+	static synchronized long getCatalogVersion() {
+		return catalogVersion;
+	}
+
+	/**
+	 * Gets the number of lookups which could be answered without querying the database.
+	 * @return The number of catalog hits since the last reset.
+	 */
+	static synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Gets the number of lookups which required the database to be queried.
+	 * @return The number of catalog misses since the last reset.
+	 */
+	static synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/** Resets the hit and miss counters. The cached information is not affected. */
+	static synchronized void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+	}
+
+	private static AlbumSchema getAlbumSchema(String albumName) throws DatabaseWrapperOperationException {
+		String tableName = DatabaseStringUtilities.generateTableName(albumName);
+		long versionBeforeLoad;
+
+		synchronized (AlbumSchemaCatalog.class) {
+			AlbumSchema albumSchema = SCHEMAS.get(tableName);
+			if (albumSchema != null) {
+				hitCount++;
+				return albumSchema;
+			}
+
+			missCount++;
+			versionBeforeLoad = catalogVersion;
+		}
+
+		// The database is accessed outside of the lock. The version check ensures that a schema
+		// which has been invalidated while loading is not stored
+		AlbumSchema albumSchema = loadAlbumSchema(tableName);
+
+		synchronized (AlbumSchemaCatalog.class) {
+			if (versionBeforeLoad == catalogVersion) {
+				SCHEMAS.put(tableName, albumSchema);
+			}
+		}
+
+		return albumSchema;
+	}
+
+	private static AlbumSchema loadAlbumSchema(String tableName) throws DatabaseWrapperOperationException {
+		List<String> quickSearchableFieldNames = QueryOperations.getIndexedColumnNames(tableName);
+		List<String> columnNames = new ArrayList<String>();
+
+		try (Statement statement = ConnectionManager.getConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			 ResultSet resultSet = statement.executeQuery(QueryBuilder.createSelectStarQuery(tableName))) {
+
+			ResultSetMetaData metaData = resultSet.getMetaData();
+			for (int columnIndex = 1; columnIndex <= metaData.getColumnCount(); columnIndex++) {
+				columnNames.add(metaData.getColumnName(columnIndex));
+			}
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		}
+
+		Map<String, FieldType> columnTypes = HelperOperations.detectDataTypes(tableName, columnNames);
+		List<MetaItemField> metaItemFields = new ArrayList<MetaItemField>();
+		for (String columnName : columnNames) {
+			metaItemFields.add(new MetaItemField(columnName, columnTypes.get(columnName), quickSearchableFieldNames.contains(columnName)));
+		}
+
+		boolean hasFullTextIndex = QueryOperations.tableExists(DatabaseStringUtilities.generateFullTextIndexTableName(tableName));
+		boolean hasPictureTableIndex = QueryOperations.fetchPictureTableIndexFlag(tableName);
+		List<MetaItemField> displayedFields = orderDisplayedFields(metaItemFields, QueryOperations.fetchFieldOrder(tableName));
+
+		return new AlbumSchema(metaItemFields, displayedFields, quickSearchableFieldNames, hasFullTextIndex, hasPictureTableIndex);
+	}
+
+	/**
+	 * Orders the displayed fields of an album by the stored display order. Fields whose position is not part of the display 
+	 * order (e.g. fields appended after the fields have been reordered) follow in column order.
+	 * @param metaItemFields All fields of the album in column order, including those for internal use only.
+	 * @param fieldOrder The positions of the displayed fields in column order, listed in display order. Null for the column order.
+	 * @return The displayed fields in display order.
+	 */
+	private static List<MetaItemField> orderDisplayedFields(List<MetaItemField> metaItemFields, List<Integer> fieldOrder) {
+		List<MetaItemField> fieldsInColumnOrder = new ArrayList<MetaItemField>();
+		for (MetaItemField metaItemField : metaItemFields) {
+			if (!INTERNAL_COLUMN_NAMES.contains(metaItemField.getName())) {
+				fieldsInColumnOrder.add(metaItemField);
+			}
+		}
+		
+		if (fieldOrder == null) {
+			return fieldsInColumnOrder;
+		}
+		
+		Set<MetaItemField> orderedFields = new LinkedHashSet<MetaItemField>();
+		for (int position : fieldOrder) {
+			if (position >= 0 && position < fieldsInColumnOrder.size()) {
+				orderedFields.add(fieldsInColumnOrder.get(position));
+			}
+		}
+		orderedFields.addAll(fieldsInColumnOrder);
+		
+		return new ArrayList<MetaItemField>(orderedFields);
+	}
+	
+	private static List<MetaItemField> copyMetaItemFields(List<MetaItemField> metaItemFields) {
+		List<MetaItemField> copiedFields = new ArrayList<MetaItemField>(metaItemFields.size());
+
+		for (MetaItemField metaItemField : metaItemFields) {
+			copiedFields.add(new MetaItemField(metaItemField.getName(), metaItemField.getType(), metaItemField.isQuickSearchable()));
+		}
+
+		return copiedFields;
+	}
+
+	/** The immutable structural information of a single album */
+	private static final class AlbumSchema {
+		private final List<MetaItemField> metaItemFields;
+		private final List<MetaItemField> displayedFields;
+		private final FieldDescriptorTable fieldDescriptors;
+		private final List<String> quickSearchableFieldNames;
+		private final boolean hasFullTextIndex;
+		private final boolean hasPictureTableIndex;
+
+		private AlbumSchema(List<MetaItemField> metaItemFields, List<MetaItemField> displayedFields, List<String> quickSearchableFieldNames, 
+				boolean hasFullTextIndex, boolean hasPictureTableIndex) {
+			this.metaItemFields = Collections.unmodifiableList(metaItemFields);
+			this.displayedFields = Collections.unmodifiableList(displayedFields);
+			this.fieldDescriptors = FieldDescriptorTable.of(metaItemFields);
+			this.quickSearchableFieldNames = Collections.unmodifiableList(quickSearchableFieldNames);
+			this.hasFullTextIndex = hasFullTextIndex;
+			this.hasPictureTableIndex = hasPictureTableIndex;
+		}
+	}
+}
@@ -0,0 +1,511 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.model.database.operations;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.model.album.AlbumStatistics;
+import org.sammelbox.model.album.AlbumStatistics.NumericFieldStatistics;
+import org.sammelbox.model.album.FieldDescriptor;
+import org.sammelbox.model.album.FieldDescriptorTable;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.OptionType;
+import org.sammelbox.model.album.StarRating;
+import org.sammelbox.model.database.DatabaseStringUtilities;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException.DBErrorState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the statistics of each album (see {@link AlbumStatistics}) in memory such that they are computed by the database 
+ * only once. Afterwards, the statistics are maintained incrementally by the operations adding, updating and removing
+ * album items, which read the stored values of the affected item only. Each entry remembers the change version of its
+ * album (see {@link AlbumChangeVersions}). An entry which has not been maintained by the last change of its album, e.g.
+ * after a structural change, is computed again when it is requested.
+ */
+public final class AlbumStatisticsCatalog {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AlbumStatisticsCatalog.class);
+	private static final int NUMBER_OF_STAR_RATINGS = StarRating.values().length;
+	private static final int NUMBER_OF_OPTIONS = OptionType.values().length;
+
+	/** Maps the table name of an album to its statistics */
+	private static final Map<String, StatisticsAccumulator> STATISTICS = new HashMap<String, StatisticsAccumulator>();
+	/** Increased with every invalidation, which prevents concurrently computed (and therefore possibly outdated) statistics from being kept */
+	private static long generation = 0;
+	/** The number of requests that could be answered from memory */
+	private static long hitCount = 0;
+	/** The number of requests that required the statistics to be computed by the database */
+	private static long missCount = 0;
+
+	private AlbumStatisticsCatalog() {
+		// use static methods
+	}
+
+	/**
+	 * Gets the current statistics of the album. Once computed, the statistics are returned without accessing the database
+	 * as long as the album is only changed by adding, updating or removing items.
+	 * @param albumName The name of the album.
+	 * @return An immutable snapshot of the statistics.
+	 * @throws DatabaseWrapperOperationException If the album does not exist or its statistics could not be computed.
+	 */
+	static AlbumStatistics getStatistics(String albumName) throws DatabaseWrapperOperationException {
+		String tableName = DatabaseStringUtilities.generateTableName(DatabaseStringUtilities.removeQuotesEnclosingName(albumName));
+		long changeVersion = AlbumChangeVersions.getChangeVersion(albumName);
+		if (changeVersion == AlbumChangeVersions.NO_CHANGE_VERSION) {
+			LOGGER.error("The statistics of the album {} cannot be computed since it does not exist", albumName);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE);
+		}
+
+		long generationBeforeLoad;
+		synchronized (AlbumStatisticsCatalog.class) {
+			StatisticsAccumulator accumulator = STATISTICS.get(tableName);
+			if (accumulator != null && accumulator.changeVersion == changeVersion) {
+				hitCount++;
+				return accumulator.getSnapshot();
+			}
+
+			missCount++;
+			generationBeforeLoad = generation;
+		}
+
+		// The database is accessed outside of the lock. The generation check ensures that statistics
+		// which have been invalidated while computing are not kept
+		StatisticsAccumulator accumulator = computeStatistics(DatabaseStringUtilities.removeQuotesEnclosingName(albumName), tableName, changeVersion);
+
+		synchronized (AlbumStatisticsCatalog.class) {
+			if (generationBeforeLoad == generation) {
+				STATISTICS.put(tableName, accumulator);
+			}
+
+			return accumulator.getSnapshot();
+		}
+	}
+
+	/**
+	 * Reads the values of an item which contribute to the statistics. Must be called before the item is updated or removed, 
+	 * such that the previous values can be subtracted from the statistics afterwards.
+	 * @param albumName The name of the album to which the item belongs.
+	 * @param itemId The id of the item.
+	 * @return The stored values of the item, or null if the statistics of the album are not kept and therefore need not be maintained.
+	 */
+	static StoredItemValues readStoredItemValues(String albumName, long itemId) {
+		StatisticsAccumulator accumulator = getKeptStatistics(albumName);
+		return accumulator == null ? null : readStoredItemValues(accumulator, albumName, itemId);
+	}
+
+	/**
+	 * Adds a new item to the kept statistics of its album. Must be called after the change version of the album has been increased.
+	 * @param albumName The name of the album to which the item has been added.
+	 * @param itemId The id of the added item.
+	 */
+	static void itemAdded(String albumName, long itemId) {
+		StatisticsAccumulator accumulator = getKeptStatistics(albumName);
+		if (accumulator != null) {
+			applyChange(albumName, StoredItemValues.NONE, readStoredItemValues(accumulator, albumName, itemId));
+		}
+	}
+
+	/**
+	 * Replaces the previous values of an updated item within the kept statistics of its album. Must be called after 
+	 * the change version of the album has been increased.
+	 * @param albumName The name of the album to which the item belongs.
+	 * @param itemId The id of the updated item.
+	 * @param valuesBeforeUpdate The values returned by {@link #readStoredItemValues(String, long)} before the update.
+	 */
+	static void itemUpdated(String albumName, long itemId, StoredItemValues valuesBeforeUpdate) {
+		StatisticsAccumulator accumulator = getKeptStatistics(albumName);
+		if (accumulator != null) {
+			applyChange(albumName, valuesBeforeUpdate, readStoredItemValues(accumulator, albumName, itemId));
+		}
+	}
+
+	/**
+	 * Removes the previous values of a removed item from the kept statistics of its album. Must be called after 
+	 * the change version of the album has been increased.
+	 * @param albumName The name of the album from which the item has been removed.
+	 * @param valuesBeforeRemoval The values returned by {@link #readStoredItemValues(String, long)} before the removal.
+	 */
+	static void itemRemoved(String albumName, StoredItemValues valuesBeforeRemoval) {
+		if (getKeptStatistics(albumName) != null) {
+			applyChange(albumName, valuesBeforeRemoval, StoredItemValues.NONE);
+		}
+	}
+
+	/**
+	 * Drops the statistics of the specified album. Called whenever the structure of the album changes.
+	 * @param albumName The name (or table name) of the album.
+	 */
+	static synchronized void invalidate(String albumName) {
+		if (albumName != null) {
+			STATISTICS.remove(DatabaseStringUtilities.generateTableName(DatabaseStringUtilities.removeQuotesEnclosingName(albumName)));
+		}
+		generation++;
+	}
+
+	/**
+	 * Drops the statistics of all albums. Must be called whenever the complete database might have changed (e.g. restore, 
+	 * rollback or a new connection).
+	 */
+	static synchronized void invalidateAll() {
+		STATISTICS.clear();
+		generation++;
+	}
+
+	/**
+	 * Gets the number of requests which could be answered without querying the database.
+	 * @return The number of hits since the last reset.
+	 */
+	static synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Gets the number of requests which required the statistics to be computed by the database.
+	 * @return The number of misses since the last reset.
+	 */
+	static synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/** Resets the hit and miss counters. The kept statistics are not affected. */
+	static synchronized void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+	}
+
+	private static synchronized StatisticsAccumulator getKeptStatistics(String albumName) {
+		return STATISTICS.get(DatabaseStringUtilities.generateTableName(DatabaseStringUtilities.removeQuotesEnclosingName(albumName)));
+	}
+
+	/** Applies the change of a single item, or drops the statistics if they cannot be maintained */
+	private static void applyChange(String albumName, StoredItemValues valuesBefore, StoredItemValues valuesAfter) {
+		long changeVersion;
+		try {
+			changeVersion = AlbumChangeVersions.getChangeVersion(albumName);
+		} catch (DatabaseWrapperOperationException ex) {
+			invalidate(albumName);
+			return;
+		}
+
+		synchronized (AlbumStatisticsCatalog.class) {
+			String tableName = DatabaseStringUtilities.generateTableName(DatabaseStringUtilities.removeQuotesEnclosingName(albumName));
+			StatisticsAccumulator accumulator = STATISTICS.get(tableName);
+			if (accumulator == null) {
+				return;
+			}
+
+			// The statistics can only be maintained if they reflect the album right before this change
+			boolean isMaintainable = valuesBefore != null && valuesAfter != null && accumulator.changeVersion == changeVersion - 1
+					&& (valuesBefore == StoredItemValues.NONE || valuesBefore.accumulator == accumulator)
+					&& (valuesAfter == StoredItemValues.NONE || valuesAfter.accumulator == accumulator);
+
+			if (isMaintainable && accumulator.replace(valuesBefore, valuesAfter)) {
+				accumulator.changeVersion = changeVersion;
+			} else {
+				STATISTICS.remove(tableName);
+			}
+		}
+	}
+
+	private static StatisticsAccumulator computeStatistics(String albumName, String tableName, long changeVersion) 
+			throws DatabaseWrapperOperationException {
+		List<FieldDescriptor> aggregatedFields = new ArrayList<FieldDescriptor>();
+		FieldDescriptorTable fieldDescriptors = AlbumSchemaCatalog.getFieldDescriptors(tableName);
+		for (int i=0; i<fieldDescriptors.size(); i++) {
+			if (isAggregated(fieldDescriptors.get(i).getType())) {
+				aggregatedFields.add(fieldDescriptors.get(i));
+			}
+		}
+
+		StatisticsAccumulator accumulator = new StatisticsAccumulator(albumName, tableName, changeVersion, 
+				aggregatedFields.toArray(new FieldDescriptor[aggregatedFields.size()]), QueryOperations.isPictureAlbum(albumName));
+
+		StringBuilder numericQuery = new StringBuilder("SELECT COUNT(*)");
+		for (FieldDescriptor field : accumulator.fields) {
+			if (isNumeric(field.getType())) {
+				String column = DatabaseStringUtilities.transformColumnNameToSelectQueryName(field.getName());
+				numericQuery.append(", COUNT(").append(column).append("), TOTAL(").append(column).append("), MIN(")
+					.append(column).append("), MAX(").append(column).append(")");
+			}
+		}
+		numericQuery.append(" FROM ").append(DatabaseStringUtilities.encloseNameWithQuotes(tableName));
+
+		try (Statement statement = ConnectionManager.getConnection().createStatement()) {
+			try (ResultSet resultSet = statement.executeQuery(numericQuery.toString())) {
+				resultSet.next();
+				accumulator.itemCount = resultSet.getLong(1);
+
+				int columnIndex = 2;
+				for (int i=0; i<accumulator.fields.length; i++) {
+					if (isNumeric(accumulator.fields[i].getType())) {
+						accumulator.valueCounts[i] = resultSet.getLong(columnIndex++);
+						accumulator.sums[i] = resultSet.getDouble(columnIndex++);
+						accumulator.minimums[i] = resultSet.getDouble(columnIndex++);
+						accumulator.maximums[i] = resultSet.getDouble(columnIndex++);
+					}
+				}
+			}
+
+			for (int i=0; i<accumulator.fields.length; i++) {
+				if (!isNumeric(accumulator.fields[i].getType())) {
+					String column = DatabaseStringUtilities.transformColumnNameToSelectQueryName(accumulator.fields[i].getName());
+					String distributionQuery = "SELECT " + column + ", COUNT(*) FROM " + DatabaseStringUtilities.encloseNameWithQuotes(tableName) + 
+							" WHERE " + column + " IS NOT NULL GROUP BY " + column;
+
+					try (ResultSet resultSet = statement.executeQuery(distributionQuery)) {
+						while (resultSet.next()) {
+							Enum<?> value = toEnumValue(accumulator.fields[i].getType(), resultSet.getObject(1));
+							if (value != null) {
+								accumulator.distributions[i][value.ordinal()] += resultSet.getLong(2);
+							}
+						}
+					}
+				}
+			}
+
+			if (accumulator.pictureAlbum) {
+				try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + 
+						DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generatePictureTableName(tableName)))) {
+					accumulator.pictureCount = resultSet.next() ? resultSet.getLong(1) : 0;
+				}
+			}
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		}
+
+		return accumulator;
+	}
+
+	/** Reads the aggregated values of a single item. Returns null if they could not be read, in which case the statistics are dropped */
+	private static StoredItemValues readStoredItemValues(StatisticsAccumulator accumulator, String albumName, long itemId) {
+		StringBuilder valueQuery = new StringBuilder("SELECT ").append(DatabaseConstants.ID_COLUMN_NAME);
+		for (FieldDescriptor field : accumulator.fields) {
+			valueQuery.append(", ").append(DatabaseStringUtilities.transformColumnNameToSelectQueryName(field.getName()));
+		}
+		valueQuery.append(" FROM ").append(DatabaseStringUtilities.encloseNameWithQuotes(accumulator.tableName))
+			.append(" WHERE ").append(DatabaseConstants.ID_COLUMN_NAME).append(" = ?");
+
+		try {
+			Object[] values = new Object[accumulator.fields.length];
+			PreparedStatement valueStatement = ConnectionManager.getPreparedStatement(valueQuery.toString());
+			try {
+				valueStatement.setLong(1, itemId);
+
+				try (ResultSet resultSet = valueStatement.executeQuery()) {
+					if (!resultSet.next()) {
+						return StoredItemValues.NONE;
+					}
+
+					for (int i=0; i<values.length; i++) {
+						Object value = resultSet.getObject(i + 2);
+						values[i] = isNumeric(accumulator.fields[i].getType()) ? toNumericValue(value) : toEnumValue(accumulator.fields[i].getType(), value);
+					}
+				}
+			} finally {
+				ConnectionManager.releasePreparedStatement(valueStatement);
+			}
+
+			long pictureCount = 0;
+			if (accumulator.pictureAlbum) {
+				PreparedStatement pictureStatement = ConnectionManager.getPreparedStatement("SELECT COUNT(*) FROM " + 
+						DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generatePictureTableName(accumulator.tableName)) + 
+						" WHERE " + DatabaseConstants.ALBUM_ITEM_ID_REFERENCE_IN_PICTURE_TABLE + " = ?");
+				try {
+					pictureStatement.setLong(1, itemId);
+
+					try (ResultSet resultSet = pictureStatement.executeQuery()) {
+						pictureCount = resultSet.next() ? resultSet.getLong(1) : 0;
+					}
+				} finally {
+					ConnectionManager.releasePreparedStatement(pictureStatement);
+				}
+			}
+
+			return new StoredItemValues(accumulator, values, pictureCount);
+		} catch (SQLException | DatabaseWrapperOperationException ex) {
+			// The statistics are computed again when requested next
+			LOGGER.warn("The statistics of the album {} could not be maintained", albumName, ex);
+			invalidate(albumName);
+			return null;
+		}
+	}
+
+	private static boolean isAggregated(FieldType type) {
+		return isNumeric(type) || type == FieldType.STAR_RATING || type == FieldType.OPTION;
+	}
+
+	private static boolean isNumeric(FieldType type) {
+		return type == FieldType.INTEGER || type == FieldType.DECIMAL;
+	}
+
+	private static Double toNumericValue(Object storedValue) {
+		return storedValue instanceof Number ? ((Number) storedValue).doubleValue() : null;
+	}
+
+	private static Enum<?> toEnumValue(FieldType type, Object storedValue) {
+		if (type == FieldType.STAR_RATING) {
+			return storedValue instanceof Number ? (StarRating) StarRating.getByIntegerValue(((Number) storedValue).intValue()) : null;
+		}
+
+		// Options are stored by their name or by their integer value, depending on the row format of the album
+		return HelperOperations.toOptionType(storedValue);
+	}
+
+	/** The aggregated values of a single stored item */
+	static final class StoredItemValues {
+		/** The values of an item which does not exist (yet or anymore) */
+		private static final StoredItemValues NONE = new StoredItemValues(null, null, 0);
+
+		/** The statistics for which the values have been read */
+		private final StatisticsAccumulator accumulator;
+		/** The value of every aggregated field, in the order of the fields of the statistics */
+		private final Object[] values;
+		private final long pictureCount;
+
+		private StoredItemValues(StatisticsAccumulator accumulator, Object[] values, long pictureCount) {
+			this.accumulator = accumulator;
+			this.values = values;
+			this.pictureCount = pictureCount;
+		}
+	}
+
+	/** The mutable statistics of an album. Only accessed while holding the catalog lock once it has been added to the catalog */
+	private static final class StatisticsAccumulator {
+		private final String albumName;
+		private final String tableName;
+		private final FieldDescriptor[] fields;
+		private final boolean pictureAlbum;
+		/** The change version of the album which is reflected by these statistics */
+		private long changeVersion;
+		private long itemCount = 0;
+		private long pictureCount = 0;
+		private final long[] valueCounts;
+		private final double[] sums;
+		private final double[] minimums;
+		private final double[] maximums;
+		/** The number of items per enum ordinal of every star rating and option field. Null for numeric fields */
+		private final long[][] distributions;
+		/** The snapshot of the current statistics. Created when first requested after a change */
+		private AlbumStatistics snapshot = null;
+
+		private StatisticsAccumulator(String albumName, String tableName, long changeVersion, FieldDescriptor[] fields, boolean pictureAlbum) {
+			this.albumName = albumName;
+			this.tableName = tableName;
+			this.changeVersion = changeVersion;
+			this.fields = fields;
+			this.pictureAlbum = pictureAlbum;
+			this.valueCounts = new long[fields.length];
+			this.sums = new double[fields.length];
+			this.minimums = new double[fields.length];
+			this.maximums = new double[fields.length];
+			this.distributions = new long[fields.length][];
+
+			for (int i=0; i<fields.length; i++) {
+				if (fields[i].getType() == FieldType.STAR_RATING) {
+					distributions[i] = new long[NUMBER_OF_STAR_RATINGS];
+				} else if (fields[i].getType() == FieldType.OPTION) {
+					distributions[i] = new long[NUMBER_OF_OPTIONS];
+				}
+			}
+		}
+
+		/**
+		 * Replaces the values of an item. Either of both may be {@link StoredItemValues#NONE} if the item has been added or removed.
+		 * Returns false if the statistics cannot be maintained since an extreme value has been removed without being replaced.
+		 */
+		private boolean replace(StoredItemValues valuesBefore, StoredItemValues valuesAfter) {
+			snapshot = null;
+			itemCount += (valuesAfter == StoredItemValues.NONE ? 0 : 1) - (valuesBefore == StoredItemValues.NONE ? 0 : 1);
+			pictureCount += valuesAfter.pictureCount - valuesBefore.pictureCount;
+
+			for (int i=0; i<fields.length; i++) {
+				Object valueBefore = valuesBefore == StoredItemValues.NONE ? null : valuesBefore.values[i];
+				Object valueAfter = valuesAfter == StoredItemValues.NONE ? null : valuesAfter.values[i];
+
+				if (distributions[i] != null) {
+					if (valueBefore != null) {
+						distributions[i][((Enum<?>) valueBefore).ordinal()]--;
+					}
+					if (valueAfter != null) {
+						distributions[i][((Enum<?>) valueAfter).ordinal()]++;
+					}
+				} else if (!replaceNumericValue(i, (Double) valueBefore, (Double) valueAfter)) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		private boolean replaceNumericValue(int fieldIndex, Double valueBefore, Double valueAfter) {
+			if (valueBefore != null) {
+				valueCounts[fieldIndex]--;
+				sums[fieldIndex] -= valueBefore;
+
+				// The next smaller or larger value is unknown, unless the extreme value is replaced by a more extreme value
+				boolean isMinimumRemoved = valueBefore <= minimums[fieldIndex] && (valueAfter == null || valueAfter > valueBefore);
+				boolean isMaximumRemoved = valueBefore >= maximums[fieldIndex] && (valueAfter == null || valueAfter < valueBefore);
+				if (valueCounts[fieldIndex] > 0 && (isMinimumRemoved || isMaximumRemoved)) {
+					return false;
+				}
+			}
+
+			if (valueAfter != null) {
+				minimums[fieldIndex] = valueCounts[fieldIndex] == 0 ? valueAfter : Math.min(minimums[fieldIndex], valueAfter);
+				maximums[fieldIndex] = valueCounts[fieldIndex] == 0 ? valueAfter : Math.max(maximums[fieldIndex], valueAfter);
+				valueCounts[fieldIndex]++;
+				sums[fieldIndex] += valueAfter;
+			}
+
+			return true;
+		}
+
+		private AlbumStatistics getSnapshot() {
+			if (snapshot == null) {
+				Map<String, NumericFieldStatistics> numericFieldStatistics = new HashMap<String, NumericFieldStatistics>();
+				Map<String, Map<StarRating, Long>> starRatingDistributions = new HashMap<String, Map<StarRating, Long>>();
+				Map<String, Map<OptionType, Long>> optionDistributions = new HashMap<String, Map<OptionType, Long>>();
+
+				for (int i=0; i<fields.length; i++) {
+					String fieldName = fields[i].getName();
+					if (fields[i].getType() == FieldType.STAR_RATING) {
+						starRatingDistributions.put(fieldName, AlbumStatistics.createDistribution(StarRating.class, distributions[i]));
+					} else if (fields[i].getType() == FieldType.OPTION) {
+						optionDistributions.put(fieldName, AlbumStatistics.createDistribution(OptionType.class, distributions[i]));
+					} else {
+						numericFieldStatistics.put(fieldName, new NumericFieldStatistics(valueCounts[i], minimums[i], maximums[i], sums[i]));
+					}
+				}
+
+				snapshot = new AlbumStatistics(albumName, itemCount, pictureCount, numericFieldStatistics, starRatingDistributions, optionDistributions);
+			}
+
+			return snapshot;
+		}
+	}
+}
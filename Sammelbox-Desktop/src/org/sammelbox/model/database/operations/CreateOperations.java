@@ -23,7 +23,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.sammelbox.controller.filesystem.FileSystemAccessWrapper;
@@ -36,6 +40,7 @@ import org.sammelbox.model.album.ItemField;
 import org.sammelbox.model.album.MetaItemField;
 import org.sammelbox.model.album.SampleAlbumItemPicture;
 import org.sammelbox.model.database.DatabaseStringUtilities;
+import org.sammelbox.model.database.QueryBuilder;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException.DBErrorState;
 import org.slf4j.Logger;
@@ -54,7 +59,7 @@ public final class CreateOperations {
 		}
 		
 		createNewAlbumTable(fields, albumName, DatabaseStringUtilities.encloseNameWithQuotes(
-				DatabaseStringUtilities.generateTableName(albumName)), hasAlbumPictures);
+				DatabaseStringUtilities.generateTableName(albumName)), hasAlbumPictures, DatabaseConstants.ROW_FORMAT_V2);
 		// Indicate which fields are quick-searchable
 		List<String> quickSearchableColumnNames = new ArrayList<String>();
 		for (MetaItemField metaItemField : fields) {
@@ -71,6 +76,9 @@ public final class CreateOperations {
 		
 		// Make columns quick-searchable
 		createIndex(DatabaseStringUtilities.generateTableName(albumName), quickSearchableColumnNames);
+		
+		// Allow to read the first pages in sort order without sorting the album
+		ensureSortIndex(albumName);
 	}
 	
 	/**
@@ -81,9 +89,10 @@ public final class CreateOperations {
 	 * @param tableName The database name of the table to be created
 	 * @throws DatabaseWrapperOperationException 
 	 * @param albumHasPictures true indicates that this album may contain pictures and the related flag in the master table should be set  
+	 * @param rowFormat The row format of the new table. Only the row format v1 references the type info table from every row.
 	 */
-	static void createNewAlbumTable(List<MetaItemField> fields, String albumName, String tableName, boolean albumHasPictures) 
-											throws DatabaseWrapperOperationException {
+	static void createNewAlbumTable(List<MetaItemField> fields, String albumName, String tableName, boolean albumHasPictures, 
+			int rowFormat) throws DatabaseWrapperOperationException {
 		String typeInfoTableName = "";
 		String createTempTableSQL = "";
 		List<MetaItemField> columns = new ArrayList<MetaItemField>(fields);
@@ -129,18 +138,20 @@ public final class CreateOperations {
 			sb.append(" , ");
 			sb.append(DatabaseStringUtilities.encloseNameWithQuotes(item.getName()));
 			sb.append(" ");
-			sb.append(item.getType().toDatabaseTypeString());
+			sb.append(HelperOperations.toDatabaseTypeString(item.getType(), rowFormat));
 		}
 
-		sb.append(" ,  ");
-
-		// Add the typeInfo column and foreign key reference to the typeInfo table.
-		sb.append(DatabaseConstants.TYPE_INFO_COLUMN_NAME);
-		sb.append(" INTEGER, FOREIGN KEY(");
-		sb.append(DatabaseConstants.TYPE_INFO_COLUMN_NAME);
-		sb.append(") REFERENCES ");
-		sb.append(typeInfoTableName);
-		sb.append("(id))");
+		if (rowFormat == DatabaseConstants.ROW_FORMAT_V1) {
+			// Add the typeInfo column and foreign key reference to the typeInfo table.
+			sb.append(" ,  ");
+			sb.append(DatabaseConstants.TYPE_INFO_COLUMN_NAME);
+			sb.append(" INTEGER, FOREIGN KEY(");
+			sb.append(DatabaseConstants.TYPE_INFO_COLUMN_NAME);
+			sb.append(") REFERENCES ");
+			sb.append(typeInfoTableName);
+			sb.append("(id)");
+		}
+		sb.append(")");
 		createMainTableString = sb.toString();
 
 		// Save the type informations in a separate table
@@ -155,6 +166,8 @@ public final class CreateOperations {
 		} catch (SQLException sqlException) {
 			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, sqlException);
 		}
+		
+		AlbumSchemaCatalog.invalidate(albumName);
 	}
 	
 	/**
@@ -240,6 +253,141 @@ public final class CreateOperations {
 		} catch (SQLException e) {
 			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
 		}
+		
+		createFullTextIndex(albumName, columnNames);
+		AlbumSchemaCatalog.invalidate(albumName);
+	}
+	
+	/**
+	 * Ensures that the album table has an index on its sort field (see {@link QueryBuilder#getSortByFieldName(String)}), such that 
+	 * pages of album items can be read in sort order without sorting the complete album. Sort indices on other fields (e.g. of a 
+	 * previous sort field) are dropped. Must be called within the savepoint of the operation which created or altered the album, 
+	 * or changed its sort field. Reading operations never create the index.
+	 * @param albumName The name of the album to be indexed.
+	 * @return True if a sort index has been created or dropped, false if the sort index was up to date.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	static boolean ensureSortIndex(String albumName) throws DatabaseWrapperOperationException {
+		// Items ordered by id do not require an index
+		String sortFieldName = QueryBuilder.getSortByFieldName(albumName);
+		String tableName = DatabaseStringUtilities.generateTableName(albumName);
+		String sortIndexName = DatabaseStringUtilities.generateSortIndexName(albumName);
+		String createSortIndexString = sortFieldName == null ? null : "CREATE INDEX " + DatabaseStringUtilities.encloseNameWithQuotes(sortIndexName) + 
+				" ON " + DatabaseStringUtilities.encloseNameWithQuotes(tableName) + 
+				" (" + DatabaseStringUtilities.transformColumnNameToSelectQueryName(sortFieldName) + ")";
+		
+		List<String> outdatedSortIndexNames = new ArrayList<String>();
+		boolean sortIndexExists = false;
+		
+		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(
+				"SELECT name, sql FROM sqlite_master WHERE type = 'index' AND tbl_name = ?")) {
+			preparedStatement.setString(1, tableName);
+			
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				while (resultSet.next()) {
+					String indexName = resultSet.getString(1);
+					
+					if (!indexName.endsWith(DatabaseConstants.SORT_INDEX_SUFFIX)) {
+						continue;
+					}
+					
+					// SQLite stores the statement as it has been executed, which allows to detect a changed sort field
+					if (indexName.equals(sortIndexName) && resultSet.getString(2).equals(createSortIndexString)) {
+						sortIndexExists = true;
+					} else {
+						outdatedSortIndexNames.add(indexName);
+					}
+				}
+			}
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		}
+		
+		try (Statement statement = ConnectionManager.getConnection().createStatement()) {
+			for (String outdatedSortIndexName : outdatedSortIndexNames) {
+				statement.execute("DROP INDEX IF EXISTS " + DatabaseStringUtilities.encloseNameWithQuotes(outdatedSortIndexName));
+			}
+			
+			if (createSortIndexString != null && !sortIndexExists) {
+				statement.execute(createSortIndexString);
+				return true;
+			}
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
+		}
+		
+		return !outdatedSortIndexNames.isEmpty();
+	}
+	
+	/**
+	 * Creates the full text index of an album for the given quick-searchable columns. Only textual columns (text, URL and option)
+	 * are part of the full text index. The index is filled with the current album items and kept in sync by triggers on the album table.
+	 * An existing full text index of the album is replaced.
+	 * @param albumName The name of the album to be indexed.
+	 * @param columnNames The names of the quick-searchable columns. Columns of non-textual types are ignored.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	static void createFullTextIndex(String albumName, List<String> columnNames) throws DatabaseWrapperOperationException {
+		DeleteOperations.dropFullTextIndex(albumName);
+		
+		Map<String, FieldType> fieldNameToFieldTypeMap = QueryOperations.getAlbumItemFieldNameToTypeMap(albumName);
+		List<String> textColumnNames = new ArrayList<String>();
+		List<String> optionColumnNames = new ArrayList<String>();
+		for (String columnName : columnNames) {
+			String fieldName = DatabaseStringUtilities.removeQuotesEnclosingName(columnName);
+			FieldType fieldType = fieldNameToFieldTypeMap.get(fieldName);
+			
+			if (FieldType.TEXT.equals(fieldType) || FieldType.URL.equals(fieldType) || FieldType.OPTION.equals(fieldType)) {
+				textColumnNames.add(DatabaseStringUtilities.transformColumnNameToSelectQueryName(fieldName));
+			}
+			if (FieldType.OPTION.equals(fieldType)) {
+				optionColumnNames.add(DatabaseStringUtilities.transformColumnNameToSelectQueryName(fieldName));
+			}
+		}
+		
+		if (textColumnNames.isEmpty()) {
+			return;
+		}
+		
+		String tableName = DatabaseStringUtilities.generateTableName(albumName);
+		String quotedTableName = DatabaseStringUtilities.encloseNameWithQuotes(tableName);
+		String indexTableName = DatabaseStringUtilities.transformColumnNameToSelectQueryName(
+				DatabaseStringUtilities.generateFullTextIndexTableName(albumName));
+		
+		StringBuilder columnList = new StringBuilder();
+		StringBuilder valueList = new StringBuilder();
+		StringBuilder newValueList = new StringBuilder();
+		for (String textColumnName : textColumnNames) {
+			columnList.append(", ").append(textColumnName);
+			// Options are indexed by their name, even if they are stored by their integer value
+			if (optionColumnNames.contains(textColumnName)) {
+				valueList.append(", ").append(QueryBuilder.createOptionNameExpression(textColumnName));
+				newValueList.append(", ").append(QueryBuilder.createOptionNameExpression("new." + textColumnName));
+			} else {
+				valueList.append(", ").append(textColumnName);
+				newValueList.append(", new.").append(textColumnName);
+			}
+		}
+		
+		String insertNewValues = "INSERT INTO " + indexTableName + " (docid" + columnList + ") VALUES (new.id" + newValueList + "); ";
+		String deleteOldValues = "DELETE FROM " + indexTableName + " WHERE docid = old.id; ";
+		
+		try (Statement statement = ConnectionManager.getConnection().createStatement()) {
+			statement.execute("CREATE VIRTUAL TABLE " + indexTableName + " USING fts3(" + columnList.substring(2) + ")");
+			statement.execute("INSERT INTO " + indexTableName + " (docid" + columnList + ") " + 
+							  "SELECT id" + valueList + " FROM " + quotedTableName);
+			
+			statement.execute("CREATE TRIGGER " + DatabaseStringUtilities.encloseNameWithQuotes(tableName + DatabaseConstants.FULL_TEXT_INSERT_TRIGGER_SUFFIX) + 
+							  " AFTER INSERT ON " + quotedTableName + " BEGIN " + insertNewValues + "END");
+			statement.execute("CREATE TRIGGER " + DatabaseStringUtilities.encloseNameWithQuotes(tableName + DatabaseConstants.FULL_TEXT_UPDATE_TRIGGER_SUFFIX) + 
+							  " AFTER UPDATE ON " + quotedTableName + " BEGIN " + deleteOldValues + insertNewValues + "END");
+			statement.execute("CREATE TRIGGER " + DatabaseStringUtilities.encloseNameWithQuotes(tableName + DatabaseConstants.FULL_TEXT_DELETE_TRIGGER_SUFFIX) + 
+							  " AFTER DELETE ON " + quotedTableName + " BEGIN " + deleteOldValues + "END");
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
+		}
+		
+		AlbumSchemaCatalog.invalidate(albumName);
 	}
 	
 	static void createAlbumMasterTableIfItDoesNotExist() throws DatabaseWrapperOperationException {
@@ -254,6 +402,31 @@ public final class CreateOperations {
 		
 		// Create the album master table.
 		createTableWithIdAsPrimaryKey(DatabaseConstants.ALBUM_MASTER_TABLE_NAME, fields , false, true);
+		// The change version and field order columns are added separately since they are missing in databases of previous versions
+		AlbumChangeVersions.ensureChangeVersionColumn();
+		ensureFieldOrderColumn();
+	}
+	
+	/**
+	 * Adds the field order column to the album master table of databases created before the display order of fields was introduced.
+	 * @throws DatabaseWrapperOperationException If the album master table could not be altered.
+	 */
+	static void ensureFieldOrderColumn() throws DatabaseWrapperOperationException {
+		String masterTableName = DatabaseStringUtilities.encloseNameWithQuotes(DatabaseConstants.ALBUM_MASTER_TABLE_NAME);
+
+		try (Statement statement = ConnectionManager.getConnection().createStatement()) {
+			try (ResultSet resultSet = statement.executeQuery("PRAGMA table_info(" + masterTableName + ")")) {
+				while (resultSet.next()) {
+					if (DatabaseConstants.FIELD_ORDER_COLUMN_IN_ALBUM_MASTER_TABLE.equals(resultSet.getString("name"))) {
+						return;
+					}
+				}
+			}
+
+			statement.executeUpdate("ALTER TABLE " + masterTableName + " ADD COLUMN " + DatabaseConstants.FIELD_ORDER_COLUMN_IN_ALBUM_MASTER_TABLE + " TEXT");
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
+		}
 	}
 	
 	/**
@@ -310,6 +483,27 @@ public final class CreateOperations {
 	
 		createTableWithIdAsPrimaryKey(DatabaseStringUtilities.encloseNameWithQuotes(
 				DatabaseStringUtilities.generatePictureTableName(albumName)), columns , false, true);
+		
+		createPictureTableIndex(albumName);
+	}
+	
+	/**
+	 * Creates the index on the album item reference of the picture table, such that the pictures of an album item
+	 * can be found without scanning the pictures of all items. Nothing happens if the index already exists.
+	 * @param albumName The name of the album whose picture table should be indexed.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	static void createPictureTableIndex(String albumName) throws DatabaseWrapperOperationException {
+		String createPictureIndexString = "CREATE INDEX IF NOT EXISTS " + 
+				DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generatePictureIndexName(albumName)) + 
+				" ON " + DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generatePictureTableName(albumName)) + 
+				" (" + DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.ALBUM_ITEM_ID_REFERENCE_IN_PICTURE_TABLE) + ")";
+		
+		try (Statement statement = ConnectionManager.getConnection().createStatement()) {
+			statement.execute(createPictureIndexString);
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
+		}
 	}
 	
 	/** Adds the given album item to the corresponding album table 
@@ -321,6 +515,99 @@ public final class CreateOperations {
 	 * This flag is useful in the case where items are re-added to the table after some structural alterations have
 	 * been performed that have not modified the content */
 	static long addAlbumItem(AlbumItem albumItem, boolean addPictures, boolean updateContentVersion) throws DatabaseWrapperOperationException {
+		return addAlbumItems(Collections.singletonList(albumItem), addPictures, updateContentVersion).get(0);
+	}
+	
+	/** See {@link #addAlbumItem(AlbumItem, boolean, boolean)} */
+	static long addAlbumItem(AlbumItem albumItem, boolean updateContentVersion) throws DatabaseWrapperOperationException {
+		return addAlbumItem(albumItem, true, updateContentVersion);
+	}
+	
+	/** Adds the given album items within a single savepoint. Items of the same album with the same fields are inserted 
+	 * by a single prepared statement as one batch, together with their content version. The picture links of all items 
+	 * are inserted as one batch per album.
+	 * @param albumItems the items to be added. The items may belong to different albums
+	 * @param addPictures should the pictures from the given album items be added to the corresponding picture tables?
+	 * @param updateContentVersion should new content versions be generated for the items? If not, the content
+	 * versions of the items are carried over
+	 * @return the ids of the added items, in the order of the given items */
+	static List<Long> addAlbumItems(List<AlbumItem> albumItems, boolean addPictures, boolean updateContentVersion) throws DatabaseWrapperOperationException {
+		for (AlbumItem albumItem : albumItems) {
+			validateAlbumItemToBeAdded(albumItem, updateContentVersion);
+		}
+		
+		if (albumItems.isEmpty()) {
+			return new ArrayList<Long>();
+		}
+		
+		String savepointName = DatabaseIntegrityManager.createSavepoint();
+		
+		try {
+			List<Long> idsOfAddedItems = assignItemIds(albumItems);
+			
+			// Group the items by their insert statement, i.e. by album and fields
+			Map<String, List<Integer>> itemIndexesByInsertStatement = new LinkedHashMap<String, List<Integer>>();
+			Map<String, List<Integer>> itemIndexesByAlbum = new LinkedHashMap<String, List<Integer>>();
+			for (int i=0; i<albumItems.size(); i++) {
+				int rowFormat = AlbumSchemaCatalog.getRowFormat(albumItems.get(i).getAlbumName());
+				addToGroup(itemIndexesByInsertStatement, createBatchInsertString(albumItems.get(i), rowFormat), i);
+				addToGroup(itemIndexesByAlbum, albumItems.get(i).getAlbumName(), i);
+			}
+			
+			for (Map.Entry<String, List<Integer>> group : itemIndexesByInsertStatement.entrySet()) {
+				int rowFormat = AlbumSchemaCatalog.getRowFormat(albumItems.get(group.getValue().get(0)).getAlbumName());
+				
+				try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(group.getKey())) {
+					for (int itemIndex : group.getValue()) {
+						AlbumItem albumItem = albumItems.get(itemIndex);
+						UUID contentVersion = updateContentVersion ? UUID.randomUUID() : albumItem.getContentVersion();
+						
+						int parameterIndex = 1;
+						preparedStatement.setLong(parameterIndex++, idsOfAddedItems.get(itemIndex));
+						for (ItemField itemField : albumItem.getFields()) {
+							if (isInsertedAsItemField(itemField)) {
+								HelperOperations.setValueToPreparedStatement(preparedStatement, parameterIndex++, itemField, albumItem.getAlbumName());
+							}
+						}
+						if (rowFormat == DatabaseConstants.ROW_FORMAT_V1) {
+							preparedStatement.setLong(parameterIndex++, DatabaseConstants.TYPE_INFO_FOREIGN_KEY);
+						}
+						HelperOperations.setContentVersionToPreparedStatement(preparedStatement, parameterIndex, contentVersion, rowFormat);
+						preparedStatement.addBatch();
+					}
+					
+					preparedStatement.executeBatch();
+				}
+			}
+			
+			if (addPictures) {
+				for (List<Integer> itemIndexes : itemIndexesByAlbum.values()) {
+					addAlbumItemPictures(albumItems, itemIndexes, idsOfAddedItems);
+				}
+			}
+			
+			for (Map.Entry<String, List<Integer>> album : itemIndexesByAlbum.entrySet()) {
+				AlbumChangeVersions.increment(album.getKey());
+				// Statistics are maintained for single items only. After larger batches, aggregating them again is cheaper
+				if (album.getValue().size() == 1) {
+					AlbumStatisticsCatalog.itemAdded(album.getKey(), idsOfAddedItems.get(album.getValue().get(0)));
+				}
+			}
+			
+			DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
+			return idsOfAddedItems;
+		} catch (SQLException e) {
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		} catch (DatabaseWrapperOperationException e) {
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		} finally {
+			DatabaseIntegrityManager.releaseSavepoint(savepointName);
+		}
+	}
+	
+	private static void validateAlbumItemToBeAdded(AlbumItem albumItem, boolean updateContentVersion) throws DatabaseWrapperOperationException {
 		// Check if the item contains a albumName
 		if (albumItem.getAlbumName().isEmpty()) {
 			LOGGER.error("Item {} has no albumName", albumItem);
@@ -339,101 +626,131 @@ public final class CreateOperations {
 					"is checked but no content version is found in the item!");
 			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE);
 		}
-
-		// Build the SQL string with place-holders '?'
-		StringBuilder sb = new StringBuilder("INSERT INTO ");
-		sb.append(DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generateTableName(albumItem.getAlbumName())));
-		sb.append(" ( ");
-
-		for (ItemField itemField : albumItem.getFields()) {
-			String name = itemField.getName();
-			// Ensure that no field with the name of typeInfoColumnName
-			if (!name.equalsIgnoreCase(DatabaseConstants.TYPE_INFO_COLUMN_NAME)) {
-				sb.append(DatabaseStringUtilities.encloseNameWithQuotes(name));
-				sb.append(", ");
+	}
+	
+	/** Keeps the ids of items which already have one and assigns the ids following the largest id of the album 
+	 * to all other items, which are the ids SQLite would generate for them */
+	private static List<Long> assignItemIds(List<AlbumItem> albumItems) throws DatabaseWrapperOperationException {
+		Map<String, Long> nextIdByAlbum = new HashMap<String, Long>();
+		for (AlbumItem albumItem : albumItems) {
+			String tableName = DatabaseStringUtilities.generateTableName(albumItem.getAlbumName());
+			if (!nextIdByAlbum.containsKey(tableName)) {
+				nextIdByAlbum.put(tableName, getLargestItemId(tableName) + 1);
+			}
+			
+			if (albumItem.getItemId() > AlbumItem.ITEM_ID_UNDEFINED) {
+				nextIdByAlbum.put(tableName, Math.max(nextIdByAlbum.get(tableName), albumItem.getItemId() + 1));
 			}
 		}
-
-		// Add the typeInfoColumnName 
-		sb.append(DatabaseConstants.TYPE_INFO_COLUMN_NAME);
-		sb.append(" ) VALUES ( ");
-
-		for (ItemField itemField : albumItem.getFields()) {
-			String name = itemField.getName();
-			if (!name.equalsIgnoreCase(DatabaseConstants.TYPE_INFO_COLUMN_NAME)) {
-				sb.append("?, ");
+		
+		List<Long> itemIds = new ArrayList<Long>(albumItems.size());
+		for (AlbumItem albumItem : albumItems) {
+			if (albumItem.getItemId() > AlbumItem.ITEM_ID_UNDEFINED) {
+				itemIds.add(albumItem.getItemId());
+			} else {
+				String tableName = DatabaseStringUtilities.generateTableName(albumItem.getAlbumName());
+				long itemId = nextIdByAlbum.get(tableName);
+				nextIdByAlbum.put(tableName, itemId + 1);
+				itemIds.add(itemId);
 			}
 		}
-		// Add wildcard for the typeInfoColumn Value
-		sb.append("? )");
 		
-		String savepointName = DatabaseIntegrityManager.createSavepoint();
+		return itemIds;
+	}
 	
-		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(sb.toString())){
-			long idOfAddedItem = albumItem.getItemId() != AlbumItem.ITEM_ID_UNDEFINED ? albumItem.getItemId() : -1;
-			
-			// Replace the wildcard character '?' by the real type values
-			int parameterIndex = 1;
-			for (ItemField itemField : albumItem.getFields()) {	
-				String name = itemField.getName();
-				
-				if (itemField.getType().equals(FieldType.ID) && idOfAddedItem != AlbumItem.ITEM_ID_UNDEFINED) {
-					HelperOperations.setValueToPreparedStatement(preparedStatement, parameterIndex, itemField, albumItem.getAlbumName());
-				}
-				
-				if (!name.equalsIgnoreCase(DatabaseConstants.TYPE_INFO_COLUMN_NAME)) {					
-					HelperOperations.setValueToPreparedStatement(preparedStatement, parameterIndex, itemField, albumItem.getAlbumName());
-					parameterIndex++;
-				}
+	private static long getLargestItemId(String tableName) throws DatabaseWrapperOperationException {
+		String largestIdQuery = "SELECT MAX(" + DatabaseConstants.ID_COLUMN_NAME + ") FROM " + DatabaseStringUtilities.encloseNameWithQuotes(tableName);
+		
+		try (Statement statement = ConnectionManager.getConnection().createStatement();
+			 ResultSet resultSet = statement.executeQuery(largestIdQuery)) {
+			return resultSet.next() ? resultSet.getLong(1) : 0;
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		}
+	}
+	
+	private static void addToGroup(Map<String, List<Integer>> groups, String groupKey, int itemIndex) {
+		List<Integer> group = groups.get(groupKey);
+		if (group == null) {
+			group = new ArrayList<Integer>();
+			groups.put(groupKey, group);
+		}
+		group.add(itemIndex);
+	}
+	
+	/** Returns false for the fields whose columns are set explicitly by the batch insert */
+	private static boolean isInsertedAsItemField(ItemField itemField) {
+		return !itemField.getType().equals(FieldType.ID) 
+				&& !itemField.getName().equalsIgnoreCase(DatabaseConstants.TYPE_INFO_COLUMN_NAME)
+				&& !itemField.getName().equalsIgnoreCase(DatabaseConstants.CONTENT_VERSION_COLUMN_NAME);
+	}
+	
+	/** Builds the insert statement of an item with the id, the fields, the type info (row format v1 only) and the content version as parameters */
+	private static String createBatchInsertString(AlbumItem albumItem, int rowFormat) {
+		StringBuilder columns = new StringBuilder(DatabaseConstants.ID_COLUMN_NAME);
+		StringBuilder parameters = new StringBuilder("?");
+		
+		for (ItemField itemField : albumItem.getFields()) {
+			if (isInsertedAsItemField(itemField)) {
+				columns.append(", ").append(DatabaseStringUtilities.encloseNameWithQuotes(itemField.getName()));
+				parameters.append(", ?");
 			}
-			preparedStatement.setLong(parameterIndex, DatabaseConstants.TYPE_INFO_FOREIGN_KEY);			
-
-			// Retrieves the generated key used in the new  album item
-			preparedStatement.executeUpdate();
-			
-			if (albumItem.getItemId() == AlbumItem.ITEM_ID_UNDEFINED ) {
-				try(ResultSet generatedKeys = preparedStatement.getGeneratedKeys();) {
-					if (generatedKeys.next()) {
-						idOfAddedItem = generatedKeys.getLong(1);
+		}
+		
+		if (rowFormat == DatabaseConstants.ROW_FORMAT_V1) {
+			columns.append(", ").append(DatabaseConstants.TYPE_INFO_COLUMN_NAME);
+			parameters.append(", ?");
+		}
+		columns.append(", ").append(DatabaseConstants.CONTENT_VERSION_COLUMN_NAME);
+		parameters.append(", ?");
+		
+		return "INSERT INTO " + DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generateTableName(albumItem.getAlbumName())) + 
+				" ( " + columns + " ) VALUES ( " + parameters + " )";
+	}
+	
+	/** Inserts the picture links of the given items of a single album as one batch */
+	private static void addAlbumItemPictures(List<AlbumItem> albumItems, List<Integer> itemIndexes, List<Long> itemIds) 
+			throws SQLException, DatabaseWrapperOperationException {
+		String albumName = albumItems.get(itemIndexes.get(0)).getAlbumName();
+		String insertPictureString = "INSERT INTO " + 
+				DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generatePictureTableName(albumName)) + " ( " + 
+				DatabaseStringUtilities.encloseNameWithQuotes(DatabaseConstants.ORIGINAL_PICTURE_FILE_NAME_IN_PICTURE_TABLE) + ", " +
+				DatabaseStringUtilities.encloseNameWithQuotes(DatabaseConstants.THUMBNAIL_PICTURE_FILE_NAME_IN_PICTURE_TABLE) + ", " +
+				DatabaseStringUtilities.encloseNameWithQuotes(DatabaseConstants.ALBUM_ITEM_ID_REFERENCE_IN_PICTURE_TABLE) + " ) VALUES ( ?, ?, ? )";
+		
+		List<AlbumItemPicture> pictures = new ArrayList<AlbumItemPicture>();
+		for (int itemIndex : itemIndexes) {
+			AlbumItem albumItem = albumItems.get(itemIndex);
+			if (albumItem.getPictures() != null) {
+				for (AlbumItemPicture picture : albumItem.getPictures()) {
+					if (picture instanceof SampleAlbumItemPicture) {
+						throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, "Cannot persist SampleAlbumItemPicture");
 					}
-				} catch (SQLException sqlEx) {
-					DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
-					throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, sqlEx);
+					
+					picture.setAlbumItemID(itemIds.get(itemIndex));
+					picture.setAlbumName(albumName);
+					pictures.add(picture);
 				}
 			}
-			
-			// If possible (and demanded) store picture links
-			if (addPictures && albumItem.getPictures() != null) {
-				for (AlbumItemPicture picture : albumItem.getPictures()) {
-					picture.setAlbumItemID(idOfAddedItem);
-					picture.setAlbumName(albumItem.getAlbumName());
-					addAlbumItemPicture(picture);
-				}
+		}
+		
+		// Albums without pictures have no picture table
+		if (pictures.isEmpty()) {
+			return;
+		}
+		
+		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(insertPictureString)) {
+			for (AlbumItemPicture picture : pictures) {
+				preparedStatement.setString(1, picture.getOriginalPictureName());
+				preparedStatement.setString(2, picture.getThumbnailPictureName());
+				preparedStatement.setLong(3, picture.getAlbumItemID());
+				preparedStatement.addBatch();
 			}
 			
-			// Either copies the old content version over or generates a new one
-			UUID newUUID = UUID.randomUUID();
-			if (!updateContentVersion) {
-				// Carry over old content version
-				newUUID = albumItem.getContentVersion();
-
-			}
-			UpdateOperations.updateContentVersion(albumItem.getAlbumName(), idOfAddedItem, newUUID);
-			DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
-			return idOfAddedItem;
-		} catch (SQLException e) {
-			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
-			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
-		} finally {
-			DatabaseIntegrityManager.releaseSavepoint(savepointName);
+			preparedStatement.executeBatch();
 		}
 	}
 	
-	/** See {@link #addAlbumItem(AlbumItem, boolean, boolean)} */
-	static long addAlbumItem(AlbumItem albumItem, boolean updateContentVersion) throws DatabaseWrapperOperationException {
-		return addAlbumItem(albumItem, true, updateContentVersion);
-	}
-	
 	static void addAlbumItemPicture(AlbumItemPicture albumItemPicture) throws DatabaseWrapperOperationException {
 		if (albumItemPicture instanceof SampleAlbumItemPicture) {
 			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, "Cannot persist SampleAlbumItemPicture");
@@ -35,6 +35,18 @@ public final class DatabaseConstants {
 	public static final String INDEX_NAME_SUFFIX = "_index";
 	/** The suffix used to append to the main table to obtain the temporary table name.*/
 	public static final String TEMP_TABLE_SUFFIX = "_temptable";
+	/** The suffix used to append to the main table name to obtain the name of the full text index table.*/
+	public static final String FULL_TEXT_INDEX_SUFFIX = "_fts";
+	/** The suffix used to append to the main table name to obtain the name of the index on the sort field. Must not end with INDEX_NAME_SUFFIX.*/
+	public static final String SORT_INDEX_SUFFIX = "_sortkey";
+	/** The suffix used to append to the picture table name to obtain the name of the index on the album item reference.*/
+	public static final String PICTURE_INDEX_SUFFIX = "_itemref";
+	/** The row format of albums created by earlier versions. Each row references the type info table, content versions
+	 *  are stored as text and options by their name */
+	public static final int ROW_FORMAT_V1 = 1;
+	/** The lean row format. Rows do not reference the type info table, content versions are stored as 16 byte blobs and
+	 *  options by their integer value. New albums are created in this format */
+	public static final int ROW_FORMAT_V2 = 2;
 	
 	
 	/** The name of the picture table column that stores the filename of the original picture */
@@ -49,6 +61,14 @@ public final class DatabaseConstants {
 	static final String SCHEMA_VERSION_COLUMN_NAME = "schema_version";
 	/** The final name of the content version column. Updated at each change of the content of the field */
 	static final String CONTENT_VERSION_COLUMN_NAME = "content_version";
+	/** The suffix of the trigger copying inserted album items into the full text index */
+	static final String FULL_TEXT_INSERT_TRIGGER_SUFFIX = "_fts_insert";
+	/** The suffix of the trigger updating the full text index after an album item has been modified */
+	static final String FULL_TEXT_UPDATE_TRIGGER_SUFFIX = "_fts_update";
+	/** The suffix of the trigger removing deleted album items from the full text index */
+	static final String FULL_TEXT_DELETE_TRIGGER_SUFFIX = "_fts_delete";
+	/** The suffix of the album table and type info table which are replaced while the fields of the album are altered */
+	static final String REPLACED_TABLE_SUFFIX = "_replaced";
 	
 	
 	/** The name of the album master table containing all stored album table names and their type table names */
@@ -59,4 +79,10 @@ public final class DatabaseConstants {
 	static final String ALBUM_TABLENAME_IN_ALBUM_MASTER_TABLE= "album_table_name";
 	/** The final name of the picture column. Currently only a single column is supported, this is its name */
 	static final String HAS_PICTURES_COLUMN_IN_ALBUM_MASTER_TABLE = "has_pictures";
+	/** The column name for the change version of the album, increased with every alteration of the album */
+	static final String CHANGE_VERSION_COLUMN_IN_ALBUM_MASTER_TABLE = "change_version";
+	/** The column name for the display order of the album fields. Null if the fields are displayed in column order */
+	static final String FIELD_ORDER_COLUMN_IN_ALBUM_MASTER_TABLE = "field_order";
+	/** Separates the column positions of the fields stored in the field order column */
+	static final String FIELD_ORDER_SEPARATOR = ",";
 }
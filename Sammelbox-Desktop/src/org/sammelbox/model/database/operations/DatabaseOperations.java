@@ -18,15 +18,23 @@
 
 package org.sammelbox.model.database.operations;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemPage;
 import org.sammelbox.model.album.AlbumItemPicture;
 import org.sammelbox.model.album.AlbumItemResultSet;
+import org.sammelbox.model.album.AlbumStatistics;
 import org.sammelbox.model.album.FieldType;
 import org.sammelbox.model.album.MetaItemField;
+import org.sammelbox.model.database.ParameterizedQuery;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 
 public final class DatabaseOperations {	
@@ -43,7 +51,11 @@ public final class DatabaseOperations {
 	 * @throws DatabaseWrapperOperationException 
 	 */
 	public static void createNewAlbum(String albumName, List<MetaItemField> fields, boolean isPictureAlbum) throws DatabaseWrapperOperationException {
-		CreateOperations.createNewAlbum(albumName, fields, isPictureAlbum);
+		try {
+			CreateOperations.createNewAlbum(albumName, fields, isPictureAlbum);
+		} finally {
+			QueryResultCache.invalidateAlbum(albumName);
+		}
 	}
 	
 	/**
@@ -57,7 +69,35 @@ public final class DatabaseOperations {
 	 * @throws DatabaseWrapperOperationException 
 	 */
 	public static long addAlbumItem(AlbumItem item, boolean updateContentVersion) throws DatabaseWrapperOperationException {
-		return CreateOperations.addAlbumItem(item, updateContentVersion);
+		try {
+			return CreateOperations.addAlbumItem(item, updateContentVersion);
+		} finally {
+			QueryResultCache.invalidateAlbum(item.getAlbumName());
+		}
+	}
+	
+	/**
+	 * Adds the specified items to their existing albums within a single transaction. Either all items are added or none.
+	 * Items of the same album with the same fields are inserted as one batch, which is considerably faster than adding
+	 * the items one by one. Album item pictures are linked as described in {@link #addAlbumItem(AlbumItem, boolean)}.
+	 * @param items The album items to be added. The items may belong to different albums.
+	 * @param updateContentVersion True if new content versions should be set, false if the content versions of the items
+	 * should be copied over. See {@link #addAlbumItem(AlbumItem, boolean)}.
+	 * @return The IDs of the newly added items, in the order of the specified items.
+	 * @throws DatabaseWrapperOperationException 
+	 */
+	public static List<Long> addAlbumItems(List<AlbumItem> items, boolean updateContentVersion) throws DatabaseWrapperOperationException {
+		try {
+			return CreateOperations.addAlbumItems(items, true, updateContentVersion);
+		} finally {
+			Set<String> albumNames = new HashSet<String>();
+			for (AlbumItem item : items) {
+				albumNames.add(item.getAlbumName());
+			}
+			for (String albumName : albumNames) {
+				QueryResultCache.invalidateAlbum(albumName);
+			}
+		}
 	}
 	
 	/**
@@ -67,7 +107,12 @@ public final class DatabaseOperations {
 	 * @throws DatabaseWrapperOperationException 
 	 */
 	public static void renameAlbum(String oldAlbumName, String newAlbumName) throws DatabaseWrapperOperationException {	
-		UpdateOperations.renameAlbum(oldAlbumName, newAlbumName);
+		try {
+			UpdateOperations.renameAlbum(oldAlbumName, newAlbumName);
+		} finally {
+			QueryResultCache.invalidateAlbum(oldAlbumName);
+			QueryResultCache.invalidateAlbum(newAlbumName);
+		}
 	}
 	
 	/**
@@ -80,7 +125,11 @@ public final class DatabaseOperations {
 	 * @throws DatabaseWrapperOperationException 
 	 */
 	public static void renameAlbumItemField(String albumName, MetaItemField oldMetaItemField, MetaItemField newMetaItemField) throws DatabaseWrapperOperationException {
-		UpdateOperations.renameAlbumItemField(albumName, oldMetaItemField, newMetaItemField);
+		try {
+			UpdateOperations.renameAlbumItemField(albumName, oldMetaItemField, newMetaItemField);
+		} finally {
+			QueryResultCache.invalidateAlbum(albumName);
+		}
 	}
 	
 	/**
@@ -91,7 +140,11 @@ public final class DatabaseOperations {
 	 * @throws DatabaseWrapperOperationException 
 	 */
 	public static void reorderAlbumItemField(String albumName, MetaItemField metaItemField, MetaItemField preceedingField) throws DatabaseWrapperOperationException {
-		UpdateOperations.reorderAlbumItemField(albumName, metaItemField, preceedingField);
+		try {
+			UpdateOperations.reorderAlbumItemField(albumName, metaItemField, preceedingField);
+		} finally {
+			QueryResultCache.invalidateAlbum(albumName);
+		}
 	}
 	
 	/**
@@ -101,7 +154,11 @@ public final class DatabaseOperations {
 	 * @throws DatabaseWrapperOperationException 
 	 */
 	public static void updateQuickSearchable(String albumName, MetaItemField metaItemField) throws DatabaseWrapperOperationException {
-		UpdateOperations.updateQuickSearchable(albumName, metaItemField);
+		try {
+			UpdateOperations.updateQuickSearchable(albumName, metaItemField);
+		} finally {
+			QueryResultCache.invalidateAlbum(albumName);
+		}
 	}
 	
 	/**
@@ -111,7 +168,11 @@ public final class DatabaseOperations {
 	 * @throws DatabaseWrapperOperationException 
 	 */
 	public static void appendNewAlbumField(String albumName, MetaItemField metaItemField) throws DatabaseWrapperOperationException {
-		UpdateOperations.appendNewAlbumField(albumName, metaItemField);
+		try {
+			UpdateOperations.appendNewAlbumField(albumName, metaItemField);
+		} finally {
+			QueryResultCache.invalidateAlbum(albumName);
+		}
 	}
 	
 	/**
@@ -121,16 +182,116 @@ public final class DatabaseOperations {
 	 * @throws DatabaseWrapperOperationException 
 	 */
 	public static void setAlbumPictureFunctionality(String albumName, boolean albumPicturesEnabled) throws DatabaseWrapperOperationException {
-		UpdateOperations.setAlbumPictureFunctionality(albumName, albumPicturesEnabled);
+		try {
+			UpdateOperations.setAlbumPictureFunctionality(albumName, albumPicturesEnabled);
+		} finally {
+			QueryResultCache.invalidateAlbum(albumName);
+		}
 	}
 	
 	/**
-	 * Updates all the fields of the specified item in the database using the values provided through item.
-	 * @param albumItem The item to be updated.
-	 * @throws DatabaseWrapperOperationException 
+	 * Gets the row format in which the items of the album are stored.
+	 * @param albumName The name of the album.
+	 * @return {@link DatabaseConstants#ROW_FORMAT_V1} for albums which have not been migrated yet, {@link DatabaseConstants#ROW_FORMAT_V2} otherwise.
+	 * @throws DatabaseWrapperOperationException If the album table could not be read.
+	 */
+	public static int getRowFormat(String albumName) throws DatabaseWrapperOperationException {
+		return AlbumSchemaCatalog.getRowFormat(albumName);
+	}
+	
+	/**
+	 * Migrates the album into the given row format. The items, content versions, pictures and the display order of the fields are kept.
+	 * Migrating into the row format v1 allows to open the album with earlier versions of Sammelbox.
+	 * @param albumName The name of the album to be migrated.
+	 * @param rowFormat {@link DatabaseConstants#ROW_FORMAT_V1} or {@link DatabaseConstants#ROW_FORMAT_V2}.
+	 * @return True if the album has been migrated, false if it already was in the given row format.
+	 * @throws DatabaseWrapperOperationException If the album could not be migrated. In this case the album is left untouched.
+	 */
+	public static boolean changeRowFormat(String albumName, int rowFormat) throws DatabaseWrapperOperationException {
+		try {
+			return UpdateOperations.changeRowFormat(albumName, rowFormat);
+		} finally {
+			QueryResultCache.invalidateAlbum(albumName);
+		}
+	}
+	
+	/**
+	 * Migrates all albums stored in the row format v1 into the lean row format. Each album is migrated within its own transaction, 
+	 * such that albums which could not be migrated remain usable in the row format v1.
+	 * @return The number of albums which have been migrated.
+	 * @throws DatabaseWrapperOperationException If the albums could not be listed.
+	 */
+	public static int migrateToLeanRowFormat() throws DatabaseWrapperOperationException {
+		try {
+			return UpdateOperations.migrateToLeanRowFormat();
+		} finally {
+			QueryResultCache.invalidateAll();
+		}
+	}
+	
+	/**
+	 * Brings the sort index of the album up to date with its sort field. Must be called whenever another sort field has been chosen,
+	 * since reading the pages of an album never creates the index. Creating and altering albums keeps the sort index up to date.
+	 * @param albumName The name of the album.
+	 * @return True if the sort index has been changed, false if it already was up to date.
+	 * @throws DatabaseWrapperOperationException If the sort index could not be changed. In this case the album is left untouched.
+	 */
+	public static boolean updateSortIndex(String albumName) throws DatabaseWrapperOperationException {
+		try {
+			return UpdateOperations.updateSortIndex(albumName);
+		} finally {
+			QueryResultCache.invalidateAlbum(albumName);
+		}
+	}
+	
+	/**
+	 * Brings the sort indices of all albums up to date, e.g. after the sort fields have been loaded or a database has been restored.
+	 * Each album is updated within its own transaction.
+	 * @return The number of albums whose sort index has been changed.
+	 * @throws DatabaseWrapperOperationException If the albums could not be listed.
+	 */
+	public static int updateSortIndices() throws DatabaseWrapperOperationException {
+		try {
+			return UpdateOperations.updateSortIndices();
+		} finally {
+			QueryResultCache.invalidateAll();
+		}
+	}
+	
+	/**
+	 * Updates the fields of the specified item in the database using the values provided through item. For items read from
+	 * the database, only the fields changed since reading the item are written and the pictures are only rewritten if they
+	 * have been set. Items created otherwise are written completely.
+	 * @param albumItem The item to be updated. Its content version is replaced by the new content version of the stored item.
+	 * @throws DatabaseWrapperOperationException If the item could not be updated, e.g. because the item has been read from the 
+	 * database, but the stored item has been changed or removed since. In this case the database is left untouched.
 	 */
 	public static void updateAlbumItem(AlbumItem albumItem) throws DatabaseWrapperOperationException {
-		UpdateOperations.updateAlbumItem(albumItem);
+		try {
+			UpdateOperations.updateAlbumItem(albumItem);
+		} finally {
+			QueryResultCache.invalidateAlbum(albumItem.getAlbumName());
+		}
+	}
+	
+	/**
+	 * Applies the changes made to several items of an album within a single transaction. Either all changes are applied 
+	 * or none. New items are added as described in {@link #addAlbumItems(List, boolean)}. Changed items are updated
+	 * in batches, but unlike {@link #updateAlbumItem(AlbumItem)} only their fields are updated, whereas their pictures are kept.
+	 * @param albumName The name of the album to which all items belong.
+	 * @param newAlbumItems The items to be added.
+	 * @param changedAlbumItems The items whose fields should be updated. Each item must contain its id.
+	 * @param removedAlbumItems The items to be deleted.
+	 * @return The IDs of the newly added items, in the order of the new items.
+	 * @throws DatabaseWrapperOperationException 
+	 */
+	public static List<Long> applyAlbumItemChanges(String albumName, List<AlbumItem> newAlbumItems, 
+			List<AlbumItem> changedAlbumItems, List<AlbumItem> removedAlbumItems) throws DatabaseWrapperOperationException {
+		try {
+			return UpdateOperations.applyAlbumItemChanges(newAlbumItems, changedAlbumItems, removedAlbumItems);
+		} finally {
+			QueryResultCache.invalidateAlbum(albumName);
+		}
 	}
 	
 	/**
@@ -154,6 +315,74 @@ public final class DatabaseOperations {
 		return QueryOperations.executeSQLQuery(sqlStatement);
 	}
 	
+	/**
+	 * Executes a parameterized query using a compiled statement, which is reused by all queries sharing the same SQL statement.
+	 * @param parameterizedQuery The query, typically built by QueryBuilder.buildParameterizedQuery.
+	 * @return A resultSet containing the desired entries. Must be closed, which hands the compiled statement back for reuse.
+	 * Queries executed while the result set is still open use a separately compiled statement.
+	 * @throws DatabaseWrapperOperationException 
+	 */
+	public static AlbumItemResultSet executeParameterizedQuery(ParameterizedQuery parameterizedQuery) throws DatabaseWrapperOperationException {
+		return QueryOperations.executeParameterizedQuery(parameterizedQuery);
+	}
+	
+	/**
+	 * Reads all items of the given query. The items are kept in the query result cache until the database changes,
+	 * such that repeating the query does not access the database.
+	 * @param sqlStatement The query to be executed.
+	 * @return The items of the query, which are shared and thus cannot be modified.
+	 * @throws DatabaseWrapperOperationException If the query could not be executed.
+	 */
+	public static List<AlbumItem> getCachedAlbumItems(String sqlStatement) throws DatabaseWrapperOperationException {
+		return QueryOperations.getCachedAlbumItems(new ParameterizedQuery(sqlStatement, Collections.<Object>emptyList()));
+	}
+	
+	/**
+	 * Reads all items of the given query. The items are kept in the query result cache until the database changes,
+	 * such that repeating the query does not access the database.
+	 * @param parameterizedQuery The query to be executed.
+	 * @return The items of the query, which are shared and thus cannot be modified.
+	 * @throws DatabaseWrapperOperationException If the query could not be executed.
+	 */
+	public static List<AlbumItem> getCachedAlbumItems(ParameterizedQuery parameterizedQuery) throws DatabaseWrapperOperationException {
+		return QueryOperations.getCachedAlbumItems(parameterizedQuery);
+	}
+	
+	/**
+	 * Gets the first page of album items in the default order of the album, i.e. ordered by its sort field and id.
+	 * The time to fetch a page does not depend on the size of the album.
+	 * @param albumName The name of the album.
+	 * @param pageSize The maximum number of items per page.
+	 * @return The first page, which is empty if the album does not contain any items.
+	 * @throws DatabaseWrapperOperationException 
+	 */
+	public static AlbumItemPage getFirstAlbumItemPage(String albumName, int pageSize) throws DatabaseWrapperOperationException {
+		return QueryOperations.getFirstAlbumItemPage(albumName, pageSize);
+	}
+	
+	/**
+	 * Gets the page following the given page. Items added or removed meanwhile are taken into account, i.e. the next page
+	 * starts right after the last item of the given page, without skipping or repeating any item.
+	 * @param previousPage The page preceding the requested page.
+	 * @return The next page, which is empty if the given page is the last page.
+	 * @throws DatabaseWrapperOperationException 
+	 */
+	public static AlbumItemPage getNextAlbumItemPage(AlbumItemPage previousPage) throws DatabaseWrapperOperationException {
+		return QueryOperations.getNextAlbumItemPage(previousPage);
+	}
+	
+	/**
+	 * Determines which of the given album items are ordered after the last item of the given page, i.e. which items
+	 * are part of the following pages based on their current values.
+	 * @param page A page returned by {@link #getFirstAlbumItemPage(String, int)} or {@link #getNextAlbumItemPage(AlbumItemPage)}.
+	 * @param albumItemIds The ids of the album items to be checked.
+	 * @return The ids of the items following the page. Ids without an item are skipped.
+	 * @throws DatabaseWrapperOperationException 
+	 */
+	public static Set<Long> getAlbumItemIdsFollowingPage(AlbumItemPage page, Collection<Long> albumItemIds) throws DatabaseWrapperOperationException {
+		return QueryOperations.getAlbumItemIdsFollowingPage(page, albumItemIds);
+	}
+	
 	/**
 	 * Performs a quicksearch. A quicksearch is a search limited to the marked fields. Every item return contains at least a field
 	 * whose value partially matches the any query term.
@@ -166,6 +395,20 @@ public final class DatabaseOperations {
 		return QueryOperations.executeQuickSearch(albumName, quickSearchTerms);
 	}
 	
+	/**
+	 * Performs a quicksearch on the given connection, see {@link #executeQuickSearch(String, List)}. 
+	 * @param connection The connection on which the search is executed, e.g. a connection borrowed using 
+	 * {@link org.sammelbox.controller.managers.ConnectionManager#borrowReadOnlyConnection()}.
+	 * @param albumName The name of the album to which the query refers to.
+	 * @param quickSearchTerms A list of terms to be matched against the marked fields. If null, a select * is performed.
+	 * @return A valid albumItemResultSet for the provided quicksearch terms or a select * 
+	 * @throws DatabaseWrapperOperationException 
+	 */
+	public static AlbumItemResultSet executeQuickSearch(Connection connection, String albumName, List<String> quickSearchTerms) 
+			throws DatabaseWrapperOperationException {
+		return QueryOperations.executeQuickSearch(connection, albumName, quickSearchTerms);
+	}
+	
 	/**
 	 * Returns the matching album name for a given table name
 	 * @param tableName the table name for which the album name is requested
@@ -294,6 +537,17 @@ public final class DatabaseOperations {
 		return QueryOperations.isAlbumQuicksearchable(albumName);
 	}
 	
+	/**
+	 * Queries whether the quick search of the specified album uses a full text index. Albums created by earlier versions 
+	 * are searched without full text index until their quick-searchable fields change.
+	 * @param albumName The name of the album to be queried.
+	 * @return True if the album has a full text index, false otherwise.
+	 * @throws DatabaseWrapperOperationException 
+	 */
+	public static boolean hasFullTextIndex(String albumName) throws DatabaseWrapperOperationException {
+		return AlbumSchemaCatalog.hasFullTextIndex(albumName);
+	}
+	
 	/**
 	 * Tests if the album name is not already in use by another album.
 	 * @param requestedAlbumName The proposed album name to be tested of availability.
@@ -335,6 +589,17 @@ public final class DatabaseOperations {
 		return QueryOperations.getAlbumItems(queryString);
 	}
 	
+	/**
+	 * Retrieves several album items of the same album by their ids using as few queries as possible.
+	 * @param albumName The name of the album to which the items belong.
+	 * @param albumItemIds The ids of the requested album items.
+	 * @return The requested items ordered by their ids. Ids without an item are skipped.
+	 * @throws DatabaseWrapperOperationException 
+	 */
+	public static List<AlbumItem> getAlbumItems(String albumName, Collection<Long> albumItemIds) throws DatabaseWrapperOperationException {
+		return QueryOperations.getAlbumItems(albumName, albumItemIds);
+	}
+	
 	/**
 	 * Returns true if the given field in the given album is a date field, false otherwise
 	 * @throws DatabaseWrapperOperationException
@@ -370,12 +635,27 @@ public final class DatabaseOperations {
 		return QueryOperations.getAlbumItemPictures(albumName, albumItemID);
 	}
 	
+	/**
+	 * Retrieves the pictures of several album items of the same album using as few queries as possible.
+	 * @param albumName The name of the album to which the items belong.
+	 * @param albumItemIds The ids of the album items whose pictures should be retrieved.
+	 * @return A map containing a (possibly empty) list of pictures for every requested id.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	public static Map<Long, List<AlbumItemPicture>> getAlbumItemPictures(String albumName, Collection<Long> albumItemIds) throws DatabaseWrapperOperationException {
+		return QueryOperations.getAlbumItemPictures(albumName, albumItemIds);
+	}
+	
 	/**
 	 * Creates the album master table if it does not already exist
 	 * @throws DatabaseWrapperOperationException
 	 */
 	public static void createAlbumMasterTableIfItDoesNotExist() throws DatabaseWrapperOperationException {
-		CreateOperations.createAlbumMasterTableIfItDoesNotExist();
+		try {
+			CreateOperations.createAlbumMasterTableIfItDoesNotExist();
+		} finally {
+			QueryResultCache.invalidateAll();
+		}
 	}
 	
 	/**
@@ -384,7 +664,25 @@ public final class DatabaseOperations {
 	 * @throws DatabaseWrapperOperationException 
 	 */
 	public static void deleteAlbumItem(AlbumItem albumItem) throws DatabaseWrapperOperationException {
-		DeleteOperations.deleteAlbumItem(albumItem);
+		try {
+			DeleteOperations.deleteAlbumItem(albumItem);
+		} finally {
+			QueryResultCache.invalidateAlbum(albumItem.getAlbumName());
+		}
+	}
+	
+	/**
+	 * Permanently deletes several items of an album within a single transaction. Their picture files are deleted in the background.
+	 * @param albumName The name of the album to which the items belong.
+	 * @param albumItemIds The ids of the items to be deleted.
+	 * @throws DatabaseWrapperOperationException If the items could not be deleted. In this case none of the items has been deleted.
+	 */
+	public static void deleteAlbumItems(String albumName, Collection<Long> albumItemIds) throws DatabaseWrapperOperationException {
+		try {
+			DeleteOperations.deleteAlbumItems(albumName, albumItemIds);
+		} finally {
+			QueryResultCache.invalidateAlbum(albumName);
+		}
 	}
 	
 	/**
@@ -397,7 +695,11 @@ public final class DatabaseOperations {
 	 * @throws DatabaseWrapperOperationException 
 	 */
 	public static void removeAlbumItemField(String albumName, MetaItemField metaItemField) throws DatabaseWrapperOperationException {
-		DeleteOperations.removeAlbumItemField(albumName, metaItemField);
+		try {
+			DeleteOperations.removeAlbumItemField(albumName, metaItemField);
+		} finally {
+			QueryResultCache.invalidateAlbum(albumName);
+		}
 	}
 	
 	/**
@@ -406,6 +708,190 @@ public final class DatabaseOperations {
 	 * @throws DatabaseWrapperOperationException
 	 */
 	public static void removeAlbumAndAlbumPictures(String albumName) throws DatabaseWrapperOperationException {
-		DeleteOperations.removeAlbumAndAlbumPictures(albumName);
+		try {
+			DeleteOperations.removeAlbumAndAlbumPictures(albumName);
+		} finally {
+			QueryResultCache.invalidateAlbum(albumName);
+		}
+	}
+	
+	/**
+	 * Drops all album structure information and change versions cached in memory, as well as all cached query results.
+	 * The information is read again from the database on the next access.
+	 * Must be called whenever the database may have been changed bypassing the regular operations (e.g. restore, new connection).
+	 */
+	public static void clearAlbumSchemaCatalog() {
+		AlbumSchemaCatalog.invalidateAll();
+		AlbumChangeVersions.invalidateAll();
+		QueryResultCache.invalidateAll();
+	}
+	
+	/**
+	 * Gets the current version of the album schema catalog. The version changes whenever the structure of any album changes.
+	 * @return The current catalog version.
+	 */
+	public static long getAlbumSchemaCatalogVersion() {
+		return AlbumSchemaCatalog.getCatalogVersion();
+	}
+	
+	/**
+	 * Gets the number of album structure lookups which have been answered without querying the database.
+	 * @return The number of catalog hits since the last reset.
+	 */
+	public static long getAlbumSchemaCatalogHitCount() {
+		return AlbumSchemaCatalog.getHitCount();
+	}
+	
+	/**
+	 * Gets the number of album structure lookups which required the database to be queried.
+	 * @return The number of catalog misses since the last reset.
+	 */
+	public static long getAlbumSchemaCatalogMissCount() {
+		return AlbumSchemaCatalog.getMissCount();
+	}
+	
+	/** Resets the hit and miss counters of the album schema catalog. */
+	public static void resetAlbumSchemaCatalogStatistics() {
+		AlbumSchemaCatalog.resetStatistics();
+	}
+	
+	/**
+	 * Gets the statistics of the album, i.e. the number of items and pictures, the minimum, maximum and sum of every numeric 
+	 * field and the distribution of every star rating and option field. Once computed, the statistics are maintained by the 
+	 * operations adding, updating and removing items, such that they can be retrieved without querying the database.
+	 * @param albumName The name of the album.
+	 * @return An immutable snapshot of the statistics of the album.
+	 * @throws DatabaseWrapperOperationException If the album does not exist or its statistics could not be computed.
+	 */
+	public static AlbumStatistics getAlbumStatistics(String albumName) throws DatabaseWrapperOperationException {
+		return AlbumStatisticsCatalog.getStatistics(albumName);
+	}
+	
+	/**
+	 * Gets the number of album statistics requests which have been answered without querying the database.
+	 * @return The number of hits since the last reset.
+	 */
+	public static long getAlbumStatisticsCatalogHitCount() {
+		return AlbumStatisticsCatalog.getHitCount();
+	}
+	
+	/**
+	 * Gets the number of album statistics requests which required the statistics to be computed by the database.
+	 * @return The number of misses since the last reset.
+	 */
+	public static long getAlbumStatisticsCatalogMissCount() {
+		return AlbumStatisticsCatalog.getMissCount();
+	}
+	
+	/** Resets the hit and miss counters of the album statistics catalog. */
+	public static void resetAlbumStatisticsCatalogStatistics() {
+		AlbumStatisticsCatalog.resetStatistics();
+	}
+	
+	/**
+	 * Gets the change version of the album, which is increased by every operation altering the items or the structure of the album.
+	 * Data derived from an album does not need to be read again as long as the change version of the album does not change.
+	 * @param albumName The name of the album.
+	 * @return The change version of the album, or -1 if the album does not exist.
+	 * @throws DatabaseWrapperOperationException If the album master table could not be read.
+	 */
+	public static long getAlbumChangeVersion(String albumName) throws DatabaseWrapperOperationException {
+		return AlbumChangeVersions.getChangeVersion(albumName);
+	}
+	
+	/**
+	 * Reads the change version of the album on the given connection, see {@link #getAlbumChangeVersion(String)}. Within a 
+	 * read transaction of a read-only connection, the version matches the items read by the same transaction.
+	 * @param connection The connection on which the version is read.
+	 * @param albumName The name of the album.
+	 * @return The change version of the album, or -1 if the album does not exist.
+	 * @throws DatabaseWrapperOperationException If the album master table could not be read.
+	 */
+	public static long getAlbumChangeVersion(Connection connection, String albumName) throws DatabaseWrapperOperationException {
+		return AlbumChangeVersions.readChangeVersion(connection, albumName);
+	}
+	
+	/**
+	 * Gets the change versions of all albums, see {@link #getAlbumChangeVersion(String)}.
+	 * @return A new map containing the change version of every album by album name.
+	 * @throws DatabaseWrapperOperationException If the album master table could not be read.
+	 */
+	public static Map<String, Long> getAlbumChangeVersions() throws DatabaseWrapperOperationException {
+		return AlbumChangeVersions.getChangeVersions();
+	}
+	
+	/** Drops all query results cached in memory. The queries are executed again on their next use. */
+	public static void clearQueryResultCache() {
+		QueryResultCache.invalidateAll();
+	}
+	
+	/**
+	 * Gets the maximum number of bytes which may be retained by the cached query results.
+	 * @return The memory budget in bytes.
+	 */
+	public static long getQueryResultCacheMemoryBudget() {
+		return QueryResultCache.getMemoryBudget();
+	}
+	
+	/**
+	 * Sets the maximum number of bytes which may be retained by the cached query results. 
+	 * The least recently used results are dropped if necessary.
+	 * @param memoryBudget The memory budget in bytes. Zero disables the cache.
+	 */
+	public static void setQueryResultCacheMemoryBudget(long memoryBudget) {
+		QueryResultCache.setMemoryBudget(memoryBudget);
+	}
+	
+	/**
+	 * Gets the estimated number of bytes retained by the cached query results.
+	 * @return The memory usage in bytes.
+	 */
+	public static long getQueryResultCacheMemoryUsage() {
+		return QueryResultCache.getMemoryUsage();
+	}
+	
+	/**
+	 * Gets the number of query results kept in memory.
+	 * @return The number of cached results.
+	 */
+	public static int getQueryResultCacheSize() {
+		return QueryResultCache.getSize();
+	}
+	
+	/**
+	 * Gets the number of queries which have been answered from memory.
+	 * @return The number of cache hits since the last reset.
+	 */
+	public static long getQueryResultCacheHitCount() {
+		return QueryResultCache.getHitCount();
+	}
+	
+	/**
+	 * Gets the number of queries which required the database to be queried.
+	 * @return The number of cache misses since the last reset.
+	 */
+	public static long getQueryResultCacheMissCount() {
+		return QueryResultCache.getMissCount();
+	}
+	
+	/**
+	 * Gets the number of query results which have been dropped to stay within the memory budget.
+	 * @return The number of evictions since the last reset.
+	 */
+	public static long getQueryResultCacheEvictionCount() {
+		return QueryResultCache.getEvictionCount();
+	}
+	
+	/**
+	 * Gets the number of times the cached query results have been dropped because the database changed.
+	 * @return The number of invalidations since the last reset.
+	 */
+	public static long getQueryResultCacheInvalidationCount() {
+		return QueryResultCache.getInvalidationCount();
+	}
+	
+	/** Resets the hit, miss, eviction and invalidation counters of the query result cache. */
+	public static void resetQueryResultCacheStatistics() {
+		QueryResultCache.resetStatistics();
 	}
 }
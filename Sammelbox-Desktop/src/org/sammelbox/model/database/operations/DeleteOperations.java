@@ -18,28 +18,34 @@
 
 package org.sammelbox.model.database.operations;
 
-import java.io.File;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 
+import org.sammelbox.controller.filesystem.FileDeletionQueue;
 import org.sammelbox.controller.filesystem.FileSystemAccessWrapper;
 import org.sammelbox.controller.managers.ConnectionManager;
 import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.controller.managers.TransactionManager;
 import org.sammelbox.model.album.AlbumItem;
 import org.sammelbox.model.album.AlbumItemPicture;
-import org.sammelbox.model.album.FieldType;
 import org.sammelbox.model.album.MetaItemField;
 import org.sammelbox.model.database.DatabaseStringUtilities;
-import org.sammelbox.model.database.QueryBuilder;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException.DBErrorState;
+import org.sammelbox.model.database.operations.AlbumStatisticsCatalog.StoredItemValues;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public final class DeleteOperations {
 	private static final Logger LOGGER = LoggerFactory.getLogger(DeleteOperations.class);
+	/** SQLite limits the number of parameters of a statement, thus larger deletions are split */
+	private static final int MAX_ALBUM_ITEMS_PER_DELETE_STATEMENT = 500;
 	
 	private DeleteOperations() {
 		// use static methods
@@ -57,61 +63,26 @@ public final class DeleteOperations {
 			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE);
 		}
 		
-		// Backup the old data in java objects
-		List<AlbumItem> albumItems = QueryOperations.getAlbumItems(QueryBuilder.createSelectStarQuery(albumName));
-		
-		// Create the new table pointing to new typeinfo
-		boolean keepPictureField = QueryOperations.isPictureAlbum(albumName);
-		List<MetaItemField> newFields = QueryOperations.getAlbumItemFieldNamesAndTypes(albumName);
-		newFields = UpdateOperations.removeFieldFromMetaItemList(metaItemField, newFields);
-
-		// remember savepoint
 		String savepointName = DatabaseIntegrityManager.createSavepoint();
-		
 		try {
-			// Drop the old table and typeTable
-			removeAlbum(albumName);
-		
-			// The following three columns are automatically created by createNewAlbumTable
-			newFields = UpdateOperations.removeFieldFromMetaItemList(new MetaItemField("id", FieldType.ID), newFields);
-			newFields = UpdateOperations.removeFieldFromMetaItemList(new MetaItemField(DatabaseConstants.TYPE_INFO_COLUMN_NAME, FieldType.ID), newFields);
-			CreateOperations.createNewAlbumTable(newFields, albumName, DatabaseStringUtilities.encloseNameWithQuotes(
-					DatabaseStringUtilities.generateTableName(albumName)), keepPictureField);
+			List<MetaItemField> newFields = QueryOperations.getAlbumItemFieldNamesAndTypes(albumName);
+			newFields = UpdateOperations.removeFieldFromMetaItemList(metaItemField, newFields);
 			
-			// Restore the old data from the java objects
-			List<AlbumItem> newAlbumItems = removeFieldFromAlbumItemList(metaItemField, albumItems);
-			for (AlbumItem albumItem : newAlbumItems) {
-				albumItem.setAlbumName(albumName);
-				CreateOperations.addAlbumItem(albumItem, false, false);
-			}
-	
-			UpdateOperations.rebuildIndexForTable(albumName, newFields);
+			// The values of the removed field are dropped together with the replaced table. The new table uses the lean row format
+			UpdateOperations.replaceAlbumTable(albumName, newFields, UpdateOperations.getFieldNames(newFields), 
+					DatabaseConstants.ROW_FORMAT_V2);
+			CreateOperations.ensureSortIndex(albumName);
+			
+			AlbumChangeVersions.increment(albumName);
 			DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
 		} catch (DatabaseWrapperOperationException e) {
-			if (e.getErrorState().equals(DBErrorState.ERROR_CLEAN_STATE)) {
-				DatabaseIntegrityManager.rollbackToSavepoint(savepointName);					
-				LOGGER.error("Unable to roll back before to state before the removal of the album item field");
-				throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
-			}
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
 		} finally {
 			DatabaseIntegrityManager.releaseSavepoint(savepointName);
 		}
 	}
 	
-	/**
-	 * Removes the provided metaItemField from each AlbumItem entry in the albumList. Returns the result in a new list.
-	 * @param metaItemField The metaItemFiel to be removed from each entry of the list.
-	 * @param albumList The list containing all the AlbumItems.
-	 * @return The albumList with the specified metaItemField removed from each entry.
-	 */
-	private static List<AlbumItem> removeFieldFromAlbumItemList(MetaItemField metaItemField, final List<AlbumItem> albumList) {
-		List<AlbumItem> newAlbumItemList = albumList;
-		for (AlbumItem albumItem: newAlbumItemList) {
-			albumItem.removeField(metaItemField);
-		}
-		return newAlbumItemList; 
-	}
-	
 	static void removeAlbumAndAlbumPictures(String albumName) throws DatabaseWrapperOperationException {
 		removeAlbum(albumName);
 		removeAlbumPictures(albumName);
@@ -127,6 +98,7 @@ public final class DeleteOperations {
 		try {	
 			dropTable(DatabaseStringUtilities.generateTableName(albumName));
 			dropTable(DatabaseStringUtilities.generateTypeInfoTableName(albumName));
+			dropFullTextIndex(albumName);
 			
 			UpdateOperations.removeAlbumFromAlbumMasterTable(albumName); 
 			
@@ -150,9 +122,7 @@ public final class DeleteOperations {
 		String savepointName = DatabaseIntegrityManager.createSavepoint();
 		try {
 			dropTable(DatabaseStringUtilities.generatePictureTableName(albumName));
-			
-			FileSystemAccessWrapper.deleteDirectoryRecursively(
-					new File(FileSystemAccessWrapper.getFilePathForAlbum(albumName)));
+			deleteAlbumPictureDirectoryAfterCommit(albumName);
 		} catch (DatabaseWrapperOperationException e) {
 			if (e.getErrorState().equals(DBErrorState.ERROR_DIRTY_STATE)) {
 				DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
@@ -214,44 +184,136 @@ public final class DeleteOperations {
 		
 		try (Statement statement = ConnectionManager.getConnection().createStatement()){			
 			statement.execute(sqlStatementString);
+			dropFullTextIndex(albumName);
+			AlbumSchemaCatalog.invalidate(albumName);
 		} catch (SQLException e) {
 			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
 			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		} catch (DatabaseWrapperOperationException e) {
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
 		} finally {
 			DatabaseIntegrityManager.releaseSavepoint(savepointName);
 		}
 	}
 	
-	static void deleteAlbumItem(AlbumItem albumItem) throws DatabaseWrapperOperationException {
-		String savepointName = DatabaseIntegrityManager.createSavepoint();
+	/**
+	 * Drops the full text index of the album together with the triggers keeping it in sync with the album table.
+	 * Nothing happens if the album has no full text index.
+	 * @param albumName The name of the album to which the full text index belongs.
+	 * @throws DatabaseWrapperOperationException 
+	 */
+	static void dropFullTextIndex(String albumName) throws DatabaseWrapperOperationException {
+		String tableName = DatabaseStringUtilities.generateTableName(albumName);
 		
-		// retrieve a list of the physical files to be deleted
-		List<AlbumItemPicture> picturesToBeRemoved = QueryOperations.getAlbumItemPictures(albumItem.getAlbumName(), albumItem.getItemId());
+		try (Statement statement = ConnectionManager.getConnection().createStatement()) {
+			// The triggers must be dropped first since they would fail as soon as the index table is missing
+			statement.execute("DROP TRIGGER IF EXISTS " + DatabaseStringUtilities.encloseNameWithQuotes(tableName + DatabaseConstants.FULL_TEXT_INSERT_TRIGGER_SUFFIX));
+			statement.execute("DROP TRIGGER IF EXISTS " + DatabaseStringUtilities.encloseNameWithQuotes(tableName + DatabaseConstants.FULL_TEXT_UPDATE_TRIGGER_SUFFIX));
+			statement.execute("DROP TRIGGER IF EXISTS " + DatabaseStringUtilities.encloseNameWithQuotes(tableName + DatabaseConstants.FULL_TEXT_DELETE_TRIGGER_SUFFIX));
+			statement.execute("DROP TABLE IF EXISTS " + DatabaseStringUtilities.encloseNameWithQuotes(
+					DatabaseStringUtilities.generateFullTextIndexTableName(albumName)));
+			AlbumSchemaCatalog.invalidate(albumName);
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
+		}
+	}
+	
+	static void deleteAlbumItem(AlbumItem albumItem) throws DatabaseWrapperOperationException {
+		deleteAlbumItems(albumItem.getAlbumName(), Collections.singletonList(albumItem.getItemId()));
+	}
+	
+	/**
+	 * Deletes several items of an album within a single transaction. The items and their picture records are deleted 
+	 * using one statement per {@link #MAX_ALBUM_ITEMS_PER_DELETE_STATEMENT} items. The picture files are deleted in the 
+	 * background by the {@link FileDeletionQueue} once the transaction has been committed.
+	 * @param albumName The name of the album to which the items belong.
+	 * @param albumItemIds The ids of the items to be deleted. Ids of items which do not exist are ignored.
+	 */
+	static void deleteAlbumItems(String albumName, Collection<Long> albumItemIds) throws DatabaseWrapperOperationException {
+		List<Long> distinctAlbumItemIds = new ArrayList<Long>(new LinkedHashSet<Long>(albumItemIds));
+		if (distinctAlbumItemIds.isEmpty()) {
+			return;
+		}
 		
-		// delete album item in table
-		String deleteAlbumItemString = "DELETE FROM " + DatabaseStringUtilities.encloseNameWithQuotes(
-				DatabaseStringUtilities.generateTableName(albumItem.getAlbumName())) + " WHERE id=" + albumItem.getItemId();
+		String savepointName = DatabaseIntegrityManager.createSavepoint();
 		
-		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(deleteAlbumItemString)) {
-			preparedStatement.executeUpdate();
-			DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
+		try {
+			// retrieve a list of the physical files to be deleted
+			final List<String> picturePathsToBeRemoved = new ArrayList<String>();
+			for (List<AlbumItemPicture> pictures : QueryOperations.getAlbumItemPictures(albumName, distinctAlbumItemIds).values()) {
+				for (AlbumItemPicture albumItemPicture : pictures) {
+					picturePathsToBeRemoved.add(albumItemPicture.getThumbnailPicturePath());
+					picturePathsToBeRemoved.add(albumItemPicture.getOriginalPicturePath());
+				}
+			}
 			
-			// delete album pictures in picture table
-			removeAllPicturesForAlbumItemFromPictureTable(albumItem);
+			// Statistics are maintained for single items only. After larger batches, aggregating them again is cheaper
+			StoredItemValues valuesBeforeRemoval = null;
+			if (distinctAlbumItemIds.size() == 1) {
+				valuesBeforeRemoval = AlbumStatisticsCatalog.readStoredItemValues(albumName, distinctAlbumItemIds.get(0));
+			}
+			
+			boolean isPictureAlbum = QueryOperations.isPictureAlbum(albumName);
+			for (int fromIndex = 0; fromIndex < distinctAlbumItemIds.size(); fromIndex += MAX_ALBUM_ITEMS_PER_DELETE_STATEMENT) {
+				List<Long> batchAlbumItemIds = distinctAlbumItemIds.subList(
+						fromIndex, Math.min(fromIndex + MAX_ALBUM_ITEMS_PER_DELETE_STATEMENT, distinctAlbumItemIds.size()));
+				
+				// delete album pictures in picture table and album items in table
+				if (isPictureAlbum) {
+					deleteRowsWithIds(DatabaseStringUtilities.generatePictureTableName(albumName), 
+							DatabaseConstants.ALBUM_ITEM_ID_REFERENCE_IN_PICTURE_TABLE, batchAlbumItemIds);
+				}
+				deleteRowsWithIds(DatabaseStringUtilities.generateTableName(albumName), DatabaseConstants.ID_COLUMN_NAME, batchAlbumItemIds);
+			}
 			
-			// delete physical files first
-			for (AlbumItemPicture albumItemPicture : picturesToBeRemoved) {
-				FileSystemAccessWrapper.deleteFile(albumItemPicture.getThumbnailPicturePath());
-				FileSystemAccessWrapper.deleteFile(albumItemPicture.getOriginalPicturePath());
-			}			
+			AlbumChangeVersions.increment(albumName);
+			if (distinctAlbumItemIds.size() == 1) {
+				AlbumStatisticsCatalog.itemRemoved(albumName, valuesBeforeRemoval);
+			}
+			DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
+			
+			// The files are still referenced if the transaction is rolled back
+			if (!picturePathsToBeRemoved.isEmpty()) {
+				TransactionManager.runAfterCommit(new Runnable() {
+					@Override
+					public void run() {
+						FileDeletionQueue.deleteLater(picturePathsToBeRemoved);
+					}
+				});
+			}
 		} catch (SQLException e) {
 			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
 			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		} catch (DatabaseWrapperOperationException e) {
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
 		} finally {
 			DatabaseIntegrityManager.releaseSavepoint(savepointName);
 		}
 	}
 	
+	/** Deletes the rows of the table whose value in the given column is one of the given ids */
+	private static void deleteRowsWithIds(String tableName, String idColumnName, List<Long> ids) throws SQLException {
+		StringBuilder sb = new StringBuilder("DELETE FROM ");
+		sb.append(DatabaseStringUtilities.encloseNameWithQuotes(tableName));
+		sb.append(" WHERE ");
+		sb.append(DatabaseStringUtilities.transformColumnNameToSelectQueryName(idColumnName));
+		sb.append(" IN (");
+		for (int i=0; i<ids.size(); i++) {
+			sb.append(i == 0 ? "?" : ", ?");
+		}
+		sb.append(")");
+		
+		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(sb.toString())) {
+			int parameterIndex = 1;
+			for (Long id : ids) {
+				preparedStatement.setLong(parameterIndex++, id);
+			}
+			preparedStatement.executeUpdate();
+		}
+	}
+	
 	/** Use this method to clear the picture table of the specified album 
 	 * as well as the corresponding picture folder on the filesystem */
 	static void clearPictureTable(String albumName) throws DatabaseWrapperOperationException {
@@ -261,9 +323,10 @@ public final class DeleteOperations {
 		
 		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(clearPictureTableQuery)) {		
 			preparedStatement.executeUpdate();
+			AlbumChangeVersions.increment(albumName);
 			DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
 			
-			FileSystemAccessWrapper.deleteDirectoryRecursively(new File(FileSystemAccessWrapper.getFilePathForAlbum(albumName)));			
+			deleteAlbumPictureDirectoryAfterCommit(albumName);
 		} catch (SQLException e) {
 			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
 			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
@@ -271,4 +334,16 @@ public final class DeleteOperations {
 			DatabaseIntegrityManager.releaseSavepoint(savepointName);
 		}
 	}
+	
+	/** Moves the picture directory of the album aside once the transaction has been committed and deletes it in the background */
+	private static void deleteAlbumPictureDirectoryAfterCommit(String albumName) {
+		final String albumPictureDirectory = FileSystemAccessWrapper.getFilePathForAlbum(albumName);
+		
+		TransactionManager.runAfterCommit(new Runnable() {
+			@Override
+			public void run() {
+				FileDeletionQueue.deleteDirectoryLater(albumPictureDirectory);
+			}
+		});
+	}
 }
@@ -18,6 +18,7 @@
 
 package org.sammelbox.model.database.operations;
 
+import java.nio.ByteBuffer;
 import java.sql.DatabaseMetaData;
 import java.sql.Date;
 import java.sql.PreparedStatement;
@@ -26,6 +27,9 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Time;
 import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 import java.util.UUID;
 
@@ -44,6 +48,7 @@ import org.slf4j.LoggerFactory;
 public final class HelperOperations {
 	private static final int PRIMARY_KEY_COLUMN_INDEX = 4;
 	private static final int FOREIGN_KEY_COLUMN_INDEX = 8;
+	private static final int UUID_BYTES = 16;
 	private static final Logger LOGGER = LoggerFactory.getLogger(HelperOperations.class);
 	
 	private HelperOperations() {
@@ -82,8 +87,12 @@ public final class HelperOperations {
 				break;
 			case OPTION: 
 				OptionType option = field.getValue();
-				// Textual representation of the enum is stored in the DB. 
-				preparedStatement.setString(parameterIndex, option.toString());		
+				// Albums in the row format v1 store the textual representation of the enum
+				if (AlbumSchemaCatalog.getRowFormat(albumName) == DatabaseConstants.ROW_FORMAT_V1) {
+					preparedStatement.setString(parameterIndex, option.toString());
+				} else {
+					preparedStatement.setInt(parameterIndex, option.getIntegerValue());
+				}
 				break;
 			case URL: 
 				String	url = field.getValue();
@@ -109,6 +118,85 @@ public final class HelperOperations {
 		}
 	}
 	
+	/**
+	 * Sets a content version to a prepared statement in the representation of the given row format.
+	 * @param preparedStatement The JDBC prepared statement to which the content version is to be set.
+	 * @param parameterIndex The index of the parameter to be set.
+	 * @param contentVersion The content version to be set.
+	 * @param rowFormat The row format of the album to which the statement refers, see {@link AlbumSchemaCatalog#getRowFormat(String)}.
+	 * @throws SQLException Exception thrown if the parameter could not be set.
+	 */
+	static void setContentVersionToPreparedStatement(PreparedStatement preparedStatement, int parameterIndex, UUID contentVersion, 
+			int rowFormat) throws SQLException {
+		if (rowFormat == DatabaseConstants.ROW_FORMAT_V1) {
+			preparedStatement.setString(parameterIndex, contentVersion.toString());
+		} else {
+			preparedStatement.setBytes(parameterIndex, toBytes(contentVersion));
+		}
+	}
+	
+	/**
+	 * Transforms a field type into the type of its column within an album table of the given row format.
+	 * @param type The type of the field.
+	 * @param rowFormat The row format of the album table.
+	 * @return The SQLite type of the column.
+	 */
+	static String toDatabaseTypeString(FieldType type, int rowFormat) {
+		if (rowFormat != DatabaseConstants.ROW_FORMAT_V1) {
+			if (type == FieldType.OPTION) {
+				return "INTEGER";
+			} else if (type == FieldType.UUID) {
+				return "BLOB";
+			}
+		}
+		
+		return type.toDatabaseTypeString();
+	}
+	
+	/**
+	 * Creates an SQL expression which yields the integer value of a stored option. Names of options (as stored by albums in 
+	 * the row format v1) are transformed, integer values are kept.
+	 * @param columnExpression The expression yielding the stored option, e.g. the column name.
+	 * @return The SQL expression yielding the integer value of the option.
+	 */
+	static String createOptionValueExpression(String columnExpression) {
+		StringBuilder expression = new StringBuilder("(CASE ").append(columnExpression);
+		for (OptionType optionType : OptionType.values()) {
+			expression.append(" WHEN '").append(optionType.toString()).append("' THEN ").append(optionType.getIntegerValue());
+		}
+		
+		return expression.append(" ELSE ").append(columnExpression).append(" END)").toString();
+	}
+	
+	/** Transforms a stored option, stored either by its name (row format v1) or by its integer value, into the option type.
+	 *  Returns null if the value is null or not an option */
+	static OptionType toOptionType(Object storedValue) {
+		if (storedValue instanceof Number) {
+			return OptionType.getByIntegerValue(((Number) storedValue).intValue());
+		}
+		
+		try {
+			return storedValue == null ? null : OptionType.valueOf(storedValue.toString());
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+	
+	/** Transforms a stored UUID, stored either as text (row format v1) or as 16 byte blob, into the UUID */
+	static UUID toUuid(Object storedValue) {
+		if (storedValue instanceof byte[]) {
+			ByteBuffer bytes = ByteBuffer.wrap((byte[]) storedValue);
+			return new UUID(bytes.getLong(), bytes.getLong());
+		}
+		
+		return storedValue == null ? null : UUID.fromString(storedValue.toString());
+	}
+	
+	/** Transforms a UUID into its 16 byte blob representation */
+	static byte[] toBytes(UUID uuid) {
+		return ByteBuffer.allocate(UUID_BYTES).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+	}
+	
 	/** Treats the input date as a date with UTC time and truncates the time part. Truncating means the time part is set to all zeroes.
 	 *  If treated of a timezone time may differ from expected result!*/
 	private static Date truncateTimePartOfDate(Date date) {
@@ -148,9 +236,13 @@ public final class HelperOperations {
 		}
 		
 		try (ResultSet dbmetars = dbmetadata.getImportedKeys(null, null, tableName)) {
-			// Get the primary and foreign keys
-			String primaryKey = dbmetars.getString(PRIMARY_KEY_COLUMN_INDEX);
-			String foreignKey = dbmetars.getString(FOREIGN_KEY_COLUMN_INDEX);
+			// Get the primary and foreign keys. Albums in the lean row format have no foreign key, their only key is the id
+			String primaryKey = DatabaseConstants.ID_COLUMN_NAME;
+			String foreignKey = null;
+			if (dbmetars.next()) {
+				primaryKey = dbmetars.getString(PRIMARY_KEY_COLUMN_INDEX);
+				foreignKey = dbmetars.getString(FOREIGN_KEY_COLUMN_INDEX);
+			}
 			
 			if (columnName.equalsIgnoreCase(primaryKey) || columnName.equalsIgnoreCase(foreignKey)) {
 				return FieldType.ID; 
@@ -177,6 +269,67 @@ public final class HelperOperations {
 		
 	}
 
+	/**
+	 * Detects the collector FieldTypes of several columns at once. Same as {@link #detectDataType(String, String)} but
+	 * the key information and the typeInfo table are only read once for all columns.
+	 * @param tableName The name of the table to which the columns belong to. Do NOT escape!
+	 * @param columnNames The names of the columns whose types should be determined.
+	 * @return A map from each of the specified column names to its FieldType.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	static Map<String, FieldType> detectDataTypes(String tableName, List<String> columnNames) throws DatabaseWrapperOperationException {
+		Map<String, FieldType> fieldTypes = new HashMap<String, FieldType>();
+		DatabaseMetaData dbmetadata = null;
+		// Albums in the lean row format have no foreign key, their only key is the id
+		String primaryKey = DatabaseConstants.ID_COLUMN_NAME;
+		String foreignKey = null;
+
+		try {
+			dbmetadata = ConnectionManager.getConnection().getMetaData();
+		} catch (SQLException sqlEx) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, sqlEx);
+		}
+
+		try (ResultSet dbmetars = dbmetadata.getImportedKeys(null, null, tableName)) {
+			// Get the primary and foreign keys
+			if (dbmetars.next()) {
+				primaryKey = dbmetars.getString(PRIMARY_KEY_COLUMN_INDEX);
+				foreignKey = dbmetars.getString(FOREIGN_KEY_COLUMN_INDEX);
+			}
+		} catch (SQLException sqlException) {
+			LOGGER.error("Could not detect fieldtypes for table [" + tableName + "]", sqlException);
+			for (String columnName : columnNames) {
+				fieldTypes.put(columnName, FieldType.TEXT);
+			}
+			return fieldTypes;
+		}
+
+		String dbtypeInfoTableName = DatabaseStringUtilities.generateTypeInfoTableName(tableName);
+		try (
+				Statement statement = ConnectionManager.getConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY,ResultSet.CONCUR_READ_ONLY);
+				ResultSet typeResultSet = statement.executeQuery(QueryBuilder.createSelectStarQuery(dbtypeInfoTableName));) {
+
+			for (String columnName : columnNames) {
+				if (columnName.equalsIgnoreCase(primaryKey) || columnName.equalsIgnoreCase(foreignKey)) {
+					fieldTypes.put(columnName, FieldType.ID);
+					continue;
+				}
+
+				try {
+					fieldTypes.put(columnName, FieldType.valueOf(typeResultSet.getString(columnName)));
+				} catch (IllegalArgumentException e) {
+					LOGGER.error("Could not detect fieldtype for column [" + columnName + "] in table [" + tableName + "]", e);
+					fieldTypes.put(columnName, FieldType.TEXT);
+				}
+			}
+
+			return fieldTypes;
+		} catch (SQLException e) {
+			LOGGER.error("Could not detect fieldtypes for table [" + tableName + "]", e);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		}
+	}
+
 	static Object fetchFieldItemValue(ResultSet results, int columnIndex, FieldType type, String albumName) throws DatabaseWrapperOperationException {
 		Object value = null;
 		try {
@@ -200,11 +353,10 @@ public final class HelperOperations {
 				value = results.getTime(columnIndex);
 				break;
 			case OPTION:
-				String optionValue = results.getString(columnIndex);
-				if (optionValue != null && !optionValue.isEmpty()) {
-					value =  OptionType.valueOf(optionValue);
-				} else {
-					LOGGER.error("Fetching option type for item field failed. Url string is unexpectantly null or empty");
+				// Options are stored by their name or by their integer value, depending on the row format of the album
+				value = toOptionType(results.getObject(columnIndex));
+				if (value == null) {
+					LOGGER.error("Fetching option type for item field failed. The stored value is unexpectantly null or invalid");
 				}
 				break;
 			case URL:
@@ -215,7 +367,8 @@ public final class HelperOperations {
 				value = StarRating.getByIntegerValue(results.getInt(columnIndex));
 				break;
 			case UUID:
-				value  = UUID.fromString(results.getString(columnIndex));
+				// UUIDs are stored as text or as blob, depending on the row format of the album
+				value  = toUuid(results.getObject(columnIndex));
 				break;
 			default:
 				value = null;
@@ -18,33 +18,42 @@
 
 package org.sammelbox.model.database.operations;
 
+import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
-import java.util.UUID;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
 import org.sammelbox.controller.managers.ConnectionManager;
 import org.sammelbox.controller.managers.SettingsManager;
 import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemPage;
 import org.sammelbox.model.album.AlbumItemPicture;
 import org.sammelbox.model.album.AlbumItemResultSet;
+import org.sammelbox.model.album.AlbumItemStore;
+import org.sammelbox.model.album.ColumnarAlbumItemList;
 import org.sammelbox.model.album.FieldType;
 import org.sammelbox.model.album.MetaItemField;
 import org.sammelbox.model.album.OptionType;
 import org.sammelbox.model.database.DatabaseStringUtilities;
+import org.sammelbox.model.database.ParameterizedQuery;
 import org.sammelbox.model.database.QueryBuilder;
 import org.sammelbox.model.database.QueryBuilderException;
 import org.sammelbox.model.database.QueryComponent;
@@ -57,11 +66,18 @@ import org.slf4j.LoggerFactory;
 public final class QueryOperations {
 	private static final Logger LOGGER = LoggerFactory.getLogger(QueryOperations.class);
 	private static final String SQLITE_INDEX_COLUMN_NAME = "COLUMN_NAME";
+	private static final String SQLITE_INDEX_NAME = "INDEX_NAME";
 	
 	private static final int PICTURE_ID_COLUMN_INDEX = 1;
 	private static final int THUMBNAIL_PICTURE_NAME_COLUMN_INDEX = 2;
 	private static final int ORIGINAL_PICTURE_NAME_COLUMN_INDEX = 3;
 	private static final int ALBUM_ITEM_ID_COLUMN_INDEX = 4;
+	/** The number of album items whose pictures are retrieved by a single query. SQLite allows up to 999 parameters per statement */
+	private static final int MAX_ALBUM_ITEMS_PER_PICTURE_QUERY = 500;
+	private static final int MAX_ALBUM_ITEMS_PER_ITEM_QUERY = 500;
+	/** Distinguish the cached pages of a query from its cached complete results */
+	private static final String PAGE_RESULT = "page";
+	private static final String LIST_RESULT = "list";
 	
 	private QueryOperations() {
 		// use static methods
@@ -73,8 +89,13 @@ public final class QueryOperations {
 	}
 	
 	static AlbumItemResultSet executeQuickSearchQuery(String sqlStatement, String albumName) throws DatabaseWrapperOperationException {	
+		return executeQuickSearchQuery(ConnectionManager.getConnection(), sqlStatement, albumName);
+	}
+	
+	private static AlbumItemResultSet executeQuickSearchQuery(Connection connection, String sqlStatement, String albumName) 
+			throws DatabaseWrapperOperationException {	
 		Map<Integer, MetaItemField> metaInfoMap = QueryOperations.getAlbumItemMetaMap(albumName);
-		return new AlbumItemResultSet(ConnectionManager.getConnection(), albumName, sqlStatement, metaInfoMap);
+		return new AlbumItemResultSet(connection, albumName, sqlStatement, metaInfoMap);
 	}
 
 	static AlbumItemResultSet executeSQLQuery(String sqlStatement) throws DatabaseWrapperOperationException {
@@ -88,18 +109,54 @@ public final class QueryOperations {
 		}		
 	}
 	
+	static AlbumItemResultSet executeParameterizedQuery(ParameterizedQuery parameterizedQuery) throws DatabaseWrapperOperationException {
+		try {
+			PreparedStatement preparedStatement = ConnectionManager.getPreparedStatement(parameterizedQuery.getSqlStatement());
+			try {
+				parameterizedQuery.bindParameters(preparedStatement);
+			} catch (SQLException sqlException) {
+				ConnectionManager.releasePreparedStatement(preparedStatement);
+				throw sqlException;
+			}
+			// The result set releases the statement once it is closed
+			return new AlbumItemResultSet(preparedStatement);
+		} catch (SQLException | DatabaseWrapperOperationException e) {
+			LOGGER.error("The query: \"{}\" could not be executed and terminated with message: {}", parameterizedQuery, e.getMessage());
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		}
+	}
+	
 	static AlbumItemResultSet executeQuickSearch(String albumName, List<String> quickSearchTerms) throws DatabaseWrapperOperationException {
+		return executeQuickSearch(ConnectionManager.getConnection(), albumName, quickSearchTerms);
+	}
+	
+	/**
+	 * Performs a quick search on the given connection, e.g. a read-only connection. The fields of the album are taken from 
+	 * the album schema catalog, which reflects the structure seen by the writer connection.
+	 * @param connection The connection on which the search is executed.
+	 * @param albumName The name of the album to be searched.
+	 * @param quickSearchTerms The terms to be searched for, or null to select all items.
+	 * @return The result set containing the matching items.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	static AlbumItemResultSet executeQuickSearch(Connection connection, String albumName, List<String> quickSearchTerms) 
+			throws DatabaseWrapperOperationException {
 		List<MetaItemField> albumFields = getAllAlbumItemMetaItemFields(albumName);
 		String query = "";
 		ArrayList<QueryComponent> queryFields = null;
-		List<String> quicksearchFieldNames = getIndexedColumnNames(DatabaseStringUtilities.generateTableName(albumName));
+		List<String> quicksearchFieldNames = AlbumSchemaCatalog.getQuickSearchableFieldNames(albumName);
 
 		// If no field is quicksearchable return select * from albumName or no terms have been entered
 		if (quicksearchFieldNames == null || quicksearchFieldNames.isEmpty() || quickSearchTerms == null || quickSearchTerms.isEmpty() ) {
 			query = QueryBuilder.createOrderedSelectStarQuery(albumName);
-			return executeSQLQuery(query);
+			return executeQuickSearchQuery(connection, query, albumName);
+		}
+		
+		if (AlbumSchemaCatalog.hasFullTextIndex(albumName)) {
+			return executeFullTextQuickSearch(connection, albumName, albumFields, quickSearchTerms);
 		}
 
+		// Albums without full text index (created by earlier versions) are searched using LIKE on every quick-searchable field
 		boolean first = true;
 		for (String term : quickSearchTerms) {
 			if (term.isEmpty()) {
@@ -149,12 +206,63 @@ public final class QueryOperations {
 		}// end of for - terms
 
 		if (query.isEmpty()) {
-			return executeSQLQuery(QueryBuilder.createOrderedSelectStarQuery(albumName));
+			return executeQuickSearchQuery(connection, QueryBuilder.createOrderedSelectStarQuery(albumName), albumName);
 		} else {
-			return executeQuickSearchQuery(query, albumName);
+			return executeQuickSearchQuery(connection, query, albumName);
 		}
 	}
 	
+	/**
+	 * Performs a quick search using the full text index of the album. Textual fields are matched by token prefixes using the index,
+	 * numeric and date fields are compared for equality. Items matching more terms are ranked first.
+	 * @param connection The connection on which the search is executed.
+	 * @param albumName The name of the album to be searched. The album must have a full text index.
+	 * @param albumFields All fields of the album.
+	 * @param quickSearchTerms The terms to be searched for. An item must match at least one term.
+	 * @return The result set containing the matching items.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	private static AlbumItemResultSet executeFullTextQuickSearch(Connection connection, String albumName, List<MetaItemField> albumFields, List<String> quickSearchTerms) 
+			throws DatabaseWrapperOperationException {
+		List<String> matchExpressions = new ArrayList<String>();
+		List<QueryComponent> additionalComponents = new ArrayList<QueryComponent>();
+		
+		for (String term : quickSearchTerms) {
+			String matchExpression = QueryBuilder.createFullTextMatchExpression(term);
+			if (matchExpression != null) {
+				matchExpressions.add(matchExpression);
+			}
+			
+			for (MetaItemField field : albumFields) {
+				if (!field.isQuickSearchable()) {
+					continue;
+				}
+				
+				if ((field.getType().equals(FieldType.INTEGER) || field.getType().equals(FieldType.STAR_RATING))
+						&& (Pattern.compile("-?[0-9]+").matcher(term).matches())) {
+					additionalComponents.add(QueryBuilder.getQueryComponent(
+							field.getName(), QueryOperator.EQUALS, Integer.valueOf(term).toString()));
+				} else if (field.getType().equals(FieldType.DECIMAL) && Pattern.compile("\\d+(.\\d+)*").matcher(term).matches()) {
+					additionalComponents.add(QueryBuilder.getQueryComponent(
+							field.getName(), QueryOperator.EQUALS, Double.valueOf(term).toString()));
+				} else if (field.getType().equals(FieldType.DATE)) {
+					try {
+						additionalComponents.add(QueryBuilder.getQueryComponent(
+								field.getName(), QueryOperator.EQUALS, String.valueOf(transformDateStringToUTCUnixTime(term))));
+					} catch (ParseException e) {
+						continue;
+					}
+				}
+			}
+		}
+		
+		if (matchExpressions.isEmpty() && additionalComponents.isEmpty()) {
+			return executeQuickSearchQuery(connection, QueryBuilder.createOrderedSelectStarQuery(albumName), albumName);
+		}
+		
+		return executeQuickSearchQuery(connection, QueryBuilder.createFullTextQuickSearchQuery(albumName, matchExpressions, additionalComponents), albumName);
+	}
+	
 	public static long transformDateStringToUTCUnixTime(String dateString) throws ParseException {
 		SimpleDateFormat sdf = new SimpleDateFormat(SettingsManager.getSettings().getDateFormat());
 		sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
@@ -195,6 +303,74 @@ public final class QueryOperations {
 		}		
 	}
 
+	/**
+	 * Checks whether a table (including virtual tables) with the given name exists.
+	 * @param tableName The name of the table without enclosing quotes.
+	 * @return True if the table exists, false otherwise.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	static boolean tableExists(String tableName) throws DatabaseWrapperOperationException {
+		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(
+				"SELECT name FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+			preparedStatement.setString(1, tableName);
+			
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				return resultSet.next();
+			}
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		}
+	}
+
+	/**
+	 * Determines the row format of an album table. Tables in the row format v1 are recognized by their type info column.
+	 * @param tableName The name (or album name) of the album.
+	 * @return {@link DatabaseConstants#ROW_FORMAT_V1} or {@link DatabaseConstants#ROW_FORMAT_V2}.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	static int fetchRowFormat(String tableName) throws DatabaseWrapperOperationException {
+		try (Statement statement = ConnectionManager.getConnection().createStatement();
+			 ResultSet resultSet = statement.executeQuery("PRAGMA table_info(" + 
+					 DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generateTableName(tableName)) + ")")) {
+			
+			while (resultSet.next()) {
+				if (DatabaseConstants.TYPE_INFO_COLUMN_NAME.equals(resultSet.getString("name"))) {
+					return DatabaseConstants.ROW_FORMAT_V1;
+				}
+			}
+			
+			return DatabaseConstants.ROW_FORMAT_V2;
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		}
+	}
+
+	/**
+	 * Checks whether the picture table of an album has an index on the album item reference. The index is
+	 * recognized by its suffix, since a renamed album keeps the index name of its previous name.
+	 * @param albumName The name (or table name) of the album.
+	 * @return True if the picture table is indexed, false otherwise or if the album has no picture table.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	static boolean fetchPictureTableIndexFlag(String albumName) throws DatabaseWrapperOperationException {
+		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(
+				"SELECT name FROM sqlite_master WHERE type = 'index' AND tbl_name = ?")) {
+			preparedStatement.setString(1, DatabaseStringUtilities.generatePictureTableName(albumName));
+			
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				while (resultSet.next()) {
+					if (resultSet.getString(1).endsWith(DatabaseConstants.PICTURE_INDEX_SUFFIX)) {
+						return true;
+					}
+				}
+				
+				return false;
+			}
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		}
+	}
+
 	static List<String> getIndexedColumnNames(String tableName) throws DatabaseWrapperOperationException {
 		List<String> indexedColumns = new ArrayList<String>();
 		DatabaseMetaData dbmetadata = null;
@@ -206,7 +382,7 @@ public final class QueryOperations {
 				
 		try (ResultSet indexRS = dbmetadata.getIndexInfo(null, null, tableName, false, true)) {	
 			while (indexRS.next()) {
-				if (indexRS.getString(SQLITE_INDEX_COLUMN_NAME) != null) {
+				if (indexRS.getString(SQLITE_INDEX_COLUMN_NAME) != null && !isSortIndex(indexRS.getString(SQLITE_INDEX_NAME))) {
 					indexedColumns.add(indexRS.getString(SQLITE_INDEX_COLUMN_NAME));
 				}
 			}
@@ -216,6 +392,11 @@ public final class QueryOperations {
 		}		
 	}
 
+	/** The index on the sort field only speeds up paging and must not be mistaken for the quick search index */
+	private static boolean isSortIndex(String indexName) {
+		return indexName != null && indexName.endsWith(DatabaseConstants.SORT_INDEX_SUFFIX);
+	}
+
 	static String getTableIndexName(String tableName) throws DatabaseWrapperOperationException {		
 		String indexName = null;
 		DatabaseMetaData dbmetadata = null;
@@ -226,8 +407,11 @@ public final class QueryOperations {
 		}
 		
 		try (ResultSet indexRS = dbmetadata.getIndexInfo(null, null, tableName, false, true);) {			
-			if (indexRS.next()) {
-				indexName = indexRS.getString("INDEX_NAME");
+			while (indexRS.next()) {
+				if (!isSortIndex(indexRS.getString(SQLITE_INDEX_NAME))) {
+					indexName = indexRS.getString(SQLITE_INDEX_NAME);
+					break;
+				}
 			}
 			return indexName;
 		} catch (SQLException e) {
@@ -236,43 +420,8 @@ public final class QueryOperations {
 	}
 
 	static List<MetaItemField> getAlbumItemFieldNamesAndTypes(String albumName) throws DatabaseWrapperOperationException {
-		String tableName = DatabaseStringUtilities.generateTableName(albumName);
-		List<MetaItemField> itemMetadata = new ArrayList<MetaItemField>();
-		
-		// Is available means that it does not exist in the db, hence its fields cannot be retrieved
-		if (QueryOperations.isAlbumNameAvailable(albumName)) {
-			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE);
-		}
-
-		List<String> quickSearchableColumnNames = getIndexedColumnNames(DatabaseStringUtilities.generateTableName(albumName));
-		List<String> internalColumnNames = Arrays.asList("id", DatabaseConstants.TYPE_INFO_COLUMN_NAME, DatabaseConstants.CONTENT_VERSION_COLUMN_NAME);
-		
-		try (
-			Statement statement = ConnectionManager.getConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY,ResultSet.CONCUR_READ_ONLY);
-			ResultSet rs = statement.executeQuery(QueryBuilder.createSelectStarQuery(tableName));)
-		{
-			// Retrieve table metadata
-			ResultSetMetaData metaData = rs.getMetaData();
-
-			int columnCount = metaData.getColumnCount();
-			// Each ItemField. Classic for loop since meta data only provides access via indices.
-			for (int columnIndex = 1; columnIndex <= columnCount; columnIndex++) {
-
-				// Excludes all columns that are for internal use only.
-				String columnName = metaData.getColumnName(columnIndex);
-				if (!internalColumnNames.contains(columnName)) {
-					FieldType type = HelperOperations.detectDataType(tableName, columnName);
-					MetaItemField metaItem = new MetaItemField(columnName, type, quickSearchableColumnNames.contains(columnName));
-					itemMetadata.add(metaItem);
-				}
-			}
-			
-			return itemMetadata;
-		} catch (SQLException e) {
-			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
-		}		
+		return AlbumSchemaCatalog.getFieldsInDisplayOrder(albumName);
 	}
-
 	/**
 	 *  Retrieves a list of all MetaItemFields, including those that are for internal use only. Meta item fields describe the items of the album.
 	 * @param albumName The name of the album of which to retrieve the information.
@@ -280,88 +429,101 @@ public final class QueryOperations {
 	 * @throws DatabaseWrapperOperationException 
 	 */
 	static List<MetaItemField> getAllAlbumItemMetaItemFields(String albumName) throws DatabaseWrapperOperationException{
-		String tableName = DatabaseStringUtilities.generateTableName(albumName);
-		
-		List<MetaItemField> itemMetadata = new ArrayList<MetaItemField>();
-		List<String> quickSearchableColumnNames = getIndexedColumnNames(DatabaseStringUtilities.generateTableName(albumName));
-		try (
-			Statement statement = ConnectionManager.getConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
-			ResultSet rs = statement.executeQuery(QueryBuilder.createSelectStarQuery(albumName));) {					
-
-			// Retrieve table metadata
-			ResultSetMetaData metaData = rs.getMetaData();
-
-			int columnCount = metaData.getColumnCount();
-			// Each ItemField
-			for (int columnIndex = 1; columnIndex <= columnCount; columnIndex++) {
-				String columnName = metaData.getColumnName(columnIndex);
-				FieldType type = HelperOperations.detectDataType(tableName, columnName);
-				MetaItemField metaItem = new MetaItemField(columnName, type, quickSearchableColumnNames.contains(columnName));
-				itemMetadata.add(metaItem);
-			}
-			return itemMetadata;
-		} catch (SQLException e) {
-			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
-		}		
+		return AlbumSchemaCatalog.getAllMetaItemFields(albumName);
 	}
 
 	static Map<Integer, MetaItemField> getAlbumItemMetaMap(String albumName) throws DatabaseWrapperOperationException {
-		List<String> quickSearchableColumns = getIndexedColumnNames(DatabaseStringUtilities.generateTableName(albumName));
-
 		Map<Integer, MetaItemField> itemMetaData = new HashMap<Integer, MetaItemField>();
 		
-		try (Statement statement = ConnectionManager.getConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
-			 ResultSet set = statement.executeQuery(QueryBuilder.createSelectStarQuery(albumName))) {			
-			
-			// Retrieve table metadata	
-			ResultSetMetaData metaData = set.getMetaData();
-			
-			int columnCount = metaData.getColumnCount();
-			// Each ItemField
-			for (int columnIndex = 1; columnIndex <= columnCount; columnIndex++) {
-				String name = metaData.getColumnName(columnIndex);
-				
-				FieldType type = HelperOperations.detectDataType(DatabaseStringUtilities.generateTableName(albumName), name);	
-				
-				MetaItemField metaItemField = new MetaItemField(name, type, quickSearchableColumns.contains(name));
-				itemMetaData.put(columnIndex, metaItemField);
-			}
-			return itemMetaData;
-		} catch (SQLException e) {
-			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		// The catalog returns the fields in column order, and column indices start at one
+		int columnIndex = 1;
+		for (MetaItemField metaItemField : AlbumSchemaCatalog.getAllMetaItemFields(albumName)) {
+			itemMetaData.put(columnIndex++, metaItemField);
 		}
+		
+		return itemMetaData;
 	}
 	
 	static List<AlbumItemPicture> getAlbumItemPictures(String albumName, long albumItemID) throws DatabaseWrapperOperationException {
-		List<AlbumItemPicture> pictures = new ArrayList<AlbumItemPicture>();
-		
-		if (isPictureAlbum(albumName)) {
-			String picturesQuery = 
-				   " SELECT " +
-						DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.ID_COLUMN_NAME) + ", " +
-						DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.THUMBNAIL_PICTURE_FILE_NAME_IN_PICTURE_TABLE) + ", " +
-						DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.ORIGINAL_PICTURE_FILE_NAME_IN_PICTURE_TABLE) + ", " +
-						DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.ALBUM_ITEM_ID_REFERENCE_IN_PICTURE_TABLE) +
-				   " FROM " + DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generatePictureTableName(albumName)) +
-				   " WHERE " + DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.ALBUM_ITEM_ID_REFERENCE_IN_PICTURE_TABLE) + " = " + albumItemID;
-			
-			try (Statement statement = ConnectionManager.getConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY,ResultSet.CONCUR_READ_ONLY);
-				 ResultSet rs = statement.executeQuery(picturesQuery);) {			
+		return getAlbumItemPictures(albumName, Collections.singletonList(albumItemID)).get(albumItemID);
+	}
+	
+	/**
+	 * Retrieves the pictures of several album items at once. Instead of one query per item, a single query 
+	 * is executed for up to {@link #MAX_ALBUM_ITEMS_PER_PICTURE_QUERY} items.
+	 * @param albumName The name of the album to which the items belong.
+	 * @param albumItemIds The ids of the album items whose pictures should be retrieved.
+	 * @return A map containing a list of pictures for every requested id, in the order in which the pictures have been added.
+	 * The lists are empty for items without pictures and for albums which do not support pictures.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	static Map<Long, List<AlbumItemPicture>> getAlbumItemPictures(String albumName, Collection<Long> albumItemIds) throws DatabaseWrapperOperationException {
+		Map<Long, List<AlbumItemPicture>> picturesByAlbumItemId = new LinkedHashMap<Long, List<AlbumItemPicture>>();
+		for (Long albumItemId : albumItemIds) {
+			picturesByAlbumItemId.put(albumItemId, new ArrayList<AlbumItemPicture>());
+		}
+		
+		if (picturesByAlbumItemId.isEmpty() || !isPictureAlbum(albumName)) {
+			return picturesByAlbumItemId;
+		}
+		
+		ensurePictureTableIndex(albumName);
+		
+		List<Long> remainingAlbumItemIds = new ArrayList<Long>(picturesByAlbumItemId.keySet());
+		for (int fromIndex = 0; fromIndex < remainingAlbumItemIds.size(); fromIndex += MAX_ALBUM_ITEMS_PER_PICTURE_QUERY) {
+			List<Long> batchAlbumItemIds = remainingAlbumItemIds.subList(
+					fromIndex, Math.min(fromIndex + MAX_ALBUM_ITEMS_PER_PICTURE_QUERY, remainingAlbumItemIds.size()));
 			
-				while (rs.next()) {
-					pictures.add(new AlbumItemPicture(
-							rs.getLong(PICTURE_ID_COLUMN_INDEX), 
-							rs.getString(THUMBNAIL_PICTURE_NAME_COLUMN_INDEX), 
-							rs.getString(ORIGINAL_PICTURE_NAME_COLUMN_INDEX), 
-							albumName, 
-							rs.getLong(ALBUM_ITEM_ID_COLUMN_INDEX)));
-				}			
+			try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(
+					createPicturesQuery(albumName, batchAlbumItemIds.size()))) {
+				int parameterIndex = 1;
+				for (Long albumItemId : batchAlbumItemIds) {
+					preparedStatement.setLong(parameterIndex++, albumItemId);
+				}
+				
+				try (ResultSet rs = preparedStatement.executeQuery()) {
+					while (rs.next()) {
+						picturesByAlbumItemId.get(rs.getLong(ALBUM_ITEM_ID_COLUMN_INDEX)).add(new AlbumItemPicture(
+								rs.getLong(PICTURE_ID_COLUMN_INDEX), 
+								rs.getString(THUMBNAIL_PICTURE_NAME_COLUMN_INDEX), 
+								rs.getString(ORIGINAL_PICTURE_NAME_COLUMN_INDEX), 
+								albumName, 
+								rs.getLong(ALBUM_ITEM_ID_COLUMN_INDEX)));
+					}
+				}
 			} catch (SQLException e) {			
 				throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
 			}
 		}
 		
-		return pictures;
+		return picturesByAlbumItemId;
+	}
+	
+	private static String createPicturesQuery(String albumName, int numberOfAlbumItems) {
+		StringBuilder albumItemIdParameters = new StringBuilder();
+		for (int i=0; i<numberOfAlbumItems; i++) {
+			albumItemIdParameters.append(i == 0 ? "?" : ", ?");
+		}
+		
+		String albumItemReferenceColumn = DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.ALBUM_ITEM_ID_REFERENCE_IN_PICTURE_TABLE);
+		String idColumn = DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.ID_COLUMN_NAME);
+		
+		return " SELECT " +
+					idColumn + ", " +
+					DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.THUMBNAIL_PICTURE_FILE_NAME_IN_PICTURE_TABLE) + ", " +
+					DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.ORIGINAL_PICTURE_FILE_NAME_IN_PICTURE_TABLE) + ", " +
+					albumItemReferenceColumn +
+			   " FROM " + DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generatePictureTableName(albumName)) +
+			   " WHERE " + albumItemReferenceColumn + " IN (" + albumItemIdParameters + ")" +
+			   " ORDER BY " + albumItemReferenceColumn + ", " + idColumn;
+	}
+	
+	/** Creates the index on the album item reference of the picture table for albums created before this index was introduced */
+	private static void ensurePictureTableIndex(String albumName) throws DatabaseWrapperOperationException {
+		if (!AlbumSchemaCatalog.hasPictureTableIndex(albumName)) {
+			CreateOperations.createPictureTableIndex(albumName);
+			AlbumSchemaCatalog.invalidate(albumName);
+		}
 	}
 	
 	static AlbumItem getAlbumItem(String albumName, long albumItemId) throws DatabaseWrapperOperationException {
@@ -380,44 +542,22 @@ public final class QueryOperations {
 	}
 
 	static List<AlbumItem> getAlbumItems(String queryString) throws DatabaseWrapperOperationException {
-
- 		LinkedList<AlbumItem> list = new LinkedList<AlbumItem>();		
+		List<AlbumItem> list = new ArrayList<AlbumItem>();
 		
 		try (
 			Statement statement = ConnectionManager.getConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY,ResultSet.CONCUR_READ_ONLY);
 			ResultSet rs = statement.executeQuery(queryString); ) {
 	
-			// Retrieve table metadata
-			ResultSetMetaData metaData = rs.getMetaData();
-
-			int columnCount = metaData.getColumnCount();
+			// The decoder is built from the table metadata once the first row is available
+			AlbumItemRowDecoder rowDecoder = null;
+			
 			// For each albumItem
 			while (rs.next()) {
-				// Create a new AlbumItem instance
-				AlbumItem albumItem = new AlbumItem("");
-				// Each ItemField
-				for (int columnIndex = 1; columnIndex <= columnCount; columnIndex++) {
-
-					// Add new field
-					String fieldName = metaData.getColumnName(columnIndex);
-					String tableName = metaData.getTableName(1);
-					String albumName = DatabaseOperations.getAlbumName(tableName);
-					
-					albumItem.setAlbumName(albumName);
-					
-					FieldType type = HelperOperations.detectDataType(tableName, fieldName);
-					Object value = HelperOperations.fetchFieldItemValue(rs, columnIndex, type, albumName);
-					boolean quicksearchable = isAlbumFieldQuicksearchable(albumName, fieldName);
-					// omit the typeinfo field and set the contentVersion separately
-					if (type == FieldType.ID && fieldName.endsWith(DatabaseConstants.TYPE_INFO_COLUMN_NAME)){
-						continue;
-					} else if (type.equals(FieldType.UUID) && fieldName.equals(DatabaseConstants.CONTENT_VERSION_COLUMN_NAME)) {
-						albumItem.setContentVersion((UUID) value);
-					} else {
-						albumItem.addField(fieldName, type, value, quicksearchable);
-					}
+				if (rowDecoder == null) {
+					rowDecoder = AlbumItemRowDecoder.create(rs.getMetaData());
 				}
-				list.add(albumItem);
+				
+				list.add(rowDecoder.decode(rs));
 			}
 
 		} catch (SQLException e) {
@@ -427,6 +567,165 @@ public final class QueryOperations {
 		return list;
 	}
 	
+	/**
+	 * Retrieves several album items of the same album by their ids. Instead of one query per item, a single query 
+	 * is executed for up to {@link #MAX_ALBUM_ITEMS_PER_ITEM_QUERY} items. The items are read like the items of a page,
+	 * such that they have the same structure as the items of the pages of the album.
+	 * @return The items which exist, ordered by their ids.
+	 */
+	static ColumnarAlbumItemList getAlbumItems(String albumName, Collection<Long> albumItemIds) throws DatabaseWrapperOperationException {
+		ColumnarAlbumItemList albumItems = new ColumnarAlbumItemList();
+		List<Long> remainingAlbumItemIds = new ArrayList<Long>(new TreeSet<Long>(albumItemIds));
+		String idColumn = DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.ID_COLUMN_NAME);
+		
+		for (int fromIndex = 0; fromIndex < remainingAlbumItemIds.size(); fromIndex += MAX_ALBUM_ITEMS_PER_ITEM_QUERY) {
+			List<Long> batchAlbumItemIds = remainingAlbumItemIds.subList(
+					fromIndex, Math.min(fromIndex + MAX_ALBUM_ITEMS_PER_ITEM_QUERY, remainingAlbumItemIds.size()));
+			
+			StringBuilder albumItemIdParameters = new StringBuilder();
+			for (int i=0; i<batchAlbumItemIds.size(); i++) {
+				albumItemIdParameters.append(i == 0 ? "?" : ", ?");
+			}
+			
+			ParameterizedQuery albumItemsQuery = new ParameterizedQuery(QueryBuilder.createSelectStarQuery(albumName) + 
+					" WHERE " + idColumn + " IN (" + albumItemIdParameters + ") ORDER BY " + idColumn, 
+					new ArrayList<Object>(batchAlbumItemIds));
+			
+			albumItems.addAll(AlbumItemStore.readAlbumItems(executeParameterizedQuery(albumItemsQuery), new AtomicBoolean(false)));
+		}
+		
+		return albumItems;
+	}
+	
+	/**
+	 * Determines which of the given album items are part of the pages following the given page, based on their current values.
+	 * @return The ids of the items which are ordered after the last item of the given page.
+	 */
+	static Set<Long> getAlbumItemIdsFollowingPage(AlbumItemPage page, Collection<Long> albumItemIds) throws DatabaseWrapperOperationException {
+		Set<Long> followingAlbumItemIds = new HashSet<Long>();
+		List<Long> remainingAlbumItemIds = new ArrayList<Long>(new TreeSet<Long>(albumItemIds));
+		// A negative limit does not limit the number of items
+		ParameterizedQuery followingItemsQuery = QueryBuilder.createAlbumItemPageQuery(page.getAlbumName(), page.getSortFieldName(), 
+				false, page.getLastSortValue(), page.getLastAlbumItemId(), -1);
+		String idColumn = DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.ID_COLUMN_NAME);
+		
+		for (int fromIndex = 0; fromIndex < remainingAlbumItemIds.size(); fromIndex += MAX_ALBUM_ITEMS_PER_ITEM_QUERY) {
+			List<Long> batchAlbumItemIds = remainingAlbumItemIds.subList(
+					fromIndex, Math.min(fromIndex + MAX_ALBUM_ITEMS_PER_ITEM_QUERY, remainingAlbumItemIds.size()));
+			
+			StringBuilder albumItemIdParameters = new StringBuilder();
+			for (int i=0; i<batchAlbumItemIds.size(); i++) {
+				albumItemIdParameters.append(i == 0 ? "?" : ", ?");
+			}
+			
+			List<Object> parameters = new ArrayList<Object>(followingItemsQuery.getParameters());
+			parameters.addAll(batchAlbumItemIds);
+			ParameterizedQuery query = new ParameterizedQuery("SELECT " + idColumn + " FROM (" + followingItemsQuery.getSqlStatement() + ")" +
+					" WHERE " + idColumn + " IN (" + albumItemIdParameters + ")", parameters);
+			
+			try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(query.getSqlStatement())) {
+				query.bindParameters(preparedStatement);
+				
+				try (ResultSet rs = preparedStatement.executeQuery()) {
+					while (rs.next()) {
+						followingAlbumItemIds.add(rs.getLong(1));
+					}
+				}
+			} catch (SQLException e) {
+				throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+			}
+		}
+		
+		return followingAlbumItemIds;
+	}
+	
+	static AlbumItemPage getFirstAlbumItemPage(String albumName, int pageSize) throws DatabaseWrapperOperationException {
+		return fetchAlbumItemPage(albumName, QueryBuilder.getSortByFieldName(albumName), pageSize, true, null, 0);
+	}
+	
+	static AlbumItemPage getNextAlbumItemPage(AlbumItemPage previousPage) throws DatabaseWrapperOperationException {
+		if (!previousPage.hasNextPage()) {
+			return new AlbumItemPage(previousPage.getAlbumName(), previousPage.getSortFieldName(), previousPage.getPageSize(), 
+					new ArrayList<AlbumItem>(), false, previousPage.getLastSortValue(), previousPage.getLastAlbumItemId());
+		}
+		
+		// The order of the previous page is kept, even if the sort field has been changed meanwhile
+		return fetchAlbumItemPage(previousPage.getAlbumName(), previousPage.getSortFieldName(), previousPage.getPageSize(), 
+				false, previousPage.getLastSortValue(), previousPage.getLastAlbumItemId());
+	}
+	
+	private static AlbumItemPage fetchAlbumItemPage(String albumName, String sortFieldName, int pageSize, boolean isFirstPage, 
+			Object lastSortValue, long lastAlbumItemId) throws DatabaseWrapperOperationException {
+		// A single additional item reveals whether a next page exists
+		ParameterizedQuery pageQuery = QueryBuilder.createAlbumItemPageQuery(
+				albumName, sortFieldName, isFirstPage, lastSortValue, lastAlbumItemId, pageSize + 1);
+		String cacheKey = QueryResultCache.createKey(PAGE_RESULT, pageQuery.getSqlStatement(), pageQuery.getParameters());
+		AlbumItemPage cachedPage = (AlbumItemPage) QueryResultCache.get(cacheKey);
+		if (cachedPage != null) {
+			return cachedPage;
+		}
+		
+		long cacheGeneration = QueryResultCache.getGeneration();
+		ColumnarAlbumItemList albumItems = AlbumItemStore.readAlbumItems(executeParameterizedQuery(pageQuery), new AtomicBoolean(false));
+		
+		boolean hasNextPage = albumItems.size() > pageSize;
+		if (hasNextPage) {
+			albumItems.truncate(pageSize);
+		}
+		albumItems.makeUnmodifiable();
+		
+		AlbumItemPage page;
+		if (albumItems.isEmpty()) {
+			page = new AlbumItemPage(albumName, sortFieldName, pageSize, albumItems, false, lastSortValue, lastAlbumItemId);
+		} else {
+			long newLastAlbumItemId = albumItems.getItemId(albumItems.size() - 1);
+			Object newLastSortValue = sortFieldName == null ? null : fetchStoredValue(albumName, sortFieldName, newLastAlbumItemId);
+			page = new AlbumItemPage(albumName, sortFieldName, pageSize, albumItems, hasNextPage, newLastSortValue, newLastAlbumItemId);
+		}
+		
+		QueryResultCache.put(cacheKey, page, albumItems.getEstimatedHeapSize(), albumName, cacheGeneration);
+		return page;
+	}
+	
+	/**
+	 * Reads all items of the given query, or retrieves them from the {@link QueryResultCache} if the query has been executed
+	 * since the last change of the album.
+	 * @param parameterizedQuery The query to be executed.
+	 * @return The unmodifiable items of the query, which may be shared with other callers.
+	 * @throws DatabaseWrapperOperationException If the query could not be executed.
+	 */
+	static ColumnarAlbumItemList getCachedAlbumItems(ParameterizedQuery parameterizedQuery) throws DatabaseWrapperOperationException {
+		String cacheKey = QueryResultCache.createKey(LIST_RESULT, parameterizedQuery.getSqlStatement(), parameterizedQuery.getParameters());
+		ColumnarAlbumItemList cachedAlbumItems = (ColumnarAlbumItemList) QueryResultCache.get(cacheKey);
+		if (cachedAlbumItems != null) {
+			return cachedAlbumItems;
+		}
+		
+		long cacheGeneration = QueryResultCache.getGeneration();
+		AlbumItemResultSet albumItemResultSet = parameterizedQuery.getParameters().isEmpty() ? 
+				executeSQLQuery(parameterizedQuery.getSqlStatement()) : executeParameterizedQuery(parameterizedQuery);
+		ColumnarAlbumItemList albumItems = AlbumItemStore.readAlbumItems(albumItemResultSet, new AtomicBoolean(false)).makeUnmodifiable();
+		
+		QueryResultCache.put(cacheKey, albumItems, albumItems.getEstimatedHeapSize(), albumItems.getAlbumName(), cacheGeneration);
+		return albumItems;
+	}
+	
+	/** Fetches a value as it is stored in the database, as opposed to its representation within an album item (e.g. a date) */
+	private static Object fetchStoredValue(String albumName, String fieldName, long albumItemId) throws DatabaseWrapperOperationException {
+		String query = QueryBuilder.createSelectColumnQuery(albumName, fieldName) + " WHERE " + 
+				DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.ID_COLUMN_NAME) + " = ?";
+		
+		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(query)) {
+			preparedStatement.setLong(1, albumItemId);
+			
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				return resultSet.next() ? resultSet.getObject(1) : null;
+			}
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		}
+	}
+	
 	static boolean isDateField(String albumName, String fieldName) throws DatabaseWrapperOperationException {
 		for (MetaItemField metaItemField : getAllAlbumItemMetaItemFields(albumName)) {
 			if (metaItemField.getName().equals(fieldName) && metaItemField.getType().equals(FieldType.DATE)) {
@@ -473,12 +772,11 @@ public final class QueryOperations {
 	}
 	
 	static boolean isAlbumFieldQuicksearchable(String albumName, String fieldName) throws DatabaseWrapperOperationException {
-		List<String> quicksearchableFieldNames = getIndexedColumnNames(DatabaseStringUtilities.generateTableName(albumName));
-		return quicksearchableFieldNames.contains(fieldName);
+		return AlbumSchemaCatalog.isQuickSearchable(albumName, fieldName);
 	}
 
 	static boolean isAlbumQuicksearchable(String albumName) throws DatabaseWrapperOperationException {
-		List<String> quicksearchableFieldNames = getIndexedColumnNames(DatabaseStringUtilities.generateTableName(albumName));
+		List<String> quicksearchableFieldNames = AlbumSchemaCatalog.getQuickSearchableFieldNames(albumName);
 
 		return quicksearchableFieldNames.size() >= 1;
 	}
@@ -488,6 +786,12 @@ public final class QueryOperations {
 			return false;
 		}
 		
+		return AlbumSchemaCatalog.isPictureAlbum(albumName);
+	}
+	
+	/** Reads the picture flag of the given album directly from the album master table.
+	 * @return True if the album may contain pictures, false otherwise or if the album does not exist. */
+	static boolean fetchPictureFlag(String albumName) throws DatabaseWrapperOperationException {
 		String query = " SELECT " + DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.HAS_PICTURES_COLUMN_IN_ALBUM_MASTER_TABLE) +
  					   "   FROM " + DatabaseStringUtilities.encloseNameWithQuotes(DatabaseConstants.ALBUM_MASTER_TABLE_NAME) +
 					   "  WHERE " + DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.ALBUMNAME_IN_ALBUM_MASTER_TABLE) + 
@@ -506,6 +810,36 @@ public final class QueryOperations {
 		return false;
 	}
 	
+	/** Reads the display order of the fields of the given album table directly from the album master table.
+	 * @return The positions of the fields in column order (without the internal columns), listed in display order.
+	 * Null if the fields are displayed in column order or the album does not exist. */
+	static List<Integer> fetchFieldOrder(String tableName) throws DatabaseWrapperOperationException {
+		CreateOperations.ensureFieldOrderColumn();
+		
+		String query = " SELECT " + DatabaseConstants.FIELD_ORDER_COLUMN_IN_ALBUM_MASTER_TABLE +
+					   "   FROM " + DatabaseStringUtilities.encloseNameWithQuotes(DatabaseConstants.ALBUM_MASTER_TABLE_NAME) +
+					   "  WHERE " + DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.ALBUM_TABLENAME_IN_ALBUM_MASTER_TABLE) + " = ?";
+		
+		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(query)) {
+			preparedStatement.setString(1, tableName);
+			
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				if (!resultSet.next() || resultSet.getString(1) == null) {
+					return null;
+				}
+				
+				List<Integer> fieldOrder = new ArrayList<Integer>();
+				for (String position : resultSet.getString(1).split(DatabaseConstants.FIELD_ORDER_SEPARATOR)) {
+					fieldOrder.add(Integer.parseInt(position));
+				}
+				
+				return fieldOrder;
+			}
+		} catch (SQLException | NumberFormatException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		}
+	}
+	
 	static String getAlbumName(String tableName) throws DatabaseWrapperOperationException {
 		String query = " SELECT " + DatabaseStringUtilities.transformColumnNameToSelectQueryName(DatabaseConstants.ALBUMNAME_IN_ALBUM_MASTER_TABLE) +
 				   	   "   FROM " + DatabaseStringUtilities.encloseNameWithQuotes(DatabaseConstants.ALBUM_MASTER_TABLE_NAME) +
@@ -0,0 +1,323 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.model.database.operations;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.model.database.DatabaseStringUtilities;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+
+/**
+ * Keeps the materialized results of recently executed queries in memory such that switching between albums, views and
+ * saved searches does not execute the same query again. Results are keyed by the normalized query and its parameters.
+ * The least recently used results are evicted once the estimated memory of all results exceeds the memory budget.<br>
+ * Each result remembers the change version of its album (see {@link AlbumChangeVersions}) and is dropped as soon as
+ * the album changes, whereas the results of other albums are kept. The results of an album are also dropped whenever
+ * a write operation of {@link DatabaseOperations} on the album finishes. Each invalidation increases the cache generation,
+ * which prevents a concurrently loaded (and therefore possibly outdated) result from being stored.
+ * Cached results are shared and must not be modified.
+ */
+public final class QueryResultCache {
+	/** The default memory budget of 32 megabytes */
+	static final long DEFAULT_MEMORY_BUDGET = 32L * 1024L * 1024L;
+	private static final char KEY_SEPARATOR = '\u0000';
+
+	/** The cached results in access order, the least recently used result first */
+	private static final LinkedHashMap<String, CachedResult> RESULTS = new LinkedHashMap<String, CachedResult>(16, 0.75f, true);
+	private static long memoryBudget = DEFAULT_MEMORY_BUDGET;
+	private static long memoryUsage = 0;
+	/** The current generation of the cache. Increased with every invalidation */
+	private static long generation = 0;
+	/** The number of lookups that could be answered from memory */
+	private static long hitCount = 0;
+	/** The number of lookups that required the query to be executed */
+	private static long missCount = 0;
+	/** The number of results that were dropped to stay within the memory budget */
+	private static long evictionCount = 0;
+	/** The number of results that were dropped because their album changed */
+	private static long invalidationCount = 0;
+
+	private QueryResultCache() {
+		// use static methods
+	}
+
+	/**
+	 * Creates the key of a query result. Whitespace outside of quoted literals and identifiers does not affect the key.
+	 * @param resultKind Distinguishes results of the same query which are materialized differently (e.g. pages and lists).
+	 * @param sqlStatement The query.
+	 * @param parameters The values bound to the parameters of the query. Pass an empty list if the query has no parameters.
+	 * @return The key under which the result is cached.
+	 */
+	static String createKey(String resultKind, String sqlStatement, List<Object> parameters) {
+		StringBuilder key = new StringBuilder(resultKind).append(KEY_SEPARATOR);
+		appendNormalizedQuery(key, sqlStatement);
+
+		for (Object parameter : parameters) {
+			// The type of a parameter is part of the key since SQLite compares values of different types differently
+			key.append(KEY_SEPARATOR).append(parameter == null ? "null" : parameter.getClass().getName() + ":" + parameter);
+		}
+
+		return key.toString();
+	}
+
+	/** Appends the query with all whitespace outside of quotes trimmed and collapsed into a single space */
+	private static void appendNormalizedQuery(StringBuilder key, String sqlStatement) {
+		char openQuote = 0;
+		boolean pendingSpace = false;
+
+		for (int i=0; i<sqlStatement.length(); i++) {
+			char character = sqlStatement.charAt(i);
+
+			if (openQuote == 0 && Character.isWhitespace(character)) {
+				pendingSpace = true;
+				continue;
+			}
+
+			if (pendingSpace && key.charAt(key.length() - 1) != KEY_SEPARATOR) {
+				key.append(' ');
+			}
+			pendingSpace = false;
+			key.append(character);
+
+			if (openQuote == 0 && (character == '\'' || character == '"' || character == '`' || character == '[')) {
+				openQuote = character == '[' ? ']' : character;
+			} else if (character == openQuote) {
+				// A doubled quote within a literal closes and immediately reopens the literal, which yields the same key
+				openQuote = 0;
+			}
+		}
+	}
+
+	/**
+	 * Retrieves a cached result and marks it as most recently used. Results of albums which changed since the result
+	 * has been loaded are dropped.
+	 * @param key The key created by {@link #createKey(String, String, List)}.
+	 * @return The cached result, or null if the result must be loaded.
+	 * @throws DatabaseWrapperOperationException If the change version of the album could not be read.
+	 */
+	static Object get(String key) throws DatabaseWrapperOperationException {
+		CachedResult cachedResult;
+
+		synchronized (QueryResultCache.class) {
+			cachedResult = RESULTS.get(key);
+			if (cachedResult == null) {
+				missCount++;
+				return null;
+			}
+		}
+
+		// The change version is read outside of the lock since it might have to be loaded from the database
+		boolean isCurrent = cachedResult.changeVersion == getChangeVersion(cachedResult.albumName);
+
+		synchronized (QueryResultCache.class) {
+			if (isCurrent) {
+				hitCount++;
+				return cachedResult.result;
+			}
+
+			if (RESULTS.get(key) == cachedResult) {
+				RESULTS.remove(key);
+				memoryUsage -= cachedResult.estimatedSize;
+				invalidationCount++;
+			}
+			missCount++;
+			return null;
+		}
+	}
+
+	/**
+	 * Gets the current generation of the cache. Must be retrieved before a result is loaded and passed to
+	 * {@link #put(String, Object, long, String, long)} afterwards.
+	 * @return The current cache generation.
+	 */
+	static synchronized long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Stores a loaded result, unless the cache has been invalidated while loading or the result alone exceeds the memory budget.
+	 * The least recently used results are evicted as far as necessary to stay within the memory budget.
+	 * @param key The key created by {@link #createKey(String, String, List)}.
+	 * @param result The result, which must not be modified afterwards.
+	 * @param estimatedSize The estimated number of bytes retained by the result.
+	 * @param albumName The album from which the result has been read, or null if it is unknown (e.g. an empty result).
+	 * Results of unknown albums are dropped whenever any album changes.
+	 * @param generationBeforeLoad The generation retrieved by {@link #getGeneration()} before the result was loaded.
+	 * @throws DatabaseWrapperOperationException If the change version of the album could not be read.
+	 */
+	static void put(String key, Object result, long estimatedSize, String albumName, long generationBeforeLoad) 
+			throws DatabaseWrapperOperationException {
+		long changeVersion = getChangeVersion(albumName);
+
+		synchronized (QueryResultCache.class) {
+			if (generationBeforeLoad != generation || estimatedSize > memoryBudget) {
+				return;
+			}
+	
+			CachedResult previousResult = RESULTS.put(key, new CachedResult(result, estimatedSize, albumName, changeVersion));
+			if (previousResult != null) {
+				memoryUsage -= previousResult.estimatedSize;
+			}
+			memoryUsage += estimatedSize;
+	
+			evictToMemoryBudget();
+		}
+	}
+
+	/**
+	 * Drops the cached results of the given album. Called whenever a write operation on the album finished, successfully or not.
+	 * @param albumName The name of the album which might have changed.
+	 */
+	static synchronized void invalidateAlbum(String albumName) {
+		String storedAlbumName = albumName == null ? null : DatabaseStringUtilities.removeQuotesEnclosingName(albumName);
+		Iterator<CachedResult> cachedResults = RESULTS.values().iterator();
+
+		while (cachedResults.hasNext()) {
+			CachedResult cachedResult = cachedResults.next();
+			if (cachedResult.albumName == null || cachedResult.albumName.equals(storedAlbumName)) {
+				cachedResults.remove();
+				memoryUsage -= cachedResult.estimatedSize;
+				invalidationCount++;
+			}
+		}
+
+		generation++;
+	}
+
+	/**
+	 * Drops all cached results. Called whenever the complete database might have changed (e.g. restore, rollback or a new connection).
+	 */
+	static synchronized void invalidateAll() {
+		invalidationCount += RESULTS.size();
+		RESULTS.clear();
+		memoryUsage = 0;
+		generation++;
+	}
+
+	/** Returns the change version of the album, or the database change count if the album is unknown */
+	private static long getChangeVersion(String albumName) throws DatabaseWrapperOperationException {
+		return albumName == null ? DatabaseIntegrityManager.getDatabaseChangeCount() : AlbumChangeVersions.getChangeVersion(albumName);
+	}
+
+	private static void evictToMemoryBudget() {
+		Iterator<Map.Entry<String, CachedResult>> leastRecentlyUsedResults = RESULTS.entrySet().iterator();
+
+		while (memoryUsage > memoryBudget && leastRecentlyUsedResults.hasNext()) {
+			memoryUsage -= leastRecentlyUsedResults.next().getValue().estimatedSize;
+			leastRecentlyUsedResults.remove();
+			evictionCount++;
+		}
+	}
+
+	/**
+	 * Gets the maximum number of bytes which the cached results may retain.
+	 * @return The memory budget in bytes.
+	 */
+	static synchronized long getMemoryBudget() {
+		return memoryBudget;
+	}
+
+	/**
+	 * Sets the maximum number of bytes which the cached results may retain. Results are evicted if necessary.
+	 * @param newMemoryBudget The memory budget in bytes. Zero disables the cache.
+	 */
+	static synchronized void setMemoryBudget(long newMemoryBudget) {
+		if (newMemoryBudget < 0) {
+			throw new IllegalArgumentException("The memory budget must not be negative");
+		}
+
+		memoryBudget = newMemoryBudget;
+		evictToMemoryBudget();
+	}
+
+	/**
+	 * Gets the estimated number of bytes retained by all cached results.
+	 * @return The memory usage in bytes.
+	 */
+	static synchronized long getMemoryUsage() {
+		return memoryUsage;
+	}
+
+	/**
+	 * Gets the number of cached results.
+	 * @return The number of results currently kept in memory.
+	 */
+	static synchronized int getSize() {
+		return RESULTS.size();
+	}
+
+	/**
+	 * Gets the number of lookups which could be answered without executing the query.
+	 * @return The number of cache hits since the last reset.
+	 */
+	static synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Gets the number of lookups which required the query to be executed.
+	 * @return The number of cache misses since the last reset.
+	 */
+	static synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Gets the number of results which were dropped to stay within the memory budget.
+	 * @return The number of evictions since the last reset.
+	 */
+	static synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Gets the number of cached results which were dropped because their album changed.
+	 * @return The number of invalidations since the last reset.
+	 */
+	static synchronized long getInvalidationCount() {
+		return invalidationCount;
+	}
+
+	/** Resets the hit, miss, eviction and invalidation counters. The cached results are not affected. */
+	static synchronized void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+		evictionCount = 0;
+		invalidationCount = 0;
+	}
+
+	/** A result together with its estimated size and the change version of its album when it has been loaded */
+	private static final class CachedResult {
+		private final Object result;
+		private final long estimatedSize;
+		private final String albumName;
+		private final long changeVersion;
+
+		private CachedResult(Object result, long estimatedSize, String albumName, long changeVersion) {
+			this.result = result;
+			this.estimatedSize = estimatedSize;
+			this.albumName = albumName;
+			this.changeVersion = changeVersion;
+		}
+	}
+}
@@ -20,11 +20,15 @@ package org.sammelbox.model.database.operations;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Time;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.sammelbox.controller.filesystem.FileSystemAccessWrapper;
@@ -37,10 +41,12 @@ import org.sammelbox.model.album.FieldType;
 import org.sammelbox.model.album.ItemField;
 import org.sammelbox.model.album.MetaItemField;
 import org.sammelbox.model.album.OptionType;
+import org.sammelbox.model.album.StarRating;
 import org.sammelbox.model.database.DatabaseStringUtilities;
 import org.sammelbox.model.database.QueryBuilder;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException.DBErrorState;
+import org.sammelbox.model.database.operations.AlbumStatisticsCatalog.StoredItemValues;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,6 +58,9 @@ public final class UpdateOperations {
 	private static final int NEW_ALBUM_TABLE_NAME_PARAM_INDEX = 2;
 	private static final int PICTURE_ALBUM_FLAG_PARAM_INDEX = 3;
 	private static final int OLD_ALBUM_NAME_PARAM_INDEX = 4;
+	private static final int CHANGE_VERSION_PARAM_INDEX = 4;
+	/** The number of content versions which are read at once while they are transformed into another row format */
+	private static final int CONTENT_VERSION_CONVERSION_BATCH_SIZE = 10000;
 	
 	private UpdateOperations() {
 		// use static methods
@@ -90,7 +99,10 @@ public final class UpdateOperations {
 			
 			// Change the entry in the album master table. OptionType.UNKNOWN indicates no change of the picture storing 
 			updateAlbumInAlbumMasterTable(oldAlbumName, newAlbumName, OptionType.UNKNOWN);			
+			// The sort index is named after the album
+			CreateOperations.ensureSortIndex(newAlbumName);
 	
+			AlbumChangeVersions.increment(newAlbumName);
 			DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
 		} catch (DatabaseWrapperOperationException e) {
 			if (e.getErrorState().equals(DBErrorState.ERROR_DIRTY_STATE)) {
@@ -119,6 +131,8 @@ public final class UpdateOperations {
 
 		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(renameTableSQLString);) {
 			preparedStatement.executeUpdate();
+			AlbumSchemaCatalog.invalidate(oldTableName);
+			AlbumSchemaCatalog.invalidate(newTableName);
 		} catch (SQLException e) {
 			success = false;
 		}
@@ -141,39 +155,19 @@ public final class UpdateOperations {
 		
 		String savepointName = DatabaseIntegrityManager.createSavepoint();		
 		try {
-			// Backup the old data in java objects
-			List<AlbumItem> albumItems = QueryOperations.getAlbumItems(QueryBuilder.createSelectStarQuery(albumName));
-
-			// Create the new table pointing to new typeinfo
-			boolean hasPictureField = QueryOperations.isPictureAlbum(albumName);
 			List<MetaItemField> newFields = QueryOperations.getAlbumItemFieldNamesAndTypes(albumName);
+			List<String> sourceFieldNames = getFieldNames(newFields);
 			newFields = renameFieldInMetaItemList(oldMetaItemField, newMetaItemField, newFields);
-		
-			// Drop old tables
-			DeleteOperations.removeAlbum(albumName);
-			
-			// the following three columns are automatically created by createNewAlbumTable
-			newFields = removeFieldFromMetaItemList(new MetaItemField("id", FieldType.ID), newFields);
-			newFields = removeFieldFromMetaItemList(new MetaItemField(DatabaseConstants.TYPE_INFO_COLUMN_NAME, FieldType.ID), newFields);
 
-			CreateOperations.createNewAlbumTable(newFields, albumName, 
-					DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generateTableName(albumName)), hasPictureField);	
+			// The values of the renamed field are copied from the column of the old name. The new table uses the lean row format
+			replaceAlbumTable(albumName, newFields, sourceFieldNames, DatabaseConstants.ROW_FORMAT_V2);
+			CreateOperations.ensureSortIndex(albumName);
 
-			// Restore the old data from the java objects in the new tables [rename column]
-			renameFieldInAlbumItemList(oldMetaItemField, newMetaItemField, albumItems);
-		
-			// Re-add all album items
-			for (AlbumItem albumItem : albumItems) {
-				CreateOperations.addAlbumItem(albumItem, false, false);
-			}
-			
-			rebuildIndexForTable(albumName, newFields);
+			AlbumChangeVersions.increment(albumName);
 			DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
 		} catch (DatabaseWrapperOperationException e) {
-			if (e.getErrorState().equals(DBErrorState.ERROR_DIRTY_STATE)) {
-				DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
-				throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
-			}
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
 		} finally {
 			DatabaseIntegrityManager.releaseSavepoint(savepointName);
 		}		
@@ -188,39 +182,250 @@ public final class UpdateOperations {
 
 		String savepointName = DatabaseIntegrityManager.createSavepoint();
 		try {
-			// Backup the old data in java objects
-			List<AlbumItem> albumItems = QueryOperations.getAlbumItems(QueryBuilder.createOrderedSelectStarQuery(albumName));
-			// Create the new table pointing to new typeinfo
-			boolean hasPictureField = QueryOperations.isPictureAlbum(albumName);
-			List<MetaItemField> newFields = QueryOperations.getAlbumItemFieldNamesAndTypes(albumName);
-			newFields = reorderFieldInMetaItemList(metaItemField, preceedingField, newFields);
+			List<MetaItemField> displayedFields = QueryOperations.getAlbumItemFieldNamesAndTypes(albumName);
+			displayedFields = reorderFieldInMetaItemList(metaItemField, preceedingField, displayedFields);
 
-			// Drop old tables
-			DeleteOperations.removeAlbum(albumName);
+			// Only the display order is stored, the album table itself is left untouched
+			updateFieldOrderInAlbumMasterTable(albumName, displayedFields);
 
-			// Create the new table pointing to new typeinfo
-			CreateOperations.createNewAlbumTable(newFields, albumName, 
-					DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generateTableName(albumName)), hasPictureField);
-
-			// Restore the old data from the temporary tables in the new tables [reorder column]
-			List<AlbumItem> newAlbumItems = reorderFieldInAlbumItemList(metaItemField, preceedingField, albumItems);
-			// replace the empty picField with the saved raw PicField 
-			for (AlbumItem albumItem : newAlbumItems) {
-				albumItem.setAlbumName(albumName);
-				CreateOperations.addAlbumItem(albumItem, false, false);				
-			}
+			AlbumChangeVersions.increment(albumName);
+			updateSchemaVersion(albumName);
+			// The first field might have changed, by which the items are sorted by default
+			CreateOperations.ensureSortIndex(albumName);
+			DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
+		} catch (DatabaseWrapperOperationException e) {
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		} finally {
+			DatabaseIntegrityManager.releaseSavepoint(savepointName);
+		}
+	}
 
-			rebuildIndexForTable(albumName, newFields);
+	/**
+	 * Migrates the table of an album into the given row format. The album keeps its items, content versions, pictures and the 
+	 * display order of its fields. Until an album is migrated, its items are read and written in its current row format.
+	 * @param albumName The name of the album to be migrated.
+	 * @param rowFormat {@link DatabaseConstants#ROW_FORMAT_V1} or {@link DatabaseConstants#ROW_FORMAT_V2}.
+	 * @return True if the album has been migrated, false if it already was in the given row format.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	static boolean changeRowFormat(String albumName, int rowFormat) throws DatabaseWrapperOperationException {
+		if (rowFormat != DatabaseConstants.ROW_FORMAT_V1 && rowFormat != DatabaseConstants.ROW_FORMAT_V2) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, "The row format " + rowFormat + " is unknown");
+		}
+		
+		if (AlbumSchemaCatalog.getRowFormat(albumName) == rowFormat) {
+			return false;
+		}
+		
+		String savepointName = DatabaseIntegrityManager.createSavepoint();
+		try {
+			List<MetaItemField> fields = AlbumSchemaCatalog.getFieldsInColumnOrder(albumName);
+			List<MetaItemField> displayedFields = AlbumSchemaCatalog.getFieldsInDisplayOrder(albumName);
+			
+			replaceAlbumTable(albumName, fields, getFieldNames(fields), rowFormat);
+			// The fields keep their columns, hence the display order can be stored once more
+			updateFieldOrderInAlbumMasterTable(albumName, displayedFields);
+			CreateOperations.ensureSortIndex(albumName);
+			
+			AlbumChangeVersions.increment(albumName);
 			DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
+			return true;
 		} catch (DatabaseWrapperOperationException e) {
-			if (e.getErrorState().equals(DBErrorState.ERROR_DIRTY_STATE)) {
-				DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
-				throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		} finally {
+			DatabaseIntegrityManager.releaseSavepoint(savepointName);
+		}
+	}
+
+	/**
+	 * Migrates all albums stored in the row format v1 into the lean row format, each within its own savepoint. 
+	 * Albums which cannot be migrated are logged and remain in the row format v1.
+	 * @return The number of albums which have been migrated.
+	 * @throws DatabaseWrapperOperationException If the albums could not be listed.
+	 */
+	static int migrateToLeanRowFormat() throws DatabaseWrapperOperationException {
+		int numberOfMigratedAlbums = 0;
+		
+		for (String albumName : QueryOperations.getListOfAllAlbums()) {
+			try {
+				if (changeRowFormat(albumName, DatabaseConstants.ROW_FORMAT_V2)) {
+					numberOfMigratedAlbums++;
+				}
+			} catch (DatabaseWrapperOperationException ex) {
+				LOGGER.error("The album " + albumName + " could not be migrated into the lean row format", ex);
 			}
+		}
+		
+		return numberOfMigratedAlbums;
+	}
+	
+	/**
+	 * Brings the sort index of the album up to date with its sort field, e.g. after another sort field has been chosen.
+	 * Neither the fields nor the items of the album change, hence its change version is kept.
+	 * @param albumName The name of the album.
+	 * @return True if the sort index has been changed, false if it already was up to date.
+	 * @throws DatabaseWrapperOperationException If the sort index could not be changed. In this case the album is left untouched.
+	 */
+	static boolean updateSortIndex(String albumName) throws DatabaseWrapperOperationException {
+		String savepointName = DatabaseIntegrityManager.createSavepoint();
+		try {
+			if (!CreateOperations.ensureSortIndex(albumName)) {
+				return false;
+			}
+			
+			DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
+			return true;
+		} catch (DatabaseWrapperOperationException e) {
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
 		} finally {
 			DatabaseIntegrityManager.releaseSavepoint(savepointName);
 		}
 	}
+	
+	/**
+	 * Brings the sort indices of all albums up to date, each within its own savepoint. Albums whose sort index cannot be
+	 * changed are logged and remain readable, since their pages are sorted without index.
+	 * @return The number of albums whose sort index has been changed.
+	 * @throws DatabaseWrapperOperationException If the albums could not be listed.
+	 */
+	static int updateSortIndices() throws DatabaseWrapperOperationException {
+		int numberOfUpdatedAlbums = 0;
+		
+		for (String albumName : QueryOperations.getListOfAllAlbums()) {
+			try {
+				if (updateSortIndex(albumName)) {
+					numberOfUpdatedAlbums++;
+				}
+			} catch (DatabaseWrapperOperationException ex) {
+				LOGGER.error("The sort index of the album " + albumName + " could not be updated", ex);
+			}
+		}
+		
+		return numberOfUpdatedAlbums;
+	}
+
+	/**
+	 * Replaces the table of an album by a table consisting of the given fields. Instead of loading the album items and adding them 
+	 * again, the items are copied from the old to the new table by a single INSERT INTO ... SELECT statement. Thus, the ids, 
+	 * content versions and pictures of the items are kept and no item has to be loaded. The type information and the quicksearch 
+	 * index are recreated for the new fields. Since the new table holds the fields in the given order, a stored display order
+	 * is reset. Options and content versions are transformed if the new table has another row format than the old one.
+	 * Must be called within the savepoint of the operation altering the album.
+	 * @param albumName The name of the album whose table is replaced.
+	 * @param newFields The fields of the new table in their new order, without the internal id, type info and content version columns.
+	 * @param sourceFieldNames The names of the fields of the old table from which the values of the new fields are copied, 
+	 * in the order of the new fields.
+	 * @param rowFormat The row format of the new table.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	static void replaceAlbumTable(String albumName, List<MetaItemField> newFields, List<String> sourceFieldNames, int rowFormat) 
+			throws DatabaseWrapperOperationException {
+		boolean hasPictures = QueryOperations.isPictureAlbum(albumName);
+		int sourceRowFormat = AlbumSchemaCatalog.getRowFormat(albumName);
+		String tableName = DatabaseStringUtilities.generateTableName(albumName);
+		String typeInfoTableName = DatabaseStringUtilities.generateTypeInfoTableName(albumName);
+		String replacedTableName = DatabaseStringUtilities.encloseNameWithQuotes(tableName + DatabaseConstants.REPLACED_TABLE_SUFFIX);
+		String replacedTypeInfoTableName = DatabaseStringUtilities.encloseNameWithQuotes(typeInfoTableName + DatabaseConstants.REPLACED_TABLE_SUFFIX);
+		
+		// The quicksearch and full text indices of the old table would block the names of the indices of the new table
+		DeleteOperations.dropIndex(albumName);
+		
+		try (Statement statement = ConnectionManager.getConnection().createStatement()) {
+			// Renaming the type info table updates the foreign key of the renamed album table
+			statement.executeUpdate("ALTER TABLE " + DatabaseStringUtilities.encloseNameWithQuotes(tableName) + " RENAME TO " + replacedTableName);
+			statement.executeUpdate("ALTER TABLE " + DatabaseStringUtilities.encloseNameWithQuotes(typeInfoTableName) + " RENAME TO " + replacedTypeInfoTableName);
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
+		}
+		
+		removeAlbumFromAlbumMasterTable(albumName);
+		CreateOperations.createNewAlbumTable(newFields, albumName, DatabaseStringUtilities.encloseNameWithQuotes(tableName), hasPictures, rowFormat);
+		
+		StringBuilder newColumns = new StringBuilder("id");
+		StringBuilder sourceColumns = new StringBuilder("id");
+		for (int i=0; i<newFields.size(); i++) {
+			String sourceColumn = DatabaseStringUtilities.transformColumnNameToSelectQueryName(sourceFieldNames.get(i));
+			if (newFields.get(i).getType() == FieldType.OPTION && sourceRowFormat != rowFormat) {
+				sourceColumn = rowFormat == DatabaseConstants.ROW_FORMAT_V1 ? 
+						QueryBuilder.createOptionNameExpression(sourceColumn) : HelperOperations.createOptionValueExpression(sourceColumn);
+			}
+			
+			newColumns.append(", ").append(DatabaseStringUtilities.encloseNameWithQuotes(newFields.get(i).getName()));
+			sourceColumns.append(", ").append(sourceColumn);
+		}
+		newColumns.append(", ").append(DatabaseConstants.CONTENT_VERSION_COLUMN_NAME);
+		sourceColumns.append(", ").append(DatabaseConstants.CONTENT_VERSION_COLUMN_NAME);
+		if (rowFormat == DatabaseConstants.ROW_FORMAT_V1) {
+			newColumns.append(", ").append(DatabaseConstants.TYPE_INFO_COLUMN_NAME);
+			sourceColumns.append(", ").append(DatabaseConstants.TYPE_INFO_FOREIGN_KEY);
+		}
+		
+		try (Statement statement = ConnectionManager.getConnection().createStatement()) {
+			statement.executeUpdate("INSERT INTO " + DatabaseStringUtilities.encloseNameWithQuotes(tableName) + " (" + newColumns + ")" +
+					" SELECT " + sourceColumns + " FROM " + replacedTableName);
+			if (sourceRowFormat != rowFormat) {
+				convertContentVersions(tableName, rowFormat);
+			}
+			statement.executeUpdate("DROP TABLE " + replacedTableName);
+			statement.executeUpdate("DROP TABLE " + replacedTypeInfoTableName);
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
+		}
+		
+		AlbumSchemaCatalog.invalidate(albumName);
+		rebuildIndexForTable(albumName, newFields);
+	}
+	
+	/** Transforms the copied content versions of all items of an album table into the representation of the given row format */
+	private static void convertContentVersions(String tableName, int rowFormat) throws SQLException {
+		String quotedTableName = DatabaseStringUtilities.encloseNameWithQuotes(tableName);
+		String selectQuery = "SELECT id, " + DatabaseConstants.CONTENT_VERSION_COLUMN_NAME + " FROM " + quotedTableName + 
+				" WHERE id > ? ORDER BY id LIMIT " + CONTENT_VERSION_CONVERSION_BATCH_SIZE;
+		String updateQuery = "UPDATE " + quotedTableName + " SET " + DatabaseConstants.CONTENT_VERSION_COLUMN_NAME + " = ? WHERE id = ?";
+		
+		try (PreparedStatement selectStatement = ConnectionManager.getConnection().prepareStatement(selectQuery);
+			 PreparedStatement updateStatement = ConnectionManager.getConnection().prepareStatement(updateQuery)) {
+			long lastId = Long.MIN_VALUE;
+			int numberOfItems;
+			
+			// The items are read in batches, such that the table is not changed while it is read
+			do {
+				List<Long> ids = new ArrayList<Long>();
+				List<UUID> contentVersions = new ArrayList<UUID>();
+				selectStatement.setLong(1, lastId);
+				
+				try (ResultSet resultSet = selectStatement.executeQuery()) {
+					while (resultSet.next()) {
+						ids.add(resultSet.getLong(1));
+						contentVersions.add(HelperOperations.toUuid(resultSet.getObject(2)));
+					}
+				}
+				
+				numberOfItems = ids.size();
+				for (int i=0; i<numberOfItems; i++) {
+					if (contentVersions.get(i) != null) {
+						HelperOperations.setContentVersionToPreparedStatement(updateStatement, 1, contentVersions.get(i), rowFormat);
+						updateStatement.setLong(2, ids.get(i));
+						updateStatement.addBatch();
+					}
+					lastId = ids.get(i);
+				}
+				updateStatement.executeBatch();
+			} while (numberOfItems == CONTENT_VERSION_CONVERSION_BATCH_SIZE);
+		}
+	}
+	
+	/** Returns the names of the given fields in the same order */
+	static List<String> getFieldNames(List<MetaItemField> fields) {
+		List<String> fieldNames = new ArrayList<String>();
+		for (MetaItemField field : fields) {
+			fieldNames.add(field.getName());
+		}
+		return fieldNames;
+	}
 
 	static void updateQuickSearchable(String albumName, MetaItemField metaItemField) throws DatabaseWrapperOperationException {
 		String savepointName = DatabaseIntegrityManager.createSavepoint();
@@ -240,6 +445,7 @@ public final class UpdateOperations {
 			DeleteOperations.dropIndex(albumName);
 			CreateOperations.createIndex(albumName, quickSearchableColumnNames);
 			
+			AlbumChangeVersions.increment(albumName);
 			updateSchemaVersion(albumName);
 			DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
 		} catch (DatabaseWrapperOperationException dwoe) {
@@ -305,37 +511,6 @@ public final class UpdateOperations {
 		return newFieldList; 
 	}
 	
-	/**
-	 * Renames a field in all the album items in the list. Returns the result in a new list.
-	 * @param oldMetaItemField The metaItemField to be renamed.
-	 * @param newMetaItemField The metaItemField containing the new name.
-	 * @param albumList The list of album items whose field is to be renamed.
-	 * @return The new list of album items.
-	 */
-	private static List<AlbumItem> renameFieldInAlbumItemList(MetaItemField oldMetaItemField, MetaItemField newMetaItemField, final List<AlbumItem> albumList) {
-		List<AlbumItem> newAlbumItemList = albumList;
-		for (AlbumItem albumItem: newAlbumItemList) {
-			albumItem.renameField(oldMetaItemField, newMetaItemField);
-		}
-		return newAlbumItemList; 
-	}
-
-	/**
-	 * Moves a field of an album item to a new position. Returns the result in a new list. 
-	 * @param metaItemField The field to be moved.
-	 * @param precedingField The field which will precede the specified item after the reordering. If null the item will be moved to the top
-	 * of the list. 
-	 * @param albumList The list of album items in their original ordering.
-	 * @return The list of album items in their new order. Content remains untouched.
-	 */
-	private static List<AlbumItem> reorderFieldInAlbumItemList(MetaItemField metaItemField, MetaItemField precedingField, final List<AlbumItem> albumList) {
-		List<AlbumItem> newAlbumItemList = albumList;
-		for (AlbumItem albumItem: newAlbumItemList) {
-			albumItem.reorderField(metaItemField, precedingField);
-		}
-		return newAlbumItemList; 
-	}
-	
 	static void appendNewAlbumField(String albumName, MetaItemField metaItemField) throws DatabaseWrapperOperationException {
 		if (metaItemField == null || metaItemField.getType().equals(FieldType.ID) 
 				|| !QueryOperations.isItemFieldNameAvailable(albumName, metaItemField.getName())) {
@@ -345,6 +520,7 @@ public final class UpdateOperations {
 		String savepointName = DatabaseIntegrityManager.createSavepoint();
 		try {
 			appendNewTableColumn(albumName, metaItemField);
+			AlbumChangeVersions.increment(albumName);
 			DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
 		} catch (DatabaseWrapperOperationException dwoe) {
 			if (dwoe.getErrorState().equals(DBErrorState.ERROR_DIRTY_STATE)) {
@@ -365,6 +541,11 @@ public final class UpdateOperations {
 	 * @throws DatabaseWrapperOperationException 
 	 */
 	private static void appendNewTableColumn(String albumName, MetaItemField metaItemField) throws DatabaseWrapperOperationException {
+		// Albums in the row format v1 store all appended columns as text
+		int rowFormat = AlbumSchemaCatalog.getRowFormat(albumName);
+		String columnType = rowFormat == DatabaseConstants.ROW_FORMAT_V1 ? 
+				FieldType.TEXT.toDatabaseTypeString() : HelperOperations.toDatabaseTypeString(metaItemField.getType(), rowFormat);
+		
 		// Prepare the append column string for the main table.
 		StringBuilder sb = new StringBuilder("ALTER TABLE ");
 		sb.append(DatabaseStringUtilities.encloseNameWithQuotes(
@@ -372,7 +553,7 @@ public final class UpdateOperations {
 		sb.append(" ADD COLUMN ");
 		sb.append(DatabaseStringUtilities.encloseNameWithQuotes(metaItemField.getName()));
 		sb.append(" ");
-		sb.append(FieldType.TEXT.toDatabaseTypeString());
+		sb.append(columnType);
 
 		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(sb.toString())) {
 			preparedStatement.executeUpdate();
@@ -380,7 +561,7 @@ public final class UpdateOperations {
 			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
 		}
 
-		updateTableColumnWithDefaultValue(DatabaseStringUtilities.generateTableName(albumName), metaItemField);
+		updateTableColumnWithDefaultValue(DatabaseStringUtilities.generateTableName(albumName), metaItemField, rowFormat);
 
 		// Append and update column for type table.
 		appendNewTypeInfoTableColumn(albumName, metaItemField);
@@ -402,6 +583,8 @@ public final class UpdateOperations {
 				updateAlbumInAlbumMasterTable(albumName, albumName, OptionType.NO);
 				DeleteOperations.clearPictureTable(albumName);
 			}
+			
+			AlbumChangeVersions.increment(albumName);
 		} catch ( DatabaseWrapperOperationException e) {
 			if (e.getErrorState().equals(DBErrorState.ERROR_DIRTY_STATE)) {
 				DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
@@ -536,6 +719,11 @@ public final class UpdateOperations {
 		}
 	}
 	
+	/**
+	 * Updates an item. If the changes of the item are tracked (see {@link AlbumItem#markAsStored()}), only the changed fields
+	 * are written, the pictures are only rewritten if they have been set, and the update fails if the item has been changed
+	 * or removed since it has been read. Otherwise, all fields and pictures are written.
+	 */
 	static void updateAlbumItem(AlbumItem albumItem) throws DatabaseWrapperOperationException {
 		
 		// Updating items with no fields results in query with no arguments in the SET part of the query
@@ -556,87 +744,264 @@ public final class UpdateOperations {
 			LOGGER.error("The album item {} which should be updated has no id field", albumItem);
 			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE);
 		}
+		
+		List<ItemField> changedFields = new ArrayList<ItemField>();
+		for (ItemField itemField : albumItem.getChangedFields()) {
+			if (isUpdatedAsItemField(itemField)) {
+				changedFields.add(itemField);
+			}
+		}
+		
+		boolean picturesChanged = albumItem.arePicturesChanged();
+		if (changedFields.isEmpty() && !picturesChanged) {
+			return;
+		}
+		
+		// Tracked items are only updated if nobody else changed them since they have been read
+		UUID expectedContentVersion = albumItem.isChangeTracked() ? albumItem.getContentVersion() : null;
+		UUID newContentVersion = UUID.randomUUID();
 
-		// Build the string with place-holders '?'
+		// Build the string with place-holders '?'. The content version is replaced within the same statement
 		StringBuilder sb = new StringBuilder("UPDATE ");
 		sb.append(DatabaseStringUtilities.encloseNameWithQuotes(
 				DatabaseStringUtilities.generateTableName(albumItem.getAlbumName())));
 		sb.append(" SET ");
 
-		// Add each field to be update by the query
-		Iterator<ItemField> it = albumItem.getFields().iterator();
-		boolean firstAppended = true;
-		while (it.hasNext()) {
-			ItemField next = it.next();
-			// Exclude the id and fid fields
-			if (!next.getType().equals(FieldType.ID)){
-				if (!firstAppended) {
-					sb.append(", ");
-
-				}
-				sb.append(DatabaseStringUtilities.encloseNameWithQuotes(next.getName()));
-				sb.append("=? ");
-				firstAppended = false;				
-			}
-
+		for (ItemField changedField : changedFields) {
+			sb.append(DatabaseStringUtilities.encloseNameWithQuotes(changedField.getName()));
+			sb.append("=?, ");
+		}
+		sb.append(DatabaseConstants.CONTENT_VERSION_COLUMN_NAME);
+		sb.append("=? WHERE id=?");
+		if (expectedContentVersion != null) {
+			sb.append(" AND ");
+			sb.append(DatabaseConstants.CONTENT_VERSION_COLUMN_NAME);
+			sb.append("=?");
 		}
-		sb.append("WHERE id=?");
 		
 		String savepointName =  DatabaseIntegrityManager.createSavepoint();		
 		
 		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(sb.toString())) {
+			int rowFormat = AlbumSchemaCatalog.getRowFormat(albumItem.getAlbumName());
+			
 			// Replace the wildcards
-			int parameterIndex = 1;
-			for (ItemField next : albumItem.getFields()) {
-				// Exclude the id and id fields
-				if (!next.getType().equals(FieldType.ID)){
-					HelperOperations.setValueToPreparedStatement(preparedStatement, parameterIndex, next, albumItem.getAlbumName());
-					parameterIndex++;
-				}
+			int parameterIndex = FIRST_PARAM_INDEX;
+			for (ItemField changedField : changedFields) {
+				HelperOperations.setValueToPreparedStatement(preparedStatement, parameterIndex++, changedField, albumItem.getAlbumName());
 			}
+			HelperOperations.setContentVersionToPreparedStatement(preparedStatement, parameterIndex++, newContentVersion, rowFormat);
 
 			// Replace wildcard char '?' in WHERE id=? clause
 			Long id = idField.getValue();
-			preparedStatement.setString(parameterIndex, id.toString());
-			preparedStatement.executeUpdate();
+			preparedStatement.setString(parameterIndex++, id.toString());
+			if (expectedContentVersion != null) {
+				HelperOperations.setContentVersionToPreparedStatement(preparedStatement, parameterIndex, expectedContentVersion, rowFormat);
+			}
+			
+			StoredItemValues valuesBeforeUpdate = AlbumStatisticsCatalog.readStoredItemValues(albumItem.getAlbumName(), id);
+			if (preparedStatement.executeUpdate() == 0 && expectedContentVersion != null) {
+				throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, 
+						"The album item " + id + " has been changed or removed since it has been read");
+			}
 
-			// Get those physical picture files that are currently still referenced
-			List<AlbumItemPicture> picturesBeforeUpdate = QueryOperations.getAlbumItemPictures(albumItem.getAlbumName(), albumItem.getItemId());
+			if (picturesChanged) {
+				updateAlbumItemPictures(albumItem);
+			}
 			
-			// Remove those physical pictures that are no longer needed. However, the table records will remain for the moment
-			for (AlbumItemPicture stillReferencedPicture : picturesBeforeUpdate) {
-				boolean pictureIsNoLongerNeeded = true;
-				
-				for (AlbumItemPicture albumItemPicture : albumItem.getPictures()) {
-					if (stillReferencedPicture.getOriginalPictureName().equals(albumItemPicture.getOriginalPictureName())) {
-						pictureIsNoLongerNeeded = false;
-					}
+			AlbumChangeVersions.increment(albumItem.getAlbumName());
+			AlbumStatisticsCatalog.itemUpdated(albumItem.getAlbumName(), id, valuesBeforeUpdate);
+			DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
+		} catch (DatabaseWrapperOperationException e) {
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		} catch (SQLException e) {
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		} finally {
+			DatabaseIntegrityManager.releaseSavepoint(savepointName);
+		}
+		
+		// The item now reflects the stored item again, such that it can be changed and updated once more
+		albumItem.setContentVersion(newContentVersion);
+		if (albumItem.isChangeTracked()) {
+			albumItem.markAsStored();
+		}
+	}
+	
+	/** Replaces the stored pictures of the item by its current pictures, deleting the files of the pictures which are no longer referenced */
+	private static void updateAlbumItemPictures(AlbumItem albumItem) throws DatabaseWrapperOperationException {
+		// Get those physical picture files that are currently still referenced
+		List<AlbumItemPicture> picturesBeforeUpdate = QueryOperations.getAlbumItemPictures(albumItem.getAlbumName(), albumItem.getItemId());
+		
+		// Remove those physical pictures that are no longer needed. However, the table records will remain for the moment
+		for (AlbumItemPicture stillReferencedPicture : picturesBeforeUpdate) {
+			boolean pictureIsNoLongerNeeded = true;
+			
+			for (AlbumItemPicture albumItemPicture : albumItem.getPictures()) {
+				if (stillReferencedPicture.getOriginalPictureName().equals(albumItemPicture.getOriginalPictureName())) {
+					pictureIsNoLongerNeeded = false;
 				}
+			}
+			
+			if (pictureIsNoLongerNeeded) {
+				FileSystemAccessWrapper.deleteFile(stillReferencedPicture.getThumbnailPicturePath());
+				FileSystemAccessWrapper.deleteFile(stillReferencedPicture.getOriginalPicturePath());
+			}
+		}
+		
+		// Update picture table by first deleting all pictures for this album item, and then rewriting the references
+		DeleteOperations.removeAllPicturesForAlbumItemFromPictureTable(albumItem);
+		for (AlbumItemPicture albumItemPicture : albumItem.getPictures()) {				
+			albumItemPicture.setAlbumItemID(albumItem.getItemId());
+			CreateOperations.addAlbumItemPicture(albumItemPicture);
+		}
+	}
+	
+	/**
+	 * Updates the fields of several items within a single transaction. Items of the same album with the same fields are
+	 * updated as one batch. Unlike {@link #updateAlbumItem(AlbumItem)}, the pictures of the items are left untouched.
+	 * Either all items are updated or none.
+	 */
+	static void updateAlbumItemFields(List<AlbumItem> albumItems) throws DatabaseWrapperOperationException {
+		for (AlbumItem albumItem : albumItems) {
+			if (albumItem.getAlbumName().isEmpty()) {
+				LOGGER.error("Album item {} has no albumName", albumItem);
+				throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE);
+			}
+			
+			if (albumItem.getItemId() <= AlbumItem.ITEM_ID_UNDEFINED) {
+				LOGGER.error("The album item {} which should be updated has no id", albumItem);
+				throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE);
+			}
+		}
+		
+		if (albumItems.isEmpty()) {
+			return;
+		}
+		
+		String savepointName = DatabaseIntegrityManager.createSavepoint();
+		
+		try {
+			// Group the items by their update statement, i.e. by album and fields
+			Map<String, List<AlbumItem>> albumItemsByUpdateStatement = new LinkedHashMap<String, List<AlbumItem>>();
+			Map<String, List<AlbumItem>> albumItemsByAlbum = new LinkedHashMap<String, List<AlbumItem>>();
+			for (AlbumItem albumItem : albumItems) {
+				addToGroup(albumItemsByUpdateStatement, createBatchUpdateString(albumItem), albumItem);
+				addToGroup(albumItemsByAlbum, albumItem.getAlbumName(), albumItem);
+			}
+			
+			// Statistics are maintained for single items only. After larger batches, aggregating them again is cheaper
+			StoredItemValues valuesBeforeUpdate = null;
+			if (albumItems.size() == 1) {
+				valuesBeforeUpdate = AlbumStatisticsCatalog.readStoredItemValues(albumItems.get(0).getAlbumName(), albumItems.get(0).getItemId());
+			}
+			
+			for (Map.Entry<String, List<AlbumItem>> group : albumItemsByUpdateStatement.entrySet()) {
+				int rowFormat = AlbumSchemaCatalog.getRowFormat(group.getValue().get(0).getAlbumName());
 				
-				if (pictureIsNoLongerNeeded) {
-					FileSystemAccessWrapper.deleteFile(stillReferencedPicture.getThumbnailPicturePath());
-					FileSystemAccessWrapper.deleteFile(stillReferencedPicture.getOriginalPicturePath());
+				try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(group.getKey())) {
+					for (AlbumItem albumItem : group.getValue()) {
+						int parameterIndex = FIRST_PARAM_INDEX;
+						for (ItemField itemField : albumItem.getFields()) {
+							if (isUpdatedAsItemField(itemField)) {
+								HelperOperations.setValueToPreparedStatement(preparedStatement, parameterIndex++, itemField, albumItem.getAlbumName());
+							}
+						}
+						HelperOperations.setContentVersionToPreparedStatement(preparedStatement, parameterIndex++, UUID.randomUUID(), rowFormat);
+						preparedStatement.setLong(parameterIndex, albumItem.getItemId());
+						preparedStatement.addBatch();
+					}
+					
+					preparedStatement.executeBatch();
 				}
 			}
 			
-			// Update picture table by first deleting all pictures for this album item, and then rewriting the references
-			DeleteOperations.removeAllPicturesForAlbumItemFromPictureTable(albumItem);
-			for (AlbumItemPicture albumItemPicture : albumItem.getPictures()) {				
-				albumItemPicture.setAlbumItemID(albumItem.getItemId());
-				CreateOperations.addAlbumItemPicture(albumItemPicture);
+			for (String albumName : albumItemsByAlbum.keySet()) {
+				AlbumChangeVersions.increment(albumName);
+			}
+			
+			if (albumItems.size() == 1) {
+				AlbumStatisticsCatalog.itemUpdated(albumItems.get(0).getAlbumName(), albumItems.get(0).getItemId(), valuesBeforeUpdate);
 			}
 			
-			updateContentVersion(albumItem.getAlbumName(), id, UUID.randomUUID());
 			DatabaseIntegrityManager.updateLastDatabaseChangeTimeStamp();
+		} catch (SQLException e) {
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
 		} catch (DatabaseWrapperOperationException e) {
-			if (e.getErrorState().equals(DBErrorState.ERROR_DIRTY_STATE)) {
-				DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
+		} finally {
+			DatabaseIntegrityManager.releaseSavepoint(savepointName);
+		}
+	}
+	
+	/**
+	 * Adds, updates and removes items within a single transaction. Either all changes are applied or none.
+	 * @return The ids of the added items, in the order of the added items.
+	 */
+	static List<Long> applyAlbumItemChanges(List<AlbumItem> addedAlbumItems, List<AlbumItem> updatedAlbumItems, 
+			List<AlbumItem> removedAlbumItems) throws DatabaseWrapperOperationException {
+		String savepointName = DatabaseIntegrityManager.createSavepoint();
+		
+		try {
+			List<Long> idsOfAddedItems = CreateOperations.addAlbumItems(addedAlbumItems, true, true);
+			updateAlbumItemFields(updatedAlbumItems);
+			
+			Map<String, List<AlbumItem>> removedAlbumItemsByAlbum = new LinkedHashMap<String, List<AlbumItem>>();
+			for (AlbumItem removedAlbumItem : removedAlbumItems) {
+				addToGroup(removedAlbumItemsByAlbum, removedAlbumItem.getAlbumName(), removedAlbumItem);
 			}
-		} catch (SQLException e) {
-			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);			
+			for (Map.Entry<String, List<AlbumItem>> albumGroup : removedAlbumItemsByAlbum.entrySet()) {
+				List<Long> removedAlbumItemIds = new ArrayList<Long>();
+				for (AlbumItem removedAlbumItem : albumGroup.getValue()) {
+					removedAlbumItemIds.add(removedAlbumItem.getItemId());
+				}
+				DeleteOperations.deleteAlbumItems(albumGroup.getKey(), removedAlbumItemIds);
+			}
+			
+			return idsOfAddedItems;
+		} catch (DatabaseWrapperOperationException e) {
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_CLEAN_STATE, e);
 		} finally {
 			DatabaseIntegrityManager.releaseSavepoint(savepointName);
-		}		
+		}
+	}
+	
+	/** Builds the update statement of an item with the fields, the content version and the id as parameters */
+	private static String createBatchUpdateString(AlbumItem albumItem) {
+		StringBuilder sb = new StringBuilder("UPDATE ");
+		sb.append(DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generateTableName(albumItem.getAlbumName())));
+		sb.append(" SET ");
+		
+		for (ItemField itemField : albumItem.getFields()) {
+			if (isUpdatedAsItemField(itemField)) {
+				sb.append(DatabaseStringUtilities.encloseNameWithQuotes(itemField.getName()));
+				sb.append(" = ?, ");
+			}
+		}
+		
+		sb.append(DatabaseConstants.CONTENT_VERSION_COLUMN_NAME);
+		sb.append(" = ? WHERE id = ?");
+		
+		return sb.toString();
+	}
+	
+	/** Returns false for the fields whose columns are set explicitly by the batch update or must not be changed */
+	private static boolean isUpdatedAsItemField(ItemField itemField) {
+		return !itemField.getType().equals(FieldType.ID) 
+				&& !itemField.getName().equalsIgnoreCase(DatabaseConstants.TYPE_INFO_COLUMN_NAME)
+				&& !itemField.getName().equalsIgnoreCase(DatabaseConstants.CONTENT_VERSION_COLUMN_NAME);
+	}
+	
+	private static void addToGroup(Map<String, List<AlbumItem>> groups, String groupKey, AlbumItem albumItem) {
+		List<AlbumItem> group = groups.get(groupKey);
+		if (group == null) {
+			group = new ArrayList<AlbumItem>();
+			groups.put(groupKey, group);
+		}
+		group.add(albumItem);
 	}
 	
 	static void updateContentVersion(String albumName, long itemID, UUID newUuid) throws DatabaseWrapperOperationException {	
@@ -650,9 +1015,12 @@ public final class UpdateOperations {
 		sb.append("WHERE id = ?");
 		
 		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(sb.toString())){			
-			preparedStatement.setString(1, newUuid.toString());
+			HelperOperations.setContentVersionToPreparedStatement(preparedStatement, 1, newUuid, AlbumSchemaCatalog.getRowFormat(albumName));
 			preparedStatement.setLong(2, itemID);
 			preparedStatement.executeUpdate();
+		} catch (DatabaseWrapperOperationException e) {
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			throw e;
 		} catch (SQLException sqlEx) {
 			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
 			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, sqlEx);
@@ -674,6 +1042,7 @@ public final class UpdateOperations {
 		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(sb.toString())) {		
 			preparedStatement.setString(1, UUID.randomUUID().toString());
 			preparedStatement.executeUpdate();
+			AlbumSchemaCatalog.invalidate(albumName);
 		} catch (SQLException sqlEx) {
 			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
 			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, sqlEx);
@@ -686,9 +1055,11 @@ public final class UpdateOperations {
 	 * Updates a table entry with a default value for the specific type of that column.
 	 * @param tableName The name of the table which will be updated.
 	 * @param columnMetaInfo The metadata specifying the name and type of the column entry to be updated.
+	 * @param rowFormat The row format of the table.
 	 * @throws DatabaseWrapperOperationException 
 	 */
-	private static void updateTableColumnWithDefaultValue(String tableName, MetaItemField columnMetaInfo) throws DatabaseWrapperOperationException {		
+	private static void updateTableColumnWithDefaultValue(String tableName, MetaItemField columnMetaInfo, int rowFormat) 
+			throws DatabaseWrapperOperationException {		
 		String sqlString = " UPDATE " + tableName + 
 						   " SET " + DatabaseStringUtilities.encloseNameWithQuotes(columnMetaInfo.getName()) + "=?";
 		
@@ -711,16 +1082,21 @@ public final class UpdateOperations {
 				preparedStatement.setTime(FIRST_PARAM_INDEX, (Time) columnMetaInfo.getType().getDefaultValue());
 				break;
 			case OPTION: 
-				String option = columnMetaInfo.getType().getDefaultValue().toString();
-				preparedStatement.setString(FIRST_PARAM_INDEX, option);
+				OptionType option = (OptionType) columnMetaInfo.getType().getDefaultValue();
+				if (rowFormat == DatabaseConstants.ROW_FORMAT_V1) {
+					preparedStatement.setString(FIRST_PARAM_INDEX, option.toString());
+				} else {
+					preparedStatement.setInt(FIRST_PARAM_INDEX, option.getIntegerValue());
+				}
 				break;
 			case URL: 
 				String url = columnMetaInfo.getType().getDefaultValue().toString();
 				preparedStatement.setString(FIRST_PARAM_INDEX, url);
 				break;
 			case STAR_RATING: 
-				String rating = columnMetaInfo.getType().getDefaultValue().toString();
-				preparedStatement.setString(FIRST_PARAM_INDEX, rating);
+				// Star ratings are stored by their integer value, like the star ratings of added items
+				StarRating rating = (StarRating) columnMetaInfo.getType().getDefaultValue();
+				preparedStatement.setInt(FIRST_PARAM_INDEX, rating.getIntegerValue());
 				break;
 			default:
 				break;
@@ -740,7 +1116,9 @@ public final class UpdateOperations {
 		sb.append(DatabaseConstants.ALBUM_TABLENAME_IN_ALBUM_MASTER_TABLE);		
 		sb.append(", ");
 		sb.append(DatabaseConstants.HAS_PICTURES_COLUMN_IN_ALBUM_MASTER_TABLE);
-		sb.append(") VALUES( ?, ?, ?)");
+		sb.append(", ");
+		sb.append(DatabaseConstants.CHANGE_VERSION_COLUMN_IN_ALBUM_MASTER_TABLE);
+		sb.append(") VALUES( ?, ?, ?, ?)");
 
 		String addAlbumQuery = sb.toString();
 
@@ -753,10 +1131,53 @@ public final class UpdateOperations {
 			// New album contains picture flag
 			OptionType hasPictureFlag = hasPictures ? OptionType.YES : OptionType.NO ; 
 			preparedStatement.setString(PICTURE_ALBUM_FLAG_PARAM_INDEX, hasPictureFlag.toString());
+			// A recreated album continues with the change version following the version of the removed album
+			preparedStatement.setLong(CHANGE_VERSION_PARAM_INDEX, AlbumChangeVersions.getInitialChangeVersion(albumName));
+			preparedStatement.executeUpdate();
+		} catch (SQLException e) {
+			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
+		}
+		
+		AlbumSchemaCatalog.invalidate(albumName);
+		AlbumChangeVersions.invalidateAll();
+	}
+
+	/**
+	 * Stores the order in which the fields of an album are displayed. The order is stored as the list of the column positions
+	 * of the fields, thus no album item is touched. If the display order equals the column order, no order is stored.
+	 * @param albumName The name of the album.
+	 * @param displayedFields All displayed fields of the album in their new order.
+	 * @throws DatabaseWrapperOperationException
+	 */
+	private static void updateFieldOrderInAlbumMasterTable(String albumName, List<MetaItemField> displayedFields) throws DatabaseWrapperOperationException {
+		List<String> fieldNamesInColumnOrder = getFieldNames(AlbumSchemaCatalog.getFieldsInColumnOrder(albumName));
+		StringBuilder fieldOrder = new StringBuilder();
+		boolean isColumnOrder = true;
+		
+		for (int i=0; i<displayedFields.size(); i++) {
+			int position = fieldNamesInColumnOrder.indexOf(displayedFields.get(i).getName());
+			isColumnOrder &= position == i;
+			
+			if (i > 0) {
+				fieldOrder.append(DatabaseConstants.FIELD_ORDER_SEPARATOR);
+			}
+			fieldOrder.append(position);
+		}
+		
+		String updateFieldOrderQuery = "UPDATE " + DatabaseStringUtilities.encloseNameWithQuotes(DatabaseConstants.ALBUM_MASTER_TABLE_NAME) +
+				" SET " + DatabaseConstants.FIELD_ORDER_COLUMN_IN_ALBUM_MASTER_TABLE + " = ?" +
+				" WHERE " + DatabaseConstants.ALBUMNAME_IN_ALBUM_MASTER_TABLE + " = ?";
+		CreateOperations.ensureFieldOrderColumn();
+		
+		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(updateFieldOrderQuery)) {
+			preparedStatement.setString(1, isColumnOrder ? null : fieldOrder.toString());
+			preparedStatement.setString(2, DatabaseStringUtilities.removeQuotesEnclosingName(albumName));
 			preparedStatement.executeUpdate();
 		} catch (SQLException e) {
 			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
 		}
+		
+		AlbumSchemaCatalog.invalidate(albumName);
 	}
 
 	static void removeAlbumFromAlbumMasterTable(String albumName) throws DatabaseWrapperOperationException  {
@@ -767,6 +1188,7 @@ public final class UpdateOperations {
 		sb.append(" = ?");
 
 		String unRegisterNewAlbumFromAlbumMasterableString = sb.toString();		
+		AlbumChangeVersions.rememberRemovedAlbum(albumName);
 
 		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(unRegisterNewAlbumFromAlbumMasterableString)){  			
 			// WHERE album name
@@ -775,6 +1197,9 @@ public final class UpdateOperations {
 		} catch (SQLException e) {
 			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
 		}
+		
+		AlbumSchemaCatalog.invalidate(albumName);
+		AlbumChangeVersions.invalidateAll();
 	}
 
 	/**
@@ -821,5 +1246,9 @@ public final class UpdateOperations {
 		} catch (SQLException e) {
 			throw new DatabaseWrapperOperationException(DBErrorState.ERROR_DIRTY_STATE, e);
 		}
+		
+		AlbumSchemaCatalog.invalidate(oldAlbumName);
+		AlbumSchemaCatalog.invalidate(newAlbumName);
+		AlbumChangeVersions.invalidateAll();
 	}
 }
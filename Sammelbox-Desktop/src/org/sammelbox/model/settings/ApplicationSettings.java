@@ -9,6 +9,7 @@ public class ApplicationSettings {
 	private SammelView defaultView = SammelView.DETAILED_VIEW;
 	private boolean showDebugMenu = false;
 	private boolean isFullSynchronizationEnabled = true;
+	private StorageProfile storageProfile = StorageProfile.SAFE;
 	
 	public ApplicationSettings() {}
 	
@@ -51,4 +52,12 @@ public class ApplicationSettings {
 	public boolean isFullSynchronizationEnabled() {
 		return isFullSynchronizationEnabled;
 	}
+
+	public StorageProfile getStorageProfile() {
+		return storageProfile;
+	}
+
+	public void setStorageProfile(StorageProfile storageProfile) {
+		this.storageProfile = storageProfile;
+	}
 }
\ No newline at end of file
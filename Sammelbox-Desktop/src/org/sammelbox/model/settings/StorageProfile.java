@@ -0,0 +1,117 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+
+package org.sammelbox.model.settings;
+
+import org.sammelbox.controller.i18n.DictKeys;
+import org.sammelbox.controller.i18n.Translator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The storage profiles define how SQLite stores the database, trading durability for speed. All profiles keep the
+ * database in write-ahead log mode, since the read-only connections would otherwise block the writer.
+ * <ul>
+ * <li>SAFE: Every commit is synchronized to disk. Committed changes survive a power loss.</li>
+ * <li>BALANCED: The write-ahead log is synchronized at checkpoints only. The database is never corrupted, 
+ * but the most recent commits might be lost on a power loss.</li>
+ * <li>THROUGHPUT: Nothing is synchronized to disk. A crash of the operating system or a power loss might corrupt the database.</li>
+ * </ul>
+ * The page size only applies to new databases. Memory mapped I/O is ignored by SQLite versions before 3.7.17.
+ */
+public enum StorageProfile {
+	SAFE("WAL", "FULL", 2048, 0, "FILE", 4096),
+	BALANCED("WAL", "NORMAL", 8192, 64L * 1024L * 1024L, "DEFAULT", 4096),
+	THROUGHPUT("WAL", "OFF", 32768, 256L * 1024L * 1024L, "MEMORY", 8192);
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(StorageProfile.class);
+	
+	private final String journalMode;
+	private final String synchronousMode;
+	private final int cacheSizeInKibibytes;
+	private final long memoryMappedSizeInBytes;
+	private final String tempStore;
+	private final int pageSizeInBytes;
+	
+	private StorageProfile(String journalMode, String synchronousMode, int cacheSizeInKibibytes, 
+			long memoryMappedSizeInBytes, String tempStore, int pageSizeInBytes) {
+		this.journalMode = journalMode;
+		this.synchronousMode = synchronousMode;
+		this.cacheSizeInKibibytes = cacheSizeInKibibytes;
+		this.memoryMappedSizeInBytes = memoryMappedSizeInBytes;
+		this.tempStore = tempStore;
+		this.pageSizeInBytes = pageSizeInBytes;
+	}
+	
+	/** Returns the value of the journal_mode pragma */
+	public String getJournalMode() {
+		return journalMode;
+	}
+	
+	/** Returns the value of the synchronous pragma */
+	public String getSynchronousMode() {
+		return synchronousMode;
+	}
+	
+	/** Returns the size of the page cache of each connection in kibibytes */
+	public int getCacheSizeInKibibytes() {
+		return cacheSizeInKibibytes;
+	}
+	
+	/** Returns the value of the mmap_size pragma. Zero disables memory mapped I/O */
+	public long getMemoryMappedSizeInBytes() {
+		return memoryMappedSizeInBytes;
+	}
+	
+	/** Returns the value of the temp_store pragma */
+	public String getTempStore() {
+		return tempStore;
+	}
+	
+	/** Returns the value of the page_size pragma, which is only applied when the database is created */
+	public int getPageSizeInBytes() {
+		return pageSizeInBytes;
+	}
+	
+	public static String getTranslation(StorageProfile storageProfile) {
+		if (SAFE.equals(storageProfile)) {
+			return Translator.get(DictKeys.COMBOBOX_CONTENT_STORAGE_PROFILE_SAFE);
+		} else if (BALANCED.equals(storageProfile)) {
+			return Translator.get(DictKeys.COMBOBOX_CONTENT_STORAGE_PROFILE_BALANCED);
+		} else if (THROUGHPUT.equals(storageProfile)) {
+			return Translator.get(DictKeys.COMBOBOX_CONTENT_STORAGE_PROFILE_THROUGHPUT);
+		}
+		
+		LOGGER.error("A translation for an unknown storage profile was requested");
+		return "";
+	}
+	
+	public static StorageProfile byTranslation(String storageProfile) {
+		if (Translator.get(DictKeys.COMBOBOX_CONTENT_STORAGE_PROFILE_SAFE).equals(storageProfile)) {
+			return SAFE;
+		} else if (Translator.get(DictKeys.COMBOBOX_CONTENT_STORAGE_PROFILE_BALANCED).equals(storageProfile)) {
+			return BALANCED;
+		} else if (Translator.get(DictKeys.COMBOBOX_CONTENT_STORAGE_PROFILE_THROUGHPUT).equals(storageProfile)) {
+			return THROUGHPUT;
+		}
+		
+		LOGGER.error("A storage profile for an unknown translation was requested");
+		return null;
+	}
+}
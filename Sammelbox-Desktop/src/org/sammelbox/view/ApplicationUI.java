@@ -51,7 +51,6 @@ import org.sammelbox.controller.managers.SavedSearchManager.SavedSearch;
 import org.sammelbox.controller.menu.MenuManager;
 import org.sammelbox.model.GuiState;
 import org.sammelbox.model.album.Album;
-import org.sammelbox.model.database.QueryBuilder;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.operations.DatabaseOperations;
 import org.sammelbox.view.browser.BrowserFacade;
@@ -413,7 +412,7 @@ public final class ApplicationUI implements EventObserver {
 			LOGGER.error("An error occured while enabling the quick search field", ex);
 		}
 		
-		BrowserFacade.performBrowserQueryAndShow(QueryBuilder.createOrderedSelectStarQuery(albumName));
+		BrowserFacade.performPagedBrowserQueryAndShow(albumName);
 		
 		ApplicationUI.getViewList().setEnabled(SavedSearchManager.hasAlbumSavedSearches(albumName));
 		EventObservable.addEventToQueue(SammelboxEvent.ALBUM_SELECTED);
@@ -43,6 +43,7 @@ public final class UIConstants {
 	
 	// ------------------ Browser Anchors ------------------
 	public static final String NO_ANCHOR_DEFINED = "";
+	public static final long NO_ITEM_ID_DEFINED = -1;
 	
 	// ------------------ Browser Constants ------------------
 	public static final String STYLE_CSS               = "file://" + FileSystemLocations.getStyleCSS();
@@ -60,5 +61,6 @@ public final class UIConstants {
 	public static final String RELOAD_AND_SHOW_ALBUM_VIEW = "show:///reloadAndShowAlbumView=";
 	public static final String BROWSER_RESIZED = "show:///browserResized";
 	public static final String SHOW_URL = "show:///url=";
+	public static final String SHOW_MORE_ITEMS = "show:///showMoreItems";
 	public static final String UPDATE_SPREADSHEET = "update:///spreadsheet";
 }
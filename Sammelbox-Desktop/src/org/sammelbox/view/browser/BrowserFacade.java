@@ -28,6 +28,7 @@ import org.sammelbox.controller.i18n.Language;
 import org.sammelbox.controller.i18n.Translator;
 import org.sammelbox.model.album.AlbumItem;
 import org.sammelbox.model.album.AlbumItemResultSet;
+import org.sammelbox.model.database.ParameterizedQuery;
 import org.sammelbox.view.ApplicationUI;
 import org.sammelbox.view.UIConstants;
 import org.sammelbox.view.browser.spreadsheet.SpreadsheetTypeValidatorFunction;
@@ -44,6 +45,10 @@ public final class BrowserFacade {
 	public static String getAnchorForAlbumItemId(long anchorId) { return BrowserUtils.getAnchorForAlbumItemId(anchorId); }
 	public static void jumpToAnchor(String anchor) { BrowserUtils.jumpToAnchor(anchor); }
 	public static void performBrowserQueryAndShow(String sqlQuery) { BrowserUtils.performBrowserQueryAndShow(sqlQuery); }
+	public static void performBrowserQueryAndShow(ParameterizedQuery parameterizedQuery) { BrowserUtils.performBrowserQueryAndShow(parameterizedQuery); }
+	public static void performPagedBrowserQueryAndShow(String albumName) { BrowserUtils.performPagedBrowserQueryAndShow(albumName); }
+	public static void performPagedBrowserQueryAndShow(String albumName, long albumItemIdToBeShown) { BrowserUtils.performPagedBrowserQueryAndShow(albumName, albumItemIdToBeShown); }
+	public static void showNextAlbumItemPage() { BrowserUtils.showNextAlbumItemPage(); }
 	public static void showImageViewer(String pathToPicture, long albumItemId) { PictureViewCreator.showPicture(albumItemId); }
 	public static void resetFutureJumpAnchor() {BrowserUtils.setFutureJumpAnchor(UIConstants.NO_ANCHOR_DEFINED);}
 	public static void setFutureJumpAnchor(String futureJumpAnchor) { BrowserUtils.setFutureJumpAnchor(futureJumpAnchor); }
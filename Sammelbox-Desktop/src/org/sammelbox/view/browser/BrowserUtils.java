@@ -21,6 +21,7 @@ package org.sammelbox.view.browser;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,8 +32,14 @@ import org.eclipse.swt.widgets.Display;
 import org.sammelbox.controller.GuiController;
 import org.sammelbox.controller.filesystem.FileSystemAccessWrapper;
 import org.sammelbox.controller.filesystem.FileSystemLocations;
+import org.sammelbox.controller.i18n.DictKeys;
+import org.sammelbox.controller.i18n.Translator;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemPage;
 import org.sammelbox.model.album.AlbumItemResultSet;
 import org.sammelbox.model.album.AlbumItemStore;
+import org.sammelbox.model.album.ItemField;
+import org.sammelbox.model.database.ParameterizedQuery;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.operations.DatabaseOperations;
 import org.sammelbox.view.ApplicationUI;
@@ -63,13 +70,28 @@ public final class BrowserUtils {
 		return "albumId" + albumItemId;
 	}
 
+	/**
+	 * Gets the fields of an item in the order in which the fields of its album are displayed. Fields which are not displayed
+	 * (e.g. the id) come first. Falls back to the column order if the display order cannot be determined.
+	 * @param albumItem The item whose fields are shown.
+	 * @return A new list containing all fields of the item.
+	 */
+	public static List<ItemField> getFieldsInDisplayOrder(AlbumItem albumItem) {
+		try {
+			return albumItem.getFieldsInDisplayOrder(DatabaseOperations.getMetaItemFields(albumItem.getAlbumName()));
+		} catch (DatabaseWrapperOperationException dwoe) {
+			LOGGER.error("An error occurred while retrieving the display order of the fields of " + albumItem.getAlbumName(), dwoe);
+			return new ArrayList<ItemField>(albumItem.getFields());
+		}
+	}
+
 	/** To avoid rebuilding the exact same HTML output when returning from the picture viewer 
 	 * to the album view, the last generated HTML output is saved  */
 	private static String lastPageAsHtml;
 
 	static void performBrowserQueryAndShow(String sqlQuery) {				
 		try {
-			AlbumItemStore.reinitializeStoreAndUpdateStatus(DatabaseOperations.executeSQLQuery(sqlQuery));
+			AlbumItemStore.replaceStoreAndUpdateStatus(DatabaseOperations.getCachedAlbumItems(sqlQuery));
 		} catch (DatabaseWrapperOperationException ex) {
 			LOGGER.error("An error occured while reinitializing the album item store using the following SQL query (" + sqlQuery + ")", ex);
 		}
@@ -77,6 +99,79 @@ public final class BrowserUtils {
 		showAlbum();
 	}
 
+	static void performBrowserQueryAndShow(ParameterizedQuery parameterizedQuery) {				
+		try {
+			if (parameterizedQuery != null) {
+				AlbumItemStore.replaceStoreAndUpdateStatus(DatabaseOperations.getCachedAlbumItems(parameterizedQuery));
+			}
+		} catch (DatabaseWrapperOperationException ex) {
+			LOGGER.error("An error occured while reinitializing the album item store using the following query (" + parameterizedQuery + ")", ex);
+		}
+		
+		showAlbum();
+	}
+
+	/** Shows the first page of the given album. Further pages are loaded on demand using {@link #showNextAlbumItemPage()} */
+	static void performPagedBrowserQueryAndShow(String albumName) {
+		performPagedBrowserQueryAndShow(albumName, UIConstants.NO_ITEM_ID_DEFINED);
+	}
+	
+	/** Shows the pages of the given album up to and including the page which contains the specified album item */
+	static void performPagedBrowserQueryAndShow(String albumName, long albumItemIdToBeShown) {
+		try {
+			AlbumItemStore.reinitializeStoreWithPageAndUpdateStatus(
+					DatabaseOperations.getFirstAlbumItemPage(albumName, AlbumItemStore.ALBUM_ITEM_PAGE_SIZE));
+			
+			while (albumItemIdToBeShown != UIConstants.NO_ITEM_ID_DEFINED 
+					&& !AlbumItemStore.isAlbumItemLoaded(albumItemIdToBeShown) && AlbumItemStore.hasNextPage()) {
+				AlbumItemStore.appendPage(DatabaseOperations.getNextAlbumItemPage(AlbumItemStore.getLastLoadedPage()));
+			}
+		} catch (DatabaseWrapperOperationException ex) {
+			LOGGER.error("An error occured while reinitializing the album item store using the first page of the album " + albumName, ex);
+		}
+		
+		showAlbum();
+	}
+	
+	/** Adds the next page of the current album to the album item store and jumps to its first item */
+	static void showNextAlbumItemPage() {
+		if (!AlbumItemStore.hasNextPage()) {
+			return;
+		}
+		
+		try {
+			AlbumItemPage nextPage = DatabaseOperations.getNextAlbumItemPage(AlbumItemStore.getLastLoadedPage());
+			AlbumItemStore.appendPage(nextPage);
+			
+			if (!nextPage.getAlbumItems().isEmpty()) {
+				long firstNewAlbumItemId = nextPage.getAlbumItems().get(0).getItemId();
+				
+				if (SammelView.GALLERY_VIEW.equals(GuiController.getGuiState().getSammelView())) {
+					setFutureJumpAnchor("imageId" + firstNewAlbumItemId);
+				} else {
+					setFutureJumpAnchor(getAnchorForAlbumItemId(firstNewAlbumItemId));
+				}
+			}
+		} catch (DatabaseWrapperOperationException ex) {
+			LOGGER.error("An error occured while loading the next page of the album " + AlbumItemStore.getLastLoadedPage().getAlbumName(), ex);
+		}
+		
+		showAlbum();
+	}
+	
+	/** Returns the html button which loads the next page, or an empty string if all items have been loaded */
+	static String getShowMoreItemsButton() {
+		if (!AlbumItemStore.hasNextPage()) {
+			return "";
+		}
+		
+		return "<form class=\"buttonWrapper\">" +
+		         "<input type=\"button\" " +
+		           "onclick=\"parent.location.href=&quot;" + UIConstants.SHOW_MORE_ITEMS + "&quot;\" " +
+		           "value=\"" + Translator.get(DictKeys.BROWSER_SHOW_MORE_ITEMS) + "\">" +
+		       "</form>";
+	}
+	
 	static void showResultSet(AlbumItemResultSet albumItemResultSet) {
 		try {
 			AlbumItemStore.reinitializeStoreAndUpdateStatus(albumItemResultSet);
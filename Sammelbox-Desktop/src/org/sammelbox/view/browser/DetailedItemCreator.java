@@ -65,7 +65,7 @@ public final class DetailedItemCreator {
 	static long createDetailContainer(AlbumItem albumItem, StringBuilder htmlDataColumnContent) {
 		long id = -1;
 		
-		for (ItemField fieldItem : albumItem.getFields()) {			
+		for (ItemField fieldItem : BrowserUtils.getFieldsInDisplayOrder(albumItem)) {			
 			if (fieldItem.getType().equals(FieldType.UUID)) {
 				// schema or content version UUID --> ignore 
 			} else if (fieldItem.getType().equals(FieldType.ID)) {
@@ -85,6 +85,7 @@ public final class DetailedViewCreator {
 				  "<body>" +
 				    "<h2>" + collectionHeader + "</h2>" +
 				  	"<div id=\"albumItems\">" + albumItemDetailDivContainers + "</div>" +
+				  	BrowserUtils.getShowMoreItemsButton() +
 				  "</body>" +
 				"</html>";
 		
@@ -30,7 +30,6 @@ import org.sammelbox.model.album.AlbumItemStore;
 import org.sammelbox.model.album.FieldType;
 import org.sammelbox.model.album.ItemField;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
-import org.sammelbox.model.database.operations.DatabaseOperations;
 import org.sammelbox.view.ApplicationUI;
 import org.sammelbox.view.UIConstants;
 import org.slf4j.Logger;
@@ -61,7 +60,7 @@ public final class GalleryViewCreator {
 
 			List<AlbumItemPicture> pictures = null;
 			try {
-				pictures = DatabaseOperations.getAlbumItemPictures(ApplicationUI.getSelectedAlbum(), id);
+				pictures = AlbumItemStore.getAlbumItemPictures(albumItem);
 			} catch (DatabaseWrapperOperationException ex) {
 				LOGGER.error("An error occured while retrieving the pictures associated with the album item #'" + 
 					id + "' from the album '" + ApplicationUI.getSelectedAlbum() + "'", ex);
@@ -112,6 +111,7 @@ public final class GalleryViewCreator {
 		     "<body style=\"background-color:#ffffff;font-family:" +  BrowserUtils.getDefaultSystemFont() + "\">" +
 		       "<h2>" + collectionHeader + "</h2>" +
 		       "<div id=\"albumItems\">" + galleryItemHtmlBuilder.toString() + "</div>" +
+		       BrowserUtils.getShowMoreItemsButton() +
 		     "</body>" +
 		   "</html>";
 		
@@ -54,7 +54,7 @@ public final class SpreadsheetItemCreator {
 		htmlSpreadsheetHeader.append("<th>&nbsp;&nbsp;&nbsp;&nbsp;</th>");
 		
 		long columnIndex = 0;
-		for(ItemField itemField : ItemFieldFilter.getValidItemFields(albumItem.getFields())) {
+		for(ItemField itemField : ItemFieldFilter.getValidItemFields(BrowserUtils.getFieldsInDisplayOrder(albumItem))) {
 			for (MetaItemField metaItemField : metaItemToColumnIndexMap.keySet()) {
 				if (metaItemField.getName().equals(itemField.getName())
 						&& metaItemField.getType().equals(itemField.getType())) {
@@ -149,7 +149,7 @@ public final class SpreadsheetItemCreator {
 					  					  ">&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;" +
 									  "</td>");
 		}
-		for (ItemField itemField : ItemFieldFilterPlusID.getValidItemFields(albumItem.getFields())) {		
+		for (ItemField itemField : ItemFieldFilterPlusID.getValidItemFields(BrowserUtils.getFieldsInDisplayOrder(albumItem))) {		
 			long col = 0;
 			for (MetaItemField metaItemField : metaItemToColumnIndexMap.keySet()) {
 				if (metaItemField.getName().equals(itemField.getName())
@@ -2,6 +2,7 @@ package org.sammelbox.view.browser.spreadsheet;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -20,6 +21,7 @@ import org.sammelbox.model.album.StarRating;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.operations.DatabaseOperations;
 import org.sammelbox.view.ApplicationUI;
+import org.sammelbox.view.browser.BrowserFacade;
 import org.sammelbox.view.various.ComponentFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +39,10 @@ public class SpreadsheetUpdateFunction extends BrowserFunction {
 		List<Object> updatesColumTypeMapping = Arrays.asList((Object[]) arguments[1]);
 		List<Object> updates = Arrays.asList((Object[]) arguments[2]);
 		List<Object> deleteCandidates = Arrays.asList((Object[]) arguments[3]);
+		String albumName = GuiController.getGuiState().getSelectedAlbum();
+		// All changes are applied together within a single transaction after all rows have been parsed
+		List<AlbumItem> newAlbumItems = new ArrayList<AlbumItem>();
+		List<AlbumItem> changedAlbumItems = new ArrayList<AlbumItem>();
 		
 		for (Object completeRow : updates) {
 			try	{
@@ -45,7 +51,7 @@ public class SpreadsheetUpdateFunction extends BrowserFunction {
 				FieldType idFieldType = FieldType.valueOf((String) updatesColumTypeMapping.get(0));
 				String idFieldItemValue = (String) (((Object[]) completeRow)[0]);
 				
-				AlbumItem tmpAlbumItem = new AlbumItem(GuiController.getGuiState().getSelectedAlbum());
+				AlbumItem tmpAlbumItem = new AlbumItem(albumName);
 				
 				if (idFieldType.equals(FieldType.ID)) {
 					Long id = Long.parseLong(idFieldItemValue);
@@ -116,9 +122,9 @@ public class SpreadsheetUpdateFunction extends BrowserFunction {
 				}
 				
 				if (isNewAlbumItem) {
-					DatabaseOperations.addAlbumItem(tmpAlbumItem, true);
+					newAlbumItems.add(tmpAlbumItem);
 				} else {
-					DatabaseOperations.updateAlbumItem(tmpAlbumItem);
+					changedAlbumItems.add(tmpAlbumItem);
 				}
 
 			} catch (NumberFormatException nfe) {
@@ -129,14 +135,6 @@ public class SpreadsheetUpdateFunction extends BrowserFunction {
 				
 				LOGGER.error("An error occured while parsing a number of an update row.", nfe);
 				continue;
-			} catch (DatabaseWrapperOperationException dbwoe) {
-				ComponentFactory.getMessageBox(
-						Translator.get(DictKeys.ERROR_AN_INTERNAL_ERROR_OCCURRED_HEADER), 
-						Translator.get(DictKeys.ERROR_AN_INTERNAL_ERROR_OCCURRED, "(Error: An error occured while storing or updating an item.)"),
-						SWT.ERROR | SWT.OK).open();
-				
-				LOGGER.error("An error occured while storing or updating an item.", dbwoe);
-				continue;
 			} catch (ParseException pe) {
 				ComponentFactory.getMessageBox(
 						Translator.get(DictKeys.ERROR_AN_INTERNAL_ERROR_OCCURRED_HEADER), 
@@ -148,25 +146,36 @@ public class SpreadsheetUpdateFunction extends BrowserFunction {
 			}
 		}
 		
+		List<Long> deleteCandidateIds = new ArrayList<Long>(deleteCandidates.size());
 		for (Object o : deleteCandidates){
 			//JavaScript has only one type of numbers. Numbers can be written with, or without decimals:
-			long id = ((Double)o).longValue();
+			deleteCandidateIds.add(((Double)o).longValue());
+		}
+		
+		try {
+			List<Long> changedAlbumItemIds = new ArrayList<Long>(DatabaseOperations.applyAlbumItemChanges(
+					albumName, newAlbumItems, changedAlbumItems, AlbumItemStore.getAlbumItems(deleteCandidateIds)));
+			for (AlbumItem changedAlbumItem : changedAlbumItems) {
+				changedAlbumItemIds.add(changedAlbumItem.getItemId());
+			}
 			
-			try {
-				DatabaseOperations.deleteAlbumItem(AlbumItemStore.getAlbumItem(id));
-			} catch (DatabaseWrapperOperationException dbwoe) {
-				ComponentFactory.getMessageBox(
-						Translator.get(DictKeys.ERROR_AN_INTERNAL_ERROR_OCCURRED_HEADER), 
-						Translator.get(DictKeys.ERROR_AN_INTERNAL_ERROR_OCCURRED, "(Error: An error occured while deleting an item.)"),
-						SWT.ERROR | SWT.OK).open();
-				
-				LOGGER.error("An error occured while deleting an item.", dbwoe);
-				continue;
-			}			
+			// Only the touched items are read again and patched into the store, which avoids querying the whole album
+			if (AlbumItemStore.patchStoreAndUpdateStatus(
+					DatabaseOperations.getAlbumItems(albumName, changedAlbumItemIds), deleteCandidateIds)) {
+				BrowserFacade.showAlbum();
+				return null;
+			}
+		} catch (DatabaseWrapperOperationException dbwoe) {
+			ComponentFactory.getMessageBox(
+					Translator.get(DictKeys.ERROR_AN_INTERNAL_ERROR_OCCURRED_HEADER), 
+					Translator.get(DictKeys.ERROR_AN_INTERNAL_ERROR_OCCURRED, "(Error: An error occured while storing, updating or deleting the items.)"),
+					SWT.ERROR | SWT.OK).open();
+			
+			LOGGER.error("An error occured while storing, updating or deleting the items.", dbwoe);
 		}
 
-		ApplicationUI.setSelectedAlbumAndReload(GuiController.getGuiState().getSelectedAlbum());
+		ApplicationUI.setSelectedAlbumAndReload(albumName);
 		
 		return null;
 	}
-}
\ No newline at end of file
+}
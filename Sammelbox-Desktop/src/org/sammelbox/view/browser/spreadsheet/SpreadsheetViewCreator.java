@@ -109,9 +109,7 @@ public final class SpreadsheetViewCreator {
 		boolean hasEvenCountingInList = false;
 		long idForUncreatedItem = -1;
 		
-		for(Long id : selectedIds){
-			AlbumItem albumItem = AlbumItemStore.getAlbumItem(id);
-			
+		for (AlbumItem albumItem : AlbumItemStore.getAlbumItems(selectedIds)) {
 			SpreadsheetItemCreator.createNextDataRow(
 					albumItem, htmlSpreadsheetData, htmlSpreadsheetRow, hasEvenCountingInList, metaItemToColumnIndexMap);
 			hasEvenCountingInList = !hasEvenCountingInList;
@@ -137,7 +135,7 @@ public final class SpreadsheetViewCreator {
 		javaScriptArrayTableColType.append("'" + FieldType.ID.toString() + "'");
 		javaScriptArrayTableColName.append("'" + DatabaseConstants.ID_COLUMN_NAME + "'");
 		
-		for (ItemField itemField : ItemFieldFilter.getValidItemFields(emptyAlbumItem.getFields())) {
+		for (ItemField itemField : ItemFieldFilter.getValidItemFields(BrowserUtils.getFieldsInDisplayOrder(emptyAlbumItem))) {
 			// TODO Refactor. This snippet is used multiple times (performance killer as discussed).
 			int columnIndex = 0; 
 			
@@ -181,7 +179,7 @@ public final class SpreadsheetViewCreator {
 		htmlSpreadsheet.append("<label>");
 		htmlSpreadsheet.append("<div id=\"showModify\" class=\"hidden smallLabel dirty\">To be modified <span id=\"modifyCount\">0</span></div> ");
 		htmlSpreadsheet.append("<div id=\"showAdd\" class=\"hidden smallLabel new\">To be added <span id=\"addCount\">0</span></div> ");
-		htmlSpreadsheet.append("<div id=\"rowCount\" class=\"hidden\">" + AlbumItemStore.getAlbumItems().size() + "</div> ");
+		htmlSpreadsheet.append("<div id=\"rowCount\" class=\"hidden\">" + AlbumItemStore.getAllAlbumItems().size() + "</div> ");
 		htmlSpreadsheet.append("<div id=\"dragPreview\" class=\"dragPreview hidden\"></div>");
 		htmlSpreadsheet.append("</label>");
 		
@@ -56,7 +56,7 @@ public class SpreadsheetComposite {
 	public static void initializeWithItemsFromAlbumItemStore(Table table) {
 		table.removeAll();
 				
-		for (AlbumItem albumItem : AlbumItemStore.getAlbumItems()) {
+		for (AlbumItem albumItem : AlbumItemStore.getAllAlbumItems()) {
 			TableItem tableItem = new TableItem(table, SWT.NONE);
 			String[] values = new String[albumItem.getFields().size()];
 
@@ -186,17 +186,19 @@ public class SpreadsheetComposite {
 				
 				// if yes, clone them
 				if (messageBox.open() == SWT.YES) {
-					for (Long selectedId : selectedItemIds) {
-						AlbumItem clonedAlbumItem = AlbumItemStore.getAlbumItem(selectedId).clone();
-						try {
-							DatabaseOperations.addAlbumItem(clonedAlbumItem, true);
-						} catch (DatabaseWrapperOperationException e) {
-							LOGGER.error("An error occurred while cloning the album item", e);
-							ComponentFactory.getMessageBox(
-									Translator.get(DictKeys.ERROR_AN_ERROR_OCCURRED_HEADER),
-									Translator.get(DictKeys.ERROR_AN_ERROR_OCCURRED, e.getMessage()), 
-									SWT.ICON_ERROR | SWT.OK);
-						}
+					List<AlbumItem> clonedAlbumItems = new ArrayList<AlbumItem>();
+					for (AlbumItem selectedAlbumItem : AlbumItemStore.getAlbumItems(selectedItemIds)) {
+						clonedAlbumItems.add(selectedAlbumItem.clone());
+					}
+					
+					try {
+						DatabaseOperations.addAlbumItems(clonedAlbumItems, true);
+					} catch (DatabaseWrapperOperationException e) {
+						LOGGER.error("An error occurred while cloning the album items", e);
+						ComponentFactory.getMessageBox(
+								Translator.get(DictKeys.ERROR_AN_ERROR_OCCURRED_HEADER),
+								Translator.get(DictKeys.ERROR_AN_ERROR_OCCURRED, e.getMessage()), 
+								SWT.ICON_ERROR | SWT.OK);
 					}
 				}
 				
@@ -244,12 +246,10 @@ public class SpreadsheetComposite {
 				
 				// if yes, delete selected items
 				if (messageBox.open() == SWT.YES) {
-					for (Long selectedId : selectedItemIds) {
-						try {
-							DatabaseOperations.deleteAlbumItem(AlbumItemStore.getAlbumItem(selectedId));
-						} catch (DatabaseWrapperOperationException e) {
-							LOGGER.error("An error occurred while deleting the album item", e);
-						}
+					try {
+						DatabaseOperations.deleteAlbumItems(GuiController.getGuiState().getSelectedAlbum(), selectedItemIds);
+					} catch (DatabaseWrapperOperationException e) {
+						LOGGER.error("An error occurred while deleting the album items", e);
 					}
 				}
 				
@@ -107,7 +107,7 @@ public class AlbumFunctionSidepane extends Composite {
 					Double min = Double.MAX_VALUE;
 					Double max = Double.MIN_VALUE;
 
-					for (AlbumItem albumItem : AlbumItemStore.getAlbumItems()) {
+					for (AlbumItem albumItem : AlbumItemStore.getAllAlbumItems()) {
 						for (ItemField itemField : albumItem.getFields()) {
 							if (itemField.getName().equals(albumFieldCombo.getItem(albumFieldCombo.getSelectionIndex()))) {							
 								if (function.equals(Translator.get(DictKeys.COMBOBOX_CONTENT_SUM)) || 
@@ -152,7 +152,7 @@ public class AlbumFunctionSidepane extends Composite {
 					}
 
 					if (function.equals(Translator.get(DictKeys.COMBOBOX_CONTENT_AVERAGE))) {
-						result /= AlbumItemStore.getAlbumItems().size();
+						result /= AlbumItemStore.getAllAlbumItems().size();
 					} else if (function.equals(Translator.get(DictKeys.COMBOBOX_CONTENT_MIN))) {
 						result = min;
 					} else if (function.equals(Translator.get(DictKeys.COMBOBOX_CONTENT_MAX))) {
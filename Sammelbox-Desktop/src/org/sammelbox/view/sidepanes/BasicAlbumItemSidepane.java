@@ -52,6 +52,7 @@ import org.sammelbox.controller.managers.WelcomePageManager;
 import org.sammelbox.model.album.AlbumItem;
 import org.sammelbox.model.album.AlbumItemPicture;
 import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.ItemField;
 import org.sammelbox.model.album.MetaItemField;
 import org.sammelbox.model.album.OptionType;
 import org.sammelbox.model.album.StarRating;
@@ -68,6 +69,8 @@ import org.slf4j.LoggerFactory;
 public final class BasicAlbumItemSidepane {
 	private static final Logger LOGGER = LoggerFactory.getLogger(BasicAlbumItemSidepane.class);
 	private static final int BASIC_ALBUM_SIDEPANE_WIDTH_IN_PIXELS = 200;
+	/** The key of the item loaded into the fields when the update composite has been opened */
+	private static final String LOADED_ALBUM_ITEM = "LoadedAlbumItem";
 
 	private BasicAlbumItemSidepane() {
 		// use build method instead
@@ -119,6 +122,8 @@ public final class BasicAlbumItemSidepane {
 			// if data should be loaded, it must be fetched from the database
 			if (loadDataIntoFields) {
 				albumItem = DatabaseOperations.getAlbumItem(album, albumItemId);
+				// The edits are applied to the loaded item, such that changes saved meanwhile by others are detected
+				basicAlbumItemComposite.setData(LOADED_ALBUM_ITEM, albumItem);
 			}	
 
 			// fetch the field names and types from the database
@@ -210,11 +215,13 @@ public final class BasicAlbumItemSidepane {
 				}
 				
 				AlbumItem albumItem = new AlbumItem(ApplicationUI.getSelectedAlbum());
+				List<AlbumItemPicture> pictures = null;
 				
 				for (Control control : composite.getChildren()) {
 					if (control.getData(AlbumItemPicture.ALBUM_ITEM_PICTURE) != null) {
 						ImageDropAndManagementComposite imageDropAndManagementComposite = (ImageDropAndManagementComposite) control;
-						albumItem.setPictures(imageDropAndManagementComposite.getAllPictures());
+						pictures = imageDropAndManagementComposite.getAllPictures();
+						albumItem.setPictures(pictures);
 					
 					} else if (control.getData("FieldType") != null) {
 						FieldType fieldType = (FieldType) control.getData("FieldType");
@@ -287,9 +294,31 @@ public final class BasicAlbumItemSidepane {
 			
 				try {
 					if (isUpdateAlbumItemComposite) {
-						albumItem.addField("id", FieldType.ID, albumItemId);
+						// Apply the values to the item loaded when the form has been opened, such that only the changed fields 
+						// are written, and the update fails if the item has been changed since
+						AlbumItem loadedAlbumItem = (AlbumItem) composite.getData(LOADED_ALBUM_ITEM);
+						if (loadedAlbumItem == null) {
+							LOGGER.error("The album item #'" + albumItemId + "' has not been loaded into the update composite");
+							showUpdateFailedMessage(composite, null, "The album item could not be loaded");
+							return;
+						}
+						
+						for (ItemField itemField : albumItem.getFields()) {
+							loadedAlbumItem.setFieldValue(itemField.getName(), itemField.getValue());
+						}
+						
+						if (pictures != null && !haveSameOriginalPictures(pictures, loadedAlbumItem.getPictures())) {
+							loadedAlbumItem.setPictures(pictures);
+						}
+						
+						try {
+							DatabaseOperations.updateAlbumItem(loadedAlbumItem);
+						} catch (DatabaseWrapperOperationException ex) {
+							LOGGER.error("Updating the album item #'" + albumItemId + "' failed", ex);
+							showUpdateFailedMessage(composite, loadedAlbumItem, ex.getMessage());
+							return;
+						}
 						
-						DatabaseOperations.updateAlbumItem(albumItem);
 						BrowserFacade.generateAlbumItemUpdatedPage(albumItemId);
 					} else {						
 						// Create album item
@@ -308,6 +337,43 @@ public final class BasicAlbumItemSidepane {
 		};
 	}
 	
+	/** Informs the user that the item could not be updated. If the stored item has been changed since the form has been opened,
+	 * the user is asked to reopen the item, since saving the form would overwrite these changes
+	 * @param composite the update composite
+	 * @param loadedAlbumItem the item loaded when the form has been opened, or null if it is not available
+	 * @param errorMessage the message shown if the update failed for another reason */
+	private static void showUpdateFailedMessage(Composite composite, AlbumItem loadedAlbumItem, String errorMessage) {
+		String message = Translator.get(DictKeys.ERROR_AN_ERROR_OCCURRED, errorMessage);
+		
+		if (loadedAlbumItem != null) {
+			try {
+				AlbumItem storedAlbumItem = DatabaseOperations.getAlbumItem(loadedAlbumItem.getAlbumName(), loadedAlbumItem.getItemId());
+				if (storedAlbumItem == null || !storedAlbumItem.getContentVersion().equals(loadedAlbumItem.getContentVersion())) {
+					message = Translator.get(DictKeys.ERROR_ALBUM_ITEM_CHANGED_MEANWHILE);
+				}
+			} catch (DatabaseWrapperOperationException ex) {
+				LOGGER.error("The stored album item #'" + loadedAlbumItem.getItemId() + "' could not be read", ex);
+			}
+		}
+		
+		ComponentFactory.showErrorDialog(composite, Translator.get(DictKeys.ERROR_AN_ERROR_OCCURRED_HEADER), message);
+	}
+	
+	/** Returns true if both lists contain the same original pictures in the same order */
+	private static boolean haveSameOriginalPictures(List<AlbumItemPicture> pictures, List<AlbumItemPicture> otherPictures) {
+		if (otherPictures == null || pictures.size() != otherPictures.size()) {
+			return false;
+		}
+		
+		for (int i=0; i<pictures.size(); i++) {
+			if (!pictures.get(i).getOriginalPictureName().equals(otherPictures.get(i).getOriginalPictureName())) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
 	private static ModifyListener getModifyListener() {
 		return new ModifyListener() {
 			@Override
@@ -44,7 +44,6 @@ import org.sammelbox.controller.i18n.Translator;
 import org.sammelbox.model.album.AlbumItemStore;
 import org.sammelbox.model.album.FieldType;
 import org.sammelbox.model.album.MetaItemField;
-import org.sammelbox.model.database.QueryBuilder;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.operations.DatabaseOperations;
 import org.sammelbox.view.ApplicationUI;
@@ -347,7 +346,7 @@ public final class CreateAlbumSidepane {
 				ApplicationUI.refreshAlbumList();
 				ApplicationUI.setSelectedAlbumAndReload(albumName);
 				
-				BrowserFacade.performBrowserQueryAndShow(QueryBuilder.createOrderedSelectStarQuery(albumName));
+				BrowserFacade.performPagedBrowserQueryAndShow(albumName);
 
 				ApplicationUI.changeRightCompositeTo(PanelType.EMPTY, EmptySidepane.build(parentComposite));
 			}
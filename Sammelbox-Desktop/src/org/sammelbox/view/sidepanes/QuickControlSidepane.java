@@ -45,7 +45,6 @@ import org.sammelbox.controller.managers.SavedSearchManager;
 import org.sammelbox.controller.managers.SavedSearchManager.SavedSearch;
 import org.sammelbox.controller.managers.WelcomePageManager;
 import org.sammelbox.model.GuiState;
-import org.sammelbox.model.database.QueryBuilder;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.operations.DatabaseOperations;
 import org.sammelbox.view.ApplicationUI;
@@ -227,7 +226,7 @@ public final class QuickControlSidepane {
 				
 				String selectedName = GuiController.getGuiState().getSelectedAlbum();
 				AlbumManager.setSortByField(selectedName, sortByField);
-				BrowserFacade.performBrowserQueryAndShow(QueryBuilder.createOrderedSelectStarQuery(selectedName));
+				BrowserFacade.performPagedBrowserQueryAndShow(selectedName);
 			}
 		});
 		
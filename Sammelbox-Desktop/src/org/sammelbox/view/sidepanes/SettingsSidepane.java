@@ -36,6 +36,7 @@ import org.sammelbox.controller.i18n.Language;
 import org.sammelbox.controller.i18n.Translator;
 import org.sammelbox.controller.managers.SettingsManager;
 import org.sammelbox.model.settings.ApplicationSettings;
+import org.sammelbox.model.settings.StorageProfile;
 import org.sammelbox.view.SammelView;
 import org.sammelbox.view.various.ComponentFactory;
 
@@ -133,6 +134,19 @@ public final class SettingsSidepane {
 		}
 		fullSynchronizationCombo.setLayoutData(gridData);
 		
+		Label storageProfileSelection = new Label(innerComposite, SWT.NONE);
+		storageProfileSelection.setText(Translator.get(DictKeys.LABEL_STORAGE_PROFILE));
+		
+		final Combo storageProfileCombo = new Combo(innerComposite, SWT.READ_ONLY|SWT.BORDER|SWT.H_SCROLL);
+		String[] storageProfiles = new String[StorageProfile.values().length];
+		for (int i=0; i<StorageProfile.values().length; i++) {
+			storageProfiles[i] = StorageProfile.getTranslation(StorageProfile.values()[i]);
+		}
+		
+		storageProfileCombo.setItems(storageProfiles);
+		storageProfileCombo.setText(StorageProfile.getTranslation(SettingsManager.getSettings().getStorageProfile()));
+		storageProfileCombo.setLayoutData(gridData);
+		
 		Label seperator = new Label(settingsComposite, SWT.SEPARATOR | SWT.HORIZONTAL);
 		GridData gridDataForSeperator = new GridData(GridData.FILL_BOTH);
 		gridDataForSeperator.heightHint = DEFAULT_COMPOSITE_HEIGHT_IN_PIXELS;
@@ -150,6 +164,7 @@ public final class SettingsSidepane {
 				appSettings.setDefaultView(SammelView.byTranslation(viewSelectionCombo.getItem(viewSelectionCombo.getSelectionIndex())));
 				appSettings.setDateFormat(DATE_EXAMPLES_TO_FORMATS.get(dateFormatSelectionCombo.getItem(dateFormatSelectionCombo.getSelectionIndex())));
 				appSettings.setFullSynchronizationEnabled(fullSynchronizationCombo.getItem(fullSynchronizationCombo.getSelectionIndex()).equals(Translator.get(DictKeys.COMBOBOX_CONTENT_YES)));
+				appSettings.setStorageProfile(StorageProfile.byTranslation(storageProfileCombo.getItem(storageProfileCombo.getSelectionIndex())));
 				SettingsManager.setApplicationSettings(appSettings);
 				
 				Translator.setLanguageManually(Language.byTranslation(languageCombo.getItem(languageCombo.getSelectionIndex())));
@@ -24,14 +24,24 @@ import java.io.File;
 
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
+import org.sammelbox.album.AlbumChangeVersionTests;
+import org.sammelbox.album.AlbumSchemaCatalogTests;
+import org.sammelbox.album.AlbumStatisticsTests;
 import org.sammelbox.album.AlterAlbumTests;
 import org.sammelbox.album.BackupRestoreTests;
+import org.sammelbox.album.ConnectionManagerTests;
+import org.sammelbox.album.StorageProfileTests;
 import org.sammelbox.album.CreateAlbumTests;
 import org.sammelbox.album.RemoveAlbumTests;
+import org.sammelbox.album.RowFormatTests;
+import org.sammelbox.album.TransactionManagerTests;
 import org.sammelbox.albumitems.AddAlbumItemTests;
 import org.sammelbox.albumitems.AlbumItemPictureTests;
+import org.sammelbox.albumitems.AlbumItemResultSetTests;
+import org.sammelbox.albumitems.ColumnarAlbumItemListTests;
 import org.sammelbox.albumitems.RemoveAlbumItemTests;
 import org.sammelbox.albumitems.UpdateAlbumItemTests;
+import org.sammelbox.controller.filesystem.FileDeletionQueue;
 import org.sammelbox.controller.filesystem.FileSystemAccessWrapper;
 import org.sammelbox.controller.filesystem.FileSystemLocations;
 import org.sammelbox.controller.managers.ConnectionManager;
@@ -41,6 +51,9 @@ import org.sammelbox.savedsearches.ModifySavedSearchesTests;
 import org.sammelbox.savedsearches.RunSavedSearchesTests;
 import org.sammelbox.savedsearches.SavedSearchesTests;
 import org.sammelbox.searching.AdvancedSearchTests;
+import org.sammelbox.searching.AlbumItemPagingTests;
+import org.sammelbox.searching.QueryResultCacheTests;
+import org.sammelbox.searching.QuickSearchExecutorTests;
 import org.sammelbox.searching.QuickSearchTests;
 import org.sammelbox.sidepanes.SidepaneCreationTests;
 
@@ -52,11 +65,20 @@ import org.sammelbox.sidepanes.SidepaneCreationTests;
 	CreateAlbumTests.class,
 	AddAlbumItemTests.class,
 	RemoveAlbumTests.class,
+	AlbumSchemaCatalogTests.class,
+	AlbumChangeVersionTests.class,
+	AlbumStatisticsTests.class,
+	TransactionManagerTests.class,
+	ConnectionManagerTests.class,
+	StorageProfileTests.class,
+	RowFormatTests.class,
 	
 	AddAlbumItemTests.class,
 	RemoveAlbumItemTests.class,
 	UpdateAlbumItemTests.class,
 	AlbumItemPictureTests.class,
+	ColumnarAlbumItemListTests.class,
+	AlbumItemResultSetTests.class,
 	
 	SavedSearchesTests.class,
 	ModifySavedSearchesTests.class,
@@ -64,6 +86,9 @@ import org.sammelbox.sidepanes.SidepaneCreationTests;
 	
 	AdvancedSearchTests.class,
 	QuickSearchTests.class,
+	QuickSearchExecutorTests.class,
+	AlbumItemPagingTests.class,
+	QueryResultCacheTests.class,
 	
 	ExportTests.class,
 	CSVImportTests.class,
@@ -72,6 +97,8 @@ import org.sammelbox.sidepanes.SidepaneCreationTests;
 })
 
 public class TestExecuter {
+	private static final long FILE_DELETION_TIMEOUT_IN_MILLISECONDS = 10000;
+	
 	public static final String PATH_TO_TEST_CBK = 
 			System.getProperty("user.dir") + File.separatorChar + "test" +
 					File.separatorChar + "testdata" + File.separatorChar + "test-albums-version-3.4.3.cbk";
@@ -91,6 +118,8 @@ public class TestExecuter {
 	public static void resetTestHome() {
 		try {
 			FileSystemLocations.setActiveHomeDir(FileSystemLocations.DEFAULT_SAMMELBOX_TEST_HOME);
+			// Deletions of the previous test must not interfere with the new test home
+			FileDeletionQueue.awaitCompletion(FILE_DELETION_TIMEOUT_IN_MILLISECONDS);
 			ConnectionManager.closeConnection();
 			FileSystemAccessWrapper.removeHomeDirectory();
 			Class.forName(Sammelbox.ORG_SQLITE_JDBC);
@@ -0,0 +1,135 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.album;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.ItemField;
+import org.sammelbox.model.album.MetaItemField;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+public class AlbumChangeVersionTests {
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@Before
+	public void setUp() {
+		TestExecuter.resetTestHome();
+		DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		ConnectionManager.closeConnection();
+	}
+
+	@Test
+	public void testAlbumsOfOlderDatabasesStartWithVersionZero() {
+		try {
+			Map<String, Long> changeVersions = DatabaseOperations.getAlbumChangeVersions();
+
+			assertEquals("Every album of the test database should have a change version", 
+					DatabaseOperations.getListOfAllAlbums().size(), changeVersions.size());
+			assertEquals("The DVDs should not have changed yet", Long.valueOf(0), changeVersions.get("DVDs"));
+			assertEquals("Unknown albums should not have a change version", -1, DatabaseOperations.getAlbumChangeVersion("Games"));
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+
+	@Test
+	public void testItemChangesIncreaseOnlyTheVersionOfTheirAlbum() {
+		try {
+			long dvdVersion = DatabaseOperations.getAlbumChangeVersion("DVDs");
+			long bookVersion = DatabaseOperations.getAlbumChangeVersion("Books");
+
+			AlbumItem book = DatabaseOperations.getAlbumItem("Books", 1);
+			book.getField("Book Title").setValue("updated book title");
+			DatabaseOperations.updateAlbumItem(book);
+			assertEquals("Updating a book should increase the version of the books", bookVersion + 1, DatabaseOperations.getAlbumChangeVersion("Books"));
+
+			AlbumItem newBook = new AlbumItem("Books");
+			List<ItemField> fields = new ArrayList<ItemField>();
+			fields.add(new ItemField("Book Title", FieldType.TEXT, "new book title"));
+			newBook.setFields(fields);
+			newBook.setContentVersion(UUID.randomUUID());
+			long newBookId = DatabaseOperations.addAlbumItem(newBook, false);
+			assertEquals("Adding a book should increase the version of the books", bookVersion + 2, DatabaseOperations.getAlbumChangeVersion("Books"));
+
+			DatabaseOperations.deleteAlbumItem(DatabaseOperations.getAlbumItem("Books", newBookId));
+			assertEquals("Deleting a book should increase the version of the books", bookVersion + 3, DatabaseOperations.getAlbumChangeVersion("Books"));
+
+			assertEquals("The DVDs should not be affected by changes to the books", dvdVersion, DatabaseOperations.getAlbumChangeVersion("DVDs"));
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+
+	@Test
+	public void testVersionsArePersistedInTheDatabase() {
+		try {
+			DatabaseOperations.deleteAlbumItem(DatabaseOperations.getAlbumItem("Books", 1));
+			long bookVersion = DatabaseOperations.getAlbumChangeVersion("Books");
+
+			ConnectionManager.closeConnection();
+			ConnectionManager.openConnection();
+
+			assertEquals("The version should be read from the album master table", bookVersion, DatabaseOperations.getAlbumChangeVersion("Books"));
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+
+	@Test
+	public void testRecreatedAlbumKeepsIncreasingItsVersion() {
+		try {
+			long bookVersion = DatabaseOperations.getAlbumChangeVersion("Books");
+			MetaItemField lastField = DatabaseOperations.getMetaItemFields("Books").get(DatabaseOperations.getMetaItemFields("Books").size() - 1);
+
+			DatabaseOperations.removeAlbumItemField("Books", lastField);
+			assertTrue("Removing a field should increase the version of the books", DatabaseOperations.getAlbumChangeVersion("Books") > bookVersion);
+
+			long renamedVersion = DatabaseOperations.getAlbumChangeVersion("Books");
+			DatabaseOperations.renameAlbum("Books", "Novels");
+			assertTrue("Renaming the books should increase their version", DatabaseOperations.getAlbumChangeVersion("Novels") > renamedVersion);
+			assertEquals("The old name should no longer have a version", -1, DatabaseOperations.getAlbumChangeVersion("Books"));
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+}
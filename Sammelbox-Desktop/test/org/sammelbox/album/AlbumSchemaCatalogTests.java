@@ -0,0 +1,121 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.album;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.MetaItemField;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+public class AlbumSchemaCatalogTests {
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@Before
+	public void setUp() {
+		TestExecuter.resetTestHome();
+		DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+		// Updating the sort indices during the restore already fills the catalog
+		DatabaseOperations.clearAlbumSchemaCatalog();
+		DatabaseOperations.resetAlbumSchemaCatalogStatistics();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		ConnectionManager.closeConnection();
+	}
+
+	@Test
+	public void testRepeatedLookupsAreServedFromCatalog() {
+		try {
+			List<MetaItemField> firstLookup = DatabaseOperations.getMetaItemFields("Books");
+			List<MetaItemField> secondLookup = DatabaseOperations.getMetaItemFields("Books");
+			DatabaseOperations.getAlbumItemMetaMap("Books");
+			DatabaseOperations.isAlbumFieldQuicksearchable("Books", "Author");
+
+			assertEquals("The same fields must be returned for each lookup", firstLookup, secondLookup);
+			assertEquals("Only the first lookup should query the database", 1, DatabaseOperations.getAlbumSchemaCatalogMissCount());
+			assertEquals("All subsequent lookups should be answered from memory", 3, DatabaseOperations.getAlbumSchemaCatalogHitCount());
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+
+	@Test
+	public void testModifyingReturnedFieldsDoesNotAffectCatalog() {
+		try {
+			List<MetaItemField> metaItemFields = DatabaseOperations.getMetaItemFields("Books");
+			metaItemFields.get(0).setName("Modified");
+			metaItemFields.remove(metaItemFields.size() - 1);
+
+			List<MetaItemField> freshMetaItemFields = DatabaseOperations.getMetaItemFields("Books");
+			assertTrue("The catalog must not be affected by changes to returned fields",
+					!freshMetaItemFields.get(0).getName().equals("Modified"));
+			assertEquals("The catalog must not be affected by changes to returned lists",
+					metaItemFields.size() + 1, freshMetaItemFields.size());
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+
+	@Test
+	public void testStructuralChangesInvalidateCatalog() {
+		try {
+			long versionBeforeChange = DatabaseOperations.getAlbumSchemaCatalogVersion();
+			int fieldCountBeforeChange = DatabaseOperations.getMetaItemFields("Books").size();
+
+			DatabaseOperations.appendNewAlbumField("Books", new MetaItemField("Publisher", FieldType.TEXT, false));
+			assertTrue("Appending a field must change the catalog version",
+					versionBeforeChange != DatabaseOperations.getAlbumSchemaCatalogVersion());
+			assertEquals("The appended field must be visible",
+					fieldCountBeforeChange + 1, DatabaseOperations.getMetaItemFields("Books").size());
+
+			assertTrue("Actors should be quicksearchable in the test album",
+					DatabaseOperations.isAlbumFieldQuicksearchable("DVDs", "Actors"));
+			DatabaseOperations.updateQuickSearchable("DVDs", new MetaItemField("Actors", FieldType.TEXT, false));
+			assertTrue("Actors should no longer be quicksearchable",
+					!DatabaseOperations.isAlbumFieldQuicksearchable("DVDs", "Actors"));
+
+			assertTrue("DVDs must have pictures within the test album", DatabaseOperations.isPictureAlbum("DVDs"));
+			DatabaseOperations.setAlbumPictureFunctionality("DVDs", false);
+			assertTrue("DVDs should no longer have pictures", !DatabaseOperations.isPictureAlbum("DVDs"));
+
+			DatabaseOperations.renameAlbum("Books", "Novels");
+			assertEquals("The renamed album must keep its fields",
+					fieldCountBeforeChange + 1, DatabaseOperations.getMetaItemFields("Novels").size());
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+}
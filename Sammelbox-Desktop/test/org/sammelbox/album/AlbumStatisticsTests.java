@@ -0,0 +1,227 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.album;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumStatistics;
+import org.sammelbox.model.album.AlbumStatistics.NumericFieldStatistics;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.ItemField;
+import org.sammelbox.model.album.MetaItemField;
+import org.sammelbox.model.album.OptionType;
+import org.sammelbox.model.album.StarRating;
+import org.sammelbox.model.database.QueryBuilder;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+public class AlbumStatisticsTests {
+	private static final String ALBUM_NAME = "Games";
+
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@Before
+	public void setUp() {
+		TestExecuter.resetTestHome();
+		DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+		DatabaseOperations.resetAlbumStatisticsCatalogStatistics();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		ConnectionManager.closeConnection();
+	}
+
+	@Test
+	public void testRepeatedRequestsAreServedFromMemory() {
+		try {
+			AlbumStatistics statistics = DatabaseOperations.getAlbumStatistics("DVDs");
+			DatabaseOperations.getAlbumStatistics("DVDs");
+
+			assertEquals("Only the first request should compute the statistics", 1, DatabaseOperations.getAlbumStatisticsCatalogMissCount());
+			assertEquals("The second request should be answered from memory", 1, DatabaseOperations.getAlbumStatisticsCatalogHitCount());
+			assertEquals("The item count should match the number of items", 
+					DatabaseOperations.getNumberOfItemsInAlbum("DVDs"), statistics.getItemCount());
+			assertTrue("The DVDs of the test album have pictures", statistics.getPictureCount() > 0);
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+
+	@Test
+	public void testStatisticsOfStoredValues() {
+		try {
+			createGamesAlbum();
+			addGame(10, 19.99, StarRating.FOUR_STARS, OptionType.YES);
+			addGame(2, 5.5, StarRating.FOUR_STARS, OptionType.NO);
+			addGame(4, 30.0, StarRating.ONE_STAR, OptionType.YES);
+
+			AlbumStatistics statistics = DatabaseOperations.getAlbumStatistics(ALBUM_NAME);
+			assertEquals("All games should be counted", 3, statistics.getItemCount());
+			assertNumericStatistics(statistics.getNumericFieldStatistics("Players"), 3, 2, 10, 16);
+			assertNumericStatistics(statistics.getNumericFieldStatistics("Price"), 3, 5.5, 30.0, 55.49);
+			assertEquals("Two games should have four stars", Long.valueOf(2), statistics.getStarRatingDistribution("Rating").get(StarRating.FOUR_STARS));
+			assertEquals("No game should have five stars", Long.valueOf(0), statistics.getStarRatingDistribution("Rating").get(StarRating.FIVE_STARS));
+			assertEquals("Two games should be owned", Long.valueOf(2), statistics.getOptionDistribution("Owned").get(OptionType.YES));
+			assertNull("Text fields should not be aggregated", statistics.getNumericFieldStatistics("Title"));
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+
+	@Test
+	public void testStatisticsAreMaintainedByItemChanges() {
+		try {
+			createGamesAlbum();
+			addGame(10, 19.99, StarRating.FOUR_STARS, OptionType.YES);
+			long cheapGameId = addGame(2, 5.5, StarRating.FOUR_STARS, OptionType.NO);
+			DatabaseOperations.getAlbumStatistics(ALBUM_NAME);
+
+			long newGameId = addGame(4, 12.0, StarRating.ONE_STAR, OptionType.YES);
+			assertMaintainedStatisticsAreCorrect();
+			assertEquals("The added game should be counted", 3, DatabaseOperations.getAlbumStatistics(ALBUM_NAME).getItemCount());
+
+			AlbumItem newGame = DatabaseOperations.getAlbumItem(ALBUM_NAME, newGameId);
+			newGame.getField("Rating").setValue(StarRating.FIVE_STARS);
+			DatabaseOperations.updateAlbumItem(newGame);
+			assertMaintainedStatisticsAreCorrect();
+
+			DatabaseOperations.deleteAlbumItem(DatabaseOperations.getAlbumItem(ALBUM_NAME, newGameId));
+			assertMaintainedStatisticsAreCorrect();
+
+			// Removing the smallest value requires the statistics to be computed again
+			DatabaseOperations.deleteAlbumItem(DatabaseOperations.getAlbumItem(ALBUM_NAME, cheapGameId));
+			DatabaseOperations.resetAlbumStatisticsCatalogStatistics();
+			assertNumericStatistics(DatabaseOperations.getAlbumStatistics(ALBUM_NAME).getNumericFieldStatistics("Price"), 1, 19.99, 19.99, 19.99);
+			assertEquals("The statistics should have been computed again", 1, DatabaseOperations.getAlbumStatisticsCatalogMissCount());
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+
+	@Test
+	public void testPictureCountIsMaintained() {
+		try {
+			AlbumItem dvdWithPictures = null;
+			for (AlbumItem dvd : DatabaseOperations.getAlbumItems(QueryBuilder.createSelectStarQuery("DVDs"))) {
+				if (!DatabaseOperations.getAlbumItemPictures("DVDs", dvd.getItemId()).isEmpty()) {
+					dvdWithPictures = dvd;
+				}
+			}
+
+			int removedPictures = DatabaseOperations.getAlbumItemPictures("DVDs", dvdWithPictures.getItemId()).size();
+			long pictureCount = DatabaseOperations.getAlbumStatistics("DVDs").getPictureCount();
+			DatabaseOperations.deleteAlbumItem(dvdWithPictures);
+
+			DatabaseOperations.resetAlbumStatisticsCatalogStatistics();
+			assertEquals("The pictures of the removed item should no longer be counted", 
+					pictureCount - removedPictures, DatabaseOperations.getAlbumStatistics("DVDs").getPictureCount());
+			assertEquals("The picture count should have been maintained", 1, DatabaseOperations.getAlbumStatisticsCatalogHitCount());
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+
+	@Test
+	public void testStructuralChangesRecomputeStatistics() {
+		try {
+			DatabaseOperations.getAlbumStatistics("Books");
+			DatabaseOperations.appendNewAlbumField("Books", new MetaItemField("Pages", FieldType.INTEGER, false));
+
+			AlbumStatistics statistics = DatabaseOperations.getAlbumStatistics("Books");
+			assertEquals("The statistics should have been computed again", 2, DatabaseOperations.getAlbumStatisticsCatalogMissCount());
+			assertEquals("Every book should have a default value for the new field", 
+					statistics.getItemCount(), statistics.getNumericFieldStatistics("Pages").getValueCount());
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+
+	/** Compares the maintained statistics with statistics computed from scratch */
+	private static void assertMaintainedStatisticsAreCorrect() throws DatabaseWrapperOperationException {
+		DatabaseOperations.resetAlbumStatisticsCatalogStatistics();
+		AlbumStatistics maintainedStatistics = DatabaseOperations.getAlbumStatistics(ALBUM_NAME);
+		assertEquals("The statistics should have been maintained", 1, DatabaseOperations.getAlbumStatisticsCatalogHitCount());
+
+		DatabaseOperations.clearAlbumSchemaCatalog();
+		AlbumStatistics computedStatistics = DatabaseOperations.getAlbumStatistics(ALBUM_NAME);
+
+		assertEquals("The item count should be maintained", computedStatistics.getItemCount(), maintainedStatistics.getItemCount());
+		assertEquals("The star ratings should be maintained", 
+				computedStatistics.getStarRatingDistribution("Rating"), maintainedStatistics.getStarRatingDistribution("Rating"));
+		assertEquals("The options should be maintained", 
+				computedStatistics.getOptionDistribution("Owned"), maintainedStatistics.getOptionDistribution("Owned"));
+
+		for (String fieldName : new String[] {"Players", "Price"}) {
+			NumericFieldStatistics computed = computedStatistics.getNumericFieldStatistics(fieldName);
+			assertNumericStatistics(maintainedStatistics.getNumericFieldStatistics(fieldName), 
+					computed.getValueCount(), computed.getMinimum(), computed.getMaximum(), computed.getSum());
+		}
+	}
+
+	private static void assertNumericStatistics(NumericFieldStatistics statistics, long valueCount, double minimum, double maximum, double sum) {
+		assertEquals("The number of values should match", valueCount, statistics.getValueCount());
+		assertEquals("The minimum should match", minimum, statistics.getMinimum(), 0.0001);
+		assertEquals("The maximum should match", maximum, statistics.getMaximum(), 0.0001);
+		assertEquals("The sum should match", sum, statistics.getSum(), 0.0001);
+	}
+
+	private static void createGamesAlbum() throws DatabaseWrapperOperationException {
+		List<MetaItemField> fields = new ArrayList<MetaItemField>();
+		fields.add(new MetaItemField("Title", FieldType.TEXT, true));
+		fields.add(new MetaItemField("Players", FieldType.INTEGER));
+		fields.add(new MetaItemField("Price", FieldType.DECIMAL));
+		fields.add(new MetaItemField("Rating", FieldType.STAR_RATING));
+		fields.add(new MetaItemField("Owned", FieldType.OPTION));
+		DatabaseOperations.createNewAlbum(ALBUM_NAME, fields, false);
+	}
+
+	private static long addGame(int players, double price, StarRating rating, OptionType owned) throws DatabaseWrapperOperationException {
+		AlbumItem game = new AlbumItem(ALBUM_NAME);
+
+		List<ItemField> fields = new ArrayList<ItemField>();
+		fields.add(new ItemField("Title", FieldType.TEXT, "Game for " + players));
+		fields.add(new ItemField("Players", FieldType.INTEGER, players));
+		fields.add(new ItemField("Price", FieldType.DECIMAL, price));
+		fields.add(new ItemField("Rating", FieldType.STAR_RATING, rating));
+		fields.add(new ItemField("Owned", FieldType.OPTION, owned));
+		game.setFields(fields);
+		game.setContentVersion(UUID.randomUUID());
+
+		return DatabaseOperations.addAlbumItem(game, false);
+	}
+}
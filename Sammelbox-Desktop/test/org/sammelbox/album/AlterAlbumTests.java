@@ -18,6 +18,7 @@
 
 package org.sammelbox.album;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -41,6 +42,7 @@ import org.sammelbox.model.album.AlbumItemStore;
 import org.sammelbox.model.album.FieldType;
 import org.sammelbox.model.album.MetaItemField;
 import org.sammelbox.model.database.DatabaseStringUtilities;
+import org.sammelbox.model.database.QueryBuilder;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.operations.DatabaseConstants;
 import org.sammelbox.model.database.operations.DatabaseOperations;
@@ -144,6 +146,42 @@ public class AlterAlbumTests {
 		}
 	}
 
+	@Test
+	public void testReorderOnlyChangesDisplayOrder() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			Map<Integer, MetaItemField> originalColumns = DatabaseOperations.getAlbumItemMetaMap("Books");
+			AlbumItem originalBook = DatabaseOperations.getAlbumItem("Books", 1);
+			
+			List<MetaItemField> metaDataItems = DatabaseOperations.getMetaItemFields("Books");
+			MetaItemField bookTitleField = metaDataItems.get(0);
+			DatabaseOperations.reorderAlbumItemField("Books", bookTitleField, metaDataItems.get(2));
+			
+			assertEquals("The columns of the album table should not have changed", originalColumns, DatabaseOperations.getAlbumItemMetaMap("Books"));
+			assertEquals("The content of the item should not have changed", 
+					originalBook.getContentVersion(), DatabaseOperations.getAlbumItem("Books", 1).getContentVersion());
+			
+			DatabaseOperations.clearAlbumSchemaCatalog();
+			metaDataItems = DatabaseOperations.getMetaItemFields("Books");
+			assertEquals("The title should be displayed as third field", bookTitleField.getName(), metaDataItems.get(2).getName());
+			assertEquals("The item fields should follow the display order", bookTitleField.getName(), 
+					originalBook.getFieldsInDisplayOrder(metaDataItems).get(originalBook.getFields().size() - metaDataItems.size() + 2).getName());
+			
+			DatabaseOperations.appendNewAlbumField("Books", new MetaItemField("Publisher", FieldType.TEXT, false));
+			metaDataItems = DatabaseOperations.getMetaItemFields("Books");
+			assertEquals("An appended field should be displayed last", "Publisher", metaDataItems.get(metaDataItems.size() - 1).getName());
+			assertEquals("The title should still be displayed as third field", bookTitleField.getName(), metaDataItems.get(2).getName());
+			
+			DatabaseOperations.renameAlbumItemField("Books", metaDataItems.get(2), new MetaItemField("Title", FieldType.TEXT, false));
+			metaDataItems = DatabaseOperations.getMetaItemFields("Books");
+			assertEquals("Renaming should keep the display order", "Title", metaDataItems.get(2).getName());
+			assertEquals("The album table should now hold the fields in display order", 
+					"Title", DatabaseOperations.getAlbumItemMetaMap("Books").get(4).getName());
+		} catch (DatabaseWrapperOperationException e) {
+			fail(e.getMessage());
+		}
+	}
+
 	@Test
 	public void testMoveDvdTitleToEnd() {
 		try {
@@ -179,6 +217,46 @@ public class AlterAlbumTests {
 		}
 	}
 
+	@Test
+	public void testFieldAlterationsKeepItemIdsContentVersionsAndPictures() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			List<AlbumItem> originalDvds = DatabaseOperations.getAlbumItems(QueryBuilder.createOrderedSelectStarQuery("DVDs"));
+			
+			MetaItemField titleField = DatabaseOperations.getMetaItemFields("DVDs").get(0);
+			DatabaseOperations.updateQuickSearchable("DVDs", new MetaItemField(titleField.getName(), titleField.getType(), true));
+			titleField = DatabaseOperations.getMetaItemFields("DVDs").get(0);
+			
+			DatabaseOperations.renameAlbumItemField("DVDs", titleField, new MetaItemField("Movie Title", FieldType.TEXT, true));
+			List<MetaItemField> metaDataItems = DatabaseOperations.getMetaItemFields("DVDs");
+			DatabaseOperations.reorderAlbumItemField("DVDs", metaDataItems.get(0), metaDataItems.get(1));
+			metaDataItems = DatabaseOperations.getMetaItemFields("DVDs");
+			DatabaseOperations.removeAlbumItemField("DVDs", metaDataItems.get(metaDataItems.size() - 1));
+			
+			for (AlbumItem originalDvd : originalDvds) {
+				AlbumItem alteredDvd = DatabaseOperations.getAlbumItem("DVDs", originalDvd.getItemId());
+				
+				assertTrue("The item should have kept its id", alteredDvd != null);
+				assertEquals("The content version should not have changed", originalDvd.getContentVersion(), alteredDvd.getContentVersion());
+				assertEquals("The value of the renamed field should have been copied", 
+						originalDvd.getField(titleField.getName()).getValue(), alteredDvd.getField("Movie Title").getValue());
+				assertEquals("The pictures should still belong to the item", 
+						originalDvd.getPictures().size(), alteredDvd.getPictures().size());
+				
+				for (int i=0; i<originalDvd.getPictures().size(); i++) {
+					assertEquals("The pictures should not have been added again", 
+							originalDvd.getPictures().get(i).getPictureID(), alteredDvd.getPictures().get(i).getPictureID());
+				}
+			}
+			
+			assertTrue("The renamed quick-searchable field should still be indexed", DatabaseOperations.hasFullTextIndex("DVDs"));
+			assertTrue("No replaced table should be left", !TestQueries.isDatabaseTablePresent("dvds_replaced"));
+			assertTrue("No replaced type info table should be left", !TestQueries.isDatabaseTablePresent("dvds_typeinfo_replaced"));
+		} catch (DatabaseWrapperOperationException e) {
+			fail(e.getMessage());
+		}
+	}
+
 	@Test
 	public void testRenameNonQuicksearchableField() {
 		try {
@@ -0,0 +1,272 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+
+package org.sammelbox.album;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.filesystem.FileSystemLocations;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.controller.managers.ConnectionMetrics;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.ItemField;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+public class ConnectionManagerTests {
+	/** Far below the time SQLite waits for a locked database before failing, which is three seconds */
+	private static final long MAXIMUM_WRITE_DURATION_IN_MILLISECONDS = 1000;
+	private static final long TIMEOUT_IN_SECONDS = 10;
+
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@Before
+	public void setUp() {
+		TestExecuter.resetTestHome();
+		DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+		ConnectionManager.resetConnectionMetrics();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		ConnectionManager.closeConnection();
+	}
+
+	@Test
+	public void testDatabaseIsInWriteAheadLogMode() {
+		assertTrue("The database should be in write-ahead log mode", ConnectionManager.isWriteAheadLogEnabled());
+		assertEquals("The metrics of the writer and each read-only connection should be available", 
+				1 + ConnectionManager.getReadOnlyConnectionPoolCapacity(), ConnectionManager.getConnectionMetrics().size());
+	}
+
+	@Test
+	public void testConcurrentReadersDoNotBlockWriter() {
+		try {
+			final long originalNumberOfBooks = DatabaseOperations.getNumberOfItemsInAlbum("Books");
+			final int numberOfReaders = ConnectionManager.getReadOnlyConnectionPoolCapacity();
+			final CountDownLatch readersStarted = new CountDownLatch(numberOfReaders);
+			final CountDownLatch writerFinished = new CountDownLatch(1);
+			final List<Long> numbersOfBooksSeenByReaders = Collections.synchronizedList(new ArrayList<Long>());
+			final List<Exception> readerExceptions = Collections.synchronizedList(new ArrayList<Exception>());
+			List<Thread> readers = new ArrayList<Thread>();
+			
+			for (int i=0; i<numberOfReaders; i++) {
+				Thread reader = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							Connection readOnlyConnection = ConnectionManager.borrowReadOnlyConnection();
+							try {
+								// The open cursor keeps the read transaction active while the writer commits
+								try (Statement statement = readOnlyConnection.createStatement();
+									 ResultSet resultSet = statement.executeQuery("SELECT id FROM books")) {
+									resultSet.next();
+									readersStarted.countDown();
+									writerFinished.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+								}
+								
+								numbersOfBooksSeenByReaders.add(countBooks(readOnlyConnection));
+							} finally {
+								ConnectionManager.releaseReadOnlyConnection(readOnlyConnection);
+							}
+						} catch (Exception ex) {
+							readerExceptions.add(ex);
+							readersStarted.countDown();
+						}
+					}
+				});
+				
+				readers.add(reader);
+				reader.start();
+			}
+			
+			assertTrue("All readers should have started", readersStarted.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+			
+			long writeStart = System.currentTimeMillis();
+			long bookId = DatabaseOperations.addAlbumItem(createBook("Concurrently added book"), true);
+			AlbumItem addedBook = DatabaseOperations.getAlbumItem("Books", bookId);
+			addedBook.getField("Book Title").setValue("Concurrently updated book");
+			DatabaseOperations.updateAlbumItem(addedBook);
+			long writeDuration = System.currentTimeMillis() - writeStart;
+			writerFinished.countDown();
+			
+			for (Thread reader : readers) {
+				reader.join(TIMEOUT_IN_SECONDS * 1000);
+			}
+			
+			assertTrue("The readers should not have failed: " + readerExceptions, readerExceptions.isEmpty());
+			assertTrue("The writer should not have waited for the readers, but took " + writeDuration + " ms", 
+					writeDuration < MAXIMUM_WRITE_DURATION_IN_MILLISECONDS);
+			assertEquals("The book should have been added", originalNumberOfBooks + 1, DatabaseOperations.getNumberOfItemsInAlbum("Books"));
+			assertEquals("Every reader should have counted the books", numberOfReaders, numbersOfBooksSeenByReaders.size());
+			for (long numberOfBooksSeenByReader : numbersOfBooksSeenByReaders) {
+				assertEquals("New read transactions should see the committed book", originalNumberOfBooks + 1, numberOfBooksSeenByReader);
+			}
+		} catch (DatabaseWrapperOperationException | InterruptedException ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testWriterMetricsCountTransactionBoundaries() {
+		try {
+			ConnectionManager.getConnection();
+			ConnectionMetrics writerMetrics = ConnectionManager.getConnectionMetrics().get(0);
+			assertEquals("Handing out the writer connection should not be counted", 0, writerMetrics.getAcquisitionCount());
+			
+			DatabaseOperations.addAlbumItem(createBook("Measured book"), true);
+			writerMetrics = ConnectionManager.getConnectionMetrics().get(0);
+			assertEquals("The metrics of the writer should come first", "writer", writerMetrics.getConnectionName());
+			assertTrue("The begin and commit of the transaction should have been counted", writerMetrics.getAcquisitionCount() >= 2);
+			assertTrue("The duration of the commit should have been recorded", writerMetrics.getTotalWaitInNanoseconds() > 0);
+		} catch (DatabaseWrapperOperationException ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testBorrowingWaitsUntilConnectionIsReturned() {
+		try {
+			final List<Connection> borrowedConnections = new ArrayList<Connection>();
+			for (int i=0; i<ConnectionManager.getReadOnlyConnectionPoolCapacity(); i++) {
+				borrowedConnections.add(ConnectionManager.borrowReadOnlyConnection());
+			}
+			
+			final List<Connection> connectionsOfWaitingBorrower = Collections.synchronizedList(new ArrayList<Connection>());
+			Thread waitingBorrower = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						connectionsOfWaitingBorrower.add(ConnectionManager.borrowReadOnlyConnection());
+					} catch (DatabaseWrapperOperationException ex) {
+						// detected by the missing connection
+					}
+				}
+			});
+			waitingBorrower.start();
+			
+			Thread.sleep(200);
+			assertTrue("No connection should be handed out while all are borrowed", connectionsOfWaitingBorrower.isEmpty());
+			
+			ConnectionManager.releaseReadOnlyConnection(borrowedConnections.remove(0));
+			waitingBorrower.join(TIMEOUT_IN_SECONDS * 1000);
+			assertEquals("The returned connection should have been handed out", 1, connectionsOfWaitingBorrower.size());
+			
+			borrowedConnections.addAll(connectionsOfWaitingBorrower);
+			for (Connection borrowedConnection : borrowedConnections) {
+				ConnectionManager.releaseReadOnlyConnection(borrowedConnection);
+			}
+			
+			long busyWaitCount = 0;
+			long maximumWaitInNanoseconds = 0;
+			for (ConnectionMetrics connectionMetrics : ConnectionManager.getConnectionMetrics()) {
+				busyWaitCount += connectionMetrics.getBusyWaitCount();
+				maximumWaitInNanoseconds = Math.max(maximumWaitInNanoseconds, connectionMetrics.getMaximumWaitInNanoseconds());
+			}
+			assertTrue("The wait should have been recorded", busyWaitCount >= 1);
+			assertTrue("The wait should have lasted until the connection was returned", maximumWaitInNanoseconds >= TimeUnit.MILLISECONDS.toNanos(150));
+		} catch (DatabaseWrapperOperationException | InterruptedException ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testReadOnlyConnectionsCannotWrite() {
+		try {
+			Connection readOnlyConnection = ConnectionManager.borrowReadOnlyConnection();
+			try (Statement statement = readOnlyConnection.createStatement()) {
+				statement.executeUpdate("DELETE FROM books");
+				fail("Read-only connections should not alter the database");
+			} catch (SQLException ex) {
+				// expected
+			} finally {
+				ConnectionManager.releaseReadOnlyConnection(readOnlyConnection);
+			}
+			
+			assertTrue("The books should not have been removed", DatabaseOperations.getNumberOfItemsInAlbum("Books") > 0);
+		} catch (DatabaseWrapperOperationException ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testDatabaseCopyContainsChangesOfWriteAheadLog() {
+		File copyFile = new File(FileSystemLocations.getActiveHomeDir() + File.separator + "copy.db");
+		
+		try {
+			DatabaseOperations.addAlbumItem(createBook("Book only in the write-ahead log"), true);
+			long numberOfBooks = DatabaseOperations.getNumberOfItemsInAlbum("Books");
+			
+			DatabaseIntegrityManager.copyDatabaseToFile(copyFile);
+			
+			try (Connection copyConnection = DriverManager.getConnection("jdbc:sqlite:" + copyFile.getPath());
+				 Statement statement = copyConnection.createStatement()) {
+				assertEquals("The copy should contain the added book", numberOfBooks, countBooks(copyConnection));
+				
+				try (ResultSet resultSet = statement.executeQuery("PRAGMA journal_mode")) {
+					assertTrue("The journal mode should be known", resultSet.next());
+					assertEquals("The copy should use the rollback journal", "delete", resultSet.getString(1));
+				}
+			}
+		} catch (DatabaseWrapperOperationException | SQLException ex) {
+			fail(ex.getMessage());
+		} finally {
+			assertTrue("The copy should have been created", copyFile.delete());
+		}
+	}
+	
+	private static long countBooks(Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement();
+			 ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM books")) {
+			resultSet.next();
+			return resultSet.getLong(1);
+		}
+	}
+	
+	private static AlbumItem createBook(String title) {
+		List<ItemField> fields = new ArrayList<ItemField>();
+		fields.add(new ItemField("Book Title", FieldType.TEXT, title));
+		
+		return new AlbumItem("Books", fields);
+	}
+}
@@ -0,0 +1,261 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+
+package org.sammelbox.album;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.ItemField;
+import org.sammelbox.model.album.MetaItemField;
+import org.sammelbox.model.album.OptionType;
+import org.sammelbox.model.album.StarRating;
+import org.sammelbox.model.database.QueryBuilder;
+import org.sammelbox.model.database.QueryBuilderException;
+import org.sammelbox.model.database.QueryComponent;
+import org.sammelbox.model.database.QueryOperator;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseConstants;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+public class RowFormatTests {
+	private static final String CONTENT_VERSION_COLUMN_NAME = "content_version";
+
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@Before
+	public void setUp() {
+		TestExecuter.resetTestHome();
+		DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		ConnectionManager.closeConnection();
+	}
+
+	@Test
+	public void testNewAlbumsAreStoredInLeanRowFormat() {
+		try {
+			List<MetaItemField> fields = new ArrayList<MetaItemField>();
+			fields.add(new MetaItemField("Title", FieldType.TEXT, true));
+			fields.add(new MetaItemField("Completed", FieldType.OPTION, false));
+			fields.add(new MetaItemField("Rating", FieldType.STAR_RATING, false));
+			DatabaseOperations.createNewAlbum("Games", fields, false);
+
+			AlbumItem game = new AlbumItem("Games");
+			List<ItemField> itemFields = new ArrayList<ItemField>();
+			itemFields.add(new ItemField("Title", FieldType.TEXT, "Monkey Island"));
+			itemFields.add(new ItemField("Completed", FieldType.OPTION, OptionType.YES));
+			itemFields.add(new ItemField("Rating", FieldType.STAR_RATING, StarRating.FIVE_STARS));
+			game.setFields(itemFields);
+			game.setContentVersion(UUID.randomUUID());
+			long gameId = DatabaseOperations.addAlbumItem(game, false);
+
+			assertEquals("New albums should use the lean row format", DatabaseConstants.ROW_FORMAT_V2, DatabaseOperations.getRowFormat("Games"));
+			assertEquals("Content versions should be stored as blobs", setOf("blob"), getStorageClasses("games", CONTENT_VERSION_COLUMN_NAME));
+			assertEquals("Content versions should be stored in 16 bytes", setOf("16"), 
+					getValues("length(" + CONTENT_VERSION_COLUMN_NAME + ")", "games"));
+			assertEquals("Options should be stored as integers", setOf("integer"), getStorageClasses("games", "Completed"));
+			assertFalse("The type info should no longer be stored per row", hasColumn("games", DatabaseConstants.TYPE_INFO_COLUMN_NAME));
+
+			AlbumItem storedGame = DatabaseOperations.getAlbumItem("Games", gameId);
+			assertEquals("The option should be read back", OptionType.YES, storedGame.getField("Completed").getValue());
+			assertEquals("The rating should be read back", StarRating.FIVE_STARS, storedGame.getField("Rating").getValue());
+			assertEquals("The content version should be read back", game.getContentVersion(), storedGame.getContentVersion());
+		} catch (DatabaseWrapperOperationException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	@Test
+	public void testMigrationKeepsItemsAndContentVersions() {
+		try {
+			List<String> albumNames = DatabaseOperations.getListOfAllAlbums();
+			List<List<AlbumItem>> originalItems = new ArrayList<List<AlbumItem>>();
+			for (String albumName : albumNames) {
+				assertEquals("The albums of the test database use the row format v1", 
+						DatabaseConstants.ROW_FORMAT_V1, DatabaseOperations.getRowFormat(albumName));
+				originalItems.add(DatabaseOperations.getAlbumItems(QueryBuilder.createOrderedSelectStarQuery(albumName)));
+			}
+
+			assertEquals("Every album should have been migrated", albumNames.size(), DatabaseOperations.migrateToLeanRowFormat());
+			assertEquals("Migrated albums should not be migrated again", 0, DatabaseOperations.migrateToLeanRowFormat());
+
+			for (int i=0; i<albumNames.size(); i++) {
+				String albumName = albumNames.get(i);
+				assertEquals("The album should use the lean row format", DatabaseConstants.ROW_FORMAT_V2, DatabaseOperations.getRowFormat(albumName));
+				assertSameItems(originalItems.get(i), DatabaseOperations.getAlbumItems(QueryBuilder.createOrderedSelectStarQuery(albumName)));
+			}
+
+			assertEquals("Options should be stored as integers", setOf("integer"), getStorageClasses("dvds", "Watched"));
+			assertEquals("Content versions should be stored as blobs", setOf("blob"), getStorageClasses("dvds", CONTENT_VERSION_COLUMN_NAME));
+			assertFalse("The type info should no longer be stored per row", hasColumn("dvds", DatabaseConstants.TYPE_INFO_COLUMN_NAME));
+		} catch (DatabaseWrapperOperationException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	@Test
+	public void testOptionSearchesAreNotAffectedByMigration() {
+		try {
+			String sortedByOptionQuery = QueryBuilder.createSelectStarQuery("Books") + " ORDER BY \"Second Hand\", id";
+			Set<Long> originalIds = searchBooks("Second Hand", "YES");
+			List<Long> originalOrder = getIds(sortedByOptionQuery);
+			assertTrue("The test database contains second hand books", !originalIds.isEmpty());
+
+			DatabaseOperations.migrateToLeanRowFormat();
+			
+			assertEquals("The same books should be found after the migration", originalIds, searchBooks("Second Hand", "YES"));
+			assertEquals("Sorting by an option should not change", originalOrder, getIds(sortedByOptionQuery));
+		} catch (DatabaseWrapperOperationException | QueryBuilderException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	@Test
+	public void testMigrationBackToRowFormatV1KeepsItemsAndFieldOrder() {
+		try {
+			List<MetaItemField> fields = DatabaseOperations.getMetaItemFields("DVDs");
+			DatabaseOperations.reorderAlbumItemField("DVDs", fields.get(0), fields.get(1));
+			List<MetaItemField> reorderedFields = DatabaseOperations.getMetaItemFields("DVDs");
+			List<AlbumItem> originalDvds = DatabaseOperations.getAlbumItems(QueryBuilder.createOrderedSelectStarQuery("DVDs"));
+
+			assertTrue("The DVDs should be migrated", DatabaseOperations.changeRowFormat("DVDs", DatabaseConstants.ROW_FORMAT_V2));
+			assertTrue("The DVDs should be migrated back", DatabaseOperations.changeRowFormat("DVDs", DatabaseConstants.ROW_FORMAT_V1));
+			assertFalse("The DVDs already use the row format v1", DatabaseOperations.changeRowFormat("DVDs", DatabaseConstants.ROW_FORMAT_V1));
+
+			assertEquals("The DVDs should use the row format v1", DatabaseConstants.ROW_FORMAT_V1, DatabaseOperations.getRowFormat("DVDs"));
+			assertTrue("The type info should be stored per row again", hasColumn("dvds", DatabaseConstants.TYPE_INFO_COLUMN_NAME));
+			assertEquals("Options should be stored by name again", setOf("text"), getStorageClasses("dvds", "Watched"));
+			assertEquals("The display order of the fields should be kept", reorderedFields, DatabaseOperations.getMetaItemFields("DVDs"));
+			assertSameItems(originalDvds, DatabaseOperations.getAlbumItems(QueryBuilder.createOrderedSelectStarQuery("DVDs")));
+		} catch (DatabaseWrapperOperationException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	@Test
+	public void testMigratedItemsCanBeUpdated() {
+		try {
+			AlbumItem dvd = DatabaseOperations.getAlbumItem("DVDs", 1);
+			DatabaseOperations.migrateToLeanRowFormat();
+
+			dvd.getField("Watched").setValue(OptionType.NO);
+			DatabaseOperations.updateAlbumItem(dvd);
+
+			AlbumItem updatedDvd = DatabaseOperations.getAlbumItem("DVDs", 1);
+			assertEquals("The option should have been updated", OptionType.NO, updatedDvd.getField("Watched").getValue());
+			assertEquals("The new content version should be stored", dvd.getContentVersion(), updatedDvd.getContentVersion());
+		} catch (DatabaseWrapperOperationException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	private static void assertSameItems(List<AlbumItem> expectedItems, List<AlbumItem> actualItems) {
+		assertEquals("The number of items should not have changed", expectedItems.size(), actualItems.size());
+
+		for (int i=0; i<expectedItems.size(); i++) {
+			AlbumItem expectedItem = expectedItems.get(i);
+			AlbumItem actualItem = actualItems.get(i);
+
+			assertEquals("The item should have kept its id", expectedItem.getItemId(), actualItem.getItemId());
+			assertEquals("The content version should not have changed", expectedItem.getContentVersion(), actualItem.getContentVersion());
+			assertEquals("The values should not have changed", expectedItem.getFields(), actualItem.getFields());
+			assertEquals("The pictures should still belong to the item", expectedItem.getPictures().size(), actualItem.getPictures().size());
+		}
+	}
+
+	private static Set<Long> searchBooks(String fieldName, String value) throws DatabaseWrapperOperationException, QueryBuilderException {
+		List<QueryComponent> queryComponents = new ArrayList<QueryComponent>();
+		queryComponents.add(QueryBuilder.getQueryComponent(fieldName, QueryOperator.EQUALS, value));
+		return new HashSet<Long>(getIds(QueryBuilder.buildQuery(queryComponents, true, "Books")));
+	}
+
+	private static List<Long> getIds(String query) throws DatabaseWrapperOperationException {
+		List<Long> ids = new ArrayList<Long>();
+		for (AlbumItem albumItem : DatabaseOperations.getAlbumItems(query)) {
+			ids.add(albumItem.getItemId());
+		}
+		return ids;
+	}
+
+	private static Set<String> getStorageClasses(String tableName, String columnName) throws DatabaseWrapperOperationException {
+		return getValues("typeof(\"" + columnName + "\")", tableName);
+	}
+
+	private static Set<String> getValues(String expression, String tableName) throws DatabaseWrapperOperationException {
+		Set<String> values = new HashSet<String>();
+
+		try (Statement statement = ConnectionManager.getConnection().createStatement();
+			 ResultSet resultSet = statement.executeQuery("SELECT DISTINCT " + expression + " FROM " + tableName)) {
+			while (resultSet.next()) {
+				values.add(resultSet.getString(1));
+			}
+		} catch (SQLException e) {
+			fail(e.getMessage());
+		}
+
+		return values;
+	}
+
+	private static boolean hasColumn(String tableName, String columnName) throws DatabaseWrapperOperationException {
+		try (Statement statement = ConnectionManager.getConnection().createStatement();
+			 ResultSet resultSet = statement.executeQuery("PRAGMA table_info(" + tableName + ")")) {
+			while (resultSet.next()) {
+				if (columnName.equals(resultSet.getString("name"))) {
+					return true;
+				}
+			}
+		} catch (SQLException e) {
+			fail(e.getMessage());
+		}
+
+		return false;
+	}
+
+	private static Set<String> setOf(String value) {
+		Set<String> values = new HashSet<String>();
+		values.add(value);
+		return values;
+	}
+}
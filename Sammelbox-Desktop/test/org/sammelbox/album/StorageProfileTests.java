@@ -0,0 +1,166 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+
+package org.sammelbox.album;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.filesystem.FileSystemAccessWrapper;
+import org.sammelbox.controller.filesystem.FileSystemLocations;
+import org.sammelbox.controller.filesystem.xml.XmlStorageWrapper;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.controller.managers.SettingsManager;
+import org.sammelbox.model.database.QueryBuilder;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+import org.sammelbox.model.settings.StorageProfile;
+
+public class StorageProfileTests {
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@Before
+	public void setUp() {
+		TestExecuter.resetTestHome();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		SettingsManager.getSettings().setStorageProfile(StorageProfile.SAFE);
+		TestExecuter.resetTestHome();
+	}
+
+	@Test
+	public void testProfilesAreAppliedToNewDatabases() {
+		try {
+			assertProfileIsApplied(StorageProfile.SAFE, "2", "1");
+			assertProfileIsApplied(StorageProfile.BALANCED, "1", "0");
+			assertProfileIsApplied(StorageProfile.THROUGHPUT, "0", "2");
+		} catch (SQLException ex) {
+			fail("Reading the settings of the connection failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testPageSizeOfExistingDatabaseIsKept() {
+		try {
+			ConnectionManager.closeConnection();
+			SettingsManager.getSettings().setStorageProfile(StorageProfile.THROUGHPUT);
+			ConnectionManager.openConnection();
+
+			assertEquals("The page size of the existing database should be kept", 
+					String.valueOf(StorageProfile.SAFE.getPageSizeInBytes()), queryPragma(ConnectionManager.getConnection(), "page_size"));
+			assertEquals("The cache size should be based on the page size of the existing database", 
+					String.valueOf(StorageProfile.THROUGHPUT.getCacheSizeInKibibytes() * 1024 / StorageProfile.SAFE.getPageSizeInBytes()), 
+					queryPragma(ConnectionManager.getConnection(), "cache_size"));
+		} catch (DatabaseWrapperOperationException | SQLException ex) {
+			fail("Reopening the database with another storage profile failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testRestoreOfBackupWithOtherPageSize() {
+		try {
+			SettingsManager.getSettings().setStorageProfile(StorageProfile.THROUGHPUT);
+			TestExecuter.resetTestHome();
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+
+			assertTrue("The backup should have been restored", 
+					!DatabaseOperations.getAlbumItems(QueryBuilder.createSelectStarQuery("DVDs")).isEmpty());
+			assertTrue("The database should be in write-ahead log mode again", ConnectionManager.isWriteAheadLogEnabled());
+			assertEquals("The journal mode should have been restored", "wal", queryPragma(ConnectionManager.getConnection(), "journal_mode"));
+			
+			Connection readOnlyConnection = ConnectionManager.borrowReadOnlyConnection();
+			try {
+				assertEquals("The read-only connections should see the restored database", 
+						queryPragma(ConnectionManager.getConnection(), "page_size"), queryPragma(readOnlyConnection, "page_size"));
+			} finally {
+				ConnectionManager.releaseReadOnlyConnection(readOnlyConnection);
+			}
+		} catch (DatabaseWrapperOperationException | SQLException ex) {
+			fail("Restoring the backup failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testStorageProfileIsPersisted() {
+		SettingsManager.getSettings().setStorageProfile(StorageProfile.BALANCED);
+		SettingsManager.storeToSettingsFile();
+		assertEquals("The stored storage profile should be retrieved", StorageProfile.BALANCED, XmlStorageWrapper.retrieveSettings().getStorageProfile());
+
+		FileSystemAccessWrapper.writeToFile("<settings>\n" +
+				"\t<userDefinedLanguage>ENGLISH</userDefinedLanguage>\n" +
+				"\t<dateFormat>dd.MM.yyyy</dateFormat>\n" +
+				"\t<defaultView>DETAILED_VIEW</defaultView>\n" +
+				"\t<showDebugMenu>false</showDebugMenu>\n" +
+				"\t<isFullSynchronizationEnabled>false</isFullSynchronizationEnabled>\n" +
+				"</settings>\n", FileSystemLocations.getSettingsXML());
+		assertEquals("Settings of earlier versions should use the safe storage profile", 
+				StorageProfile.SAFE, XmlStorageWrapper.retrieveSettings().getStorageProfile());
+	}
+
+	private static void assertProfileIsApplied(StorageProfile profile, String synchronous, String tempStore) throws SQLException {
+		SettingsManager.getSettings().setStorageProfile(profile);
+		TestExecuter.resetTestHome();
+		Connection connection = ConnectionManager.getConnection();
+		String expectedCacheSize = String.valueOf(profile.getCacheSizeInKibibytes() * 1024 / profile.getPageSizeInBytes());
+
+		assertEquals("The profile should have been applied", profile, ConnectionManager.getStorageProfile());
+		assertTrue("All profiles should keep the write-ahead log", ConnectionManager.isWriteAheadLogEnabled());
+		assertEquals("Unexpected synchronous mode of " + profile, synchronous, queryPragma(connection, "synchronous"));
+		assertEquals("Unexpected temporary storage of " + profile, tempStore, queryPragma(connection, "temp_store"));
+		assertEquals("Unexpected page size of " + profile, String.valueOf(profile.getPageSizeInBytes()), queryPragma(connection, "page_size"));
+		assertEquals("Unexpected cache size of " + profile, expectedCacheSize, queryPragma(connection, "cache_size"));
+
+		try {
+			Connection readOnlyConnection = ConnectionManager.borrowReadOnlyConnection();
+			try {
+				assertEquals("The read-only connections should use the cache size of " + profile, 
+						expectedCacheSize, queryPragma(readOnlyConnection, "cache_size"));
+			} finally {
+				ConnectionManager.releaseReadOnlyConnection(readOnlyConnection);
+			}
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("No read-only connection could be borrowed: " + ex.getMessage());
+		}
+	}
+
+	private static String queryPragma(Connection connection, String pragma) throws SQLException {
+		try (Statement statement = connection.createStatement();
+			 ResultSet resultSet = statement.executeQuery("PRAGMA " + pragma)) {
+			assertTrue("The pragma " + pragma + " should return a value", resultSet.next());
+			return resultSet.getString(1);
+		}
+	}
+}
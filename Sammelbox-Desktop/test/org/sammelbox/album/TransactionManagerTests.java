@@ -0,0 +1,187 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.album;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.controller.managers.TransactionManager;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.MetaItemField;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+public class TransactionManagerTests {
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@Before
+	public void setUp() {
+		TestExecuter.resetTestHome();
+		DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+		TransactionManager.resetStatistics();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		ConnectionManager.closeConnection();
+	}
+
+	@Test
+	public void testNestedOperationsShareOneTransaction() {
+		try {
+			// Renaming a field adds all items of the album again
+			DatabaseOperations.renameAlbumItemField("Books", 
+					new MetaItemField("Author", FieldType.TEXT), new MetaItemField("Writer", FieldType.TEXT));
+
+			assertEquals("The rename should have been committed as a single transaction", 1, TransactionManager.getCommitCount());
+			assertTrue("The nested operations should not have required savepoints", TransactionManager.getNestedScopeCount() > 0);
+			assertEquals("No scope should be left open", 0, TransactionManager.getDepth());
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+
+	@Test
+	public void testRollbackOfOutermostScopeUndoesAllChanges() {
+		try {
+			long numberOfBooks = DatabaseOperations.getNumberOfItemsInAlbum("Books");
+
+			String scopeToken = TransactionManager.beginScope();
+			DatabaseOperations.addAlbumItem(createBook(), true);
+			TransactionManager.rollbackScope(scopeToken);
+			TransactionManager.endScope(scopeToken);
+
+			assertEquals("The added book should have been rolled back", numberOfBooks, DatabaseOperations.getNumberOfItemsInAlbum("Books"));
+			assertEquals("The transaction should have been rolled back", 1, TransactionManager.getRollbackCount());
+			assertEquals("Nothing should have been committed", 0, TransactionManager.getCommitCount());
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+
+	@Test
+	public void testAfterCommitActionsOnlyRunOnCommit() {
+		final List<String> executedActions = new ArrayList<String>();
+
+		try {
+			String scopeToken = TransactionManager.beginScope();
+			TransactionManager.runAfterCommit(createRecordingAction(executedActions, "rolled back"));
+			TransactionManager.rollbackScope(scopeToken);
+			TransactionManager.endScope(scopeToken);
+
+			String outerScopeToken = TransactionManager.beginScope();
+			String innerScopeToken = TransactionManager.beginScope();
+			TransactionManager.runAfterCommit(createRecordingAction(executedActions, "committed"));
+			TransactionManager.endScope(innerScopeToken);
+			assertTrue("The action should wait for the outermost scope", executedActions.isEmpty());
+			TransactionManager.endScope(outerScopeToken);
+
+			assertEquals("Only the action of the committed transaction should have run", 
+					Collections.singletonList("committed"), executedActions);
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+
+	@Test
+	public void testRollbackOfNestedScopeRollsBackTheTransaction() {
+		long numberOfBooks = 0;
+		String outerScopeToken = null;
+
+		try {
+			numberOfBooks = DatabaseOperations.getNumberOfItemsInAlbum("Books");
+			outerScopeToken = TransactionManager.beginScope();
+			DatabaseOperations.addAlbumItem(createBook(), true);
+
+			String innerScopeToken = TransactionManager.beginScope();
+			DatabaseOperations.addAlbumItem(createBook(), true);
+			TransactionManager.rollbackScope(innerScopeToken);
+			TransactionManager.endScope(innerScopeToken);
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+
+		try {
+			TransactionManager.endScope(outerScopeToken);
+			fail("The outermost scope should be informed that its changes have been rolled back");
+		} catch (DatabaseWrapperOperationException e) {
+			// expected
+		}
+
+		try {
+			assertEquals("Both added books should have been rolled back", numberOfBooks, DatabaseOperations.getNumberOfItemsInAlbum("Books"));
+			assertEquals("The transaction should have been rolled back", 1, TransactionManager.getRollbackCount());
+			assertEquals("No scope should be left open", 0, TransactionManager.getDepth());
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+
+	@Test
+	public void testScopesMustBeEndedInReverseOrder() {
+		try {
+			String outerScopeToken = TransactionManager.beginScope();
+			String innerScopeToken = TransactionManager.beginScope();
+
+			try {
+				TransactionManager.endScope(outerScopeToken);
+				fail("The outer scope should not be ended before the inner scope");
+			} catch (DatabaseWrapperOperationException e) {
+				// expected
+			}
+
+			TransactionManager.endScope(innerScopeToken);
+			TransactionManager.endScope(outerScopeToken);
+			assertEquals("The empty transaction should have been committed", 1, TransactionManager.getCommitCount());
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+
+	private static AlbumItem createBook() {
+		AlbumItem book = new AlbumItem("Books");
+		book.addField("Book Title", FieldType.TEXT, "A book added within a transaction");
+		return book;
+	}
+
+	private static Runnable createRecordingAction(final List<String> executedActions, final String actionName) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				executedActions.add(actionName);
+			}
+		};
+	}
+}
@@ -245,6 +245,75 @@ public class AddAlbumItemTests {
 		}
 	}
 
+	@Test
+	public void testAlbumItemsAdditionInOneBatch() {
+		final String albumName = "Books";
+
+		List<AlbumItem> items = new ArrayList<AlbumItem>();
+		items.add(createBook(albumName, "first title", "first author"));
+		// The fields of the second item are in a different order and are therefore inserted by another statement
+		AlbumItem secondItem = new AlbumItem(albumName);
+		secondItem.addField("Author", FieldType.TEXT, "second author");
+		secondItem.addField("Book Title", FieldType.TEXT, "second title");
+		secondItem.addField("In Stock", FieldType.OPTION, OptionType.NO);
+		items.add(secondItem);
+		AlbumItem thirdItem = createBook(albumName, "third title", "third author");
+		List<AlbumItemPicture> pictures = new ArrayList<AlbumItemPicture>();
+		pictures.add(new AlbumItemPicture(TestExecuter.PATH_TO_TEST_PICTURE_1, TestExecuter.PATH_TO_TEST_PICTURE_1, albumName, AlbumItem.ITEM_ID_UNDEFINED));
+		thirdItem.setPictures(pictures);
+		items.add(thirdItem);
+
+		try {
+			List<Long> ids = DatabaseOperations.addAlbumItems(items, true);
+			Assert.assertEquals("An id should be returned for every item", 3, ids.size());
+			Assert.assertEquals("All items should have been added", 3, DatabaseOperations.getNumberOfItemsInAlbum(albumName));
+
+			String[] expectedTitles = new String[] {"first title", "second title", "third title"};
+			for (int i=0; i<ids.size(); i++) {
+				AlbumItem actualAlbumItem = DatabaseOperations.getAlbumItem(albumName, ids.get(i));
+				Assert.assertEquals("The ids should be returned in the order of the items", expectedTitles[i], actualAlbumItem.getField("Book Title").getValue());
+				Assert.assertNotNull("The content version should be stored together with the item", actualAlbumItem.getContentVersion());
+			}
+
+			Assert.assertEquals("The picture should be linked to the third item", 1, DatabaseOperations.getAlbumItemPictures(albumName, ids.get(2)).size());
+			Assert.assertTrue("No picture should be linked to the first item", DatabaseOperations.getAlbumItemPictures(albumName, ids.get(0)).isEmpty());
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Album Items could not be inserted into album");
+		}
+	}
+
+	@Test
+	public void testFailedBatchAddsNoAlbumItems() {
+		final String albumName = "Books";
+
+		try {
+			long existingId = DatabaseOperations.addAlbumItem(createBook(albumName, "existing title", "existing author"), true);
+
+			List<AlbumItem> items = new ArrayList<AlbumItem>();
+			items.add(createBook(albumName, "new title", "new author"));
+			AlbumItem conflictingItem = createBook(albumName, "conflicting title", "conflicting author");
+			conflictingItem.setItemId(existingId);
+			items.add(conflictingItem);
+
+			DatabaseOperations.addAlbumItems(items, true);
+			fail("An item with the id of an existing item should not be added");
+		} catch (DatabaseWrapperOperationException e) {
+			try {
+				Assert.assertEquals("None of the items should have been added", 1, DatabaseOperations.getNumberOfItemsInAlbum(albumName));
+			} catch (DatabaseWrapperOperationException ex) {
+				fail("The number of items could not be retrieved");
+			}
+		}
+	}
+
+	private AlbumItem createBook(String albumName, String title, String author) {
+		AlbumItem item = new AlbumItem(albumName);
+		item.addField("Book Title", FieldType.TEXT, title);
+		item.addField("Author", FieldType.TEXT, author);
+		item.addField("In Stock", FieldType.OPTION, OptionType.YES);
+		return item;
+	}
+
 	private void createBooksAlbum() {
 		final String albumName = "Books";
 		MetaItemField titleField = new MetaItemField("Book Title", FieldType.TEXT, true);
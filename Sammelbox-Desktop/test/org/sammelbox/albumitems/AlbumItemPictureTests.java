@@ -1,9 +1,16 @@
 package org.sammelbox.albumitems;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.After;
@@ -12,10 +19,14 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
 import org.sammelbox.controller.managers.DatabaseIntegrityManager;
 import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemPicture;
+import org.sammelbox.model.album.AlbumItemStore;
 import org.sammelbox.model.album.FieldType;
 import org.sammelbox.model.album.MetaItemField;
+import org.sammelbox.model.database.DatabaseStringUtilities;
 import org.sammelbox.model.database.QueryBuilder;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.operations.DatabaseOperations;
@@ -148,4 +159,95 @@ public class AlbumItemPictureTests {
 			fail(e.toString());
 		}
 	}
+	
+	@Test
+	public void testBatchLoadedPicturesMatchSingleItemPictures() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			List<Long> albumItemIds = new ArrayList<Long>();
+			
+			for (AlbumItem albumItem : DatabaseOperations.getAlbumItems(QueryBuilder.createSelectStarQuery("DVDs"))) {
+				albumItemIds.add(albumItem.getItemId());
+			}
+			// an id without album item
+			albumItemIds.add(4242L);
+			
+			Map<Long, List<AlbumItemPicture>> picturesByAlbumItemId = DatabaseOperations.getAlbumItemPictures("DVDs", albumItemIds);
+			assertEquals("There should be a picture list for every requested id", albumItemIds.size(), picturesByAlbumItemId.size());
+			
+			for (Long albumItemId : albumItemIds) {
+				assertEquals("The batch loaded pictures should equal the pictures loaded for a single item",
+						getOriginalPictureNames(DatabaseOperations.getAlbumItemPictures("DVDs", albumItemId)), 
+						getOriginalPictureNames(picturesByAlbumItemId.get(albumItemId)));
+			}
+			
+			assertTrue("The id without album item should not have pictures", picturesByAlbumItemId.get(4242L).isEmpty());
+		} catch (DatabaseWrapperOperationException e) {
+			fail(e.toString());
+		}
+	}
+	
+	@Test
+	public void testPictureTableIndexIsCreatedOnDemand() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			String pictureIndexName = DatabaseStringUtilities.generatePictureIndexName("DVDs");
+			
+			assertFalse("Albums of older versions should not have a picture table index", indexExists(pictureIndexName));
+			DatabaseOperations.getAlbumItemPictures("DVDs", 1);
+			assertTrue("The picture table index should be created when pictures are loaded", indexExists(pictureIndexName));
+			
+			DatabaseOperations.createNewAlbum("Picture Album", new ArrayList<MetaItemField>(), true);
+			assertTrue("A new album should have a picture table index", 
+					indexExists(DatabaseStringUtilities.generatePictureIndexName("Picture Album")));
+		} catch (DatabaseWrapperOperationException | SQLException e) {
+			fail(e.toString());
+		}
+	}
+	
+	@Test
+	public void testAlbumItemStorePicturesAreReloadedAfterChanges() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			AlbumItemStore.reinitializeStore(DatabaseOperations.executeSQLQuery(QueryBuilder.createOrderedSelectStarQuery("DVDs")));
+			
+			for (AlbumItem albumItem : AlbumItemStore.getAlbumItems()) {
+				assertEquals("The stored pictures should equal the pictures loaded for a single item",
+						getOriginalPictureNames(DatabaseOperations.getAlbumItemPictures("DVDs", albumItem.getItemId())), 
+						getOriginalPictureNames(AlbumItemStore.getAlbumItemPictures(albumItem)));
+			}
+			
+			// remove the pictures of the first stored item
+			AlbumItem firstAlbumItem = AlbumItemStore.getAlbumItems().get(0);
+			AlbumItem modifiedAlbumItem = DatabaseOperations.getAlbumItem("DVDs", firstAlbumItem.getItemId());
+			modifiedAlbumItem.setPictures(new ArrayList<AlbumItemPicture>());
+			DatabaseOperations.updateAlbumItem(modifiedAlbumItem);
+			
+			assertTrue("The stored pictures should be reloaded after the database changed", 
+					AlbumItemStore.getAlbumItemPictures(firstAlbumItem).isEmpty());
+		} catch (DatabaseWrapperOperationException e) {
+			fail(e.toString());
+		}
+	}
+	
+	private static List<String> getOriginalPictureNames(List<AlbumItemPicture> pictures) {
+		List<String> originalPictureNames = new ArrayList<String>();
+		
+		for (AlbumItemPicture picture : pictures) {
+			originalPictureNames.add(picture.getOriginalPictureName());
+		}
+		
+		return originalPictureNames;
+	}
+	
+	private static boolean indexExists(String indexName) throws SQLException {
+		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(
+				"SELECT name FROM sqlite_master WHERE type = 'index' AND name = ?")) {
+			preparedStatement.setString(1, indexName);
+			
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				return resultSet.next();
+			}
+		}
+	}
 }
\ No newline at end of file
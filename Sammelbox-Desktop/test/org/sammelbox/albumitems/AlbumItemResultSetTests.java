@@ -0,0 +1,175 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.albumitems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemResultSet;
+import org.sammelbox.model.database.QueryBuilder;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+public class AlbumItemResultSetTests {
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@Test
+	public void testRowsAreStreamedInOrder() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			String query = QueryBuilder.createOrderedSelectStarQuery("DVDs");
+			List<AlbumItem> albumItems = DatabaseOperations.getAlbumItems(query);
+
+			int rowCount = 0;
+			AlbumItemResultSet resultSet = DatabaseOperations.executeSQLQuery(query);
+			resultSet.setFetchSize(AlbumItemResultSet.STREAMING_FETCH_SIZE);
+			for (AlbumItemResultSet.Row row : resultSet) {
+				AlbumItem albumItem = row.toAlbumItem();
+				assertEquals("The rows should be returned in the order of the query", albumItems.get(rowCount).getItemId(), albumItem.getItemId());
+				assertEquals("The row values should be the values of the album item", 
+						albumItems.get(rowCount).getField("Title").getValue(), albumItem.getField("Title").getValue());
+				rowCount++;
+			}
+
+			assertEquals("Every item should be returned once", albumItems.size(), rowCount);
+			assertTrue("The result set should be closed after the last row", resultSet.isClosed());
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Streaming the DVDs failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testResultSetCanOnlyBeIteratedOnce() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+
+			try (AlbumItemResultSet resultSet = DatabaseOperations.executeSQLQuery(QueryBuilder.createSelectStarQuery("DVDs"))) {
+				resultSet.iterator();
+
+				try {
+					resultSet.iterator();
+					fail("A result set should not be iterated twice");
+				} catch (IllegalStateException ex) {
+					assertFalse("A failed iteration should not close the result set", resultSet.isClosed());
+				}
+			}
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Iterating the DVDs failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testClosedResultSetHasNoRows() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+
+			AlbumItemResultSet resultSet = DatabaseOperations.executeParameterizedQuery(
+					QueryBuilder.createAlbumItemPageQuery("DVDs", null, true, null, 0, 1));
+			resultSet.close();
+			resultSet.close();
+			assertTrue("The result set should be closed", resultSet.isClosed());
+
+			Iterator<AlbumItemResultSet.Row> rows = resultSet.iterator();
+			assertFalse("A closed result set should not have rows", rows.hasNext());
+			try {
+				rows.next();
+				fail("A closed result set should not return a row");
+			} catch (NoSuchElementException ex) {
+				// expected
+			}
+
+			// The prepared statement of the closed result set is cached and must still be usable
+			AlbumItemResultSet nextResultSet = DatabaseOperations.executeParameterizedQuery(
+					QueryBuilder.createAlbumItemPageQuery("DVDs", null, true, null, 0, 1));
+			int rowCount = 0;
+			for (AlbumItemResultSet.Row row : nextResultSet) {
+				assertTrue("The row should be an item of the DVDs", row.toAlbumItem().getItemId() > AlbumItem.ITEM_ID_UNDEFINED);
+				rowCount++;
+			}
+			assertEquals("The reused statement should return a single row", 1, rowCount);
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Reusing the prepared statement failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testNestedResultSetsOfTheSameQuery() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+
+			try (AlbumItemResultSet outerResultSet = DatabaseOperations.executeParameterizedQuery(
+					QueryBuilder.createAlbumItemPageQuery("DVDs", null, true, null, 0, 1))) {
+				int outerRowCount = 0;
+				for (AlbumItemResultSet.Row outerRow : outerResultSet) {
+					long outerItemId = outerRow.toAlbumItem().getItemId();
+
+					// The outer statement is busy, so the inner query must not reset its results
+					int innerRowCount = 0;
+					try (AlbumItemResultSet innerResultSet = DatabaseOperations.executeParameterizedQuery(
+							QueryBuilder.createAlbumItemPageQuery("DVDs", null, true, null, 0, 1))) {
+						assertEquals("Both statements should be in use", 2, ConnectionManager.getBusyPreparedStatementCount());
+						for (AlbumItemResultSet.Row innerRow : innerResultSet) {
+							assertEquals("The inner query should return the same item", outerItemId, innerRow.toAlbumItem().getItemId());
+							innerRowCount++;
+						}
+					}
+					assertEquals("The inner query should return a single row", 1, innerRowCount);
+					outerRowCount++;
+				}
+				assertEquals("The outer query should return a single row", 1, outerRowCount);
+			}
+
+			assertEquals("Closed result sets should release their statements", 0, ConnectionManager.getBusyPreparedStatementCount());
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Nesting the queries failed: " + ex.getMessage());
+		}
+	}
+}
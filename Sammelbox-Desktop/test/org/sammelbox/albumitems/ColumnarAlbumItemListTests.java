@@ -0,0 +1,346 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.albumitems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemStore;
+import org.sammelbox.model.album.ColumnarAlbumItemList;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.ItemField;
+import org.sammelbox.model.album.OptionType;
+import org.sammelbox.model.album.StarRating;
+import org.sammelbox.model.database.QueryBuilder;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseConstants;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+public class ColumnarAlbumItemListTests {
+	private static final String ALBUM_NAME = "Columns";
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@Test
+	public void testStoredAlbumsAreReproducedExactly() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+
+			for (String albumName : new String[] {"Books", "DVDs"}) {
+				List<AlbumItem> albumItems = DatabaseOperations.getAlbumItems(QueryBuilder.createSelectStarQuery(albumName));
+				assertAlbumItemsEqual(albumItems, ColumnarAlbumItemList.copyOf(albumItems));
+
+				ColumnarAlbumItemList readAlbumItems = AlbumItemStore.readAlbumItems(
+						DatabaseOperations.executeSQLQuery(QueryBuilder.createSelectStarQuery(albumName)), new AtomicBoolean(false));
+				assertEquals("The read items of " + albumName + " should be all items", albumItems.size(), readAlbumItems.size());
+				for (int i=0; i<albumItems.size(); i++) {
+					assertEquals("The read item ids should not be changed", albumItems.get(i).getItemId(), readAlbumItems.getItemId(i));
+					assertEquals("The read items should keep their id", readAlbumItems.getItemId(i), readAlbumItems.get(i).getItemId());
+				}
+			}
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Reading the stored albums failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testAllFieldTypesAndMissingValuesAreReproduced() {
+		List<AlbumItem> albumItems = new ArrayList<AlbumItem>();
+
+		albumItems.add(createAlbumItem(1L, "Title", "http://www.sammelbox.org", 42, 4.2, new Date(86400000L), new Time(3600000L),
+				OptionType.YES, StarRating.FOUR_STARS, UUID.randomUUID()));
+		albumItems.add(createAlbumItem(2L, null, null, null, null, null, null, null, null, null));
+		albumItems.add(createAlbumItem(3L, "", "", 0, 0.0, new Date(0L), new Time(0L), OptionType.UNKNOWN, StarRating.ZERO_STARS, null));
+
+		ColumnarAlbumItemList columnarAlbumItems = ColumnarAlbumItemList.copyOf(albumItems);
+		assertAlbumItemsEqual(albumItems, columnarAlbumItems);
+		assertNull("A missing value should remain missing", columnarAlbumItems.getFieldValue(1, "Integer"));
+		assertNull("An unknown field should not have a value", columnarAlbumItems.getFieldValue(0, "Unknown"));
+		assertEquals("The value should be returned without creating the item", 4.2, columnarAlbumItems.getFieldValue(0, "Decimal"));
+	}
+
+	@Test
+	public void testValuesWhichDoNotMatchTheirTypeAreKept() {
+		List<AlbumItem> albumItems = new ArrayList<AlbumItem>();
+
+		albumItems.add(createAlbumItem(1L, "Title", null, 1, 1.0, new Date(0L), null, OptionType.NO, StarRating.ONE_STAR, null));
+		// The sample album item uses milliseconds for times, the spreadsheet uses java.util.Date
+		albumItems.add(createAlbumItem(2L, "Title", null, 2, 2.0, new java.util.Date(0L), System.currentTimeMillis(),
+				OptionType.NO, StarRating.ONE_STAR, null));
+
+		assertAlbumItemsEqual(albumItems, ColumnarAlbumItemList.copyOf(albumItems));
+	}
+
+	@Test
+	public void testRepetitiveAndDistinctTextsAreReproduced() {
+		List<AlbumItem> albumItems = new ArrayList<AlbumItem>();
+
+		for (int i=0; i<2000; i++) {
+			// The title is distinct for every item, whereas the URL is shared by many items
+			albumItems.add(createAlbumItem((long) i, "Title " + i, i % 10 == 0 ? null : "http://" + (i % 7), i, (double) i, null, null,
+					OptionType.values()[i % OptionType.values().length], StarRating.values()[i % StarRating.values().length], UUID.randomUUID()));
+		}
+
+		assertAlbumItemsEqual(albumItems, ColumnarAlbumItemList.copyOf(albumItems));
+	}
+
+	@Test
+	public void testSelectTruncateAndAppend() {
+		List<AlbumItem> albumItems = new ArrayList<AlbumItem>();
+		for (int i=0; i<5; i++) {
+			albumItems.add(createAlbumItem((long) i, "Title " + i, null, i, (double) i, null, null, OptionType.YES, StarRating.TWO_STARS, UUID.randomUUID()));
+		}
+		ColumnarAlbumItemList columnarAlbumItems = ColumnarAlbumItemList.copyOf(albumItems);
+
+		assertAlbumItemsEqual(Arrays.asList(albumItems.get(4), albumItems.get(1)), columnarAlbumItems.select(Arrays.asList(4, 1)));
+		assertEquals("The position of an item should be found by its id", 3, columnarAlbumItems.indexOfItemId(3L));
+		assertEquals("Unknown ids should not be found", -1, columnarAlbumItems.indexOfItemId(42L));
+
+		columnarAlbumItems.truncate(2);
+		assertAlbumItemsEqual(albumItems.subList(0, 2), columnarAlbumItems);
+
+		ColumnarAlbumItemList appendedAlbumItems = new ColumnarAlbumItemList();
+		appendedAlbumItems.addAll(columnarAlbumItems);
+		appendedAlbumItems.addAll(ColumnarAlbumItemList.copyOf(albumItems.subList(2, 5)));
+		assertAlbumItemsEqual(albumItems, appendedAlbumItems);
+	}
+
+	@Test
+	public void testReplaceAndRemoveItems() {
+		List<AlbumItem> albumItems = new ArrayList<AlbumItem>();
+		for (int i=0; i<5; i++) {
+			albumItems.add(createAlbumItem((long) i, "Title " + i, null, i, (double) i, null, null, OptionType.YES, StarRating.TWO_STARS, UUID.randomUUID()));
+		}
+		ColumnarAlbumItemList columnarAlbumItems = new ColumnarAlbumItemList();
+		columnarAlbumItems.addAll(albumItems);
+
+		AlbumItem replacement = createAlbumItem(2L, "New title", "http://www.sammelbox.org", 42, null, null, null, 
+				OptionType.NO, StarRating.FIVE_STARS, UUID.randomUUID());
+		assertAlbumItemsEqual(Arrays.asList(albumItems.get(2)), Arrays.asList(columnarAlbumItems.set(2, replacement)));
+		albumItems.set(2, replacement);
+		assertAlbumItemsEqual(albumItems, columnarAlbumItems);
+
+		assertEquals("Only the known ids should be removed", 2, columnarAlbumItems.removeItemIds(Arrays.asList(0L, 3L, 42L)));
+		assertAlbumItemsEqual(Arrays.asList(albumItems.get(1), albumItems.get(2), albumItems.get(4)), columnarAlbumItems);
+		assertEquals("The remaining items should be found at their new position", 2, columnarAlbumItems.indexOfItemId(4L));
+		assertEquals("Removed items should not be found", -1, columnarAlbumItems.indexOfItemId(3L));
+	}
+
+	@Test
+	public void testReplacingTextKeepsTheFollowingItems() {
+		List<AlbumItem> albumItems = new ArrayList<AlbumItem>();
+		for (int i=0; i<800; i++) {
+			// The titles repeat often enough to remain dictionary encoded, until one more distinct title is set
+			String title = i < 600 ? "Title " + (i % 200) : "Unique title " + i;
+			albumItems.add(createAlbumItem((long) i, title, null, i, null, null, null, OptionType.YES, StarRating.ONE_STAR, UUID.randomUUID()));
+		}
+		ColumnarAlbumItemList columnarAlbumItems = ColumnarAlbumItemList.copyOf(albumItems);
+
+		AlbumItem replacement = createAlbumItem(10L, "New title", null, 10, null, null, null, OptionType.NO, StarRating.TWO_STARS, UUID.randomUUID());
+		columnarAlbumItems.set(10, replacement);
+		albumItems.set(10, replacement);
+
+		assertAlbumItemsEqual(albumItems, columnarAlbumItems);
+	}
+
+	@Test
+	public void testChangesToReturnedItemsAreNotWrittenBack() {
+		List<AlbumItem> albumItems = new ArrayList<AlbumItem>();
+		for (int i=0; i<3; i++) {
+			albumItems.add(createAlbumItem((long) i, "Title " + i, null, i, null, null, null, OptionType.YES, StarRating.ONE_STAR, UUID.randomUUID()));
+		}
+		ColumnarAlbumItemList columnarAlbumItems = ColumnarAlbumItemList.copyOf(albumItems);
+
+		AlbumItem returnedAlbumItem = columnarAlbumItems.get(1);
+		returnedAlbumItem.getField("Text").setValue("Changed title");
+		
+		assertEquals("The returned item should be changed", "Changed title", returnedAlbumItem.getField("Text").getValue());
+		assertEquals("The list should keep its value", "Title 1", columnarAlbumItems.get(1).getField("Text").getValue());
+		assertAlbumItemsEqual(albumItems, columnarAlbumItems);
+	}
+
+	@Test
+	public void testItemIdIndexFollowsTheList() {
+		ColumnarAlbumItemList columnarAlbumItems = new ColumnarAlbumItemList();
+		List<Long> albumItemIds = new ArrayList<Long>();
+		Random random = new Random(42);
+
+		for (int i=0; i<1000; i++) {
+			long albumItemId = i == 0 ? AlbumItem.ITEM_ID_UNDEFINED : random.nextLong();
+			albumItemIds.add(albumItemId);
+			columnarAlbumItems.add(createAlbumItem(albumItemId, "Title", null, i, 1.0, null, null, OptionType.YES, StarRating.ONE_STAR, null));
+		}
+
+		for (int i=0; i<albumItemIds.size(); i++) {
+			assertEquals("Every id should be found at its position", i, columnarAlbumItems.indexOfItemId(albumItemIds.get(i)));
+		}
+
+		// Items added after the first lookup must be indexed as well. Duplicate ids refer to the first item
+		columnarAlbumItems.add(createAlbumItem(4711L, "Title", null, 0, 1.0, null, null, OptionType.YES, StarRating.ONE_STAR, null));
+		columnarAlbumItems.add(createAlbumItem(albumItemIds.get(1), "Title", null, 0, 1.0, null, null, OptionType.YES, StarRating.ONE_STAR, null));
+		assertEquals("An added id should be found", 1000, columnarAlbumItems.indexOfItemId(4711L));
+		assertEquals("A duplicate id should refer to the first item", 1, columnarAlbumItems.indexOfItemId(albumItemIds.get(1)));
+
+		columnarAlbumItems.truncate(10);
+		assertEquals("Removed items should not be found", -1, columnarAlbumItems.indexOfItemId(4711L));
+		assertEquals("Remaining items should be found", 9, columnarAlbumItems.indexOfItemId(albumItemIds.get(9)));
+		assertEquals("Removed items should not be found", -1, columnarAlbumItems.indexOfItemId(albumItemIds.get(10)));
+	}
+
+	@Test
+	public void testBulkLookupOfStoredItems() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			AlbumItemStore.reinitializeStore(DatabaseOperations.executeSQLQuery(QueryBuilder.createSelectStarQuery("DVDs")));
+
+			List<Long> requestedIds = new ArrayList<Long>();
+			for (AlbumItem albumItem : AlbumItemStore.getAlbumItems()) {
+				requestedIds.add(0, albumItem.getItemId());
+			}
+			requestedIds.add(1, 4711L);
+
+			List<AlbumItem> requestedAlbumItems = AlbumItemStore.getAlbumItems(requestedIds);
+			assertEquals("Unknown ids should be skipped", requestedIds.size() - 1, requestedAlbumItems.size());
+			requestedIds.remove(1);
+			for (int i=0; i<requestedIds.size(); i++) {
+				assertEquals("The items should be returned in the requested order", 
+						(long) requestedIds.get(i), requestedAlbumItems.get(i).getItemId());
+				assertEquals("The bulk lookup should return the same items as the single lookup",
+						AlbumItemStore.getAlbumItem(requestedIds.get(i)).getFields(), requestedAlbumItems.get(i).getFields());
+			}
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Looking up the stored DVDs failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testItemsOfAnAlbumShareTheirFieldDescriptors() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+
+			List<AlbumItem> albumItems = DatabaseOperations.getAlbumItems(QueryBuilder.createSelectStarQuery("DVDs"));
+			AlbumItem firstDvd = albumItems.get(0);
+			AlbumItem secondDvd = albumItems.get(1);
+			assertSame("Read items should share the descriptor of a field",
+					firstDvd.getField("Title").getDescriptor(), secondDvd.getField("Title").getDescriptor());
+
+			ColumnarAlbumItemList columnarAlbumItems = ColumnarAlbumItemList.copyOf(albumItems);
+			assertSame("Items of a columnar list should share the descriptors of the read items",
+					firstDvd.getField("Title").getDescriptor(), columnarAlbumItems.get(1).getField("Title").getDescriptor());
+
+			firstDvd.getField("Title").setName("Renamed");
+			assertEquals("Renaming the field of one item should not affect other items", "Title", secondDvd.getFields().get(
+					firstDvd.getFields().indexOf(firstDvd.getField("Renamed"))).getName());
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Reading the DVDs failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testAlbumItemsWithOtherFieldsAreRejected() {
+		ColumnarAlbumItemList columnarAlbumItems = new ColumnarAlbumItemList();
+		columnarAlbumItems.add(createAlbumItem(1L, "Title", null, 1, 1.0, null, null, OptionType.YES, StarRating.ONE_STAR, null));
+
+		AlbumItem otherAlbumItem = new AlbumItem(ALBUM_NAME);
+		otherAlbumItem.addField(DatabaseConstants.ID_COLUMN_NAME, FieldType.ID, 2L);
+
+		try {
+			columnarAlbumItems.add(otherAlbumItem);
+			fail("An album item with other fields should not be added");
+		} catch (IllegalArgumentException ex) {
+			assertEquals("The rejected item should not be added", 1, columnarAlbumItems.size());
+		}
+	}
+
+	private static AlbumItem createAlbumItem(Long id, String text, String url, Integer integer, Double decimal, Object date, Object time,
+			OptionType option, StarRating starRating, UUID contentVersion) {
+		List<ItemField> itemFields = new ArrayList<ItemField>();
+
+		itemFields.add(new ItemField(DatabaseConstants.ID_COLUMN_NAME, FieldType.ID, id));
+		itemFields.add(new ItemField("Text", FieldType.TEXT, text, true));
+		itemFields.add(new ItemField("URL", FieldType.URL, url));
+		itemFields.add(new ItemField("Integer", FieldType.INTEGER, integer));
+		itemFields.add(new ItemField("Decimal", FieldType.DECIMAL, decimal));
+		itemFields.add(new ItemField("Date", FieldType.DATE, date));
+		itemFields.add(new ItemField("Time", FieldType.TIME, time));
+		itemFields.add(new ItemField("Option", FieldType.OPTION, option));
+		itemFields.add(new ItemField("Stars", FieldType.STAR_RATING, starRating));
+
+		AlbumItem albumItem = new AlbumItem(ALBUM_NAME, itemFields);
+		albumItem.setContentVersion(contentVersion);
+
+		return albumItem;
+	}
+
+	private static void assertAlbumItemsEqual(List<AlbumItem> expectedAlbumItems, List<AlbumItem> albumItems) {
+		assertEquals("The number of items should be kept", expectedAlbumItems.size(), albumItems.size());
+
+		for (int i=0; i<expectedAlbumItems.size(); i++) {
+			AlbumItem expectedAlbumItem = expectedAlbumItems.get(i);
+			AlbumItem albumItem = albumItems.get(i);
+
+			assertEquals("The album name should be kept", expectedAlbumItem.getAlbumName(), albumItem.getAlbumName());
+			assertEquals("The content version should be kept", expectedAlbumItem.getContentVersion(), albumItem.getContentVersion());
+			assertEquals("The fields should be kept", expectedAlbumItem.getFields(), albumItem.getFields());
+
+			for (int j=0; j<expectedAlbumItem.getFields().size(); j++) {
+				Object expectedValue = expectedAlbumItem.getFields().get(j).getValue();
+				Object value = albumItem.getFields().get(j).getValue();
+				assertEquals("The type of the values should be kept",
+						expectedValue == null ? null : expectedValue.getClass(), value == null ? null : value.getClass());
+			}
+		}
+	}
+}
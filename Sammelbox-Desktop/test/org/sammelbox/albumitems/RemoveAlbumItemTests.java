@@ -21,6 +21,8 @@ package org.sammelbox.albumitems;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,11 +34,17 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.filesystem.FileDeletionQueue;
+import org.sammelbox.controller.filesystem.FileSystemAccessWrapper;
+import org.sammelbox.controller.filesystem.FileSystemLocations;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
 import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemPicture;
 import org.sammelbox.model.album.AlbumItemResultSet;
 import org.sammelbox.model.album.FieldType;
 import org.sammelbox.model.album.ItemField;
 import org.sammelbox.model.album.MetaItemField;
+import org.sammelbox.model.database.QueryBuilder;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.operations.DatabaseOperations;
 
@@ -47,6 +55,8 @@ public class RemoveAlbumItemTests {
 	private final String DVD_TITLE_FIELD_VALUE = "dvd title 1";
 	/** Name of the album where an item will be deleted */
 	private final String DVD_ALBUM_NAME = "dvd_album";
+	/** The maximum time to wait for the deletion of picture files in the background */
+	private static final long FILE_DELETION_TIMEOUT_IN_MILLISECONDS = 10000;
 	
 	@BeforeClass
 	public static void setUpBeforeClass() throws Exception {
@@ -96,6 +106,116 @@ public class RemoveAlbumItemTests {
 		}
 	}
 
+	@Test
+	public void removeSeveralItemsFromDVDAlbum() {
+		try {
+			List<Long> albumItemIds = new ArrayList<Long>();
+			for (AlbumItem albumItem : DatabaseOperations.getAlbumItems(QueryBuilder.createSelectStarQuery(DVD_ALBUM_NAME))) {
+				albumItemIds.add(albumItem.getItemId());
+			}
+			Assert.assertEquals("Both items should be found", 2, albumItemIds.size());
+			
+			DatabaseOperations.deleteAlbumItems(DVD_ALBUM_NAME, albumItemIds);
+			Assert.assertEquals("Both items should have been deleted", 0, DatabaseOperations.getNumberOfItemsInAlbum(DVD_ALBUM_NAME));
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Deletion of several items failed");
+		}
+	}
+	
+	@Test
+	public void picturesOfRemovedItemsAreDeletedInTheBackground() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			List<Long> albumItemIds = new ArrayList<Long>();
+			List<File> pictureFiles = new ArrayList<File>();
+			for (AlbumItem albumItem : DatabaseOperations.getAlbumItems(QueryBuilder.createSelectStarQuery("DVDs"))) {
+				albumItemIds.add(albumItem.getItemId());
+				for (AlbumItemPicture picture : DatabaseOperations.getAlbumItemPictures("DVDs", albumItem.getItemId())) {
+					pictureFiles.add(new File(picture.getOriginalPicturePath()));
+					pictureFiles.add(new File(picture.getThumbnailPicturePath()));
+				}
+			}
+			Assert.assertFalse("The DVDs should have pictures", pictureFiles.isEmpty());
+			for (File pictureFile : pictureFiles) {
+				Assert.assertTrue("The picture files should exist before the deletion", pictureFile.exists());
+			}
+			
+			DatabaseOperations.deleteAlbumItems("DVDs", albumItemIds);
+			Assert.assertEquals("All DVDs should have been deleted", 0, DatabaseOperations.getNumberOfItemsInAlbum("DVDs"));
+			
+			Assert.assertTrue("The picture files should be deleted in time", FileDeletionQueue.awaitCompletion(FILE_DELETION_TIMEOUT_IN_MILLISECONDS));
+			for (File pictureFile : pictureFiles) {
+				Assert.assertFalse("The picture files should have been deleted", pictureFile.exists());
+			}
+			Assert.assertFalse("The journal should have been removed", new File(FileSystemLocations.getFileDeletionJournal()).exists());
+		} catch (DatabaseWrapperOperationException | InterruptedException e) {
+			fail("Deletion of the DVDs failed");
+		}
+	}
+	
+	@Test
+	public void picturesOfRolledBackRemovalAreKept() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			AlbumItem albumItem = DatabaseOperations.getAlbumItems(QueryBuilder.createSelectStarQuery("DVDs")).get(0);
+			File pictureFile = new File(DatabaseOperations.getAlbumItemPictures("DVDs", albumItem.getItemId()).get(0).getOriginalPicturePath());
+			
+			String savepointName = DatabaseIntegrityManager.createSavepoint();
+			DatabaseOperations.deleteAlbumItem(albumItem);
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			DatabaseIntegrityManager.releaseSavepoint(savepointName);
+			
+			Assert.assertTrue("No deletion should be pending", FileDeletionQueue.awaitCompletion(FILE_DELETION_TIMEOUT_IN_MILLISECONDS));
+			Assert.assertNotNull("The item should still exist", DatabaseOperations.getAlbumItem("DVDs", albumItem.getItemId()));
+			Assert.assertTrue("The picture file should still exist", pictureFile.exists());
+		} catch (DatabaseWrapperOperationException | InterruptedException e) {
+			fail("Rolling back the deletion failed");
+		}
+	}
+	
+	@Test
+	public void pendingDeletionsDoNotAffectRestoredPictures() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			List<Long> albumItemIds = new ArrayList<Long>();
+			List<File> pictureFiles = new ArrayList<File>();
+			for (AlbumItem albumItem : DatabaseOperations.getAlbumItems(QueryBuilder.createSelectStarQuery("DVDs"))) {
+				albumItemIds.add(albumItem.getItemId());
+				for (AlbumItemPicture picture : DatabaseOperations.getAlbumItemPictures("DVDs", albumItem.getItemId())) {
+					pictureFiles.add(new File(picture.getOriginalPicturePath()));
+				}
+			}
+			
+			// The backup contains the very pictures whose deletion is pending
+			DatabaseOperations.deleteAlbumItems("DVDs", albumItemIds);
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			
+			Assert.assertEquals("No deletion should be pending once the backup has been restored", 0, FileDeletionQueue.getPendingCount());
+			for (File pictureFile : pictureFiles) {
+				Assert.assertTrue("The restored picture files should exist", pictureFile.exists());
+			}
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Restoring the deleted DVDs failed");
+		}
+	}
+	
+	@Test
+	public void interruptedDeletionIsResumed() {
+		try {
+			File leftoverFile = new File(FileSystemLocations.getAlbumPicturesDir(), "leftover.png");
+			FileSystemAccessWrapper.copyFile(new File(TestExecuter.PATH_TO_TEST_PICTURE_1), leftoverFile);
+			FileSystemAccessWrapper.writeToFile(leftoverFile.getAbsolutePath() + "\n", FileSystemLocations.getFileDeletionJournal());
+			
+			FileDeletionQueue.resume();
+			
+			Assert.assertTrue("The journaled file should be deleted in time", FileDeletionQueue.awaitCompletion(FILE_DELETION_TIMEOUT_IN_MILLISECONDS));
+			Assert.assertFalse("The journaled file should have been deleted", leftoverFile.exists());
+			Assert.assertFalse("The journal should have been removed", new File(FileSystemLocations.getFileDeletionJournal()).exists());
+		} catch (IOException | InterruptedException e) {
+			fail("Resuming the deletion failed");
+		}
+	}
+
 	private void createDVDAlbum() {
 		final String albumName = DVD_ALBUM_NAME;
 
@@ -21,8 +21,11 @@ package org.sammelbox.albumitems;
 import static org.junit.Assert.fail;
 
 import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.List;
 import java.util.TimeZone;
 import java.util.UUID;
@@ -35,12 +38,14 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
 import org.sammelbox.model.album.AlbumItem;
 import org.sammelbox.model.album.AlbumItemPicture;
 import org.sammelbox.model.album.FieldType;
 import org.sammelbox.model.album.ItemField;
 import org.sammelbox.model.album.MetaItemField;
 import org.sammelbox.model.album.OptionType;
+import org.sammelbox.model.database.DatabaseStringUtilities;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.operations.DatabaseOperations;
 
@@ -173,6 +178,157 @@ public class UpdateAlbumItemTests {
 		}
 	}
 
+	@Test
+	public void updateOnlyChangedFieldsOfAlbumItem() {
+		try {
+			AlbumItem originalAlbumItem = DatabaseOperations.getAlbumItem("Books", 1);
+			
+			// Changes a field behind the back of the item, without changing the content version
+			try (Statement statement = ConnectionManager.getConnection().createStatement()) {
+				statement.executeUpdate("UPDATE " + DatabaseStringUtilities.encloseNameWithQuotes(DatabaseStringUtilities.generateTableName("Books")) + 
+						" SET 'Author' = 'another author' WHERE id = 1");
+			}
+			
+			originalAlbumItem.getField("Book Title").setValue("updated book title");
+			Assert.assertEquals("Only the book title should have been changed", 1, originalAlbumItem.getChangedFields().size());
+			DatabaseOperations.updateAlbumItem(originalAlbumItem);
+			
+			AlbumItem updatedAlbumItem = DatabaseOperations.getAlbumItem("Books", 1);
+			Assert.assertEquals("The changed field should have been updated", "updated book title", updatedAlbumItem.getField("Book Title").getValue());
+			Assert.assertEquals("Unchanged fields should not have been written", "another author", updatedAlbumItem.getField("Author").getValue());
+			Assert.assertEquals("The item should have the new content version", originalAlbumItem.getContentVersion(), updatedAlbumItem.getContentVersion());
+			Assert.assertTrue("The updated item should be unchanged again", originalAlbumItem.getChangedFields().isEmpty());
+		} catch (DatabaseWrapperOperationException | SQLException e) {
+			fail("updateOnlyChangedFieldsOfAlbumItem failed");
+		}
+	}
+	
+	@Test
+	public void picturesOfAlbumItemAreOnlyRewrittenIfSet() {
+		try {
+			AlbumItem originalAlbumItem = DatabaseOperations.getAlbumItem("Books", 1);
+			List<AlbumItemPicture> pictureList = new ArrayList<AlbumItemPicture>();
+			pictureList.add(new AlbumItemPicture(TestExecuter.PATH_TO_TEST_PICTURE_1, TestExecuter.PATH_TO_TEST_PICTURE_1, "Books", 1));
+			pictureList.add(new AlbumItemPicture(TestExecuter.PATH_TO_TEST_PICTURE_2, TestExecuter.PATH_TO_TEST_PICTURE_2, "Books", 1));
+			originalAlbumItem.setPictures(pictureList);
+			DatabaseOperations.updateAlbumItem(originalAlbumItem);
+			
+			// A picture of another item follows the pictures of the first item, such that rewritten pictures would get new ids
+			AlbumItem otherAlbumItem = createSampleAlbumItem("Books");
+			otherAlbumItem.setPictures(Collections.singletonList(
+					new AlbumItemPicture(TestExecuter.PATH_TO_TEST_PICTURE_3, TestExecuter.PATH_TO_TEST_PICTURE_3, "Books", AlbumItemPicture.PICTURE_ID_UNDEFINED)));
+			DatabaseOperations.addAlbumItem(otherAlbumItem, false);
+			List<AlbumItemPicture> picturesBeforeUpdate = DatabaseOperations.getAlbumItemPictures("Books", 1);
+			
+			AlbumItem albumItem = DatabaseOperations.getAlbumItem("Books", 1);
+			albumItem.getField("Author").setValue("updated author");
+			DatabaseOperations.updateAlbumItem(albumItem);
+			
+			List<AlbumItemPicture> picturesAfterUpdate = DatabaseOperations.getAlbumItemPictures("Books", 1);
+			Assert.assertEquals("The pictures should be kept", picturesBeforeUpdate.size(), picturesAfterUpdate.size());
+			for (int i=0; i<picturesBeforeUpdate.size(); i++) {
+				Assert.assertEquals("The pictures should not have been rewritten", 
+						picturesBeforeUpdate.get(i).getPictureID(), picturesAfterUpdate.get(i).getPictureID());
+			}
+			Assert.assertEquals("The field should have been updated", "updated author", 
+					DatabaseOperations.getAlbumItem("Books", 1).getField("Author").getValue());
+		} catch (DatabaseWrapperOperationException e) {
+			fail("picturesOfAlbumItemAreOnlyRewrittenIfSet failed");
+		}
+	}
+	
+	@Test
+	public void outdatedAlbumItemIsNotUpdated() {
+		AlbumItem firstCopy = null;
+		
+		try {
+			firstCopy = DatabaseOperations.getAlbumItem("Books", 1);
+			AlbumItem secondCopy = DatabaseOperations.getAlbumItem("Books", 1);
+			
+			firstCopy.getField("Book Title").setValue("first title");
+			DatabaseOperations.updateAlbumItem(firstCopy);
+			
+			secondCopy.getField("Author").setValue("second author");
+			DatabaseOperations.updateAlbumItem(secondCopy);
+			fail("Updating an item which has been changed since it has been read should fail");
+		} catch (DatabaseWrapperOperationException e) {
+			// expected
+		}
+		
+		try {
+			AlbumItem storedAlbumItem = DatabaseOperations.getAlbumItem("Books", 1);
+			Assert.assertEquals("The first update should have been applied", "first title", storedAlbumItem.getField("Book Title").getValue());
+			Assert.assertEquals("The outdated update should have been rejected", "the author", storedAlbumItem.getField("Author").getValue());
+			
+			// The updated item knows the new content version and can be updated again
+			firstCopy.getField("Author").setValue("first author");
+			DatabaseOperations.updateAlbumItem(firstCopy);
+			Assert.assertEquals("The repeated update should have been applied", "first author", 
+					DatabaseOperations.getAlbumItem("Books", 1).getField("Author").getValue());
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Updating the current item failed");
+		}
+	}
+
+	@Test
+	public void applyChangesOfSeveralAlbumItemsInOneTransaction() {
+		try {
+			AlbumItem originalAlbumItem = DatabaseOperations.getAlbumItem("Books", 1);
+			List<AlbumItemPicture> pictureList = new ArrayList<AlbumItemPicture>();
+			pictureList.add(new AlbumItemPicture(TestExecuter.PATH_TO_TEST_PICTURE_1, TestExecuter.PATH_TO_TEST_PICTURE_1, "Books", 1));
+			originalAlbumItem.setPictures(pictureList);
+			DatabaseOperations.updateAlbumItem(originalAlbumItem);
+			
+			// Like the spreadsheet, only the id and the edited fields are provided
+			AlbumItem changedAlbumItem = new AlbumItem("Books");
+			changedAlbumItem.setItemId(1L);
+			changedAlbumItem.addField("Book Title", FieldType.TEXT, "changed book title");
+			List<AlbumItem> newAlbumItems = new ArrayList<AlbumItem>();
+			newAlbumItems.add(createSampleAlbumItem("Books"));
+			newAlbumItems.add(createSampleAlbumItem("Books"));
+			
+			List<Long> newAlbumItemIds = DatabaseOperations.applyAlbumItemChanges("Books", newAlbumItems, 
+					Collections.singletonList(changedAlbumItem), new ArrayList<AlbumItem>());
+			
+			Assert.assertEquals("Both new items should have been added", 2, newAlbumItemIds.size());
+			Assert.assertEquals("The album should contain the new items", 3, DatabaseOperations.getNumberOfItemsInAlbum("Books"));
+			AlbumItem updatedAlbumItem = DatabaseOperations.getAlbumItem("Books", 1);
+			Assert.assertEquals("The edited field should have been updated", "changed book title", updatedAlbumItem.getField("Book Title").getValue());
+			Assert.assertEquals("Other fields should be kept", "the author", updatedAlbumItem.getField("Author").getValue());
+			Assert.assertEquals("The pictures should be kept", 1, DatabaseOperations.getAlbumItemPictures("Books", 1).size());
+			
+			DatabaseOperations.applyAlbumItemChanges("Books", new ArrayList<AlbumItem>(), new ArrayList<AlbumItem>(), 
+					DatabaseOperations.getAlbumItems("Books", newAlbumItemIds));
+			Assert.assertEquals("The new items should have been removed", 1, DatabaseOperations.getNumberOfItemsInAlbum("Books"));
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Applying the changes failed");
+		}
+	}
+	
+	@Test
+	public void failedChangesOfSeveralAlbumItemsAreRolledBack() {
+		AlbumItem changedAlbumItem = new AlbumItem("Books");
+		changedAlbumItem.setItemId(1L);
+		changedAlbumItem.addField("Book Title", FieldType.TEXT, "changed book title");
+		changedAlbumItem.addField("Unknown Field", FieldType.TEXT, "unknown");
+		
+		try {
+			DatabaseOperations.applyAlbumItemChanges("Books", Collections.singletonList(createSampleAlbumItem("Books")), 
+					Collections.singletonList(changedAlbumItem), new ArrayList<AlbumItem>());
+			fail("Updating an unknown field should fail");
+		} catch (DatabaseWrapperOperationException e) {
+			// expected
+		}
+		
+		try {
+			Assert.assertEquals("The new item should not have been added", 1, DatabaseOperations.getNumberOfItemsInAlbum("Books"));
+			Assert.assertEquals("The item should not have been updated", "book title", 
+					DatabaseOperations.getAlbumItem("Books", 1).getField("Book Title").getValue());
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Reading the books failed");
+		}
+	}
+
 	private void createBooksAlbum() {
 		MetaItemField titleField = new MetaItemField("Book Title", FieldType.TEXT, true);
 		MetaItemField authorField = new MetaItemField("Author", FieldType.TEXT, true);
@@ -0,0 +1,57 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.benchmarks;
+
+import java.util.List;
+
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.database.QueryBuilder;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+/**
+ * Measures how long it takes to materialize all items of a generated album using {@link DatabaseOperations#getAlbumItems(String)}.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.sammelbox.benchmarks.AlbumItemDecodingBenchmark
+ */
+public final class AlbumItemDecodingBenchmark {
+	private AlbumItemDecodingBenchmark() {
+		// use main method
+	}
+
+	public static void main(String[] args) throws Exception {
+		int numberOfRows = BenchmarkUtilities.getNumberOfRows();
+
+		long startTime = System.nanoTime();
+		BenchmarkUtilities.createBenchmarkAlbum(numberOfRows);
+		BenchmarkUtilities.printResult("decoding", "generate album", System.nanoTime() - startTime, numberOfRows);
+
+		String query = QueryBuilder.createSelectStarQuery(BenchmarkUtilities.BENCHMARK_ALBUM_NAME);
+
+		for (int run = 1; run <= BenchmarkUtilities.getNumberOfRuns(); run++) {
+			startTime = System.nanoTime();
+			List<AlbumItem> albumItems = DatabaseOperations.getAlbumItems(query);
+			BenchmarkUtilities.printResult("decoding", "getAlbumItems run " + run, System.nanoTime() - startTime, albumItems.size());
+		}
+
+		ConnectionManager.closeConnection();
+		TestExecuter.resetTestHome();
+		ConnectionManager.closeConnection();
+	}
+}
@@ -0,0 +1,100 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+
+package org.sammelbox.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.filesystem.FileDeletionQueue;
+import org.sammelbox.controller.filesystem.FileSystemAccessWrapper;
+import org.sammelbox.controller.filesystem.FileSystemLocations;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemPicture;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+/**
+ * Compares deleting items with one picture each one by one with deleting them at once. Both variants hand the picture
+ * files to the background deletion queue, thus the time until the deletion returns (i.e. the time the UI is blocked)
+ * is reported separately from the time until all picture files have been deleted.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.sammelbox.benchmarks.AlbumItemDeleteBenchmark
+ */
+public final class AlbumItemDeleteBenchmark {
+	private static final String PICTURE_ALBUM_NAME = "Benchmark Pictured Books";
+	private static final int DEFAULT_NUMBER_OF_DELETED_ROWS = 1000;
+	private static final long FILE_DELETION_TIMEOUT_IN_MILLISECONDS = 60000;
+
+	private AlbumItemDeleteBenchmark() {
+		// use main method
+	}
+
+	public static void main(String[] args) throws Exception {
+		int numberOfDeletedRows = Integer.getInteger("sammelbox.benchmark.deletedRows", DEFAULT_NUMBER_OF_DELETED_ROWS);
+		TestExecuter.resetTestHome();
+		DatabaseOperations.createNewAlbum(PICTURE_ALBUM_NAME, BenchmarkUtilities.getBenchmarkAlbumFields(), true);
+
+		for (int run = 1; run <= BenchmarkUtilities.getNumberOfRuns(); run++) {
+			List<Long> albumItemIds = addAlbumItemsWithPictures(numberOfDeletedRows);
+			long startTime = System.nanoTime();
+			for (Long albumItemId : albumItemIds) {
+				DatabaseOperations.deleteAlbumItem(DatabaseOperations.getAlbumItem(PICTURE_ALBUM_NAME, albumItemId));
+			}
+			BenchmarkUtilities.printResult("delete", "one by one run " + run, System.nanoTime() - startTime, numberOfDeletedRows);
+			FileDeletionQueue.awaitCompletion(FILE_DELETION_TIMEOUT_IN_MILLISECONDS);
+			BenchmarkUtilities.printResult("delete", "one by one including files run " + run, System.nanoTime() - startTime, numberOfDeletedRows);
+
+			albumItemIds = addAlbumItemsWithPictures(numberOfDeletedRows);
+			startTime = System.nanoTime();
+			DatabaseOperations.deleteAlbumItems(PICTURE_ALBUM_NAME, albumItemIds);
+			BenchmarkUtilities.printResult("delete", "at once run " + run, System.nanoTime() - startTime, numberOfDeletedRows);
+			FileDeletionQueue.awaitCompletion(FILE_DELETION_TIMEOUT_IN_MILLISECONDS);
+			BenchmarkUtilities.printResult("delete", "at once including files run " + run, System.nanoTime() - startTime, numberOfDeletedRows);
+		}
+
+		ConnectionManager.closeConnection();
+		TestExecuter.resetTestHome();
+		ConnectionManager.closeConnection();
+	}
+
+	/** Adds the given number of items, each with a thumbnail and an original picture file of its own */
+	private static List<Long> addAlbumItemsWithPictures(int numberOfRows) throws IOException, DatabaseWrapperOperationException {
+		File placeholder = new File(TestExecuter.PATH_TO_TEST_PICTURE_1);
+		List<AlbumItem> albumItems = BenchmarkUtilities.createBenchmarkAlbumItems(numberOfRows);
+
+		for (AlbumItem albumItem : albumItems) {
+			albumItem.setAlbumName(PICTURE_ALBUM_NAME);
+
+			String pictureName = UUID.randomUUID().toString() + ".png";
+			FileSystemAccessWrapper.copyFile(placeholder, new File(FileSystemLocations.getThumbnailsDir(), pictureName));
+			FileSystemAccessWrapper.copyFile(placeholder, new File(FileSystemAccessWrapper.getFilePathForAlbum(PICTURE_ALBUM_NAME), pictureName));
+
+			List<AlbumItemPicture> pictures = new ArrayList<AlbumItemPicture>();
+			pictures.add(new AlbumItemPicture(pictureName, pictureName, PICTURE_ALBUM_NAME, AlbumItemPicture.PICTURE_ID_UNDEFINED));
+			albumItem.setPictures(pictures);
+		}
+
+		return DatabaseOperations.addAlbumItems(albumItems, true);
+	}
+}
@@ -0,0 +1,70 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.benchmarks;
+
+import java.util.List;
+
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+/**
+ * Compares adding the items of an album one by one within a single transaction with adding them as one batch.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.sammelbox.benchmarks.AlbumItemInsertBenchmark
+ */
+public final class AlbumItemInsertBenchmark {
+	private AlbumItemInsertBenchmark() {
+		// use main method
+	}
+
+	public static void main(String[] args) throws Exception {
+		int numberOfRows = BenchmarkUtilities.getNumberOfRows();
+		List<AlbumItem> albumItems = BenchmarkUtilities.createBenchmarkAlbumItems(numberOfRows);
+
+		for (int run = 1; run <= BenchmarkUtilities.getNumberOfRuns(); run++) {
+			createEmptyBenchmarkAlbum();
+			long startTime = System.nanoTime();
+			String savepointName = DatabaseIntegrityManager.createSavepoint();
+			try {
+				for (AlbumItem albumItem : albumItems) {
+					DatabaseOperations.addAlbumItem(albumItem, true);
+				}
+			} finally {
+				DatabaseIntegrityManager.releaseSavepoint(savepointName);
+			}
+			BenchmarkUtilities.printResult("insert", "one by one run " + run, System.nanoTime() - startTime, numberOfRows);
+
+			createEmptyBenchmarkAlbum();
+			startTime = System.nanoTime();
+			DatabaseOperations.addAlbumItems(albumItems, true);
+			BenchmarkUtilities.printResult("insert", "batch run " + run, System.nanoTime() - startTime, numberOfRows);
+		}
+
+		ConnectionManager.closeConnection();
+		TestExecuter.resetTestHome();
+		ConnectionManager.closeConnection();
+	}
+
+	private static void createEmptyBenchmarkAlbum() throws Exception {
+		TestExecuter.resetTestHome();
+		DatabaseOperations.createNewAlbum(BenchmarkUtilities.BENCHMARK_ALBUM_NAME, BenchmarkUtilities.getBenchmarkAlbumFields(), false);
+	}
+}
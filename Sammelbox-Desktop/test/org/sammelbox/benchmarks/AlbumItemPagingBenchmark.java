@@ -0,0 +1,74 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.benchmarks;
+
+import java.util.List;
+
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemPage;
+import org.sammelbox.model.album.AlbumItemStore;
+import org.sammelbox.model.database.QueryBuilder;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+/**
+ * Compares loading the complete ordered album with loading its first page and one of its last pages.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.sammelbox.benchmarks.AlbumItemPagingBenchmark
+ */
+public final class AlbumItemPagingBenchmark {
+	private AlbumItemPagingBenchmark() {
+		// use main method
+	}
+
+	public static void main(String[] args) throws Exception {
+		int numberOfRows = BenchmarkUtilities.getNumberOfRows();
+		String albumName = BenchmarkUtilities.BENCHMARK_ALBUM_NAME;
+
+		long startTime = System.nanoTime();
+		BenchmarkUtilities.createBenchmarkAlbum(numberOfRows);
+		BenchmarkUtilities.printResult("paging", "generate album", System.nanoTime() - startTime, numberOfRows);
+
+		for (int run = 1; run <= BenchmarkUtilities.getNumberOfRuns(); run++) {
+			startTime = System.nanoTime();
+			List<AlbumItem> albumItems = DatabaseOperations.getAlbumItems(QueryBuilder.createOrderedSelectStarQuery(albumName));
+			BenchmarkUtilities.printResult("paging", "complete album run " + run + " (" + albumItems.size() + " items)",
+					System.nanoTime() - startTime, numberOfRows);
+
+			startTime = System.nanoTime();
+			AlbumItemPage firstPage = DatabaseOperations.getFirstAlbumItemPage(albumName, AlbumItemStore.ALBUM_ITEM_PAGE_SIZE);
+			BenchmarkUtilities.printResult("paging", "first page run " + run + " (" + firstPage.getAlbumItems().size() + " items)",
+					System.nanoTime() - startTime, numberOfRows);
+
+			// Start right before the last items of the album to measure a page deep within the album.
+			// The benchmark album is sorted by a text field, thus the read value equals the stored value
+			AlbumItem lastButOneItem = albumItems.get(Math.max(0, albumItems.size() - AlbumItemStore.ALBUM_ITEM_PAGE_SIZE - 1));
+			AlbumItemPage deepPage = new AlbumItemPage(albumName, firstPage.getSortFieldName(), AlbumItemStore.ALBUM_ITEM_PAGE_SIZE,
+					firstPage.getAlbumItems(), true, lastButOneItem.getField(firstPage.getSortFieldName()).getValue(), lastButOneItem.getItemId());
+			startTime = System.nanoTime();
+			AlbumItemPage lastPage = DatabaseOperations.getNextAlbumItemPage(deepPage);
+			BenchmarkUtilities.printResult("paging", "last page run " + run + " (" + lastPage.getAlbumItems().size() + " items)",
+					System.nanoTime() - startTime, numberOfRows);
+		}
+
+		ConnectionManager.closeConnection();
+		TestExecuter.resetTestHome();
+		ConnectionManager.closeConnection();
+	}
+}
@@ -0,0 +1,89 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemStore;
+import org.sammelbox.model.database.QueryBuilder;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+/**
+ * Compares the heap retained by the complete benchmark album when it is kept as one album item object per item
+ * (with one item field per value) and when it is kept column by column as done by the album item store.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.sammelbox.benchmarks.AlbumItemStoreHeapBenchmark
+ */
+public final class AlbumItemStoreHeapBenchmark {
+	private static final int NUMBER_OF_GARBAGE_COLLECTIONS = 5;
+	private static final double BYTES_PER_MEGABYTE = 1024d * 1024d;
+
+	private AlbumItemStoreHeapBenchmark() {
+		// use main method
+	}
+
+	public static void main(String[] args) throws Exception {
+		int numberOfRows = BenchmarkUtilities.getNumberOfRows();
+		String query = QueryBuilder.createSelectStarQuery(BenchmarkUtilities.BENCHMARK_ALBUM_NAME);
+
+		long startTime = System.nanoTime();
+		BenchmarkUtilities.createBenchmarkAlbum(numberOfRows);
+		BenchmarkUtilities.printResult("heap", "generate album", System.nanoTime() - startTime, numberOfRows);
+
+		for (int run = 1; run <= BenchmarkUtilities.getNumberOfRuns(); run++) {
+			long usedHeapBefore = getUsedHeap();
+			startTime = System.nanoTime();
+			List<AlbumItem> albumItems = new ArrayList<AlbumItem>(DatabaseOperations.getAlbumItems(query));
+			BenchmarkUtilities.printResult("heap", "read item objects run " + run, System.nanoTime() - startTime, numberOfRows);
+			printHeap("item objects run " + run, getUsedHeap() - usedHeapBefore, albumItems.size());
+			albumItems = null;
+
+			usedHeapBefore = getUsedHeap();
+			startTime = System.nanoTime();
+			albumItems = AlbumItemStore.readAlbumItems(DatabaseOperations.executeSQLQuery(query), new AtomicBoolean(false));
+			BenchmarkUtilities.printResult("heap", "read columns run " + run, System.nanoTime() - startTime, numberOfRows);
+			printHeap("columns run " + run, getUsedHeap() - usedHeapBefore, albumItems.size());
+			albumItems = null;
+		}
+
+		ConnectionManager.closeConnection();
+		TestExecuter.resetTestHome();
+		ConnectionManager.closeConnection();
+	}
+
+	private static long getUsedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+
+		for (int i = 0; i < NUMBER_OF_GARBAGE_COLLECTIONS; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static void printHeap(String measurement, long usedBytes, int numberOfItems) {
+		System.out.println(String.format("heap | %s | %d items | %.1f MB retained | %d bytes/item",
+				measurement, numberOfItems, usedBytes / BYTES_PER_MEGABYTE, usedBytes / Math.max(1, numberOfItems)));
+	}
+}
@@ -0,0 +1,66 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+
+package org.sammelbox.benchmarks;
+
+import java.util.List;
+
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.MetaItemField;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+/**
+ * Measures renaming, reordering and removing a field of the benchmark album. Renaming and removing a field replace the album
+ * table, thus their time grows with the number of items, while the memory used does not. Reordering only stores the display order.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.sammelbox.benchmarks.AlbumSchemaEvolutionBenchmark
+ */
+public final class AlbumSchemaEvolutionBenchmark {
+	private AlbumSchemaEvolutionBenchmark() {
+		// use main method
+	}
+
+	public static void main(String[] args) throws Exception {
+		int numberOfRows = BenchmarkUtilities.getNumberOfRows();
+		String albumName = BenchmarkUtilities.BENCHMARK_ALBUM_NAME;
+
+		for (int run = 1; run <= BenchmarkUtilities.getNumberOfRuns(); run++) {
+			BenchmarkUtilities.createBenchmarkAlbum(numberOfRows);
+
+			long startTime = System.nanoTime();
+			DatabaseOperations.renameAlbumItemField(albumName, 
+					new MetaItemField("Author", FieldType.TEXT, true), new MetaItemField("Writer", FieldType.TEXT, true));
+			BenchmarkUtilities.printResult("schema evolution", "rename field run " + run, System.nanoTime() - startTime, numberOfRows);
+
+			List<MetaItemField> fields = DatabaseOperations.getMetaItemFields(albumName);
+			startTime = System.nanoTime();
+			DatabaseOperations.reorderAlbumItemField(albumName, fields.get(0), fields.get(fields.size() - 1));
+			BenchmarkUtilities.printResult("schema evolution", "reorder field run " + run, System.nanoTime() - startTime, numberOfRows);
+
+			startTime = System.nanoTime();
+			DatabaseOperations.removeAlbumItemField(albumName, new MetaItemField("Pages", FieldType.INTEGER, false));
+			BenchmarkUtilities.printResult("schema evolution", "remove field run " + run, System.nanoTime() - startTime, numberOfRows);
+		}
+
+		ConnectionManager.closeConnection();
+		TestExecuter.resetTestHome();
+		ConnectionManager.closeConnection();
+	}
+}
@@ -0,0 +1,115 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.benchmarks;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sammelbox.TestExecuter;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.ItemField;
+import org.sammelbox.model.album.MetaItemField;
+import org.sammelbox.model.album.OptionType;
+import org.sammelbox.model.album.StarRating;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+/**
+ * Helpers shared by the benchmarks. The benchmarks are not part of the test suite since they run for a
+ * considerable amount of time. Each benchmark provides a main method and works on the test home directory.
+ */
+public final class BenchmarkUtilities {
+	/** The name of the generated album used by the benchmarks */
+	public static final String BENCHMARK_ALBUM_NAME = "Benchmark Books";
+	/** The number of generated items unless specified otherwise using -Dsammelbox.benchmark.rows */
+	private static final int DEFAULT_NUMBER_OF_ROWS = 50000;
+	/** The number of measured runs unless specified otherwise using -Dsammelbox.benchmark.runs */
+	private static final int DEFAULT_NUMBER_OF_RUNS = 3;
+
+	private BenchmarkUtilities() {
+		// use static methods
+	}
+
+	/** Gets the number of rows to be generated for a benchmark album */
+	public static int getNumberOfRows() {
+		return Integer.getInteger("sammelbox.benchmark.rows", DEFAULT_NUMBER_OF_ROWS);
+	}
+
+	/** Gets the number of measured runs of a benchmark */
+	public static int getNumberOfRuns() {
+		return Integer.getInteger("sammelbox.benchmark.runs", DEFAULT_NUMBER_OF_RUNS);
+	}
+
+	/** Resets the test home and creates the benchmark album containing the given number of generated items.
+	 * All items are added within a single transaction. */
+	public static void createBenchmarkAlbum(int numberOfRows) throws DatabaseWrapperOperationException {
+		TestExecuter.resetTestHome();
+		DatabaseOperations.createNewAlbum(BENCHMARK_ALBUM_NAME, getBenchmarkAlbumFields(), false);
+		DatabaseOperations.addAlbumItems(createBenchmarkAlbumItems(numberOfRows), true);
+	}
+
+	/** Creates the given number of generated items for the benchmark album */
+	public static List<AlbumItem> createBenchmarkAlbumItems(int numberOfRows) {
+		List<AlbumItem> albumItems = new ArrayList<AlbumItem>(numberOfRows);
+		for (int i = 0; i < numberOfRows; i++) {
+			albumItems.add(createBenchmarkAlbumItem(i));
+		}
+
+		return albumItems;
+	}
+
+	/** Gets the fields of the benchmark album */
+	public static List<MetaItemField> getBenchmarkAlbumFields() {
+		List<MetaItemField> fields = new ArrayList<MetaItemField>();
+		fields.add(new MetaItemField("Book Title", FieldType.TEXT, true));
+		fields.add(new MetaItemField("Author", FieldType.TEXT, true));
+		fields.add(new MetaItemField("Purchased", FieldType.DATE, false));
+		fields.add(new MetaItemField("Price", FieldType.DECIMAL, false));
+		fields.add(new MetaItemField("Pages", FieldType.INTEGER, false));
+		fields.add(new MetaItemField("In Stock", FieldType.OPTION, false));
+		fields.add(new MetaItemField("Rating", FieldType.STAR_RATING, false));
+		fields.add(new MetaItemField("Publisher Website", FieldType.URL, false));
+
+		return fields;
+	}
+
+	/** Creates a generated item for the benchmark album. The same index always yields the same values. */
+	public static AlbumItem createBenchmarkAlbumItem(int index) {
+		List<ItemField> fields = new ArrayList<ItemField>();
+		fields.add(new ItemField("Book Title", FieldType.TEXT, "Book Title " + index));
+		fields.add(new ItemField("Author", FieldType.TEXT, "Author " + (index % 1000)));
+		fields.add(new ItemField("Purchased", FieldType.DATE, new Date(index * 86400000L)));
+		fields.add(new ItemField("Price", FieldType.DECIMAL, (index % 100) + 0.99d));
+		fields.add(new ItemField("Pages", FieldType.INTEGER, 100 + (index % 900)));
+		fields.add(new ItemField("In Stock", FieldType.OPTION, index % 2 == 0 ? OptionType.YES : OptionType.NO));
+		fields.add(new ItemField("Rating", FieldType.STAR_RATING, StarRating.getByIntegerValue(index % 6)));
+		fields.add(new ItemField("Publisher Website", FieldType.URL, "http://www.example.com/" + index));
+
+		return new AlbumItem(BENCHMARK_ALBUM_NAME, fields);
+	}
+
+	/** Prints the result of a single measurement in a uniform format */
+	public static void printResult(String benchmark, String measurement, long nanoSeconds, int numberOfRows) {
+		double milliSeconds = nanoSeconds / 1000000d;
+		System.out.println(String.format("%s | %s | %d rows | %.1f ms | %.2f us/row",
+				benchmark, measurement, numberOfRows, milliSeconds, (nanoSeconds / 1000d) / Math.max(1, numberOfRows)));
+	}
+}
@@ -0,0 +1,82 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.benchmarks;
+
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.model.album.AlbumItemResultSet;
+import org.sammelbox.model.database.DatabaseStringUtilities;
+import org.sammelbox.model.database.operations.DatabaseConstants;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+/**
+ * Compares the quick search using the full text index with the LIKE based fallback used for albums without full text index.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.sammelbox.benchmarks.QuickSearchBenchmark
+ */
+public final class QuickSearchBenchmark {
+	private static final List<String> QUICK_SEARCH_TERMS = Arrays.asList("4242");
+	
+	private QuickSearchBenchmark() {
+		// use main method
+	}
+
+	public static void main(String[] args) throws Exception {
+		int numberOfRows = BenchmarkUtilities.getNumberOfRows();
+
+		long startTime = System.nanoTime();
+		BenchmarkUtilities.createBenchmarkAlbum(numberOfRows);
+		BenchmarkUtilities.printResult("quick search", "generate album", System.nanoTime() - startTime, numberOfRows);
+
+		measureQuickSearch("full text index", numberOfRows);
+
+		// Remove the full text index such that the fallback for older albums is used
+		String tableName = DatabaseStringUtilities.generateTableName(BenchmarkUtilities.BENCHMARK_ALBUM_NAME);
+		try (Statement statement = ConnectionManager.getConnection().createStatement()) {
+			statement.execute("DROP TRIGGER " + DatabaseStringUtilities.encloseNameWithQuotes(tableName + "_fts_insert"));
+			statement.execute("DROP TRIGGER " + DatabaseStringUtilities.encloseNameWithQuotes(tableName + "_fts_update"));
+			statement.execute("DROP TRIGGER " + DatabaseStringUtilities.encloseNameWithQuotes(tableName + "_fts_delete"));
+			statement.execute("DROP TABLE " + DatabaseStringUtilities.encloseNameWithQuotes(tableName + DatabaseConstants.FULL_TEXT_INDEX_SUFFIX));
+		}
+		DatabaseOperations.clearAlbumSchemaCatalog();
+
+		measureQuickSearch("LIKE fallback", numberOfRows);
+
+		ConnectionManager.closeConnection();
+		TestExecuter.resetTestHome();
+		ConnectionManager.closeConnection();
+	}
+
+	private static void measureQuickSearch(String variant, int numberOfRows) throws Exception {
+		for (int run = 1; run <= BenchmarkUtilities.getNumberOfRuns(); run++) {
+			long startTime = System.nanoTime();
+			AlbumItemResultSet searchResults = DatabaseOperations.executeQuickSearch(BenchmarkUtilities.BENCHMARK_ALBUM_NAME, QUICK_SEARCH_TERMS);
+			int numberOfResults = 0;
+			while (searchResults.moveToNext()) {
+				numberOfResults++;
+			}
+			searchResults.close();
+			BenchmarkUtilities.printResult("quick search", variant + " run " + run + " (" + numberOfResults + " results)", 
+					System.nanoTime() - startTime, numberOfRows);
+		}
+	}
+}
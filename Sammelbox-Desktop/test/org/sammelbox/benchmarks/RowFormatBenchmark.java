@@ -0,0 +1,74 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+
+package org.sammelbox.benchmarks;
+
+import java.io.File;
+import java.sql.Statement;
+
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.filesystem.FileSystemLocations;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.model.database.QueryBuilder;
+import org.sammelbox.model.database.operations.DatabaseConstants;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+/**
+ * Compares the size of the database and the duration of a full scan of the benchmark album stored in the row format v1
+ * with the lean row format, and measures the migration from the row format v1 into the lean row format.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.sammelbox.benchmarks.RowFormatBenchmark
+ */
+public final class RowFormatBenchmark {
+	private RowFormatBenchmark() {
+		// use main method
+	}
+
+	public static void main(String[] args) throws Exception {
+		int numberOfRows = BenchmarkUtilities.getNumberOfRows();
+		BenchmarkUtilities.createBenchmarkAlbum(numberOfRows);
+		DatabaseOperations.changeRowFormat(BenchmarkUtilities.BENCHMARK_ALBUM_NAME, DatabaseConstants.ROW_FORMAT_V1);
+		measure("row format v1", numberOfRows);
+
+		long startTime = System.nanoTime();
+		DatabaseOperations.migrateToLeanRowFormat();
+		BenchmarkUtilities.printResult("row format", "migration from v1 to v2", System.nanoTime() - startTime, numberOfRows);
+		measure("row format v2", numberOfRows);
+
+		ConnectionManager.closeConnection();
+		TestExecuter.resetTestHome();
+		ConnectionManager.closeConnection();
+	}
+
+	/** Prints the size of the compacted database and the durations of full scans of the benchmark album */
+	private static void measure(String rowFormat, int numberOfRows) throws Exception {
+		try (Statement statement = ConnectionManager.getConnection().createStatement()) {
+			statement.executeUpdate("VACUUM");
+		}
+		long databaseSize = new File(FileSystemLocations.getDatabaseFile()).length();
+		System.out.println(String.format("%s | database size | %d rows | %d bytes | %.1f bytes/row", 
+				rowFormat, numberOfRows, databaseSize, databaseSize / (double) Math.max(1, numberOfRows)));
+
+		String selectStarQuery = QueryBuilder.createSelectStarQuery(BenchmarkUtilities.BENCHMARK_ALBUM_NAME);
+		for (int run = 1; run <= BenchmarkUtilities.getNumberOfRuns(); run++) {
+			long startTime = System.nanoTime();
+			DatabaseOperations.getAlbumItems(selectStarQuery);
+			BenchmarkUtilities.printResult(rowFormat, "full scan run " + run, System.nanoTime() - startTime, numberOfRows);
+		}
+	}
+}
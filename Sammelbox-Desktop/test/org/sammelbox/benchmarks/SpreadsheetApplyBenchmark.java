@@ -0,0 +1,88 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemStore;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+/**
+ * Compares saving the rows edited in the spreadsheet one by one followed by reloading the album with applying them
+ * within a single transaction followed by patching the album item store.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.sammelbox.benchmarks.SpreadsheetApplyBenchmark
+ */
+public final class SpreadsheetApplyBenchmark {
+	private static final int DEFAULT_NUMBER_OF_EDITED_ROWS = 500;
+
+	private SpreadsheetApplyBenchmark() {
+		// use main method
+	}
+
+	public static void main(String[] args) throws Exception {
+		int numberOfRows = BenchmarkUtilities.getNumberOfRows();
+		int numberOfEditedRows = Math.min(numberOfRows, Integer.getInteger("sammelbox.benchmark.editedRows", DEFAULT_NUMBER_OF_EDITED_ROWS));
+		BenchmarkUtilities.createBenchmarkAlbum(numberOfRows);
+
+		for (int run = 1; run <= BenchmarkUtilities.getNumberOfRuns(); run++) {
+			List<AlbumItem> editedAlbumItems = createEditedAlbumItems(numberOfEditedRows, "Author edited one by one " + run);
+			long startTime = System.nanoTime();
+			for (AlbumItem editedAlbumItem : editedAlbumItems) {
+				DatabaseOperations.updateAlbumItem(editedAlbumItem);
+			}
+			AlbumItemStore.reinitializeStoreWithPage(DatabaseOperations.getFirstAlbumItemPage(
+					BenchmarkUtilities.BENCHMARK_ALBUM_NAME, AlbumItemStore.ALBUM_ITEM_PAGE_SIZE));
+			BenchmarkUtilities.printResult("spreadsheet", "one by one and reload run " + run, System.nanoTime() - startTime, numberOfEditedRows);
+
+			editedAlbumItems = createEditedAlbumItems(numberOfEditedRows, "Author edited in one transaction " + run);
+			startTime = System.nanoTime();
+			DatabaseOperations.applyAlbumItemChanges(BenchmarkUtilities.BENCHMARK_ALBUM_NAME, 
+					new ArrayList<AlbumItem>(), editedAlbumItems, new ArrayList<AlbumItem>());
+			List<Long> editedAlbumItemIds = new ArrayList<Long>();
+			for (AlbumItem editedAlbumItem : editedAlbumItems) {
+				editedAlbumItemIds.add(editedAlbumItem.getItemId());
+			}
+			boolean isPatched = AlbumItemStore.patchStore(
+					DatabaseOperations.getAlbumItems(BenchmarkUtilities.BENCHMARK_ALBUM_NAME, editedAlbumItemIds), new ArrayList<Long>());
+			BenchmarkUtilities.printResult("spreadsheet", "one transaction and " + (isPatched ? "patch" : "reload") + " run " + run, 
+					System.nanoTime() - startTime, numberOfEditedRows);
+		}
+
+		ConnectionManager.closeConnection();
+		TestExecuter.resetTestHome();
+		ConnectionManager.closeConnection();
+	}
+
+	/** Creates the edited rows of the first items of the benchmark album, which contain all fields like the spreadsheet rows */
+	private static List<AlbumItem> createEditedAlbumItems(int numberOfEditedRows, String author) {
+		List<AlbumItem> editedAlbumItems = new ArrayList<AlbumItem>(numberOfEditedRows);
+		for (int i = 0; i < numberOfEditedRows; i++) {
+			AlbumItem editedAlbumItem = BenchmarkUtilities.createBenchmarkAlbumItem(i);
+			editedAlbumItem.setItemId(i + 1L);
+			editedAlbumItem.getField("Author").setValue(author);
+			editedAlbumItems.add(editedAlbumItem);
+		}
+
+		return editedAlbumItems;
+	}
+}
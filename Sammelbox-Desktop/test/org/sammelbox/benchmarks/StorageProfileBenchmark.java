@@ -0,0 +1,104 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+
+package org.sammelbox.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.controller.managers.SettingsManager;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemResultSet;
+import org.sammelbox.model.database.QueryBuilder;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+import org.sammelbox.model.settings.StorageProfile;
+
+/**
+ * Compares the storage profiles when adding all items of an album at once, adding single items, loading the album
+ * after the database has been reopened and searching the album.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.sammelbox.benchmarks.StorageProfileBenchmark
+ */
+public final class StorageProfileBenchmark {
+	private static final int NUMBER_OF_SINGLE_INSERTS = 1000;
+	private static final List<String> QUICK_SEARCH_TERMS = Arrays.asList("4242");
+	
+	private StorageProfileBenchmark() {
+		// use main method
+	}
+
+	public static void main(String[] args) throws Exception {
+		int numberOfRows = BenchmarkUtilities.getNumberOfRows();
+		List<AlbumItem> albumItems = BenchmarkUtilities.createBenchmarkAlbumItems(numberOfRows);
+
+		try {
+			for (int run = 1; run <= BenchmarkUtilities.getNumberOfRuns(); run++) {
+				for (StorageProfile storageProfile : StorageProfile.values()) {
+					measureStorageProfile(storageProfile, run, albumItems);
+				}
+			}
+		} finally {
+			SettingsManager.getSettings().setStorageProfile(StorageProfile.SAFE);
+		}
+
+		ConnectionManager.closeConnection();
+		TestExecuter.resetTestHome();
+		ConnectionManager.closeConnection();
+	}
+
+	private static void measureStorageProfile(StorageProfile storageProfile, int run, List<AlbumItem> albumItems) throws Exception {
+		String variant = storageProfile + " run " + run;
+		int numberOfRows = albumItems.size();
+		
+		// The profile is applied when the connection of the new test home is opened
+		SettingsManager.getSettings().setStorageProfile(storageProfile);
+		TestExecuter.resetTestHome();
+		DatabaseOperations.createNewAlbum(BenchmarkUtilities.BENCHMARK_ALBUM_NAME, BenchmarkUtilities.getBenchmarkAlbumFields(), false);
+
+		long startTime = System.nanoTime();
+		DatabaseOperations.addAlbumItems(albumItems, true);
+		BenchmarkUtilities.printResult("storage profile", "bulk load " + variant, System.nanoTime() - startTime, numberOfRows);
+
+		// Each item is committed on its own, which is where the synchronous mode matters
+		startTime = System.nanoTime();
+		for (int i = 0; i < NUMBER_OF_SINGLE_INSERTS; i++) {
+			DatabaseOperations.addAlbumItem(BenchmarkUtilities.createBenchmarkAlbumItem(numberOfRows + i), true);
+		}
+		BenchmarkUtilities.printResult("storage profile", "single inserts " + variant, System.nanoTime() - startTime, NUMBER_OF_SINGLE_INSERTS);
+
+		// Reopening the database starts with an empty page cache
+		ConnectionManager.closeConnection();
+		ConnectionManager.openConnection();
+		startTime = System.nanoTime();
+		int numberOfLoadedItems = DatabaseOperations.getAlbumItems(
+				QueryBuilder.createSelectStarQuery(BenchmarkUtilities.BENCHMARK_ALBUM_NAME)).size();
+		BenchmarkUtilities.printResult("storage profile", "album load " + variant, System.nanoTime() - startTime, numberOfLoadedItems);
+
+		startTime = System.nanoTime();
+		AlbumItemResultSet searchResults = DatabaseOperations.executeQuickSearch(BenchmarkUtilities.BENCHMARK_ALBUM_NAME, QUICK_SEARCH_TERMS);
+		int numberOfResults = 0;
+		while (searchResults.moveToNext()) {
+			numberOfResults++;
+		}
+		searchResults.close();
+		BenchmarkUtilities.printResult("storage profile", "search " + variant + " (" + numberOfResults + " results)", 
+				System.nanoTime() - startTime, numberOfLoadedItems);
+	}
+}
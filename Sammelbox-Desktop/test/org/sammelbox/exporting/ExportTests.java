@@ -18,6 +18,7 @@
 
 package org.sammelbox.exporting;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -39,6 +40,7 @@ import org.sammelbox.controller.filesystem.exporting.HTMLExporter;
 import org.sammelbox.controller.i18n.DictKeys;
 import org.sammelbox.controller.i18n.Translator;
 import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemResultSet;
 import org.sammelbox.model.album.FieldType;
 import org.sammelbox.model.album.ItemField;
 import org.sammelbox.model.album.MetaItemField;
@@ -121,23 +123,47 @@ public class ExportTests {
 					DatabaseOperations.getAlbumItems("SELECT * FROM " + DatabaseStringUtilities.generateTableName("Test Table")),
 					outputFile.getAbsolutePath(), ";");
 			
-			String expectedOutput =
-					"a;b;c;d;e;f;g" + System.lineSeparator() +
-					dummyDate.toString() + ";111.111;1;" + Translator.get(DictKeys.BROWSER_UNKNOWN) + ";" + 
-							StarRating.toComboBoxArray()[1] + ";Hello World 1;www.sammelbox.org" + System.lineSeparator() +
-					dummyDate.toString() + ";222.222;2;" + Translator.get(DictKeys.BROWSER_YES) + ";" + 
-							StarRating.toComboBoxArray()[2] + ";Hello World 2;www.sammelbox.org" + System.lineSeparator() +
-					dummyDate.toString() + ";333.333;3;" + Translator.get(DictKeys.BROWSER_NO) + ";" + 
-							StarRating.toComboBoxArray()[3] + ";Hello World 3;www.sammelbox.org" + System.lineSeparator();
-			
 			// Compare expected output with file	
-			assertTrue(expectedOutput.equals(
+			assertTrue(getExpectedCSVOutput(dummyDate).equals(
 					FileSystemAccessWrapper.readFileAsString(outputFile.getAbsolutePath())));
 		} catch (DatabaseWrapperOperationException dwoe) {
 			fail(dwoe.getMessage());
 		}
 	}
 	
+	@Test
+	public void testStreamingCSVExport() {
+		try {
+			Date dummyDate = new Date(System.currentTimeMillis());
+			setupAlbum(dummyDate);
+			
+			File outputFile = new File(FileSystemLocations.TEMP_DIR + "test-stream.csv");
+			if (outputFile.exists()) {
+				outputFile.delete();
+			}
+			
+			AlbumItemResultSet resultSet = DatabaseOperations.executeSQLQuery(
+					"SELECT * FROM " + DatabaseStringUtilities.generateTableName("Test Table"));
+			CSVExporter.exportAlbum(resultSet, outputFile.getAbsolutePath(), ";");
+			
+			assertTrue("The result set should be closed after the export", resultSet.isClosed());
+			assertEquals("The streamed export should equal the export of the read items", 
+					getExpectedCSVOutput(dummyDate), FileSystemAccessWrapper.readFileAsString(outputFile.getAbsolutePath()));
+		} catch (DatabaseWrapperOperationException dwoe) {
+			fail(dwoe.getMessage());
+		}
+	}
+	
+	private static String getExpectedCSVOutput(Date dummyDate) {
+		return "a;b;c;d;e;f;g" + System.lineSeparator() +
+				dummyDate.toString() + ";111.111;1;" + Translator.get(DictKeys.BROWSER_UNKNOWN) + ";" + 
+						StarRating.toComboBoxArray()[1] + ";Hello World 1;www.sammelbox.org" + System.lineSeparator() +
+				dummyDate.toString() + ";222.222;2;" + Translator.get(DictKeys.BROWSER_YES) + ";" + 
+						StarRating.toComboBoxArray()[2] + ";Hello World 2;www.sammelbox.org" + System.lineSeparator() +
+				dummyDate.toString() + ";333.333;3;" + Translator.get(DictKeys.BROWSER_NO) + ";" + 
+						StarRating.toComboBoxArray()[3] + ";Hello World 3;www.sammelbox.org" + System.lineSeparator();
+	}
+	
 	private void setupAlbum(Date dummyDate) throws DatabaseWrapperOperationException {
 		List<MetaItemField> metaItemFields = new ArrayList<>();
 		metaItemFields.add(new MetaItemField("a", FieldType.DATE));
@@ -18,6 +18,8 @@
 
 package org.sammelbox.searching;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -29,8 +31,12 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
 import org.sammelbox.controller.managers.DatabaseIntegrityManager;
 import org.sammelbox.model.album.AlbumItemResultSet;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.MetaItemField;
+import org.sammelbox.model.database.ParameterizedQuery;
 import org.sammelbox.model.database.QueryBuilder;
 import org.sammelbox.model.database.QueryBuilderException;
 import org.sammelbox.model.database.QueryComponent;
@@ -325,4 +331,72 @@ public class AdvancedSearchTests {
 			fail("testSearchArtistInEmptyMusicAlbumUsingQueryBuilder failed");
 		}
 	}
+
+	@Test
+	public void testSearchForHighPriceBooksUsingParameterizedQuery() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			ArrayList<QueryComponent> queryComponents = new ArrayList<QueryComponent>();
+			queryComponents.add(QueryBuilder.getQueryComponent("Price", QueryOperator.BIGGER, "30.0"));
+			ParameterizedQuery parameterizedQuery = QueryBuilder.buildParameterizedQuery(queryComponents, true, "Books");
+
+			assertFalse("The value should not be part of the statement", parameterizedQuery.getSqlStatement().contains("30"));
+			assertEquals("The value should be bound as a number", 30.0d, parameterizedQuery.getParameters().get(0));
+			assertEquals("Resultset should contain 5 items", 5, countItems(DatabaseOperations.executeParameterizedQuery(parameterizedQuery)));
+		} catch (DatabaseWrapperOperationException | QueryBuilderException e) {
+			fail("testSearchForHighPriceBooksUsingParameterizedQuery failed");
+		}
+	}
+
+	@Test
+	public void testParameterizedQueriesReuseCompiledStatement() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			ConnectionManager.clearPreparedStatementCache();
+			ConnectionManager.resetPreparedStatementCacheStatistics();
+			
+			ArrayList<QueryComponent> queryComponents = new ArrayList<QueryComponent>();
+			queryComponents.add(QueryBuilder.getQueryComponent("Book Title", QueryOperator.CONTAINS, "Code"));
+			ParameterizedQuery firstQuery = QueryBuilder.buildParameterizedQuery(queryComponents, true, "Books", "Book Title", true);
+			assertEquals("Resultset should contain 1 item", 1, countItems(DatabaseOperations.executeParameterizedQuery(firstQuery)));
+			
+			queryComponents.get(0).setValue("Design");
+			ParameterizedQuery secondQuery = QueryBuilder.buildParameterizedQuery(queryComponents, true, "Books", "Book Title", true);
+			assertEquals("Both queries should share the statement", firstQuery.getSqlStatement(), secondQuery.getSqlStatement());
+			assertEquals("Resultset should contain 1 item", 1, countItems(DatabaseOperations.executeParameterizedQuery(secondQuery)));
+			
+			assertEquals("The statement should be compiled once", 1, ConnectionManager.getPreparedStatementCacheMissCount());
+			assertEquals("The second query should reuse the statement", 1, ConnectionManager.getPreparedStatementCacheHitCount());
+			assertEquals("A single statement should be cached", 1, ConnectionManager.getPreparedStatementCacheSize());
+			
+			DatabaseOperations.updateQuickSearchable("Books", new MetaItemField("Author", FieldType.TEXT, true));
+			assertEquals("Structural changes should clear the compiled statements", 0, ConnectionManager.getPreparedStatementCacheSize());
+		} catch (DatabaseWrapperOperationException | QueryBuilderException e) {
+			fail("testParameterizedQueriesReuseCompiledStatement failed");
+		}
+	}
+
+	@Test
+	public void testParameterizedQueryWithSingleQuoteInValue() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			ArrayList<QueryComponent> queryComponents = new ArrayList<QueryComponent>();
+			queryComponents.add(QueryBuilder.getQueryComponent("Author", QueryOperator.CONTAINS, "O'Reilly"));
+			
+			assertEquals("Resultset should contain 0 items", 0, 
+					countItems(DatabaseOperations.executeParameterizedQuery(QueryBuilder.buildParameterizedQuery(queryComponents, true, "Books"))));
+		} catch (DatabaseWrapperOperationException | QueryBuilderException e) {
+			fail("testParameterizedQueryWithSingleQuoteInValue failed");
+		}
+	}
+	
+	private static int countItems(AlbumItemResultSet searchResults) {
+		int counter = 0;
+		while (searchResults.moveToNext()) {
+			counter++;
+		}
+		searchResults.close();
+		
+		return counter;
+	}
 }
@@ -0,0 +1,309 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.searching;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.AlbumManager;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.model.album.Album;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemPage;
+import org.sammelbox.model.album.AlbumItemResultSet;
+import org.sammelbox.model.album.AlbumItemStore;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.ItemField;
+import org.sammelbox.model.database.DatabaseStringUtilities;
+import org.sammelbox.model.database.QueryBuilder;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+public class AlbumItemPagingTests {
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@Before
+	public void setUp() {
+		TestExecuter.resetTestHome();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@Test
+	public void testPagesFollowTheOrderOfTheCompleteQuery() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+
+			for (String albumName : new String[] {"Books", "DVDs"}) {
+				List<Long> expectedIds = getAlbumItemIds(DatabaseOperations.getAlbumItems(QueryBuilder.createOrderedSelectStarQuery(albumName)));
+				assertFalse("The album " + albumName + " should contain items", expectedIds.isEmpty());
+
+				for (int pageSize = 1; pageSize <= expectedIds.size() + 1; pageSize++) {
+					assertEquals("The pages of " + albumName + " with " + pageSize + " items per page should contain all items in order",
+							expectedIds, getAlbumItemIds(readAllPages(albumName, pageSize)));
+				}
+			}
+
+			AlbumItemPage emptyPage = DatabaseOperations.getFirstAlbumItemPage("Music CDs", 1);
+			assertTrue("The first page of an empty album should be empty", emptyPage.getAlbumItems().isEmpty());
+			assertFalse("The first page of an empty album should not have a next page", emptyPage.hasNextPage());
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Paging through the albums failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testPagesAreLimitedToThePageSize() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			int numberOfItems = DatabaseOperations.getAlbumItems(QueryBuilder.createSelectStarQuery("DVDs")).size();
+
+			AlbumItemPage firstPage = DatabaseOperations.getFirstAlbumItemPage("DVDs", 2);
+			assertEquals("The first page should contain two items", 2, firstPage.getAlbumItems().size());
+			assertEquals("The first page should have a next page", numberOfItems > 2, firstPage.hasNextPage());
+
+			AlbumItemPage completePage = DatabaseOperations.getFirstAlbumItemPage("DVDs", numberOfItems);
+			assertEquals("A page as large as the album should contain all items", numberOfItems, completePage.getAlbumItems().size());
+			assertFalse("A page as large as the album should not have a next page", completePage.hasNextPage());
+
+			AlbumItemPage pageAfterEnd = DatabaseOperations.getNextAlbumItemPage(completePage);
+			assertTrue("The page after the last page should be empty", pageAfterEnd.getAlbumItems().isEmpty());
+			assertFalse("The page after the last page should not have a next page", pageAfterEnd.hasNextPage());
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Paging through the DVDs failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testPagingWithEqualAndMissingSortValues() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			String sortFieldName = QueryBuilder.getSortByFieldName("Books");
+
+			// Items without a value and items sharing the same value must neither be skipped nor repeated at page boundaries
+			for (int i=0; i<3; i++) {
+				addBook(null);
+				addBook("Duplicate Title");
+			}
+
+			assertEquals("The books should be sorted by their title", "Book Title", sortFieldName);
+
+			List<AlbumItem> expectedItems = DatabaseOperations.getAlbumItems(QueryBuilder.createOrderedSelectStarQuery("Books"));
+			assertTrue("Books without a title should be sorted first", expectedItems.get(0).getField(sortFieldName).getValue() == null);
+
+			List<Long> expectedIds = getAlbumItemIds(expectedItems);
+			for (int pageSize = 1; pageSize <= 4; pageSize++) {
+				assertEquals("The pages with " + pageSize + " items per page should contain all books in order",
+						expectedIds, getAlbumItemIds(readAllPages("Books", pageSize)));
+			}
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Paging through the books failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testSortIndexDoesNotAffectQuickSearch() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			String tableName = DatabaseStringUtilities.generateTableName("DVDs");
+			List<String> quickSearchableColumns = DatabaseOperations.getIndexedColumnNames(tableName);
+			String quickSearchIndexName = DatabaseOperations.getTableIndexName(tableName);
+
+			DatabaseOperations.getFirstAlbumItemPage("DVDs", 1);
+
+			assertEquals("The quick-searchable fields should not change", quickSearchableColumns, DatabaseOperations.getIndexedColumnNames(tableName));
+			assertEquals("The quick search index should not change", quickSearchIndexName, DatabaseOperations.getTableIndexName(tableName));
+			assertEquals("The quick search should still find the same items", 2, countQuickSearchResults("DVDs", "Smith"));
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("The quick search after paging failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testSortIndexFollowsTheSortField() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			assertTrue("The restored books should be indexed by their title", getSortIndexStatement("Books").contains("Book Title"));
+
+			int schemaVersion = getSchemaVersion();
+			readAllPages("Books", 2);
+			assertEquals("Reading pages should not alter the schema", schemaVersion, getSchemaVersion());
+
+			try {
+				AlbumManager.initialize();
+				assertTrue("The books should be indexed by their stored sort field", 
+						getSortIndexStatement("Books").contains(QueryBuilder.getSortByFieldName("Books")));
+				
+				AlbumManager.setSortByField("Books", "Author");
+				assertTrue("The books should be indexed by their new sort field", getSortIndexStatement("Books").contains("Author"));
+
+				AlbumManager.setSortByField("Books", Album.NO_SORTING);
+				assertEquals("Books which are not sorted should not be indexed", "", getSortIndexStatement("Books"));
+			} finally {
+				// The other tests rely on the default sort fields
+				AlbumManager.setAlbums(new LinkedList<Album>());
+			}
+		} catch (DatabaseWrapperOperationException | SQLException ex) {
+			fail("Changing the sort field of the books failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testStoreIsPatchedWithChangedItems() {
+		try {
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			AlbumItemStore.reinitializeStoreWithPage(DatabaseOperations.getFirstAlbumItemPage("Books", AlbumItemStore.ALBUM_ITEM_PAGE_SIZE));
+			long changedBookId = AlbumItemStore.getAlbumItems().get(0).getItemId();
+			AlbumItem removedBook = AlbumItemStore.getAlbumItems().get(1);
+
+			AlbumItem changedBook = new AlbumItem("Books");
+			changedBook.setItemId(changedBookId);
+			changedBook.addField("Author", FieldType.TEXT, "A new author");
+			DatabaseOperations.applyAlbumItemChanges("Books", new ArrayList<AlbumItem>(), Arrays.asList(changedBook), Arrays.asList(removedBook));
+
+			assertTrue("Changes which keep the order of the items should be patched", AlbumItemStore.patchStore(
+					DatabaseOperations.getAlbumItems("Books", Arrays.asList(changedBookId)), Arrays.asList(removedBook.getItemId())));
+			assertEquals("The patched store should contain the items of the album in order", 
+					getAlbumItemIds(DatabaseOperations.getAlbumItems(QueryBuilder.createOrderedSelectStarQuery("Books"))), 
+					getAlbumItemIds(AlbumItemStore.getAlbumItems()));
+			assertEquals("The changed field should be patched", "A new author", AlbumItemStore.getAlbumItem(changedBookId).getField("Author").getValue());
+
+			// A new title moves the book after the last loaded book
+			changedBook.addField("Book Title", FieldType.TEXT, "Zzz");
+			DatabaseOperations.applyAlbumItemChanges("Books", new ArrayList<AlbumItem>(), Arrays.asList(changedBook), new ArrayList<AlbumItem>());
+			assertFalse("Items moved after the last page should not be patched", AlbumItemStore.patchStore(
+					DatabaseOperations.getAlbumItems("Books", Arrays.asList(changedBookId)), new ArrayList<Long>()));
+			assertEquals("The store should be left untouched", "A new author", AlbumItemStore.getAlbumItem(changedBookId).getField("Author").getValue());
+
+			AlbumItemStore.reinitializeStoreWithPage(DatabaseOperations.getFirstAlbumItemPage("Books", 2));
+			AlbumItem movedBook = AlbumItemStore.getAlbumItems().get(0);
+			movedBook.getField("Book Title").setValue("Zzzz");
+			DatabaseOperations.applyAlbumItemChanges("Books", new ArrayList<AlbumItem>(), Arrays.asList(movedBook), new ArrayList<AlbumItem>());
+			assertTrue("Items moved to the following pages should be patched", AlbumItemStore.patchStore(
+					DatabaseOperations.getAlbumItems("Books", Arrays.asList(movedBook.getItemId())), new ArrayList<Long>()));
+			assertEquals("The moved book should be left to the following pages", 1, AlbumItemStore.getAlbumItems().size());
+			assertEquals("The moved book should be part of the last page", movedBook.getItemId(), 
+					AlbumItemStore.getAllAlbumItems().get(AlbumItemStore.getAllAlbumItems().size() - 1).getItemId());
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Patching the books failed: " + ex.getMessage());
+		}
+	}
+
+	private static List<AlbumItem> readAllPages(String albumName, int pageSize) throws DatabaseWrapperOperationException {
+		List<AlbumItem> albumItems = new ArrayList<AlbumItem>();
+
+		AlbumItemPage page = DatabaseOperations.getFirstAlbumItemPage(albumName, pageSize);
+		albumItems.addAll(page.getAlbumItems());
+
+		while (page.hasNextPage()) {
+			page = DatabaseOperations.getNextAlbumItemPage(page);
+			assertTrue("A page should never contain more items than its size", page.getAlbumItems().size() <= pageSize);
+			assertFalse("A page announced by its predecessor should not be empty", page.getAlbumItems().isEmpty());
+			albumItems.addAll(page.getAlbumItems());
+		}
+
+		return albumItems;
+	}
+
+	private static String getSortIndexStatement(String albumName) throws SQLException {
+		try (PreparedStatement preparedStatement = ConnectionManager.getConnection().prepareStatement(
+				"SELECT sql FROM sqlite_master WHERE type = 'index' AND name = ?")) {
+			preparedStatement.setString(1, DatabaseStringUtilities.generateSortIndexName(albumName));
+
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				return resultSet.next() ? resultSet.getString(1) : "";
+			}
+		}
+	}
+
+	private static int getSchemaVersion() throws SQLException {
+		try (Statement statement = ConnectionManager.getConnection().createStatement();
+			 ResultSet resultSet = statement.executeQuery("PRAGMA schema_version")) {
+			return resultSet.getInt(1);
+		}
+	}
+
+	private static List<Long> getAlbumItemIds(List<AlbumItem> albumItems) {
+		List<Long> albumItemIds = new ArrayList<Long>();
+
+		for (AlbumItem albumItem : albumItems) {
+			albumItemIds.add(albumItem.getItemId());
+		}
+
+		return albumItemIds;
+	}
+
+	private static int countQuickSearchResults(String albumName, String term) throws DatabaseWrapperOperationException {
+		List<String> terms = new ArrayList<String>();
+		terms.add(term);
+
+		int counter = 0;
+		AlbumItemResultSet resultSet = DatabaseOperations.executeQuickSearch(albumName, terms);
+		while (resultSet.moveToNext()) {
+			counter++;
+		}
+		resultSet.close();
+
+		return counter;
+	}
+
+	private static void addBook(String title) throws DatabaseWrapperOperationException {
+		AlbumItem albumItem = new AlbumItem("Books");
+
+		List<ItemField> fields = new ArrayList<ItemField>();
+		if (title != null) {
+			// Without a title field, the title is stored as null
+			fields.add(new ItemField("Book Title", FieldType.TEXT, title, false));
+		}
+		fields.add(new ItemField("Author", FieldType.TEXT, "Paging Author", false));
+		albumItem.setFields(fields);
+		albumItem.setContentVersion(UUID.randomUUID());
+
+		DatabaseOperations.addAlbumItem(albumItem, false);
+	}
+}
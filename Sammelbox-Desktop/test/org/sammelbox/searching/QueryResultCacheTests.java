@@ -0,0 +1,208 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.searching;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemPage;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.MetaItemField;
+import org.sammelbox.model.database.QueryBuilder;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+public class QueryResultCacheTests {
+	private long defaultMemoryBudget;
+	private String dvdQuery;
+	private String bookQuery;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		TestExecuter.resetTestHome();
+		DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+		dvdQuery = QueryBuilder.createOrderedSelectStarQuery("DVDs");
+		bookQuery = QueryBuilder.createOrderedSelectStarQuery("Books");
+		defaultMemoryBudget = DatabaseOperations.getQueryResultCacheMemoryBudget();
+		DatabaseOperations.clearQueryResultCache();
+		DatabaseOperations.resetQueryResultCacheStatistics();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		DatabaseOperations.setQueryResultCacheMemoryBudget(defaultMemoryBudget);
+		TestExecuter.resetTestHome();
+	}
+
+	@Test
+	public void testRepeatedQueryIsAnsweredFromCache() {
+		try {
+			List<AlbumItem> dvds = DatabaseOperations.getCachedAlbumItems(dvdQuery);
+			assertEquals("The first execution should miss the cache", 1, DatabaseOperations.getQueryResultCacheMissCount());
+
+			assertSame("The repeated query should return the cached items", dvds, DatabaseOperations.getCachedAlbumItems(dvdQuery));
+			assertSame("Whitespace should not affect the cache key", dvds, DatabaseOperations.getCachedAlbumItems("  " + dvdQuery.replace(" ", "\n  ")));
+			assertEquals("Both repetitions should hit the cache", 2, DatabaseOperations.getQueryResultCacheHitCount());
+			assertEquals("The cached items should be the items of the query",
+					DatabaseOperations.getAlbumItems(dvdQuery).size(), dvds.size());
+			assertTrue("The cached items should be accounted for", DatabaseOperations.getQueryResultCacheMemoryUsage() > 0);
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Querying the DVDs failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testWhitespaceWithinLiteralsIsPartOfTheKey() {
+		try {
+			String query = QueryBuilder.createSelectStarQuery("DVDs") + " WHERE 'a b' = 'a b'";
+			String queryWithOtherLiteral = QueryBuilder.createSelectStarQuery("DVDs") + " WHERE 'a b' = 'a  b'";
+
+			List<AlbumItem> allDvds = DatabaseOperations.getCachedAlbumItems(query);
+			List<AlbumItem> noDvds = DatabaseOperations.getCachedAlbumItems(queryWithOtherLiteral);
+
+			assertEquals("Queries with different literals should not share a result", 2, DatabaseOperations.getQueryResultCacheMissCount());
+			assertTrue("The literals of the first query are equal", !allDvds.isEmpty());
+			assertTrue("The literals of the second query differ", noDvds.isEmpty());
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Querying the DVDs failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testCachedItemsCannotBeModified() {
+		try {
+			List<AlbumItem> dvds = DatabaseOperations.getCachedAlbumItems(dvdQuery);
+			dvds.add(dvds.get(0));
+			fail("Cached items are shared and should not be modifiable");
+		} catch (UnsupportedOperationException ex) {
+			// expected
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Querying the DVDs failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testDeletedItemInvalidatesCache() {
+		try {
+			List<AlbumItem> dvds = DatabaseOperations.getCachedAlbumItems(dvdQuery);
+			DatabaseOperations.deleteAlbumItem(dvds.get(0));
+
+			List<AlbumItem> remainingDvds = DatabaseOperations.getCachedAlbumItems(dvdQuery);
+			assertNotSame("The query should be executed again after a write", dvds, remainingDvds);
+			assertEquals("The deleted item should no longer be returned", dvds.size() - 1, remainingDvds.size());
+			assertEquals("The write should have invalidated the cache", 1, DatabaseOperations.getQueryResultCacheInvalidationCount());
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Deleting a DVD failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testChangesToOtherAlbumsKeepCachedResults() {
+		try {
+			List<AlbumItem> dvds = DatabaseOperations.getCachedAlbumItems(dvdQuery);
+			DatabaseOperations.getCachedAlbumItems(bookQuery);
+
+			DatabaseOperations.deleteAlbumItem(DatabaseOperations.getAlbumItem("Books", 1));
+			assertEquals("Only the books should have been dropped", 1, DatabaseOperations.getQueryResultCacheSize());
+			assertSame("The DVDs should still be cached", dvds, DatabaseOperations.getCachedAlbumItems(dvdQuery));
+
+			List<MetaItemField> fields = new ArrayList<MetaItemField>();
+			fields.add(new MetaItemField("Title", FieldType.TEXT, true));
+			DatabaseOperations.createNewAlbum("Games", fields, false);
+			assertSame("Creating an album should not drop the DVDs", dvds, DatabaseOperations.getCachedAlbumItems(dvdQuery));
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Changing the books failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testDatabaseChangeOutsideOfOperationsInvalidatesCache() {
+		try {
+			List<AlbumItem> dvds = DatabaseOperations.getCachedAlbumItems(dvdQuery);
+			DatabaseOperations.clearAlbumSchemaCatalog();
+
+			assertEquals("The memory of the dropped results should be released", 0, DatabaseOperations.getQueryResultCacheMemoryUsage());
+			assertNotSame("A possibly different database should invalidate the cache", dvds, DatabaseOperations.getCachedAlbumItems(dvdQuery));
+			assertEquals("Both queries should have missed the cache", 2, DatabaseOperations.getQueryResultCacheMissCount());
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Querying the DVDs failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testLeastRecentlyUsedResultIsEvicted() {
+		try {
+			DatabaseOperations.getCachedAlbumItems(dvdQuery);
+			long dvdMemoryUsage = DatabaseOperations.getQueryResultCacheMemoryUsage();
+			DatabaseOperations.getCachedAlbumItems(bookQuery);
+			long bookMemoryUsage = DatabaseOperations.getQueryResultCacheMemoryUsage() - dvdMemoryUsage;
+
+			// Only the larger of both results fits
+			DatabaseOperations.setQueryResultCacheMemoryBudget(Math.max(dvdMemoryUsage, bookMemoryUsage));
+			assertEquals("The least recently used result should have been evicted", 1, DatabaseOperations.getQueryResultCacheEvictionCount());
+			assertEquals("The most recently used result should be kept", 1, DatabaseOperations.getQueryResultCacheSize());
+			assertTrue("The cache should stay within its budget",
+					DatabaseOperations.getQueryResultCacheMemoryUsage() <= DatabaseOperations.getQueryResultCacheMemoryBudget());
+
+			DatabaseOperations.resetQueryResultCacheStatistics();
+			DatabaseOperations.getCachedAlbumItems(bookQuery);
+			assertEquals("The books should still be cached", 1, DatabaseOperations.getQueryResultCacheHitCount());
+
+			DatabaseOperations.setQueryResultCacheMemoryBudget(0);
+			DatabaseOperations.getCachedAlbumItems(bookQuery);
+			assertEquals("Without a budget, nothing should be cached", 0, DatabaseOperations.getQueryResultCacheSize());
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Querying the DVDs and books failed: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testRepeatedPageIsAnsweredFromCache() {
+		try {
+			AlbumItemPage firstPage = DatabaseOperations.getFirstAlbumItemPage("DVDs", 2);
+			assertSame("The repeated page should be the cached page", firstPage, DatabaseOperations.getFirstAlbumItemPage("DVDs", 2));
+			assertNotSame("Pages of another size should not share a result", firstPage, DatabaseOperations.getFirstAlbumItemPage("DVDs", 3));
+		} catch (DatabaseWrapperOperationException ex) {
+			fail("Paging through the DVDs failed: " + ex.getMessage());
+		}
+	}
+}
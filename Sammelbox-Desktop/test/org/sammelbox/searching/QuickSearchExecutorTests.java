@@ -0,0 +1,218 @@
+/** -----------------------------------------------------------------
+ *    Sammelbox: Collection Manager - A free and open-source collection manager for Windows & Linux
+ *    Copyright (C) 2011 Jerome Wagener & Paul Bicheler
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ** ----------------------------------------------------------------- */
+
+package org.sammelbox.searching;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.sammelbox.TestExecuter;
+import org.sammelbox.controller.managers.ConnectionManager;
+import org.sammelbox.controller.managers.ConnectionMetrics;
+import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.controller.managers.QuickSearchExecutor;
+import org.sammelbox.controller.managers.QuickSearchExecutor.QuickSearchResultConsumer;
+import org.sammelbox.model.album.AlbumItem;
+import org.sammelbox.model.album.AlbumItemStore;
+import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
+import org.sammelbox.model.database.operations.DatabaseOperations;
+
+public class QuickSearchExecutorTests {
+	private static final long DEBOUNCE_DELAY_IN_MILLISECONDS = 100;
+	private static final long TIMEOUT_IN_MILLISECONDS = 10000;
+	
+	private QuickSearchExecutor quickSearchExecutor;
+	private List<List<AlbumItem>> deliveredResults;
+	private CountDownLatch deliveryLatch;
+	
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		TestExecuter.resetTestHome();
+	}
+
+	@Before
+	public void setUp() {
+		TestExecuter.resetTestHome();
+		DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+		
+		// Results are consumed directly on the worker thread instead of the UI thread
+		quickSearchExecutor = new QuickSearchExecutor(DEBOUNCE_DELAY_IN_MILLISECONDS, new Executor() {
+			@Override
+			public void execute(Runnable runnable) {
+				runnable.run();
+			}
+		});
+		deliveredResults = new ArrayList<List<AlbumItem>>();
+		deliveryLatch = new CountDownLatch(1);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		quickSearchExecutor.shutdown();
+		TestExecuter.resetTestHome();
+	}
+
+	@Test
+	public void testOnlyNewestSearchIsDelivered() throws InterruptedException {
+		quickSearchExecutor.submit("DVDs", Arrays.asList("S"), createResultConsumer());
+		quickSearchExecutor.submit("DVDs", Arrays.asList("Sm"), createResultConsumer());
+		quickSearchExecutor.submit("DVDs", Arrays.asList("Smith"), createResultConsumer());
+		
+		assertTrue("The newest search should be delivered", deliveryLatch.await(TIMEOUT_IN_MILLISECONDS, TimeUnit.MILLISECONDS));
+		// Give outdated searches the opportunity to (wrongly) deliver their results
+		Thread.sleep(2 * DEBOUNCE_DELAY_IN_MILLISECONDS);
+		
+		synchronized (deliveredResults) {
+			assertEquals("Only a single result should be delivered", 1, deliveredResults.size());
+			assertEquals("The result should belong to the newest search", 2, deliveredResults.get(0).size());
+		}
+		assertEquals("All searches should be counted", 3, quickSearchExecutor.getNumberOfSubmittedSearches());
+		assertEquals("Only the newest search should be delivered", 1, quickSearchExecutor.getNumberOfDeliveredSearches());
+	}
+	
+	@Test
+	public void testCancelledSearchIsNotDelivered() throws InterruptedException {
+		quickSearchExecutor.submit("DVDs", Arrays.asList("Smith"), createResultConsumer());
+		quickSearchExecutor.cancel();
+		
+		if (deliveryLatch.await(3 * DEBOUNCE_DELAY_IN_MILLISECONDS, TimeUnit.MILLISECONDS)) {
+			fail("A cancelled search must not be delivered");
+		}
+		assertEquals("No search should be delivered", 0, quickSearchExecutor.getNumberOfDeliveredSearches());
+	}
+	
+	@Test
+	public void testLatencyIsRecorded() throws InterruptedException {
+		quickSearchExecutor.submit("DVDs", null, createResultConsumer());
+		
+		assertTrue("The search should be delivered", deliveryLatch.await(TIMEOUT_IN_MILLISECONDS, TimeUnit.MILLISECONDS));
+		Thread.sleep(DEBOUNCE_DELAY_IN_MILLISECONDS);
+		
+		assertTrue("The latency includes the debounce delay", 
+				quickSearchExecutor.getLastLatencyInMilliseconds() >= DEBOUNCE_DELAY_IN_MILLISECONDS);
+		assertEquals("With a single search, the average latency is the last latency", 
+				quickSearchExecutor.getLastLatencyInMilliseconds(), quickSearchExecutor.getAverageLatencyInMilliseconds());
+		
+		quickSearchExecutor.resetMetrics();
+		assertEquals("The metrics should be reset", 0, quickSearchExecutor.getNumberOfDeliveredSearches());
+	}
+	
+	@Test
+	public void testRefinementIsFilteredInMemory() throws InterruptedException, DatabaseWrapperOperationException {
+		assertEquals("All Smiths should be found", 2, searchAndWait("Smi").size());
+		
+		List<AlbumItem> refinedItems = searchAndWait("Smith");
+		assertEquals("The extended term should be answered without the database", 1, quickSearchExecutor.getNumberOfRefinedSearches());
+		assertEquals("The refined result should equal the database result", 
+				getAlbumItemIds(queryDatabase("Smith")), getAlbumItemIds(refinedItems));
+	}
+	
+	@Test
+	public void testShortenedTermQueriesDatabase() throws InterruptedException {
+		assertEquals("Both Smiths should be found", 2, searchAndWait("Smith").size());
+		assertEquals("Both Smiths should still be found", 2, searchAndWait("Smi").size());
+		
+		assertEquals("A shortened term cannot be answered in memory", 0, quickSearchExecutor.getNumberOfRefinedSearches());
+	}
+	
+	@Test
+	public void testDatabaseChangePreventsRefinement() throws InterruptedException, DatabaseWrapperOperationException {
+		List<AlbumItem> albumItems = searchAndWait("Smi");
+		assertEquals("Both Smiths should be found", 2, albumItems.size());
+		
+		DatabaseOperations.deleteAlbumItem(albumItems.get(0));
+		
+		assertEquals("The deleted item must not be found anymore", 1, searchAndWait("Smith").size());
+		assertEquals("A result read before a change cannot be refined", 0, quickSearchExecutor.getNumberOfRefinedSearches());
+	}
+	
+	@Test
+	public void testSearchReadsCommittedStateOnReadOnlyConnection() throws InterruptedException, DatabaseWrapperOperationException {
+		AlbumItem deletedItem = queryDatabase("Smith").get(0);
+		ConnectionManager.resetConnectionMetrics();
+		
+		String savepointName = DatabaseIntegrityManager.createSavepoint();
+		try {
+			DatabaseOperations.deleteAlbumItem(deletedItem);
+			
+			assertEquals("The uncommitted deletion must not be seen by the search", 2, searchAndWait("Smith").size());
+			assertTrue("The search should borrow a read-only connection", getReadOnlyAcquisitionCount() > 0);
+		} finally {
+			DatabaseIntegrityManager.rollbackToSavepoint(savepointName);
+			DatabaseIntegrityManager.releaseSavepoint(savepointName);
+		}
+	}
+	
+	private List<AlbumItem> searchAndWait(String quickSearchTerm) throws InterruptedException {
+		deliveryLatch = new CountDownLatch(1);
+		quickSearchExecutor.submit("DVDs", Arrays.asList(quickSearchTerm), createResultConsumer());
+		
+		assertTrue("The search should be delivered", deliveryLatch.await(TIMEOUT_IN_MILLISECONDS, TimeUnit.MILLISECONDS));
+		synchronized (deliveredResults) {
+			return deliveredResults.get(deliveredResults.size() - 1);
+		}
+	}
+	
+	private static List<AlbumItem> queryDatabase(String quickSearchTerm) throws DatabaseWrapperOperationException {
+		return AlbumItemStore.readAlbumItems(DatabaseOperations.executeQuickSearch("DVDs", Arrays.asList(quickSearchTerm)), new AtomicBoolean(false));
+	}
+	
+	private static long getReadOnlyAcquisitionCount() {
+		long acquisitionCount = 0;
+		// The first metrics belong to the writer connection
+		for (ConnectionMetrics connectionMetrics : ConnectionManager.getConnectionMetrics().subList(1, ConnectionManager.getConnectionMetrics().size())) {
+			acquisitionCount += connectionMetrics.getAcquisitionCount();
+		}
+		
+		return acquisitionCount;
+	}
+	
+	private static List<Long> getAlbumItemIds(List<AlbumItem> albumItems) {
+		List<Long> albumItemIds = new ArrayList<Long>();
+		for (AlbumItem albumItem : albumItems) {
+			albumItemIds.add(albumItem.getItemId());
+		}
+		
+		return albumItemIds;
+	}
+	
+	private QuickSearchResultConsumer createResultConsumer() {
+		return new QuickSearchResultConsumer() {
+			@Override
+			public void consume(String albumName, List<AlbumItem> albumItems) {
+				synchronized (deliveredResults) {
+					deliveredResults.add(albumItems);
+				}
+				deliveryLatch.countDown();
+			}
+		};
+	}
+}
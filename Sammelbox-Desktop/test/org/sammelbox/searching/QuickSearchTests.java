@@ -18,10 +18,13 @@
 
 package org.sammelbox.searching;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -30,13 +33,18 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.sammelbox.TestExecuter;
 import org.sammelbox.controller.managers.DatabaseIntegrityManager;
+import org.sammelbox.model.album.AlbumItem;
 import org.sammelbox.model.album.AlbumItemResultSet;
+import org.sammelbox.model.album.FieldType;
+import org.sammelbox.model.album.ItemField;
 import org.sammelbox.model.album.MetaItemField;
 import org.sammelbox.model.database.DatabaseStringUtilities;
 import org.sammelbox.model.database.exceptions.DatabaseWrapperOperationException;
 import org.sammelbox.model.database.operations.DatabaseOperations;
 
 public class QuickSearchTests {
+	private static final String FULL_TEXT_ALBUM_NAME = "Fruit Books";
+	
 	@BeforeClass
 	public static void setUpBeforeClass() throws Exception {
 	}
@@ -166,4 +174,114 @@ public class QuickSearchTests {
 			fail("Failed due to internal database error");
 		}
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void testFullTextQuickSearchMatchesPrefixes() {
+		try {
+			createFullTextAlbum();
+			
+			assertEquals("Prefixes of words should match", Arrays.asList("Green Apple", "Red Apple"), 
+					quickSearchTitles(FULL_TEXT_ALBUM_NAME, "smi"));
+			assertEquals("The search should not be case sensitive", Arrays.asList("Green Apple", "Red Apple"), 
+					quickSearchTitles(FULL_TEXT_ALBUM_NAME, "SMITH"));
+			assertEquals("Fields which are not quick-searchable should not match", Arrays.asList("Green Apple"), 
+					quickSearchTitles(FULL_TEXT_ALBUM_NAME, "green"));
+			assertEquals("Numeric quick-searchable fields should match", Arrays.asList("Red Car"), 
+					quickSearchTitles(FULL_TEXT_ALBUM_NAME, "200"));
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+	
+	@Test
+	public void testFullTextQuickSearchRanksByRelevance() {
+		try {
+			createFullTextAlbum();
+			
+			List<String> titles = quickSearchTitles(FULL_TEXT_ALBUM_NAME, "red", "apple");
+			assertEquals("All items containing any of the terms should be found", 3, titles.size());
+			assertEquals("The item matching both terms should be ranked first", "Red Apple", titles.get(0));
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+	
+	@Test
+	public void testFullTextIndexFollowsItemChanges() {
+		try {
+			createFullTextAlbum();
+			
+			AlbumItem redCar = DatabaseOperations.getAlbumItem(FULL_TEXT_ALBUM_NAME, 2);
+			redCar.getField("Title").setValue("Blue Car");
+			DatabaseOperations.updateAlbumItem(redCar);
+			assertEquals("Updated items should be found by their new values", Arrays.asList("Blue Car"), 
+					quickSearchTitles(FULL_TEXT_ALBUM_NAME, "blue"));
+			assertEquals("Updated items should not be found by their old values", Arrays.asList("Red Apple"), 
+					quickSearchTitles(FULL_TEXT_ALBUM_NAME, "red"));
+			
+			DatabaseOperations.deleteAlbumItem(DatabaseOperations.getAlbumItem(FULL_TEXT_ALBUM_NAME, 1));
+			assertEquals("Deleted items should not be found", Arrays.asList("Green Apple"), 
+					quickSearchTitles(FULL_TEXT_ALBUM_NAME, "apple"));
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+	
+	@Test
+	public void testFullTextIndexIsBuiltForExistingAlbums() {
+		try {
+			// The albums of the test database have been created without full text index and are searched using the fallback
+			DatabaseIntegrityManager.restoreFromFile(TestExecuter.PATH_TO_TEST_CBK);
+			List<String> fallbackTitles = quickSearchTitles("DVDs", "Smith");
+			
+			DatabaseOperations.updateQuickSearchable("DVDs", new MetaItemField("Actors", FieldType.TEXT, true));
+			List<String> fullTextTitles = quickSearchTitles("DVDs", "Smith");
+			
+			assertEquals("Rebuilding the index should not change the result", fallbackTitles, fullTextTitles);
+			assertEquals("Resultset should contain 2 items", 2, fullTextTitles.size());
+			assertEquals("Prefixes of words should match", fullTextTitles, quickSearchTitles("DVDs", "smi"));
+			
+			DatabaseOperations.renameAlbum("DVDs", "Movies");
+			assertEquals("The full text index should survive renaming the album", fullTextTitles, quickSearchTitles("Movies", "Smith"));
+		} catch (DatabaseWrapperOperationException e) {
+			fail("Failed due to internal database error");
+		}
+	}
+	
+	private void createFullTextAlbum() throws DatabaseWrapperOperationException {
+		List<MetaItemField> fields = new ArrayList<MetaItemField>();
+		fields.add(new MetaItemField("Title", FieldType.TEXT, true));
+		fields.add(new MetaItemField("Author", FieldType.TEXT, true));
+		fields.add(new MetaItemField("Pages", FieldType.INTEGER, true));
+		fields.add(new MetaItemField("Notes", FieldType.TEXT, false));
+		DatabaseOperations.createNewAlbum(FULL_TEXT_ALBUM_NAME, fields, false);
+		
+		addFullTextAlbumItem("Red Apple", "Anna Smith", 100, "Sweet");
+		addFullTextAlbumItem("Red Car", "John Doe", 200, "Fast");
+		addFullTextAlbumItem("Green Apple", "Jane Smithers", 300, "Green and sour");
+	}
+	
+	private void addFullTextAlbumItem(String title, String author, int pages, String notes) throws DatabaseWrapperOperationException {
+		List<ItemField> fields = new ArrayList<ItemField>();
+		fields.add(new ItemField("Title", FieldType.TEXT, title));
+		fields.add(new ItemField("Author", FieldType.TEXT, author));
+		fields.add(new ItemField("Pages", FieldType.INTEGER, pages));
+		fields.add(new ItemField("Notes", FieldType.TEXT, notes));
+		DatabaseOperations.addAlbumItem(new AlbumItem(FULL_TEXT_ALBUM_NAME, fields), true);
+	}
+	
+	private List<String> quickSearchTitles(String albumName, String... quickSearchTerms) throws DatabaseWrapperOperationException {
+		AlbumItemResultSet searchResults = DatabaseOperations.executeQuickSearch(albumName, Arrays.asList(quickSearchTerms));
+		List<String> titles = new ArrayList<String>();
+		
+		while (searchResults.moveToNext()) {
+			for (int i=1; i<searchResults.getFieldCount(); i++) {
+				if (searchResults.getFieldName(i).equals("Title")) {
+					titles.add((String) searchResults.getFieldValue(i));
+				}
+			}
+		}
+		
+		return titles;
+	}
+}